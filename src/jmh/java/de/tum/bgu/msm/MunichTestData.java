@@ -0,0 +1,79 @@
+package de.tum.bgu.msm;
+
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.MitoHousehold;
+import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.util.munich.MunichImplementationConfig;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark fixture with the stand-alone input of the Munich test scenario in test/muc (zones, synthetic
+ * population, skims and mode choice input). The data is read once per fork and shared by all benchmark
+ * threads; benchmarks must not modify it.
+ */
+@State(Scope.Benchmark)
+public class MunichTestData {
+
+    public static final String PROPERTIES = "./test/muc/test.properties";
+
+    private DataSet dataSet;
+    private MitoZone[] zones;
+    private MitoHousehold[] households;
+
+    @Setup(Level.Trial)
+    public void load() {
+        dataSet = MitoModel.standAloneModel(PROPERTIES, MunichImplementationConfig.get()).getData();
+        zones = dataSet.getZones().values().toArray(new MitoZone[0]);
+        final List<MitoHousehold> householdsWithPersons = new ArrayList<>();
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            if (!household.getPersons().isEmpty() && household.getHomeZone() != null) {
+                householdsWithPersons.add(household);
+            }
+        }
+        households = householdsWithPersons.toArray(new MitoHousehold[0]);
+    }
+
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    public MitoZone[] getZones() {
+        return zones;
+    }
+
+    /**
+     * Households that have at least one person and a home zone.
+     */
+    public MitoHousehold[] getHouseholds() {
+        return households;
+    }
+
+    /**
+     * Draws the given number of zones with replacement.
+     */
+    public MitoZone[] randomZones(int size, Random random) {
+        final MitoZone[] sample = new MitoZone[size];
+        for (int i = 0; i < size; i++) {
+            sample[i] = zones[random.nextInt(zones.length)];
+        }
+        return sample;
+    }
+
+    /**
+     * Draws the given number of households with replacement.
+     */
+    public MitoHousehold[] randomHouseholds(int size, Random random) {
+        final MitoHousehold[] sample = new MitoHousehold[size];
+        for (int i = 0; i < size; i++) {
+            sample[i] = households[random.nextInt(households.length)];
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,53 @@
+package de.tum.bgu.msm.data.travelTimes;
+
+import de.tum.bgu.msm.MunichTestData;
+import de.tum.bgu.msm.data.MitoZone;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Travel time lookups between random zone pairs of the test scenario. "pt" is the minimum over the bus,
+ * train and tram/metro skims.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SkimTravelTimesBenchmark {
+
+    private static final int LOOKUPS = 4096;
+
+    @Param({"car", "bus", "pt"})
+    private String mode;
+
+    private TravelTimes travelTimes;
+    private double peakHour;
+    private MitoZone[] origins;
+    private MitoZone[] destinations;
+
+    @Setup
+    public void setup(MunichTestData data) {
+        travelTimes = data.getDataSet().getTravelTimes();
+        if (!(travelTimes instanceof SkimTravelTimes)) {
+            throw new IllegalStateException("Expected skim travel times but got " + travelTimes.getClass());
+        }
+        peakHour = data.getDataSet().getPeakHour();
+        final Random random = new Random(42);
+        origins = data.randomZones(LOOKUPS, random);
+        destinations = data.randomZones(LOOKUPS, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public double getTravelTime() {
+        double sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += travelTimes.getTravelTime(origins[i], destinations[i], peakHour, mode);
+        }
+        return sum;
+    }
+}
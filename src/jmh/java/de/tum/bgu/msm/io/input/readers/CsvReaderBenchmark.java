@@ -0,0 +1,83 @@
+package de.tum.bgu.msm.io.input.readers;
+
+import de.tum.bgu.msm.MunichTestData;
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.munich.MunichImplementationConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the stand-alone input files of the test scenario. Every invocation reads into a fresh data set;
+ * the inputs a reader depends on (zones, and households, jobs and schools for the persons) are read
+ * beforehand and are not measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvReaderBenchmark {
+
+    private DataSet dataSet;
+
+    /**
+     * Depends on {@link MunichTestData} so that the resources of the test scenario are initialized.
+     */
+    @Setup(Level.Invocation)
+    public void setup(MunichTestData data) {
+        dataSet = new DataSet();
+        dataSet.setYear(Resources.instance.getInt(Properties.SCENARIO_YEAR));
+        new ZonesReader(dataSet).read();
+    }
+
+    @Benchmark
+    public DataSet readZones() {
+        final DataSet zones = new DataSet();
+        new ZonesReader(zones).read();
+        return zones;
+    }
+
+    @Benchmark
+    public DataSet readHouseholds() {
+        new HouseholdsReader(dataSet).read();
+        return dataSet;
+    }
+
+    @Benchmark
+    public DataSet readJobs() {
+        new JobReader(dataSet, MunichImplementationConfig.get().getJobTypeFactory()).read();
+        return dataSet;
+    }
+
+    @Benchmark
+    public DataSet readSchools() {
+        new SchoolsReader(dataSet).read();
+        return dataSet;
+    }
+
+    @Benchmark
+    public DataSet readPersons(PersonsInput input) {
+        new PersonsReader(input.dataSet).read();
+        return input.dataSet;
+    }
+
+    @State(Scope.Thread)
+    public static class PersonsInput {
+
+        private DataSet dataSet;
+
+        @Setup(Level.Invocation)
+        public void setup(MunichTestData data) {
+            dataSet = new DataSet();
+            dataSet.setYear(Resources.instance.getInt(Properties.SCENARIO_YEAR));
+            new ZonesReader(dataSet).read();
+            new JobReader(dataSet, MunichImplementationConfig.get().getJobTypeFactory()).read();
+            new SchoolsReader(dataSet).read();
+            new HouseholdsReader(dataSet).read();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package de.tum.bgu.msm.modules.modeChoice;
+
+import de.tum.bgu.msm.MunichTestData;
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.MitoHousehold;
+import de.tum.bgu.msm.data.MitoPerson;
+import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.data.Mode;
+import de.tum.bgu.msm.data.Purpose;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import de.tum.bgu.msm.modules.modeChoice.calculators.CachedModeChoiceCalculatorImpl;
+import de.tum.bgu.msm.modules.modeChoice.calculators.ModeChoiceCalculatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode choice probabilities of synthetic trips: a random person of the test population travels from its
+ * home zone to a random zone. Compares the plain calculator with the one caching origin-destination
+ * utilities.
+ */
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModeChoiceCalculatorBenchmark {
+
+    private static final int TRIPS = 4096;
+
+    @Param({"HBW", "HBO", "NHBO"})
+    private Purpose purpose;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private ModeChoiceCalculator calculator;
+    private TravelTimes travelTimes;
+    private double peakHour;
+
+    private MitoHousehold[] households;
+    private MitoPerson[] persons;
+    private MitoZone[] destinations;
+    private double[] distancesAuto;
+    private double[] distancesNMT;
+    private final double[] probabilities = new double[ModeChoiceCalculator.NUMBER_OF_MODES];
+
+    @Setup
+    public void setup(MunichTestData data) {
+        final DataSet dataSet = data.getDataSet();
+        calculator = cached ? new CachedModeChoiceCalculatorImpl(64L << 20) : new ModeChoiceCalculatorImpl();
+        travelTimes = dataSet.getTravelTimes();
+        peakHour = dataSet.getPeakHour();
+
+        final Random random = new Random(42);
+        households = data.randomHouseholds(TRIPS, random);
+        destinations = data.randomZones(TRIPS, random);
+        persons = new MitoPerson[TRIPS];
+        distancesAuto = new double[TRIPS];
+        distancesNMT = new double[TRIPS];
+        for (int i = 0; i < TRIPS; i++) {
+            final MitoPerson[] members = households[i].getPersons().values().toArray(new MitoPerson[0]);
+            persons[i] = members[random.nextInt(members.length)];
+            final int origin = households[i].getHomeZone().getId();
+            final int destination = destinations[i].getId();
+            distancesAuto[i] = dataSet.getTravelDistancesAuto().getTravelDistance(origin, destination);
+            distancesNMT[i] = dataSet.getTravelDistancesNMT().getTravelDistance(origin, destination);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPS)
+    public double calculateProbabilities() {
+        double sum = 0;
+        for (int i = 0; i < TRIPS; i++) {
+            calculator.calculateProbabilities(purpose, households[i], persons[i], households[i].getHomeZone(),
+                    destinations[i], travelTimes, distancesAuto[i], distancesNMT[i], peakHour, probabilities);
+            sum += probabilities[Mode.autoDriver.ordinal()];
+        }
+        return sum;
+    }
+}
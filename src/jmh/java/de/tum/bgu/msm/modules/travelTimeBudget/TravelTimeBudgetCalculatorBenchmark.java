@@ -0,0 +1,43 @@
+package de.tum.bgu.msm.modules.travelTimeBudget;
+
+import de.tum.bgu.msm.MunichTestData;
+import de.tum.bgu.msm.data.MitoHousehold;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Travel time budgets of random households of the test population.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TravelTimeBudgetCalculatorBenchmark {
+
+    private static final int HOUSEHOLDS = 4096;
+
+    @Param({"Total", "HBS", "HBO", "NHBW", "NHBO"})
+    private String purpose;
+
+    private final TravelTimeBudgetCalculator calculator = new TravelTimeBudgetCalculatorImpl();
+    private MitoHousehold[] households;
+
+    @Setup
+    public void setup(MunichTestData data) {
+        households = data.randomHouseholds(HOUSEHOLDS, new Random(42));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOUSEHOLDS)
+    public double calculateBudget() {
+        double sum = 0;
+        for (MitoHousehold household : households) {
+            sum += calculator.calculateBudget(household, purpose);
+        }
+        return sum;
+    }
+}
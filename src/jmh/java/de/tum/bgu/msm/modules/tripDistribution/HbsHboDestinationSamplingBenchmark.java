@@ -0,0 +1,78 @@
+package de.tum.bgu.msm.modules.tripDistribution;
+
+import de.tum.bgu.msm.MunichTestData;
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.MitoHousehold;
+import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.data.Purpose;
+import de.tum.bgu.msm.modules.tripDistribution.destinationChooser.HbsHboDistribution;
+import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Destination sampling as done by {@link HbsHboDistribution}: look up the cumulative distribution of the home
+ * zone and the adjusted budget, then draw a destination. Base probabilities are computed with the purpose's
+ * destination utility from the zonal employment of the test scenario, budgets are drawn between 10 and 90
+ * minutes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HbsHboDestinationSamplingBenchmark {
+
+    private static final int TRIPS = 4096;
+
+    @Param({"HBS", "HBO"})
+    private Purpose purpose;
+
+    @Param({"false", "true"})
+    private boolean exact;
+
+    private DestinationSampler sampler;
+    private int[] origins;
+    private double[] budgets;
+    private Random random;
+
+    @Setup
+    public void setup(MunichTestData data) {
+        final DataSet dataSet = data.getDataSet();
+        final DestinationUtilityCalculator calculator = new DestinationUtilityCalculatorImpl(purpose);
+        final IndexedDoubleMatrix2D baseProbabilities = new IndexedDoubleMatrix2D(dataSet.getZones().values(), dataSet.getZones().values());
+        for (MitoZone origin : dataSet.getZones().values()) {
+            for (MitoZone destination : dataSet.getZones().values()) {
+                baseProbabilities.setIndexed(origin.getId(), destination.getId(), calculator.calculateUtility(
+                        destination.getTotalEmpl() + 1,
+                        dataSet.getTravelDistancesNMT().getTravelDistance(origin.getId(), destination.getId())));
+            }
+        }
+        sampler = new DestinationSampler(baseProbabilities, dataSet.getZones(), dataSet.getTravelTimes(),
+                dataSet.getPeakHour(), HbsHboDistribution.TRAVEL_TIME_FACTOR, HbsHboDistribution.VARIANCE,
+                1., exact, 64L << 20);
+
+        random = new Random(42);
+        final MitoHousehold[] households = data.randomHouseholds(TRIPS, random);
+        origins = new int[TRIPS];
+        budgets = new double[TRIPS];
+        for (int i = 0; i < TRIPS; i++) {
+            origins[i] = households[i].getHomeZone().getId();
+            budgets[i] = 10 + random.nextDouble() * 80;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPS)
+    public int sample() {
+        int sum = 0;
+        for (int i = 0; i < TRIPS; i++) {
+            final MitoZone destination = sampler.sample(origins[i], budgets[i], random);
+            sum += destination == null ? 0 : destination.getId();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,104 @@
+package de.tum.bgu.msm.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the nested logit of the mode choice calculators as it was formulated before the {@link LogitKernel}
+ * with the kernel using {@link Math#exp(double)} and {@link LogitKernel#fastExp(double)}. Each invocation
+ * evaluates a block of trips with the seven base modes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LogitKernelBenchmark {
+
+    private static final double NESTING_COEFFICIENT = 0.25;
+    private static final int ALTERNATIVES = 7;
+    private static final int[][] NESTS = {{0, 1}, {3, 4, 5}, {2}, {6}};
+    private static final double[] NESTING_COEFFICIENTS = {NESTING_COEFFICIENT, NESTING_COEFFICIENT, 1., 1.};
+
+    @Param({"1024"})
+    private int trips;
+
+    private double[] utilities;
+    private double[] probabilities;
+    private final double[] row = new double[ALTERNATIVES];
+
+    private LogitKernel exactKernel;
+    private LogitKernel fastKernel;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        utilities = new double[trips * ALTERNATIVES];
+        for (int i = 0; i < utilities.length; i++) {
+            utilities[i] = random.nextGaussian() * 2;
+        }
+        probabilities = new double[utilities.length];
+        exactKernel = LogitKernel.nested(NESTS, NESTING_COEFFICIENTS, false);
+        fastKernel = LogitKernel.nested(NESTS, NESTING_COEFFICIENTS, true);
+    }
+
+    @Benchmark
+    public void closedForm(Blackhole blackhole) {
+        for (int trip = 0; trip < trips; trip++) {
+            System.arraycopy(utilities, trip * ALTERNATIVES, row, 0, ALTERNATIVES);
+            closedFormProbabilities(row);
+            blackhole.consume(row);
+        }
+    }
+
+    @Benchmark
+    public double[] kernel() {
+        exactKernel.calculateProbabilities(utilities, probabilities, trips, ALTERNATIVES);
+        return probabilities;
+    }
+
+    @Benchmark
+    public double[] kernelFastExp() {
+        fastKernel.calculateProbabilities(utilities, probabilities, trips, ALTERNATIVES);
+        return probabilities;
+    }
+
+    @Benchmark
+    public void kernelPerTrip(Blackhole blackhole) {
+        for (int trip = 0; trip < trips; trip++) {
+            System.arraycopy(utilities, trip * ALTERNATIVES, row, 0, ALTERNATIVES);
+            exactKernel.calculateProbabilities(row, row);
+            blackhole.consume(row);
+        }
+    }
+
+    /**
+     * The nested logit as previously written out in ModeChoiceCalculatorImpl, in place.
+     */
+    private static void closedFormProbabilities(double[] u) {
+        final double mu = NESTING_COEFFICIENT;
+        double expsumNestAuto = Math.exp(u[0] / mu) + Math.exp(u[1] / mu);
+        double expsumNestTransit = Math.exp(u[3] / mu) + Math.exp(u[4] / mu) + Math.exp(u[5] / mu);
+        double expsumTopLevel = Math.exp(mu * Math.log(expsumNestAuto)) + Math.exp(u[2]) + Math.exp(u[6]) + Math.exp(mu * Math.log(expsumNestTransit));
+
+        double probabilityAutoD = (Math.exp(u[0] / mu) / expsumNestAuto) * (Math.exp(mu * Math.log(expsumNestAuto)) / expsumTopLevel);
+        double probabilityAutoP = (Math.exp(u[1] / mu) / expsumNestAuto) * (Math.exp(mu * Math.log(expsumNestAuto)) / expsumTopLevel);
+        double probabilityBus = (Math.exp(u[3] / mu) / expsumNestTransit) * (Math.exp(mu * Math.log(expsumNestTransit)) / expsumTopLevel);
+        double probabilityTrain = (Math.exp(u[4] / mu) / expsumNestTransit) * (Math.exp(mu * Math.log(expsumNestTransit)) / expsumTopLevel);
+        double probabilityTramMetro = (Math.exp(u[5] / mu) / expsumNestTransit) * (Math.exp(mu * Math.log(expsumNestTransit)) / expsumTopLevel);
+        double probabilityBicycle = Math.exp(u[2]) / expsumTopLevel;
+        double probabilityWalk = Math.exp(u[6]) / expsumTopLevel;
+
+        u[0] = probabilityAutoD;
+        u[1] = probabilityAutoP;
+        u[2] = probabilityBicycle;
+        u[3] = probabilityBus;
+        u[4] = probabilityTrain;
+        u[5] = probabilityTramMetro;
+        u[6] = probabilityWalk;
+    }
+}
@@ -0,0 +1,51 @@
+package de.tum.bgu.msm.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discrete draws with {@link MitoUtil#select}, for the number of modes and for destination choice sets of
+ * the test and the Munich zone system.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MitoUtilBenchmark {
+
+    @Param({"7", "70", "4000"})
+    private int alternatives;
+
+    private double[] probabilities;
+    private double sum;
+    private Map<Integer, Double> mappedProbabilities;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        probabilities = new double[alternatives];
+        mappedProbabilities = new HashMap<>();
+        for (int i = 0; i < alternatives; i++) {
+            probabilities[i] = random.nextDouble();
+            sum += probabilities[i];
+            mappedProbabilities.put(i, probabilities[i]);
+        }
+    }
+
+    @Benchmark
+    public int selectArray() {
+        return MitoUtil.select(probabilities, random, sum);
+    }
+
+    @Benchmark
+    public Integer selectMap() {
+        return MitoUtil.select(mappedProbabilities, random, sum);
+    }
+}
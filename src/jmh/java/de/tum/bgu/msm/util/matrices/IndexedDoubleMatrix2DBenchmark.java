@@ -0,0 +1,64 @@
+package de.tum.bgu.msm.util.matrices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random cell lookups by zone id, with consecutive zone ids (dense lookup) and with gaps in the zone ids
+ * like in the Munich zone system.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IndexedDoubleMatrix2DBenchmark {
+
+    private static final int LOOKUPS = 4096;
+
+    @Param({"70", "2000"})
+    private int zones;
+
+    @Param({"true", "false"})
+    private boolean consecutiveIds;
+
+    private IndexedDoubleMatrix2D matrix;
+    private int[] origins;
+    private int[] destinations;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final int[] ids = new int[zones];
+        int id = 0;
+        for (int i = 0; i < zones; i++) {
+            id += consecutiveIds ? 1 : 1 + random.nextInt(10);
+            ids[i] = id;
+        }
+        matrix = new IndexedDoubleMatrix2D(ids, ids);
+        for (int origin : ids) {
+            for (int destination : ids) {
+                matrix.setIndexed(origin, destination, random.nextDouble() * 60);
+            }
+        }
+        origins = new int[LOOKUPS];
+        destinations = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            origins[i] = ids[random.nextInt(zones)];
+            destinations[i] = ids[random.nextInt(zones)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public double getIndexed() {
+        double sum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sum += matrix.getIndexed(origins[i], destinations[i]);
+        }
+        return sum;
+    }
+}
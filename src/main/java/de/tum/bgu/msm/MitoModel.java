@@ -1,12 +1,14 @@
 package de.tum.bgu.msm;
 
 import de.tum.bgu.msm.data.DataSet;
-import de.tum.bgu.msm.data.travelTimes.SkimTravelTimes;
+import de.tum.bgu.msm.data.travelTimes.TimeSlicedSkimTravelTimes;
 import de.tum.bgu.msm.io.input.readers.*;
+import de.tum.bgu.msm.io.output.RunReportWriter;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.ImplementationConfig;
 import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.metrics.RunMetrics;
 import org.apache.log4j.Logger;
 
 import java.util.Random;
@@ -40,13 +42,19 @@ public final class MitoModel {
         this.dataSet = dataSet;
         this.scenarioName = scenarioName;
         MitoUtil.initializeRandomNumber();
+        RunMetrics.reset();
+        if (Resources.instance.getBoolean(Properties.METRICS_JMX, false)) {
+            RunMetrics.registerMBean();
+        }
     }
 
     public static MitoModel standAloneModel(String propertiesFile, ImplementationConfig config) {
         logger.info(" Creating standalone version of MITO ");
         Resources.initializeResources(propertiesFile);
         MitoModel model = new MitoModel(new DataSet(), Resources.instance.getString(Properties.SCENARIO_NAME));
-        model.readStandAlone(config);
+        try (RunMetrics.Stage ignored = RunMetrics.start("Input")) {
+            model.readStandAlone(config);
+        }
         return model;
     }
 
@@ -54,10 +62,12 @@ public final class MitoModel {
         logger.info(" Initializing MITO from SILO");
         Resources.initializeResources(propertiesFile);
         MitoModel model = new MitoModel(dataSet, scenarioName);
-        new OmxSkimsReader(dataSet).readOnlyTransitTravelTimes();
-        new OmxSkimsReader(dataSet).readSkimDistancesNMT();
-        new OmxSkimsReader(dataSet).readSkimDistancesAuto();
-        model.readAdditionalData();
+        try (RunMetrics.Stage ignored = RunMetrics.start("Input")) {
+            new OmxSkimsReader(dataSet).readOnlyTransitTravelTimes();
+            new OmxSkimsReader(dataSet).readSkimDistancesNMT();
+            new OmxSkimsReader(dataSet).readSkimDistancesAuto();
+            model.readAdditionalData();
+        }
         return model;
     }
 
@@ -68,20 +78,16 @@ public final class MitoModel {
         TravelDemandGenerator ttd = new TravelDemandGenerator.Builder(dataSet).build();
         ttd.generateTravelDemand(scenarioName);
         printOutline(startTime);
+        if (Resources.instance.getBoolean(Properties.RUN_REPORT, true)) {
+            RunReportWriter.writeRunReport(dataSet, scenarioName, RunMetrics.getCompletedStages());
+        }
     }
 
     private void readStandAlone(ImplementationConfig config) {
         dataSet.setYear(Resources.instance.getInt(Properties.SCENARIO_YEAR));
-        new ZonesReader(dataSet).read();
-        if (Resources.instance.getBoolean(Properties.REMOVE_TRIPS_AT_BORDER)) {
-            new BorderDampersReader(dataSet).read();
-        }
-        new JobReader(dataSet, config.getJobTypeFactory()).read();
-        new SchoolsReader(dataSet).read();
-        new HouseholdsReader(dataSet).read();
-        new HouseholdsCoordReader(dataSet).read();
-        new PersonsReader(dataSet).read();
-        dataSet.setTravelTimes(new SkimTravelTimes());
+        new ZonesAndPopulationReader(dataSet, config.getJobTypeFactory()).read();
+        dataSet.setTravelTimes(new TimeSlicedSkimTravelTimes(
+                Resources.instance.getInt(Properties.SKIM_TIME_SLICES_MEMORY_MB, 1024) * 1024L * 1024L));
         new OmxSkimsReader(dataSet).read();
         readAdditionalData();
     }
@@ -118,6 +124,14 @@ public final class MitoModel {
         MitoUtil.initializeRandomNumber(random);
     }
 
+    /**
+     * Like {@link #setRandomNumberGenerator(Random)}, and seeds the random streams of the modules with the given
+     * seed, e.g. one per simulated year.
+     */
+    public void setRandomNumberGenerator(Random random, long seed) {
+        MitoUtil.initializeRandomNumber(random, seed);
+    }
+
 
 
 }
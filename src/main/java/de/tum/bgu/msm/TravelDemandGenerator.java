@@ -1,6 +1,7 @@
 package de.tum.bgu.msm;
 
 import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.io.input.TripCheckpoint;
 import de.tum.bgu.msm.io.output.*;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.modules.modeChoice.ModeChoice;
@@ -15,8 +16,13 @@ import de.tum.bgu.msm.modules.tripGeneration.TripGeneration;
 import de.tum.bgu.msm.modules.tripGeneration.TripsByPurposeGeneratorFactorySampleEnumeration;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.metrics.RunMetrics;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
 /**
  * Generates travel demand for the Microscopic Transport Orchestrator (MITO)
  *
@@ -26,6 +32,21 @@ import org.apache.log4j.Logger;
 public final class TravelDemandGenerator {
 
     private static final Logger logger = Logger.getLogger(TravelDemandGenerator.class);
+
+    /**
+     * The steps of the travel demand generation after which a {@link TripCheckpoint} is written, if a checkpoint
+     * directory is set, and after which a run can be resumed.
+     */
+    public enum Step {
+        TRIP_GENERATION,
+        PERSON_TRIP_ASSIGNMENT,
+        TRAVEL_TIME_BUDGET,
+        TRIP_DISTRIBUTION,
+        MODE_CHOICE,
+        TIME_OF_DAY_CHOICE,
+        TRIP_SCALING
+    }
+
     private final DataSet dataSet;
 
     private final Module tripGeneration;
@@ -38,6 +59,9 @@ public final class TravelDemandGenerator {
     private final Module matsimPopulationGenerator;
     private final Module longDistanceTraffic;
 
+    private final Path checkpointDirectory;
+    private final Step resumeAfter;
+
     private TravelDemandGenerator(
             DataSet dataSet,
             Module tripGeneration,
@@ -48,7 +72,9 @@ public final class TravelDemandGenerator {
             Module timeOfDayChoice,
             Module tripScaling,
             Module matsimPopulationGenerator,
-            Module longDistanceTraffic) {
+            Module longDistanceTraffic,
+            Path checkpointDirectory,
+            Step resumeAfter) {
 
         this.dataSet = dataSet;
 
@@ -61,6 +87,8 @@ public final class TravelDemandGenerator {
         this.tripScaling = tripScaling;
         this.matsimPopulationGenerator = matsimPopulationGenerator;
         this.longDistanceTraffic = longDistanceTraffic;
+        this.checkpointDirectory = checkpointDirectory;
+        this.resumeAfter = resumeAfter;
     }
 
 
@@ -78,6 +106,9 @@ public final class TravelDemandGenerator {
         private Module matsimPopulationGenerator;
         private Module longDistanceTraffic;
 
+        private Path checkpointDirectory;
+        private Step resumeAfter;
+
         public Builder(DataSet dataSet) {
             this.dataSet = dataSet;
             tripGeneration = new TripGeneration(dataSet, new TripsByPurposeGeneratorFactorySampleEnumeration());
@@ -91,6 +122,13 @@ public final class TravelDemandGenerator {
             if (Resources.instance.getBoolean(Properties.ADD_EXTERNAL_FLOWS, false)) {
                 longDistanceTraffic = new LongDistanceTraffic(dataSet, Double.parseDouble(Resources.instance.getString(Properties.TRIP_SCALING_FACTOR)));
             }
+            if (Resources.instance.getString(Properties.CHECKPOINT_DIRECTORY) != null) {
+                checkpointDirectory = Resources.instance.getRelativePath(Properties.CHECKPOINT_DIRECTORY);
+            }
+            final String resumeAfterStep = Resources.instance.getString(Properties.CHECKPOINT_RESUME_AFTER);
+            if (resumeAfterStep != null) {
+                resumeAfter = Step.valueOf(resumeAfterStep.trim().toUpperCase(Locale.ROOT));
+            }
         }
 
         public TravelDemandGenerator build() {
@@ -103,7 +141,9 @@ public final class TravelDemandGenerator {
                     timeOfDayChoice,
                     tripScaling,
                     matsimPopulationGenerator,
-                    longDistanceTraffic);
+                    longDistanceTraffic,
+                    checkpointDirectory,
+                    resumeAfter);
         }
 
         public void setTripGeneration(Module tripGeneration) {
@@ -142,6 +182,21 @@ public final class TravelDemandGenerator {
             this.longDistanceTraffic = longDistanceTraffic;
         }
 
+        /**
+         * Sets the directory a checkpoint is written to after each {@link Step}, or null to not write checkpoints.
+         */
+        public void setCheckpointDirectory(Path checkpointDirectory) {
+            this.checkpointDirectory = checkpointDirectory;
+        }
+
+        /**
+         * Resumes the travel demand generation from the checkpoint written after the given step, skipping this
+         * and all previous steps. Requires a checkpoint directory.
+         */
+        public void setResumeAfter(Step resumeAfter) {
+            this.resumeAfter = resumeAfter;
+        }
+
         public DataSet getDataSet() {
             return dataSet;
         }
@@ -181,45 +236,139 @@ public final class TravelDemandGenerator {
         public Module getLongDistanceTraffic() {
             return longDistanceTraffic;
         }
+
+        public Path getCheckpointDirectory() {
+            return checkpointDirectory;
+        }
+
+        public Step getResumeAfter() {
+            return resumeAfter;
+        }
     }
 
     public void generateTravelDemand(String scenarioName) {
 
-        long startTime = System.currentTimeMillis();
-        logger.info("Running Module: Microscopic Trip Generation");
-        tripGeneration.run();
-        if (dataSet.getTrips().isEmpty()) {
-            logger.warn("No trips created. End of program.");
-            return;
+        if (resumeAfter != null) {
+            resume();
         }
-        long endTime = System.currentTimeMillis();
-        double duration = (endTime - startTime) / 1000;
-        logger.info("Completed TG in " + duration + " seconds");
 
-        logger.info("Running Module: Person to Trip Assignment");
-        personTripAssignment.run();
+        logger.info("Computing household features");
+        try (RunMetrics.Stage stage = RunMetrics.start("Household features")) {
+            stage.addItems(dataSet.getHouseholdFeatures().size());
+        }
 
-        logger.info("Running Module: Travel Time Budget Calculation");
-        travelTimeBudget.run();
+        if (isPending(Step.TRIP_GENERATION)) {
+            logger.info("Running Module: Microscopic Trip Generation");
+            runModule("Trip generation", tripGeneration);
+            if (dataSet.getTrips().isEmpty()) {
+                logger.warn("No trips created. End of program.");
+                return;
+            }
+            writeCheckpoint(Step.TRIP_GENERATION);
+        }
 
-        logger.info("Running Module: Microscopic Trip Distribution");
-        distribution.run();
+        if (isPending(Step.PERSON_TRIP_ASSIGNMENT)) {
+            logger.info("Running Module: Person to Trip Assignment");
+            runModule("Person to trip assignment", personTripAssignment);
+            writeCheckpoint(Step.PERSON_TRIP_ASSIGNMENT);
+        }
 
-        logger.info("Running Module: Trip to Mode Assignment (Mode Choice)");
-        modeChoice.run();
+        if (isPending(Step.TRAVEL_TIME_BUDGET)) {
+            logger.info("Running Module: Travel Time Budget Calculation");
+            try (RunMetrics.Stage stage = RunMetrics.start("Travel time budget")) {
+                travelTimeBudget.run();
+                stage.addItems(dataSet.getHouseholds().size());
+            }
+            writeCheckpoint(Step.TRAVEL_TIME_BUDGET);
+        }
 
-        logger.info("Running time of day choice");
-        timeOfDayChoice.run();
+        if (isPending(Step.TRIP_DISTRIBUTION)) {
+            logger.info("Running Module: Microscopic Trip Distribution");
+            runModule("Trip distribution", distribution);
+            writeCheckpoint(Step.TRIP_DISTRIBUTION);
+        }
 
-        logger.info("Running trip scaling");
-        tripScaling.run();
+        if (isPending(Step.MODE_CHOICE)) {
+            logger.info("Running Module: Trip to Mode Assignment (Mode Choice)");
+            runModule("Mode choice", modeChoice);
+            writeCheckpoint(Step.MODE_CHOICE);
+        }
 
-        matsimPopulationGenerator.run();
+        if (isPending(Step.TIME_OF_DAY_CHOICE)) {
+            logger.info("Running time of day choice");
+            runModule("Time of day choice", timeOfDayChoice);
+            writeCheckpoint(Step.TIME_OF_DAY_CHOICE);
+        }
+
+        if (isPending(Step.TRIP_SCALING)) {
+            logger.info("Running trip scaling");
+            runModule("Trip scaling", tripScaling);
+            writeCheckpoint(Step.TRIP_SCALING);
+        }
+
+        runModule("MATSim population", matsimPopulationGenerator);
 
         if (Resources.instance.getBoolean(Properties.ADD_EXTERNAL_FLOWS, false)) {
-            longDistanceTraffic.run();
+            try (RunMetrics.Stage ignored = RunMetrics.start("Long distance traffic")) {
+                longDistanceTraffic.run();
+            }
+        }
+
+        try (RunMetrics.Stage ignored = RunMetrics.start("Output")) {
+            writeOutput(scenarioName);
+        }
+    }
+
+    /**
+     * Runs the module as a stage of the run metrics, counting the trips in the data set afterwards as
+     * processed items.
+     */
+    private void runModule(String name, Module module) {
+        try (RunMetrics.Stage stage = RunMetrics.start(name)) {
+            module.run();
+            stage.addItems(dataSet.getTrips().size());
+        }
+    }
+
+    private boolean isPending(Step step) {
+        return resumeAfter == null || step.compareTo(resumeAfter) > 0;
+    }
+
+    private void resume() {
+        if (checkpointDirectory == null) {
+            throw new IllegalStateException("Cannot resume after " + resumeAfter + " without a checkpoint directory.");
+        }
+        final Path file = getCheckpointFile(resumeAfter);
+        logger.info("Resuming travel demand generation after " + resumeAfter + " from " + file);
+        try (RunMetrics.Stage stage = RunMetrics.start("Resume from checkpoint")) {
+            TripCheckpoint.read(dataSet, file, resumeAfter.name());
+            stage.addItems(dataSet.getTrips().size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not resume from checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Writes the checkpoint of the given step, if a checkpoint directory is set. A checkpoint that cannot be
+     * written does not fail the run.
+     */
+    private void writeCheckpoint(Step step) {
+        if (checkpointDirectory == null) {
+            return;
+        }
+        final Path file = getCheckpointFile(step);
+        try (RunMetrics.Stage ignored = RunMetrics.start("Checkpoint " + step.name().toLowerCase(Locale.ROOT))) {
+            TripCheckpoint.write(dataSet, file, step.name());
+        } catch (IOException e) {
+            logger.warn("Could not write checkpoint " + file + ". " + e.getMessage());
         }
+    }
+
+    private Path getCheckpointFile(Step step) {
+        return checkpointDirectory.resolve(step.name().toLowerCase(Locale.ROOT) + ".bin");
+    }
 
+    private void writeOutput(String scenarioName) {
         TripGenerationWriter.writeTripsByPurposeAndZone(dataSet, scenarioName);
         SummarizeDataToVisualize.writeFinalSummary(dataSet, scenarioName);
 
@@ -25,8 +25,9 @@ public class DataSet {
     private final Map<Integer, MitoSchool> schools = new LinkedHashMap<>();
     private final Map<Integer, MitoJob> jobs = new LinkedHashMap<>();
 
-    private final Map<Integer, MitoTrip> trips = new LinkedHashMap<>();
-    private final Map<Integer, MitoTrip> tripSubsample = new LinkedHashMap<>();
+    private final TripTable trips = new TripTable();
+
+    private HouseholdFeatures householdFeatures;
 
 
     private final Table<Purpose, Mode, Double> modeSharesByPurpose
@@ -79,18 +80,30 @@ public class DataSet {
     }
 
     public Map<Integer, MitoTrip> getTrips() {
-        return Collections.unmodifiableMap(trips);
+        return trips.asMap();
     }
 
     public Map<Integer, MitoTrip> getTripSubsample() {
-        return Collections.unmodifiableMap(tripSubsample);
+        return trips.subsampleAsMap();
+    }
+
+    /**
+     * Returns the trips by column, to be iterated by index in full scans.
+     */
+    public TripTable getTripTable() {
+        return trips;
+    }
+
+    /**
+     * Creates a trip with the given id and purpose directly in the trip table of this data set, instead of creating
+     * it on its own and copying it with {@link #addTrip(MitoTrip)}.
+     */
+    public MitoTrip createTrip(final int tripId, final Purpose purpose) {
+        return trips.create(tripId, purpose);
     }
 
     public void addTrip(final MitoTrip trip) {
-        MitoTrip test = trips.putIfAbsent(trip.getId(), trip);
-        if(test != null) {
-            throw new IllegalArgumentException("MitoTrip id " + trip.getId() + " already exists!");
-        }
+        trips.add(trip);
     }
 
     public void addTrips(final Collection<MitoTrip> addedTrips) {
@@ -100,10 +113,7 @@ public class DataSet {
     }
 
     public void addTripToSubsample(final MitoTrip trip) {
-        MitoTrip test = tripSubsample.putIfAbsent(trip.getId(), trip);
-        if(test != null) {
-            throw new IllegalArgumentException("MitoTrip id " + trip.getId() + " already exists!");
-        }
+        trips.addToSubsample(trip);
     }
 
     public void addZone(final MitoZone zone) {
@@ -118,6 +128,18 @@ public class DataSet {
         if(test != null) {
             throw new IllegalArgumentException("MitoHousehold id " + household.getId() + " already exists!");
         }
+        householdFeatures = null;
+    }
+
+    /**
+     * Computes the {@link HouseholdFeatures} of all households, unless they are computed already and no household
+     * was added since. Modules read them through the get...ForHousehold methods.
+     */
+    public synchronized HouseholdFeatures getHouseholdFeatures() {
+        if (householdFeatures == null) {
+            householdFeatures = HouseholdFeatures.compute(new ArrayList<>(households.values()));
+        }
+        return householdFeatures;
     }
 
     public void addPerson(final MitoPerson person) {
@@ -141,10 +163,22 @@ public class DataSet {
         }
     }
 
-    public synchronized void removeTrip(final int tripId) {
+    /**
+     * Removes the trip with the given id. Its row in the {@link TripTable} stays empty until {@link #compactTrips()}
+     * is called.
+     */
+    public void removeTrip(final int tripId) {
         trips.remove(tripId);
     }
 
+    /**
+     * Closes the rows of removed trips in the {@link TripTable}, which changes the indices of the remaining trips.
+     * Must not run while trips are accessed by other threads.
+     */
+    public void compactTrips() {
+        trips.compact();
+    }
+
     public double getPeakHour() {
         return peakHour;
     }
@@ -154,40 +188,35 @@ public class DataSet {
     }
 
     public static int getFemalesForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getMitoGender().equals(MitoGender.FEMALE)).count();
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.FEMALES);
     }
 
     public static int getChildrenForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getAge() < 18).count();
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.CHILDREN);
     }
 
-    public static int getYoungAdultsForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getAge() >= 18 && person.getAge() <= 25).count();
+    public static int getPersonsAged15AndOverForHousehold(MitoHousehold household) {
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.PERSONS_AGED_15_AND_OVER);
+    }
 
+    public static int getYoungAdultsForHousehold(MitoHousehold household) {
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.YOUNG_ADULTS);
     }
 
     public static int getRetireesForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getAge() > 65).count();
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.RETIREES);
     }
 
     public static int getNumberOfWorkersForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getMitoOccupationStatus() == MitoOccupationStatus.WORKER).count();
-
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.WORKERS);
     }
 
     public static int getStudentsForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(person ->
-                person.getMitoOccupationStatus() == MitoOccupationStatus.STUDENT).count();
-
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.STUDENTS);
     }
 
     public static int getLicenseHoldersForHousehold(MitoHousehold household) {
-        return (int) household.getPersons().values().stream().filter(MitoPerson::hasDriversLicense).count();
+        return HouseholdFeatures.get(household, HouseholdFeatures.Feature.LICENSE_HOLDERS);
     }
 
     public void addModeShareForPurpose(Purpose purpose, Mode mode, Double share){
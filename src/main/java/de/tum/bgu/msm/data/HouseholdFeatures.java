@@ -0,0 +1,131 @@
+package de.tum.bgu.msm.data;
+
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Counts of persons by household that several modules need, e.g. the workers of a household for its household type
+ * in trip generation and for its travel time budget. The counts are computed once for all households of a data set,
+ * in parallel, and kept in an immutable row of primitive counts per household.
+ * <p>
+ * Each household knows its row. A household that gained persons since its row was computed is counted again on the
+ * next access, and households without a row are counted directly, so the counts are always up to date. A recounted
+ * row replaces the old one as a whole, so threads that read the store in parallel never see a partly written row.
+ * Households are still expected to be complete before modules read from the store in parallel.
+ */
+public final class HouseholdFeatures {
+
+    public enum Feature {
+        FEMALES(person -> person.getMitoGender() == MitoGender.FEMALE),
+        CHILDREN(person -> person.getAge() < 18),
+        PERSONS_AGED_15_AND_OVER(person -> person.getAge() >= 15),
+        YOUNG_ADULTS(person -> person.getAge() >= 18 && person.getAge() <= 25),
+        RETIREES(person -> person.getAge() > 65),
+        WORKERS(person -> person.getMitoOccupationStatus() == MitoOccupationStatus.WORKER),
+        STUDENTS(person -> person.getMitoOccupationStatus() == MitoOccupationStatus.STUDENT),
+        LICENSE_HOLDERS(MitoPerson::hasDriversLicense);
+
+        private final Predicate<MitoPerson> counted;
+
+        Feature(Predicate<MitoPerson> counted) {
+            this.counted = counted;
+        }
+
+        private int count(MitoHousehold household) {
+            int count = 0;
+            for (MitoPerson person : household.getPersons().values()) {
+                if (counted.test(person)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final Feature[] FEATURES = Feature.values();
+    private static final int PARTITION_SIZE = 10000;
+
+    private final MitoHousehold[] households;
+    private final AtomicReferenceArray<Row> rows;
+
+    private HouseholdFeatures(List<MitoHousehold> households) {
+        this.households = households.toArray(new MitoHousehold[0]);
+        this.rows = new AtomicReferenceArray<>(this.households.length);
+    }
+
+    /**
+     * Computes the features of the given households and makes them read from the new store.
+     */
+    static HouseholdFeatures compute(List<MitoHousehold> households) {
+        final HouseholdFeatures store = new HouseholdFeatures(households);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < households.size(); from += PARTITION_SIZE) {
+            final int partitionFrom = from;
+            final int partitionTo = Math.min(from + PARTITION_SIZE, households.size());
+            tasks.add(() -> {
+                for (int row = partitionFrom; row < partitionTo; row++) {
+                    store.rows.set(row, Row.of(store.households[row]));
+                    store.households[row].setFeatures(store, row);
+                }
+                return null;
+            });
+        }
+        ConcurrentExecutor.<Void>fixedPoolService(Runtime.getRuntime().availableProcessors())
+                .submitTasksAndWaitForCompletion(tasks);
+        return store;
+    }
+
+    public int size() {
+        return households.length;
+    }
+
+    /**
+     * @return the number of persons of the household that count for the given feature
+     */
+    public static int get(MitoHousehold household, Feature feature) {
+        final HouseholdFeatures store = household.getFeatures();
+        if (store == null) {
+            return feature.count(household);
+        }
+        final int index = household.getFeatureRow();
+        Row row = store.rows.get(index);
+        if (row.version != household.getModifications()) {
+            row = Row.of(household);
+            store.rows.set(index, row);
+        }
+        return row.counts[feature.ordinal()];
+    }
+
+    private static final class Row {
+
+        /**
+         * Modification count of the household at the time the row was computed.
+         */
+        private final int version;
+        private final short[] counts;
+
+        private Row(int version, short[] counts) {
+            this.version = version;
+            this.counts = counts;
+        }
+
+        private static Row of(MitoHousehold household) {
+            // read before the persons, so that a person added while counting leaves the row outdated
+            final int version = household.getModifications();
+            final short[] counts = new short[FEATURES.length];
+            for (MitoPerson person : household.getPersons().values()) {
+                for (Feature feature : FEATURES) {
+                    if (feature.counted.test(person)) {
+                        counts[feature.ordinal()]++;
+                    }
+                }
+            }
+            return new Row(version, counts);
+        }
+    }
+}
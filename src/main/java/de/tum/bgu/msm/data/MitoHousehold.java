@@ -23,11 +23,23 @@ public class MitoHousehold implements Id, MicroLocation {
     private MitoZone homeZone;
     private Coordinate homeLocation;
 
-    private final EnumMap<Purpose, List<MitoTrip>> tripsByPurpose = new EnumMap<>(Purpose.class);
+    private static final Purpose[] PURPOSES = Purpose.values();
+
+    /**
+     * Trips by purpose ordinal, only allocated once the first trips are set.
+     */
+    private List<MitoTrip>[] tripsByPurpose;
     private final EnumMap<Purpose, Double> travelTimeBudgetByPurpose= new EnumMap<>(Purpose.class);
 
     private final Map<Integer, MitoPerson> persons  = new HashMap<>();
 
+    private HouseholdFeatures features;
+    private int featureRow;
+    /**
+     * Only written by the thread that adds persons, but read by all threads that use the {@link HouseholdFeatures}.
+     */
+    private volatile int modifications;
+
     public MitoHousehold(int id, int monthlyIncome_EUR, int autos) {
         this.hhId = id;
         this.monthlyIncome_EUR = monthlyIncome_EUR;
@@ -77,15 +89,21 @@ public class MitoHousehold implements Id, MicroLocation {
             }
         }
         this.persons.put(person.getId(), person);
+        modifications++;
     }
 
+    @SuppressWarnings("unchecked")
     public synchronized void setTripsByPurpose(List<MitoTrip> trips, Purpose purpose) {
-            tripsByPurpose.put(purpose, trips);
+        if(tripsByPurpose == null) {
+            tripsByPurpose = new List[PURPOSES.length];
+        }
+        tripsByPurpose[purpose.ordinal()] = trips;
     }
 
     public List<MitoTrip> getTripsForPurpose(Purpose purpose) {
-        if(tripsByPurpose.get(purpose) != null) {
-            return tripsByPurpose.get(purpose);
+        final List<MitoTrip>[] trips = tripsByPurpose;
+        if(trips != null && trips[purpose.ordinal()] != null) {
+            return trips[purpose.ordinal()];
         } else {
             return Collections.emptyList();
         }
@@ -99,6 +117,10 @@ public class MitoHousehold implements Id, MicroLocation {
         return travelTimeBudgetByPurpose.get(purpose) == null ? 0. : travelTimeBudgetByPurpose.get(purpose) ;
     }
 
+    public Map<Purpose, Double> getTravelTimeBudgetsByPurpose() {
+        return Collections.unmodifiableMap(travelTimeBudgetByPurpose);
+    }
+
     public int getEconomicStatus() {
         return economicStatus;
     }
@@ -107,6 +129,26 @@ public class MitoHousehold implements Id, MicroLocation {
         this.economicStatus = economicStatus;
     }
 
+    HouseholdFeatures getFeatures() {
+        return features;
+    }
+
+    int getFeatureRow() {
+        return featureRow;
+    }
+
+    /**
+     * @return the number of changes to the persons of this household, to detect outdated {@link HouseholdFeatures}
+     */
+    int getModifications() {
+        return modifications;
+    }
+
+    void setFeatures(HouseholdFeatures features, int row) {
+        this.features = features;
+        this.featureRow = row;
+    }
+
     public Coordinate getHomeLocation() {
         return homeLocation;
     }
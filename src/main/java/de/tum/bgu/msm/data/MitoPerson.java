@@ -2,9 +2,9 @@ package de.tum.bgu.msm.data;
 
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * Holds person objects for the Microsimulation Transport Orchestrator (MITO)
@@ -23,7 +23,10 @@ public class MitoPerson implements Id {
     private final int age;
     private final boolean driversLicense;
 
-    private Set<MitoTrip> trips = new LinkedHashSet<>();
+    /**
+     * A person has few trips, so a list that is searched for duplicates takes less memory than a hash set.
+     */
+    private final List<MitoTrip> trips = new ArrayList<>(0);
 
     public MitoPerson(int id, MitoOccupationStatus mitoOccupationStatus, MitoOccupation occupation, int age, MitoGender mitoGender, boolean driversLicense) {
         this.id = id;
@@ -59,12 +62,14 @@ public class MitoPerson implements Id {
         return driversLicense;
     }
 
-    public Set<MitoTrip> getTrips() {
-        return Collections.unmodifiableSet(this.trips);
+    public List<MitoTrip> getTrips() {
+        return Collections.unmodifiableList(this.trips);
     }
 
     public void addTrip(MitoTrip trip) {
-        this.trips.add(trip);
+        if(!this.trips.contains(trip)) {
+            this.trips.add(trip);
+        }
         if(trip.getPerson() != this) {
             trip.setPerson(this);
         }
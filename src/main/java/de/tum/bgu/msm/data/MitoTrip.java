@@ -10,118 +10,135 @@ import org.matsim.api.core.v01.population.Person;
  */
 public class MitoTrip implements Id {
 
-    private final int tripId;
-    private final Purpose tripPurpose;
-
-    private Location tripOrigin;
-    private Location tripDestination;
-
-    private MitoPerson person;
-
-    private Mode tripMode;
-
-    private int departureInMinutes;
-    private int departureInMinutesReturnTrip = -1;
-
-    private Person matsimPerson;
+    /**
+     * Table and row that hold the values of this trip. A trip that is not part of a {@link DataSet} is the only row
+     * of a table of its own, see {@link TripTable}.
+     */
+    private TripTable table;
+    private int row;
 
     public MitoTrip(int tripId, Purpose tripPurpose) {
-        this.tripId = tripId;
-        this.tripPurpose = tripPurpose;
+        this.table = TripTable.forDetachedTrip();
+        this.row = table.append(this, tripId, tripPurpose);
+    }
+
+    MitoTrip(TripTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     @Override
     public int getId() {
-        return tripId;
+        return table.getId(row);
     }
 
     public Location getTripOrigin() {
-        return tripOrigin;
+        return table.getOrigin(row);
     }
 
     public void setTripOrigin(Location origin) {
-        this.tripOrigin = origin;
+        table.setOrigin(row, origin);
     }
 
     public Purpose getTripPurpose() {
-        return tripPurpose;
+        return table.getPurpose(row);
     }
 
     public Location getTripDestination() {
-        return this.tripDestination;
+        return table.getDestination(row);
     }
 
     public void setTripDestination(Location destination) {
-        this.tripDestination = destination;
+        table.setDestination(row, destination);
     }
 
     public MitoPerson getPerson() {
-        return person;
+        return table.getPerson(row);
     }
 
     public void setPerson(MitoPerson person) {
-        this.person = person;
+        table.setPerson(row, person);
         if (!person.getTrips().contains(this)) {
             person.addTrip(this);
         }
     }
 
     public Mode getTripMode() {
-        return tripMode;
+        return table.getMode(row);
     }
 
     public void setTripMode(Mode tripMode) {
-        this.tripMode = tripMode;
+        table.setMode(row, tripMode);
     }
 
     public void setDepartureInMinutes(int departureInMinutes) {
-        this.departureInMinutes = departureInMinutes;
+        table.setDepartureInMinutes(row, departureInMinutes);
     }
 
     public void setDepartureInMinutesReturnTrip(int departureInMinutesReturnTrip) {
-        this.departureInMinutesReturnTrip = departureInMinutesReturnTrip;
+        table.setDepartureInMinutesReturnTrip(row, departureInMinutesReturnTrip);
     }
 
     public int getDepartureInMinutes() {
-        return departureInMinutes;
+        return table.getDepartureInMinutes(row);
     }
 
     public int getDepartureInMinutesReturnTrip() {
-        return departureInMinutesReturnTrip;
+        return table.getDepartureInMinutesReturnTrip(row);
+    }
+
+    TripTable getTable() {
+        return table;
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    /**
+     * Makes this trip a view of the given row, which already holds the values of this trip.
+     */
+    void attach(TripTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     public int getTripId() {
-        return tripId;
+        return getId();
     }
 
     public Person getMatsimPerson() {
-        return matsimPerson;
+        return table.getMatsimPerson(row);
     }
 
     public void setMatsimPerson(Person matsimPerson) {
-        this.matsimPerson = matsimPerson;
+        table.setMatsimPerson(row, matsimPerson);
     }
 
     public boolean isHomeBased() {
-        return !this.getTripPurpose().equals(Purpose.NHBW) &&
-                !this.getTripPurpose().equals(Purpose.NHBO) &&
-                !this.getTripPurpose().equals(Purpose.AIRPORT);
+        return isHomeBased(getTripPurpose());
+    }
+
+    public static boolean isHomeBased(Purpose purpose) {
+        return !purpose.equals(Purpose.NHBW) &&
+                !purpose.equals(Purpose.NHBO) &&
+                !purpose.equals(Purpose.AIRPORT);
     }
 
     @Override
     public String toString() {
-        return "Trip [id: " + this.tripId + " purpose: " + this.tripPurpose + "]";
+        return "Trip [id: " + getId() + " purpose: " + getTripPurpose() + "]";
     }
 
     @Override
     public int hashCode() {
-        return tripId;
+        return getId();
     }
 
     @Override
     public boolean equals(Object o) {
         if (o instanceof MitoTrip) {
-            return tripId == ((MitoTrip) o).tripId;
+            return getId() == ((MitoTrip) o).getId();
         } else {
             return false;
         }
@@ -2,6 +2,7 @@ package de.tum.bgu.msm.data;
 
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
 import de.tum.bgu.msm.data.jobTypes.Category;
 import de.tum.bgu.msm.data.jobTypes.JobType;
 import de.tum.bgu.msm.util.SeededRandomPointsBuilder;
@@ -11,7 +12,6 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.matsim.core.utils.geometry.geotools.MGC;
 
-import java.util.EnumMap;
 import java.util.Random;
 
 /**
@@ -30,8 +30,16 @@ public class MitoZone implements Id, Location {
     private int numberOfHouseholds = 0;
     private int schoolEnrollment = 0;
 
-    private final EnumMap<Purpose, Double> tripAttraction = new EnumMap<>(Purpose.class);
+    /**
+     * Trip attraction by purpose ordinal, with a bit by purpose ordinal for attractions that were set.
+     */
+    private final double[] tripAttraction = new double[Purpose.values().length];
+    private int tripAttractionSet = 0;
     private final Multiset<JobType> employeesByType = HashMultiset.create();
+    /**
+     * Employees by category ordinal, kept up to date with {@link #employeesByType}.
+     */
+    private final int[] employeesByCategory = new int[Category.values().length];
 
     private final AreaTypes.SGType areaTypeSG;
     private AreaTypes.RType areaTypeR;
@@ -106,7 +114,16 @@ public class MitoZone implements Id, Location {
     }
 
     public void addEmployeeForType(JobType type) {
-        this.employeesByType.add(type);
+        addEmployeesForType(type, 1);
+    }
+
+    public void addEmployeesForType(JobType type, int count) {
+        this.employeesByType.add(type, count);
+        this.employeesByCategory[type.getCategory().ordinal()] += count;
+    }
+
+    public Multiset<JobType> getEmployeesByType() {
+        return Multisets.unmodifiableMultiset(employeesByType);
     }
 
     public int getNumberOfEmployeesForType(JobType type) {
@@ -118,27 +135,20 @@ public class MitoZone implements Id, Location {
     }
 
     public void setTripAttraction(Purpose purpose, double tripAttractionRate) {
-        this.tripAttraction.put(purpose, tripAttractionRate);
+        this.tripAttraction[purpose.ordinal()] = tripAttractionRate;
+        this.tripAttractionSet |= 1 << purpose.ordinal();
     }
 
     public double getTripAttraction(Purpose purpose) {
-        Double rate = this.tripAttraction.get(purpose);
-        if (rate == null) {
+        if ((tripAttractionSet & 1 << purpose.ordinal()) == 0) {
             throw new RuntimeException("No trip attraction rate set for zone " + zoneId + ". Please make sure to only call " +
                     "this method after trip generation module!");
         }
-        return rate;
+        return tripAttraction[purpose.ordinal()];
     }
 
     public int getEmployeesByCategory(Category category) {
-        int sum = 0;
-        Multiset<JobType> jobTypes = employeesByType;
-        for (JobType distinctType : jobTypes.elementSet()) {
-            if (category == distinctType.getCategory()) {
-                sum += jobTypes.count(distinctType);
-            }
-        }
-        return sum;
+        return employeesByCategory[category.ordinal()];
     }
 
     @Override
@@ -158,6 +168,10 @@ public class MitoZone implements Id, Location {
         this.ags = ags;
     }
 
+    public int getAGS() {
+        return ags;
+    }
+
     public Coordinate getRandomCoord(Random random) {
         SeededRandomPointsBuilder randomPointsBuilder = new SeededRandomPointsBuilder(new GeometryFactory(), random);
         randomPointsBuilder.setNumPoints(1);
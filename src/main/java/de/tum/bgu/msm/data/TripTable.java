@@ -0,0 +1,570 @@
+package de.tum.bgu.msm.data;
+
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.*;
+
+/**
+ * Holds the trips of a {@link DataSet} in insertion order, stored by column: ids, purpose ordinals, persons, origin
+ * and destination locations, mode ordinals and departure minutes in parallel arrays, the membership in the trip
+ * sub-sample as a bit set and a primitive open-addressing index from trip id to row. Full scans can iterate the
+ * columns by index without touching the trip objects.
+ * <p>
+ * {@link MitoTrip} objects are views of a table and a row and hold no values of their own. A trip that is created
+ * outside of a data set is the only row of a table of its own, which is copied into the table of the data set when
+ * the trip is added to it.
+ * <p>
+ * Trips are added, removed and compacted single-threaded. A removed trip leaves an empty row, for which
+ * {@link #get(int)} returns null, until {@link #compact()} is called, so indices stay stable while trips are
+ * processed. Trips may be modified in parallel, as long as each row is modified by one thread only.
+ */
+public final class TripTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Purpose[] PURPOSES = Purpose.values();
+    private static final Mode[] MODES = Mode.values();
+
+    /**
+     * Zone of trips without origin or destination.
+     */
+    public static final int NO_ZONE = -1;
+    private static final byte NO_MODE = -1;
+
+    /**
+     * Whether this table holds a single trip that is not part of a data set.
+     */
+    private final boolean detached;
+
+    private MitoTrip[] trips;
+    private int[] ids;
+    private byte[] purposes;
+    private MitoPerson[] persons;
+    private Location[] origins;
+    private Location[] destinations;
+    private byte[] modes;
+    private int[] departures;
+    private int[] returnDepartures;
+    /**
+     * Only allocated once the first trip is assigned to a MATSim person.
+     */
+    private Person[] matsimPersons;
+    private BitSet subsample = new BitSet();
+    private int subsampleSize;
+
+    /**
+     * Number of rows, including empty rows of removed trips.
+     */
+    private int length;
+    private int removed;
+
+    /**
+     * Open-addressing index with linear probing. Holds row + 1 for each id, 0 marks an empty bucket. The id of a
+     * bucket is read from the id column.
+     */
+    private int[] index;
+
+    private final Map<Integer, MitoTrip> tripsView = new TripsView(false);
+    private final Map<Integer, MitoTrip> subsampleView = new TripsView(true);
+
+    TripTable() {
+        this(INITIAL_CAPACITY, false);
+    }
+
+    private TripTable(int capacity, boolean detached) {
+        this.detached = detached;
+        trips = new MitoTrip[capacity];
+        ids = new int[capacity];
+        purposes = new byte[capacity];
+        persons = new MitoPerson[capacity];
+        origins = new Location[capacity];
+        destinations = new Location[capacity];
+        modes = new byte[capacity];
+        departures = new int[capacity];
+        returnDepartures = new int[capacity];
+        index = new int[2 * capacity];
+    }
+
+    /**
+     * @return a table for a single trip that is created outside of a data set
+     */
+    static TripTable forDetachedTrip() {
+        return new TripTable(1, true);
+    }
+
+    /**
+     * @return the number of rows, including empty rows of removed trips until the table is compacted
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * @return the trip of the given row, or null if it was removed
+     */
+    public MitoTrip get(int index) {
+        Objects.checkIndex(index, length);
+        return trips[index];
+    }
+
+    public int getId(int index) {
+        Objects.checkIndex(index, length);
+        return ids[index];
+    }
+
+    public Purpose getPurpose(int index) {
+        Objects.checkIndex(index, length);
+        return PURPOSES[purposes[index]];
+    }
+
+    public MitoPerson getPerson(int index) {
+        Objects.checkIndex(index, length);
+        return persons[index];
+    }
+
+    void setPerson(int index, MitoPerson person) {
+        Objects.checkIndex(index, length);
+        persons[index] = person;
+    }
+
+    public Location getOrigin(int index) {
+        Objects.checkIndex(index, length);
+        return origins[index];
+    }
+
+    void setOrigin(int index, Location origin) {
+        Objects.checkIndex(index, length);
+        origins[index] = origin;
+    }
+
+    /**
+     * @return the zone of the origin of the trip, or {@link #NO_ZONE} if it has no origin yet
+     */
+    public int getOriginZone(int index) {
+        return zoneOf(getOrigin(index));
+    }
+
+    public Location getDestination(int index) {
+        Objects.checkIndex(index, length);
+        return destinations[index];
+    }
+
+    void setDestination(int index, Location destination) {
+        Objects.checkIndex(index, length);
+        destinations[index] = destination;
+    }
+
+    /**
+     * @return the zone of the destination of the trip, or {@link #NO_ZONE} if it has no destination yet
+     */
+    public int getDestinationZone(int index) {
+        return zoneOf(getDestination(index));
+    }
+
+    /**
+     * @return the mode of the trip, or null if it has no mode yet
+     */
+    public Mode getMode(int index) {
+        Objects.checkIndex(index, length);
+        final byte mode = modes[index];
+        return mode == NO_MODE ? null : MODES[mode];
+    }
+
+    void setMode(int index, Mode mode) {
+        Objects.checkIndex(index, length);
+        modes[index] = mode == null ? NO_MODE : (byte) mode.ordinal();
+    }
+
+    public int getDepartureInMinutes(int index) {
+        Objects.checkIndex(index, length);
+        return departures[index];
+    }
+
+    public void setDepartureInMinutes(int index, int departureInMinutes) {
+        Objects.checkIndex(index, length);
+        departures[index] = departureInMinutes;
+    }
+
+    public int getDepartureInMinutesReturnTrip(int index) {
+        Objects.checkIndex(index, length);
+        return returnDepartures[index];
+    }
+
+    public void setDepartureInMinutesReturnTrip(int index, int departureInMinutesReturnTrip) {
+        Objects.checkIndex(index, length);
+        returnDepartures[index] = departureInMinutesReturnTrip;
+    }
+
+    Person getMatsimPerson(int index) {
+        Objects.checkIndex(index, length);
+        return matsimPersons == null ? null : matsimPersons[index];
+    }
+
+    /**
+     * Allocates the MATSim person column on first use, so trips are assigned to MATSim persons single-threaded.
+     */
+    void setMatsimPerson(int index, Person matsimPerson) {
+        Objects.checkIndex(index, length);
+        if (matsimPersons == null) {
+            if (matsimPerson == null) {
+                return;
+            }
+            matsimPersons = new Person[trips.length];
+        }
+        matsimPersons[index] = matsimPerson;
+    }
+
+    public boolean isInSubsample(int index) {
+        Objects.checkIndex(index, length);
+        return subsample.get(index);
+    }
+
+    public int getSubsampleSize() {
+        return subsampleSize;
+    }
+
+    /**
+     * @return the index of the trip with the given id, or -1 if there is no such trip
+     */
+    public int indexOf(int id) {
+        final int row = findRow(id);
+        return row >= 0 && trips[row] != null ? row : -1;
+    }
+
+    /**
+     * Adds a new trip with the given id and purpose.
+     *
+     * @return the trip, which is a view of its row
+     */
+    MitoTrip create(int id, Purpose purpose) {
+        checkNewId(id);
+        final MitoTrip trip = new MitoTrip(this, length);
+        append(trip, id, purpose);
+        return trip;
+    }
+
+    /**
+     * Adds a trip that was created outside of a data set. Its values are copied into a new row, of which the trip
+     * becomes a view.
+     */
+    void add(MitoTrip trip) {
+        final int id = trip.getId();
+        checkNewId(id);
+        final TripTable table = trip.getTable();
+        if (!table.detached) {
+            throw new IllegalArgumentException("MitoTrip id " + id + " already belongs to another data set!");
+        }
+        final int row = append(trip, id, trip.getTripPurpose());
+        copyRow(table, trip.getRow(), row);
+        trip.attach(this, row);
+    }
+
+    /**
+     * Appends a row with the given trip, id and purpose and no other values.
+     *
+     * @return the row
+     */
+    int append(MitoTrip trip, int id, Purpose purpose) {
+        if (length == trips.length) {
+            grow(trips.length * 2);
+        }
+        final int row = length;
+        trips[row] = trip;
+        ids[row] = id;
+        purposes[row] = (byte) purpose.ordinal();
+        modes[row] = NO_MODE;
+        returnDepartures[row] = -1;
+        length++;
+        if (2 * length > index.length) {
+            rebuildIndex(2 * index.length);
+        } else {
+            putRow(id, row);
+        }
+        return row;
+    }
+
+    void addToSubsample(MitoTrip trip) {
+        final int index = indexOf(trip.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("MitoTrip id " + trip.getId() + " is not part of the data set!");
+        }
+        addToSubsample(index);
+    }
+
+    public void addToSubsample(int index) {
+        Objects.checkIndex(index, length);
+        if (subsample.get(index)) {
+            throw new IllegalArgumentException("MitoTrip id " + ids[index] + " already exists!");
+        }
+        subsample.set(index);
+        subsampleSize++;
+    }
+
+    /**
+     * Removes the trip with the given id, if there is one. The trip keeps its values in a table of its own, and its
+     * row stays empty until the table is compacted.
+     */
+    void remove(int id) {
+        final int row = indexOf(id);
+        if (row < 0) {
+            return;
+        }
+        final MitoTrip trip = trips[row];
+        final TripTable table = forDetachedTrip();
+        table.copyRow(this, row, table.append(trip, id, PURPOSES[purposes[row]]));
+        trip.attach(table, 0);
+        trips[row] = null;
+        persons[row] = null;
+        origins[row] = null;
+        destinations[row] = null;
+        if (matsimPersons != null) {
+            matsimPersons[row] = null;
+        }
+        if (subsample.get(row)) {
+            subsample.clear(row);
+            subsampleSize--;
+        }
+        removed++;
+    }
+
+    /**
+     * Closes the empty rows of removed trips. This changes the indices of the trips behind them, so it must not run
+     * while other threads access the table.
+     */
+    void compact() {
+        if (removed == 0) {
+            return;
+        }
+        final BitSet compactedSubsample = new BitSet();
+        int target = 0;
+        for (int i = 0; i < length; i++) {
+            if (trips[i] != null) {
+                if (target != i) {
+                    copyRow(this, i, target);
+                    trips[target] = trips[i];
+                    ids[target] = ids[i];
+                    purposes[target] = purposes[i];
+                    trips[target].attach(this, target);
+                }
+                if (subsample.get(i)) {
+                    compactedSubsample.set(target);
+                }
+                target++;
+            }
+        }
+        Arrays.fill(trips, target, length, null);
+        Arrays.fill(persons, target, length, null);
+        Arrays.fill(origins, target, length, null);
+        Arrays.fill(destinations, target, length, null);
+        if (matsimPersons != null) {
+            Arrays.fill(matsimPersons, target, length, null);
+        }
+        length = target;
+        subsample = compactedSubsample;
+        rebuildIndex(index.length);
+        removed = 0;
+    }
+
+    Map<Integer, MitoTrip> asMap() {
+        return tripsView;
+    }
+
+    Map<Integer, MitoTrip> subsampleAsMap() {
+        return subsampleView;
+    }
+
+    private void checkNewId(int id) {
+        if (indexOf(id) >= 0) {
+            throw new IllegalArgumentException("MitoTrip id " + id + " already exists!");
+        }
+    }
+
+    /**
+     * Copies the values of a row of the given table that are set after a trip is created.
+     */
+    private void copyRow(TripTable from, int fromRow, int toRow) {
+        persons[toRow] = from.persons[fromRow];
+        origins[toRow] = from.origins[fromRow];
+        destinations[toRow] = from.destinations[fromRow];
+        modes[toRow] = from.modes[fromRow];
+        departures[toRow] = from.departures[fromRow];
+        returnDepartures[toRow] = from.returnDepartures[fromRow];
+        if (from.matsimPersons != null || matsimPersons != null) {
+            setMatsimPerson(toRow, from.matsimPersons == null ? null : from.matsimPersons[fromRow]);
+        }
+    }
+
+    private void grow(int capacity) {
+        trips = Arrays.copyOf(trips, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        purposes = Arrays.copyOf(purposes, capacity);
+        persons = Arrays.copyOf(persons, capacity);
+        origins = Arrays.copyOf(origins, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        modes = Arrays.copyOf(modes, capacity);
+        departures = Arrays.copyOf(departures, capacity);
+        returnDepartures = Arrays.copyOf(returnDepartures, capacity);
+        if (matsimPersons != null) {
+            matsimPersons = Arrays.copyOf(matsimPersons, capacity);
+        }
+    }
+
+    private static int zoneOf(Location location) {
+        return location == null ? NO_ZONE : location.getZoneId();
+    }
+
+    private void rebuildIndex(int capacity) {
+        index = new int[capacity];
+        for (int i = 0; i < length; i++) {
+            if (trips[i] != null) {
+                putRow(ids[i], i);
+            }
+        }
+    }
+
+    private void putRow(int id, int row) {
+        final int mask = index.length - 1;
+        int bucket = hash(id) & mask;
+        while (index[bucket] != 0 && ids[index[bucket] - 1] != id) {
+            bucket = (bucket + 1) & mask;
+        }
+        index[bucket] = row + 1;
+    }
+
+    private int findRow(int id) {
+        final int mask = index.length - 1;
+        int bucket = hash(id) & mask;
+        while (index[bucket] != 0) {
+            final int row = index[bucket] - 1;
+            if (ids[row] == id) {
+                return row;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Unmodifiable map view of all trips or of the trip sub-sample, iterating in insertion order.
+     */
+    private final class TripsView extends AbstractMap<Integer, MitoTrip> {
+
+        private final boolean subsampleOnly;
+
+        private TripsView(boolean subsampleOnly) {
+            this.subsampleOnly = subsampleOnly;
+        }
+
+        @Override
+        public int size() {
+            return subsampleOnly ? subsampleSize : length - removed;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public MitoTrip get(Object key) {
+            if (!(key instanceof Integer)) {
+                return null;
+            }
+            final int index = indexOf((Integer) key);
+            if (index < 0 || (subsampleOnly && !subsample.get(index))) {
+                return null;
+            }
+            return trips[index];
+        }
+
+        @Override
+        public Collection<MitoTrip> values() {
+            return new AbstractCollection<MitoTrip>() {
+                @Override
+                public Iterator<MitoTrip> iterator() {
+                    return new RowIterator<MitoTrip>() {
+                        @Override
+                        MitoTrip element(int index) {
+                            return trips[index];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return TripsView.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<Integer, MitoTrip>> entrySet() {
+            return new AbstractSet<Entry<Integer, MitoTrip>>() {
+                @Override
+                public Iterator<Entry<Integer, MitoTrip>> iterator() {
+                    return new RowIterator<Entry<Integer, MitoTrip>>() {
+                        @Override
+                        Entry<Integer, MitoTrip> element(int index) {
+                            return new SimpleImmutableEntry<>(ids[index], trips[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return TripsView.this.size();
+                }
+            };
+        }
+
+        /**
+         * Iterates the rows of the view, skipping empty rows of removed trips.
+         */
+        private abstract class RowIterator<T> implements Iterator<T> {
+
+            private int next = first(0);
+
+            abstract T element(int index);
+
+            private int first(int from) {
+                int index = from;
+                while (true) {
+                    if (subsampleOnly) {
+                        index = subsample.nextSetBit(index);
+                        if (index < 0) {
+                            return length;
+                        }
+                    }
+                    if (index >= length || trips[index] != null) {
+                        return index;
+                    }
+                    index++;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < length;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final T element = element(next);
+                next = first(next + 1);
+                return element;
+            }
+        }
+    }
+}
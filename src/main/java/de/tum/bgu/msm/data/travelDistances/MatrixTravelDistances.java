@@ -1,13 +1,14 @@
 package de.tum.bgu.msm.data.travelDistances;
 
 import de.tum.bgu.msm.io.output.OmxMatrixWriter;
-import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.Matrices;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
 
 public class MatrixTravelDistances implements TravelDistances {
 
-    private final IndexedDoubleMatrix2D matrix;
+    private final ReadableIndexedMatrix2D matrix;
 
-    public MatrixTravelDistances(IndexedDoubleMatrix2D matrix) {
+    public MatrixTravelDistances(ReadableIndexedMatrix2D matrix) {
         this.matrix = matrix;
     }
 
@@ -17,7 +18,7 @@ public class MatrixTravelDistances implements TravelDistances {
     }
 
     public void printOutDistanceSkim(String filePath, String matrixName) {
-        OmxMatrixWriter.createOmxSkimMatrix(matrix,
+        OmxMatrixWriter.createOmxSkimMatrix(Matrices.toDoubleMatrix2D(matrix),
                 filePath,
                 matrixName);
 
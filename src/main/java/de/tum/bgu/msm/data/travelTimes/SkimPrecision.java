@@ -0,0 +1,103 @@
+package de.tum.bgu.msm.data.travelTimes;
+
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedFixedPointMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedFloatMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
+
+import java.util.Locale;
+
+/**
+ * Storage precision of a travel time skim. Can be set per mode with the property
+ * {@link Properties#SKIM_PRECISION} followed by the mode, e.g. {@code skim.precision.car = float}.
+ */
+public enum SkimPrecision {
+
+    /**
+     * 8 bytes per cell. Default.
+     */
+    DOUBLE,
+
+    /**
+     * 4 bytes per cell.
+     */
+    FLOAT,
+
+    /**
+     * 2 bytes per cell with a fixed resolution given by {@link Properties#SKIM_FIXED_POINT_RESOLUTION}
+     * (in minutes, defaults to {@link #DEFAULT_FIXED_POINT_RESOLUTION}).
+     */
+    FIXED_POINT;
+
+    public static final double DEFAULT_FIXED_POINT_RESOLUTION = 0.02;
+
+    /**
+     * Creates an empty matrix of this precision for the given row and column ids.
+     */
+    public IndexedMatrix2D createMatrix(int[] rowLookup, int[] columnLookup) {
+        switch (this) {
+            case FLOAT:
+                return new IndexedFloatMatrix2D(rowLookup, columnLookup);
+            case FIXED_POINT:
+                return new IndexedFixedPointMatrix2D(rowLookup, columnLookup, getFixedPointResolution());
+            case DOUBLE:
+            default:
+                return new IndexedDoubleMatrix2D(rowLookup, columnLookup);
+        }
+    }
+
+    /**
+     * Creates an empty squared matrix of this precision for the given id lookup.
+     */
+    public IndexedMatrix2D createMatrix(int[] lookup) {
+        return createMatrix(lookup, lookup);
+    }
+
+    /**
+     * Returns the given matrix if it already is a modifiable matrix of this precision, or a copy with this
+     * precision otherwise.
+     */
+    public IndexedMatrix2D convert(ReadableIndexedMatrix2D matrix) {
+        if (this == DOUBLE && matrix instanceof IndexedDoubleMatrix2D
+                || this == FLOAT && matrix instanceof IndexedFloatMatrix2D
+                || this == FIXED_POINT && matrix instanceof IndexedFixedPointMatrix2D) {
+            return (IndexedMatrix2D) matrix;
+        }
+        final int[] rowIds = matrix.getRowLookupArray();
+        final int[] colIds = matrix.getColumnLookupArray();
+        final IndexedMatrix2D converted = createMatrix(rowIds, colIds);
+        for (int rowId : rowIds) {
+            for (int colId : colIds) {
+                converted.setIndexed(rowId, colId, matrix.getIndexed(rowId, colId));
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * Returns the configured precision for the given mode or {@link #DOUBLE} if none is set.
+     */
+    public static SkimPrecision forMode(String mode) {
+        if (Resources.instance == null) {
+            return DOUBLE;
+        }
+        final String value = Resources.instance.getString(Properties.SKIM_PRECISION + mode);
+        if (value == null) {
+            return DOUBLE;
+        }
+        return SkimPrecision.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the configured resolution of fixed-point skims in minutes.
+     */
+    public static double getFixedPointResolution() {
+        if (Resources.instance == null) {
+            return DEFAULT_FIXED_POINT_RESOLUTION;
+        }
+        return Resources.instance.getDouble(Properties.SKIM_FIXED_POINT_RESOLUTION, DEFAULT_FIXED_POINT_RESOLUTION);
+    }
+}
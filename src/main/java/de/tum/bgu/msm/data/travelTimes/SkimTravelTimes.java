@@ -4,14 +4,13 @@ import de.tum.bgu.msm.data.Id;
 import de.tum.bgu.msm.data.Location;
 import de.tum.bgu.msm.data.Region;
 import de.tum.bgu.msm.data.Zone;
+import de.tum.bgu.msm.io.input.SkimCache;
 import de.tum.bgu.msm.io.input.readers.CsvGzSkimMatrixReader;
 import de.tum.bgu.msm.io.output.OmxMatrixWriter;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
 import de.tum.bgu.msm.util.matrices.Matrices;
-import omx.OmxFile;
-import omx.OmxLookup;
-import omx.OmxMatrix;
-import omx.hdf5.OmxHdf5Datatype;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.TransportMode;
 
@@ -23,42 +22,42 @@ public class SkimTravelTimes implements TravelTimes {
 
     private final static Logger logger = Logger.getLogger(SkimTravelTimes.class);
 
-    private final ConcurrentMap<String, IndexedDoubleMatrix2D> matricesByMode = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ReadableIndexedMatrix2D> matricesByMode = new ConcurrentHashMap<>();
+    private final Map<String, SkimPrecision> precisionByMode = new ConcurrentHashMap<>();
+    /**
+     * Widened copies of skims that are stored with reduced precision, see {@link #getPeakSkim(String)}.
+     */
+    private final ConcurrentMap<String, WidenedSkim> widenedSkimsByMode = new ConcurrentHashMap<>();
 
     private Map<String, IndexedDoubleMatrix2D> travelTimesFromRegion = new HashMap<>();
     private final Map<String, IndexedDoubleMatrix2D> travelTimesToRegion = new HashMap<>();
 
+    /**
+     * Sets the precision in which skims of the given mode are stored. Applies to skims that are read or
+     * updated afterwards. If not set, the precision is taken from the properties, see {@link SkimPrecision#forMode(String)}.
+     */
+    public void setPrecision(String mode, SkimPrecision precision) {
+        precisionByMode.put(mode, precision);
+    }
+
+    public SkimPrecision getPrecision(String mode) {
+        return precisionByMode.computeIfAbsent(mode, SkimPrecision::forMode);
+    }
+
     /**
      * Reads a skim matrix from an omx file and stores it for the given mode and year. To allow conversion between units
-     * use the factor to multiply all values.
+     * use the factor to multiply all values. If a skim cache directory is configured, the skim is memory mapped from
+     * the cache, see {@link SkimCache}.
      * @param mode the mode for which the travel times are read
      * @param file the path to the omx file
      * @param matrixName the name of the matrix inside the omx file
      * @param factor a scalar factor which every entry is multiplied with
      */
     public final void readSkim(final String mode, final String file, final String matrixName, final double factor) {
-        logger.info("Reading " + mode + " skim");
-        final OmxFile omx = new OmxFile(file);
-        omx.openReadOnly();
-        final Set<String> lookupNames = omx.getLookupNames();
-        OmxLookup lookup = null;
-        if(!lookupNames.isEmpty()) {
-            final Iterator<String> iterator = omx.getLookupNames().iterator();
-            final String next = iterator.next();
-            lookup = omx.getLookup(next);
-            if(!lookup.getOmxJavaType().equals(OmxHdf5Datatype.OmxJavaType.INT)) {
-                throw new IllegalArgumentException("Provided omx matrix lookup " +
-                        "is not of type int but of type: " + lookup.getOmxJavaType().name() +
-                        " please use int.");
-            }
-            if(iterator.hasNext()) {
-                logger.warn("More than one lookup was provided. Will use the first one (name: " + next + ")");
-            }
-        }
-        final OmxMatrix timeOmxSkimTransit = omx.getMatrix(matrixName);
-        final IndexedDoubleMatrix2D skim = Matrices.convertOmxToDoubleMatrix2D(timeOmxSkimTransit, lookup, factor);
+        logger.info("Reading " + mode + " skim with " + getPrecision(mode) + " precision");
+        final ReadableIndexedMatrix2D skim = SkimCache.readOmx(file, matrixName, factor, getPrecision(mode));
         matricesByMode.put(mode, skim);
-        omx.close();
+        widenedSkimsByMode.remove(mode);
         travelTimesFromRegion.clear();
         travelTimesToRegion.clear();
     }
@@ -71,9 +70,11 @@ public class SkimTravelTimes implements TravelTimes {
      * @param factor a scalar factor which every entry is multiplied with
      */
     public final void readSkimFromCsvGz(final String mode, final String file, final double factor,Collection<? extends Id> zoneLookup) {
-        logger.info("Reading " + mode + " skim");
-        IndexedDoubleMatrix2D skim = new CsvGzSkimMatrixReader().readAndConvertToDoubleMatrix2D(file, factor, zoneLookup);
+        logger.info("Reading " + mode + " skim with " + getPrecision(mode) + " precision");
+        final int[] lookup = zoneLookup.stream().mapToInt(Id::getId).sorted().toArray();
+        IndexedMatrix2D skim = new CsvGzSkimMatrixReader().readInto(file, factor, getPrecision(mode).createMatrix(lookup));
         matricesByMode.put(mode, skim);
+        widenedSkimsByMode.remove(mode);
         travelTimesFromRegion.clear();
         travelTimesToRegion.clear();
     }
@@ -126,12 +127,14 @@ public class SkimTravelTimes implements TravelTimes {
 
 
     /**
-     * Updates a skim matrix from an external source
+     * Updates a skim matrix from an external source. The matrix is converted if the mode is stored with
+     * reduced precision.
      * @param mode the mode for which the travel times are read
      * @param skim the skim matrix with travel times in minutes
      */
     public void updateSkimMatrix(IndexedDoubleMatrix2D skim, String mode){
-        matricesByMode.put(mode, skim);
+        matricesByMode.put(mode, getPrecision(mode).convert(skim));
+        widenedSkimsByMode.remove(mode);
         logger.warn("The skim matrix for mode " + mode + " has been updated");
         travelTimesFromRegion.remove(mode);
         travelTimesToRegion.remove(mode);
@@ -152,7 +155,7 @@ public class SkimTravelTimes implements TravelTimes {
     }
 
     public void printOutCarSkim(String mode, String filePath, String matrixName) {
-        OmxMatrixWriter.createOmxSkimMatrix(matricesByMode.get(mode),
+        OmxMatrixWriter.createOmxSkimMatrix(Matrices.toDoubleMatrix2D(matricesByMode.get(mode)),
                 filePath,
                 matrixName);
     }
@@ -195,16 +198,40 @@ public class SkimTravelTimes implements TravelTimes {
         return travelTimesToRegion.get(mode).getIndexed(origin.getId(), destination.getId());
     }
 
+    /**
+     * Returns the skim of the given mode. If the mode is stored with reduced precision, a widened copy is
+     * returned. The copy is created once per skim and shared by all callers until the skim is replaced, so
+     * it must not be modified.
+     */
     @Override
     public IndexedDoubleMatrix2D getPeakSkim(String mode) {
-        return matricesByMode.get(mode);
+        final ReadableIndexedMatrix2D skim = matricesByMode.get(mode);
+        if (skim == null) {
+            return null;
+        }
+        if (skim instanceof IndexedDoubleMatrix2D) {
+            return (IndexedDoubleMatrix2D) skim;
+        }
+        return widenedSkimsByMode.compute(mode, (m, widened) ->
+                widened != null && widened.source == skim ? widened : new WidenedSkim(skim)).matrix;
     }
 
     @Override
     public TravelTimes duplicate() {
         SkimTravelTimes travelTimes = new SkimTravelTimes();
-        for(Map.Entry<String, IndexedDoubleMatrix2D> skims: this.matricesByMode.entrySet()) {
-            travelTimes.matricesByMode.put(skims.getKey(), skims.getValue().copy());
+        copySkimsTo(travelTimes);
+        return travelTimes;
+    }
+
+    /**
+     * Copies the skims and regional travel times of this instance into the given one.
+     */
+    protected void copySkimsTo(SkimTravelTimes travelTimes) {
+        travelTimes.precisionByMode.putAll(precisionByMode);
+        for(Map.Entry<String, ReadableIndexedMatrix2D> skims: this.matricesByMode.entrySet()) {
+            final ReadableIndexedMatrix2D skim = skims.getValue();
+            // read only skims (e.g. memory mapped ones) can be shared
+            travelTimes.matricesByMode.put(skims.getKey(), skim instanceof IndexedMatrix2D ? skim.copy() : skim);
         }
         for(Map.Entry<String, IndexedDoubleMatrix2D> entry: travelTimesFromRegion.entrySet()) {
             travelTimes.travelTimesFromRegion.put(entry.getKey(), entry.getValue().copy());
@@ -212,11 +239,24 @@ public class SkimTravelTimes implements TravelTimes {
         for(Map.Entry<String, IndexedDoubleMatrix2D> entry: travelTimesToRegion.entrySet()) {
             travelTimes.travelTimesToRegion.put(entry.getKey(), entry.getValue().copy());
         }
-        return travelTimes;
     }
 
     //TODO: used in silo. should probably return a deep copy to prevent illegal changes.
 	public IndexedDoubleMatrix2D getMatrixForMode(String mode) {
-			return matricesByMode.get(mode);
+			return getPeakSkim(mode);
 	}
-}
\ No newline at end of file
+
+    /**
+     * Widened copy of a skim. Keeps the skim it was created from, so that copies of replaced skims are
+     * not handed out.
+     */
+    private static final class WidenedSkim {
+        private final ReadableIndexedMatrix2D source;
+        private final IndexedDoubleMatrix2D matrix;
+
+        private WidenedSkim(ReadableIndexedMatrix2D source) {
+            this.source = source;
+            this.matrix = Matrices.toDoubleMatrix2D(source);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package de.tum.bgu.msm.data.travelTimes;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
+import de.tum.bgu.msm.data.Location;
+import de.tum.bgu.msm.io.input.SkimCache;
+import de.tum.bgu.msm.util.matrices.IndexedFixedPointMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedFloatMatrix2D;
+import de.tum.bgu.msm.util.matrices.MappedIndexedMatrix2D;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skim travel times that honour the time of day. For each mode, any number of time slices can be
+ * registered, each covering the time from its start until the start of the next slice. The last
+ * slice of a day also covers the time until the first slice starts, so slices wrap around midnight.
+ * <p>
+ * Slice matrices are loaded on first access and evicted in the order they were loaded once their
+ * total size exceeds the memory budget. Loaded matrices are referenced by their slice, so lookups
+ * only go through the cache to load a slice again after it has been evicted. Memory mapped slices
+ * from the {@link SkimCache} do not count towards the budget as they do not live on the heap. Modes
+ * without slices fall back to the single skim of {@link SkimTravelTimes}.
+ */
+public class TimeSlicedSkimTravelTimes extends SkimTravelTimes {
+
+    private static final Logger logger = Logger.getLogger(TimeSlicedSkimTravelTimes.class);
+
+    private static final double SECONDS_PER_DAY = 24 * 3600.;
+
+    private final long maxSliceBytes;
+    private final Map<String, ModeSlices> slicesByMode;
+    private final LoadingCache<Slice, ReadableIndexedMatrix2D> loadedSlices;
+
+    /**
+     * @param maxSliceBytes memory budget for loaded slice matrices
+     */
+    public TimeSlicedSkimTravelTimes(long maxSliceBytes) {
+        this(maxSliceBytes, new ConcurrentHashMap<>());
+    }
+
+    private TimeSlicedSkimTravelTimes(long maxSliceBytes, Map<String, ModeSlices> slicesByMode) {
+        this.maxSliceBytes = maxSliceBytes;
+        this.slicesByMode = slicesByMode;
+        // a single segment, so that the memory budget applies to all slices together
+        this.loadedSlices = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(Math.max(1, maxSliceBytes / 1024))
+                .weigher((Slice slice, ReadableIndexedMatrix2D matrix) -> getSizeInKiloBytes(matrix))
+                .removalListener((RemovalNotification<Slice, ReadableIndexedMatrix2D> notification) ->
+                        notification.getKey().unload(notification.getValue()))
+                .build(new CacheLoader<Slice, ReadableIndexedMatrix2D>() {
+                    @Override
+                    public ReadableIndexedMatrix2D load(Slice slice) throws Exception {
+                        logger.info("Loading " + slice.mode + " skim for time slice starting at " + slice.start_s / 3600. + "h");
+                        return slice.loader.call();
+                    }
+                });
+    }
+
+    /**
+     * Registers a time slice for the given mode. The matrix is only loaded by the loader once it is
+     * needed and may be loaded again after it has been evicted.
+     *
+     * @param mode        the mode of the slice
+     * @param startTime_s start of the slice in seconds after midnight
+     * @param loader      provides the travel time matrix (in minutes) of the slice
+     */
+    public void addSlice(String mode, double startTime_s, Callable<ReadableIndexedMatrix2D> loader) {
+        if (startTime_s < 0 || startTime_s >= SECONDS_PER_DAY) {
+            throw new IllegalArgumentException("Slice start has to be within the day but is " + startTime_s);
+        }
+        slicesByMode.compute(mode, (m, slices) -> (slices == null ? new ModeSlices() : slices)
+                .with(new Slice(mode, startTime_s, loader)));
+    }
+
+    /**
+     * Registers a time slice for the given mode that is read from an omx file in the precision of the mode.
+     *
+     * @see SkimTravelTimes#readSkim(String, String, String, double)
+     */
+    public void addOmxSlice(String mode, double startTime_s, String file, String matrixName, double factor) {
+        addSlice(mode, startTime_s, () -> SkimCache.readOmx(file, matrixName, factor, getPrecision(mode)));
+    }
+
+    public boolean hasSlices(String mode) {
+        return slicesByMode.containsKey(mode);
+    }
+
+    @Override
+    public double getTravelTime(Location origin, Location destination, double timeOfDay_s, String mode) {
+        final ModeSlices slices = slicesByMode.get(mode);
+        if (slices == null) {
+            return super.getTravelTime(origin, destination, timeOfDay_s, mode);
+        }
+        final Slice slice = slices.get(timeOfDay_s);
+        ReadableIndexedMatrix2D matrix = slice.matrix;
+        if (matrix == null) {
+            matrix = load(slice);
+        }
+        return matrix.getIndexed(origin.getZoneId(), destination.getZoneId());
+    }
+
+    private ReadableIndexedMatrix2D load(Slice slice) {
+        final ReadableIndexedMatrix2D matrix = loadedSlices.getUnchecked(slice);
+        slice.matrix = matrix;
+        // the matrix may have been evicted before the slice referenced it
+        if (loadedSlices.getIfPresent(slice) != matrix) {
+            slice.unload(matrix);
+        }
+        return matrix;
+    }
+
+    /**
+     * The copy has the slices registered so far and loads them independently.
+     */
+    @Override
+    public TravelTimes duplicate() {
+        final Map<String, ModeSlices> copiedSlices = new ConcurrentHashMap<>();
+        slicesByMode.forEach((mode, slices) -> copiedSlices.put(mode, slices.copy()));
+        final TimeSlicedSkimTravelTimes travelTimes = new TimeSlicedSkimTravelTimes(maxSliceBytes, copiedSlices);
+        copySkimsTo(travelTimes);
+        return travelTimes;
+    }
+
+    private static int getSizeInKiloBytes(ReadableIndexedMatrix2D matrix) {
+        if (matrix instanceof MappedIndexedMatrix2D) {
+            return 0;
+        }
+        final int bytesPerCell;
+        if (matrix instanceof IndexedFixedPointMatrix2D) {
+            bytesPerCell = Character.BYTES;
+        } else if (matrix instanceof IndexedFloatMatrix2D) {
+            bytesPerCell = Float.BYTES;
+        } else {
+            bytesPerCell = Double.BYTES;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, ((long) matrix.rows() * matrix.columns() * bytesPerCell + 1023) / 1024);
+    }
+
+    private static final class Slice {
+        private final String mode;
+        private final double start_s;
+        private final Callable<ReadableIndexedMatrix2D> loader;
+        /**
+         * The loaded matrix or null if the slice is not loaded.
+         */
+        private volatile ReadableIndexedMatrix2D matrix;
+
+        private Slice(String mode, double start_s, Callable<ReadableIndexedMatrix2D> loader) {
+            this.mode = mode;
+            this.start_s = start_s;
+            this.loader = loader;
+        }
+
+        /**
+         * Drops the reference to an evicted matrix, unless the slice has been loaded again in the meantime.
+         */
+        private synchronized void unload(ReadableIndexedMatrix2D evicted) {
+            if (matrix == evicted) {
+                matrix = null;
+            }
+        }
+    }
+
+    /**
+     * Immutable, sorted slices of a mode.
+     */
+    private static final class ModeSlices {
+        private final double[] starts;
+        private final Slice[] slices;
+
+        private ModeSlices() {
+            this(new double[0], new Slice[0]);
+        }
+
+        private ModeSlices(double[] starts, Slice[] slices) {
+            this.starts = starts;
+            this.slices = slices;
+        }
+
+        private ModeSlices copy() {
+            final Slice[] copiedSlices = new Slice[slices.length];
+            for (int i = 0; i < slices.length; i++) {
+                copiedSlices[i] = new Slice(slices[i].mode, slices[i].start_s, slices[i].loader);
+            }
+            return new ModeSlices(starts, copiedSlices);
+        }
+
+        private ModeSlices with(Slice slice) {
+            final TreeMap<Double, Slice> sorted = new TreeMap<>();
+            for (Slice existing : slices) {
+                sorted.put(existing.start_s, existing);
+            }
+            sorted.put(slice.start_s, slice);
+            final double[] newStarts = new double[sorted.size()];
+            final Slice[] newSlices = new Slice[sorted.size()];
+            int i = 0;
+            for (Map.Entry<Double, Slice> entry : sorted.entrySet()) {
+                newStarts[i] = entry.getKey();
+                newSlices[i] = entry.getValue();
+                i++;
+            }
+            return new ModeSlices(newStarts, newSlices);
+        }
+
+        private Slice get(double timeOfDay_s) {
+            double time = timeOfDay_s % SECONDS_PER_DAY;
+            if (time < 0) {
+                time += SECONDS_PER_DAY;
+            }
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (starts[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            // low is the number of slices starting at or before the given time
+            return slices[low == 0 ? slices.length - 1 : low - 1];
+        }
+    }
+}
@@ -2,6 +2,7 @@ package de.tum.bgu.msm.io.input;
 
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
 import de.tum.bgu.msm.util.matrices.Matrices;
 import omx.OmxFile;
 import omx.OmxLookup;
@@ -10,6 +11,7 @@ import org.apache.log4j.Logger;
 
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Created by Nico on 19.07.2017.
@@ -23,6 +25,14 @@ public abstract class AbstractOmxReader extends AbstractInputReader{
     }
 
     public static IndexedDoubleMatrix2D readAndConvertToDoubleMatrix(String fileName, String matrixName, double factor) {
+        return readAndConvert(fileName, matrixName, factor, IndexedDoubleMatrix2D::new);
+    }
+
+    /**
+     * Reads the given omx matrix into a matrix created by the factory, which receives the id lookup array.
+     */
+    public static <M extends IndexedMatrix2D> M readAndConvert(String fileName, String matrixName, double factor,
+                                                              Function<int[], M> factory) {
         OmxFile omx = new OmxFile(fileName);
         omx.openReadOnly();
         final Set<String> lookupNames = omx.getLookupNames();
@@ -40,7 +50,7 @@ public abstract class AbstractOmxReader extends AbstractInputReader{
                 logger.warn("More than one lookup was provided. Will use the first one (name: " + next + ")");
             }
         }
-        IndexedDoubleMatrix2D matrix = Matrices.convertOmxToDoubleMatrix2D(omx.getMatrix(matrixName), lookup, factor);
+        M matrix = Matrices.convertOmx(omx.getMatrix(matrixName), lookup, factor, factory);
         omx.close();
         return matrix;
     }
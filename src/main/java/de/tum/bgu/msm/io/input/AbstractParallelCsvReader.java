@@ -0,0 +1,262 @@
+package de.tum.bgu.msm.io.input;
+
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Csv reader for large input files. The file is read in blocks of complete lines through a {@link FileChannel}
+ * and every line is tokenised in place into a {@link CsvRecord}. Reading a record is split in two steps:
+ * {@link #parseRecord(CsvRecord)} converts it into an object of type T and may run on several threads, one
+ * block per task, while {@link #processRecord(Object)} is called on the reading thread in the order of the
+ * file. Parsing therefore must not modify the data set, whereas processing may.
+ * <p>
+ * The number of threads is set by {@value Properties#INPUT_PARALLELISM}. With a parallelism of 1, all records
+ * are parsed and processed on the reading thread.
+ *
+ * @param <T> type of the parsed records
+ */
+public abstract class AbstractParallelCsvReader<T> extends AbstractInputReader {
+
+    private static final Logger logger = Logger.getLogger(AbstractParallelCsvReader.class);
+
+    private static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private final int blockSize;
+
+    private final AtomicLong numberOfRecords = new AtomicLong();
+
+    protected AbstractParallelCsvReader(DataSet dataSet) {
+        this(dataSet, DEFAULT_BLOCK_SIZE);
+    }
+
+    AbstractParallelCsvReader(DataSet dataSet, int blockSize) {
+        super(dataSet);
+        this.blockSize = blockSize;
+    }
+
+    protected abstract void processHeader(String[] header);
+
+    /**
+     * Converts the record, which is only valid during this call, into an object that is passed to
+     * {@link #processRecord(Object)}. Returning null skips the record. May be called concurrently and must
+     * not modify shared state.
+     */
+    protected abstract T parseRecord(CsvRecord record);
+
+    /**
+     * Processes a parsed record. Called on the reading thread in the order of the file.
+     */
+    protected abstract void processRecord(T record);
+
+    public void read(Path filePath, String delimiter) {
+        read(filePath, delimiter, Resources.instance.getInt(Properties.INPUT_PARALLELISM,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Reads the file, whose first line is the header. The delimiter has to be a single character.
+     */
+    public void read(Path filePath, String delimiter, int parallelism) {
+        if (delimiter.length() != 1) {
+            throw new IllegalArgumentException("Delimiter " + delimiter + " is not a single character.");
+        }
+        numberOfRecords.set(0);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            final BlockReader blocks = new BlockReader(channel, blockSize);
+            Block block = blocks.next();
+            if (block == null) {
+                logger.error("Error initializing csv reader: " + filePath + " is empty.");
+                return;
+            }
+            block = readHeader(block, delimiter);
+            if (parallelism > 1) {
+                readParallel(block, blocks, (byte) delimiter.charAt(0), parallelism);
+            } else {
+                final CsvRecord record = new CsvRecord((byte) delimiter.charAt(0));
+                for (; block != null; block = blocks.next()) {
+                    for (T parsed : parseBlock(block, record)) {
+                        processRecord(parsed);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading csv file " + filePath + " after " + numberOfRecords + " records: " + e.getMessage(), e);
+        }
+        logger.info(this.getClass().getSimpleName() + ": Read " + numberOfRecords + " records.");
+    }
+
+    private Block readHeader(Block block, String delimiter) {
+        final int lineEnd = block.lineEnd(block.start);
+        final String header = new String(block.bytes, block.start,
+                block.trimLineEnd(block.start, lineEnd) - block.start, StandardCharsets.ISO_8859_1);
+        processHeader(header.split(Pattern.quote(delimiter)));
+        return new Block(block.bytes, Math.min(lineEnd + 1, block.length), block.length);
+    }
+
+    /**
+     * Parses the blocks on a pool of worker threads while the calling thread reads the next blocks and
+     * processes the results in the order of the file. At most two blocks per thread are in flight.
+     */
+    private void readParallel(Block first, BlockReader blocks, byte delimiter, int parallelism) throws IOException {
+        final ConcurrentExecutor<List<T>> executor = ConcurrentExecutor.fixedPoolService(parallelism);
+        final Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        try {
+            for (Block block = first; block != null; block = blocks.next()) {
+                final Block task = block;
+                pending.add(executor.submitTask(() -> parseBlock(task, new CsvRecord(delimiter))));
+                if (pending.size() >= 2 * parallelism) {
+                    processBlock(pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                processBlock(pending.poll());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void processBlock(Future<List<T>> future) {
+        try {
+            for (T parsed : future.get()) {
+                processRecord(parsed);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<T> parseBlock(Block block, CsvRecord record) {
+        final List<T> parsed = new ArrayList<>();
+        int records = 0;
+        int lineStart = block.start;
+        while (lineStart < block.length) {
+            final int lineEnd = block.lineEnd(lineStart);
+            final int recordEnd = block.trimLineEnd(lineStart, lineEnd);
+            if (recordEnd > lineStart) {
+                record.set(block.bytes, lineStart, recordEnd);
+                final T result = parseRecord(record);
+                if (result != null) {
+                    parsed.add(result);
+                }
+                records++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        numberOfRecords.addAndGet(records);
+        return parsed;
+    }
+
+    /**
+     * Bytes [start, length) of a block, consisting of complete lines. Only the last line of a file may miss
+     * its line terminator.
+     */
+    private static final class Block {
+
+        private final byte[] bytes;
+        private final int start;
+        private final int length;
+
+        private Block(byte[] bytes, int start, int length) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = length;
+        }
+
+        /**
+         * Returns the position of the next line feed, or the block length if there is none.
+         */
+        private int lineEnd(int from) {
+            for (int i = from; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+            return length;
+        }
+
+        /**
+         * Excludes a carriage return before the line end.
+         */
+        private int trimLineEnd(int lineStart, int lineEnd) {
+            return lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        }
+    }
+
+    /**
+     * Reads a channel in blocks that end after the last complete line. The incomplete line at the end of a
+     * block is carried over to the next one. Each block has its own array, so blocks can be parsed while the
+     * next ones are read.
+     */
+    private static final class BlockReader {
+
+        private final FileChannel channel;
+        private final int blockSize;
+        private byte[] carry = new byte[0];
+        private boolean endOfFile = false;
+
+        private BlockReader(FileChannel channel, int blockSize) {
+            this.channel = channel;
+            this.blockSize = blockSize;
+        }
+
+        private Block next() throws IOException {
+            if (endOfFile && carry.length == 0) {
+                return null;
+            }
+            byte[] bytes = Arrays.copyOf(carry, Math.max(blockSize, 2 * carry.length));
+            int length = carry.length;
+            int searchFrom = length;
+            while (true) {
+                while (!endOfFile && length < bytes.length) {
+                    final int read = channel.read(ByteBuffer.wrap(bytes, length, bytes.length - length));
+                    if (read < 0) {
+                        endOfFile = true;
+                    } else {
+                        length += read;
+                    }
+                }
+                final int lastLineFeed = lastLineFeed(bytes, searchFrom, length);
+                if (endOfFile) {
+                    carry = new byte[0];
+                    return length > 0 ? new Block(bytes, 0, length) : null;
+                } else if (lastLineFeed >= 0) {
+                    carry = Arrays.copyOfRange(bytes, lastLineFeed + 1, length);
+                    return new Block(bytes, 0, lastLineFeed + 1);
+                } else {
+                    // a single line is longer than the block
+                    searchFrom = length;
+                    bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+                }
+            }
+        }
+
+        private static int lastLineFeed(byte[] bytes, int from, int to) {
+            for (int i = to - 1; i >= from; i--) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package de.tum.bgu.msm.io.input;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A record of a csv file that is tokenised in place: the fields are ranges of the byte block the record was
+ * read from, and numbers are parsed directly from these bytes without creating strings. Files are decoded
+ * as ISO-8859-1, as in {@link AbstractCsvReader}.
+ * <p>
+ * A record is only valid during the call it is passed to and is reused for the next record.
+ */
+public final class CsvRecord {
+
+    private static final int MAX_FAST_DOUBLE_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final byte delimiter;
+
+    private byte[] bytes;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int size;
+
+    CsvRecord(byte delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Points this record to the line bytes[from, to), which must not contain the line terminator.
+     */
+    void set(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        size = 0;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == delimiter) {
+                addField(start, i);
+                start = i + 1;
+            }
+        }
+        addField(start, to);
+    }
+
+    private void addField(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    /**
+     * Returns the number of fields. Unlike {@link String#split(String)}, trailing empty fields are counted.
+     */
+    public int size() {
+        return size;
+    }
+
+    public String getString(int field) {
+        checkIndex(field);
+        return new String(bytes, starts[field], ends[field] - starts[field], StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Parses the field like {@link Boolean#parseBoolean(String)}.
+     */
+    public boolean getBoolean(int field) {
+        checkIndex(field);
+        final int start = starts[field];
+        if (ends[field] - start != 4) {
+            return false;
+        }
+        return (bytes[start] | 0x20) == 't' && (bytes[start + 1] | 0x20) == 'r'
+                && (bytes[start + 2] | 0x20) == 'u' && (bytes[start + 3] | 0x20) == 'e';
+    }
+
+    /**
+     * Parses the field like {@link Integer#parseInt(String)}.
+     *
+     * @throws NumberFormatException if the field is not a decimal integer in the range of int
+     */
+    public int getInt(int field) {
+        checkIndex(field);
+        int position = starts[field];
+        final int end = ends[field];
+        if (position == end) {
+            throw numberFormatException(field);
+        }
+        boolean negative = false;
+        final byte first = bytes[position];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++position == end) {
+                throw numberFormatException(field);
+            }
+        }
+        // accumulate negatively as Integer.parseInt does, so that Integer.MIN_VALUE can be parsed
+        final int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        final int multiplicationLimit = limit / 10;
+        int result = 0;
+        while (position < end) {
+            final int digit = bytes[position++] - '0';
+            if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+                throw numberFormatException(field);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormatException(field);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses the field like {@link Double#parseDouble(String)} and returns the identical value. Decimal
+     * numbers with up to 18 significant digits whose mantissa and power of ten are exact doubles are
+     * converted directly from the bytes; all other fields are passed to {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double getDouble(int field) {
+        checkIndex(field);
+        int position = starts[field];
+        final int end = ends[field];
+        boolean negative = false;
+        if (position < end && (bytes[position] == '-' || bytes[position] == '+')) {
+            negative = bytes[position] == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for (; position < end; position++) {
+            final byte b = bytes[position];
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (fraction) {
+                        exponent--;
+                    }
+                    continue;
+                }
+                if (++significantDigits > MAX_FAST_DOUBLE_DIGITS) {
+                    return parseDoubleSlow(field);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return parseDoubleSlow(field);
+        }
+        if (position < end) {
+            if ((bytes[position] | 0x20) != 'e' || ++position == end) {
+                return parseDoubleSlow(field);
+            }
+            boolean negativeExponent = false;
+            if (bytes[position] == '-' || bytes[position] == '+') {
+                negativeExponent = bytes[position] == '-';
+                if (++position == end) {
+                    return parseDoubleSlow(field);
+                }
+            }
+            int explicitExponent = 0;
+            for (; position < end; position++) {
+                final int digit = bytes[position] - '0';
+                if (digit < 0 || digit > 9 || explicitExponent > 1000) {
+                    return parseDoubleSlow(field);
+                }
+                explicitExponent = explicitExponent * 10 + digit;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (mantissa == 0) {
+            return negative ? -0. : 0.;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return parseDoubleSlow(field);
+        }
+        // both operands are exact, so the single rounding of the operation gives the correctly rounded result
+        final double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int field) {
+        return Double.parseDouble(getString(field));
+    }
+
+    private void checkIndex(int field) {
+        if (field < 0 || field >= size) {
+            throw new ArrayIndexOutOfBoundsException("Field " + field + " does not exist in record \"" + this + "\"");
+        }
+    }
+
+    private NumberFormatException numberFormatException(int field) {
+        return new NumberFormatException("For input string: \"" + getString(field) + "\"");
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "";
+        }
+        return new String(bytes, starts[0], ends[size - 1] - starts[0], StandardCharsets.ISO_8859_1);
+    }
+}
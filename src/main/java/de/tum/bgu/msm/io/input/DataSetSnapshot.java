@@ -0,0 +1,340 @@
+package de.tum.bgu.msm.io.input;
+
+import com.google.common.collect.Multiset;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import de.tum.bgu.msm.data.*;
+import de.tum.bgu.msm.data.jobTypes.JobType;
+import de.tum.bgu.msm.data.jobTypes.JobTypeFactory;
+import org.apache.log4j.Logger;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the zones and the synthetic population of a data set: zones with their attributes and
+ * geometry, jobs, schools, households with their home locations, and persons with their occupations.
+ * <p>
+ * The header holds a format version and a checksum of the input files the data was read from, see
+ * {@link #checksum(List, String...)}. A snapshot is only loaded if both match, and the content is protected
+ * by a CRC32, so a stale or truncated snapshot is never used. Enum values are stored by ordinal, so
+ * {@link #VERSION} has to be increased whenever the format or one of the stored enums changes.
+ */
+public final class DataSetSnapshot {
+
+    private static final Logger logger = Logger.getLogger(DataSetSnapshot.class);
+
+    public static final int VERSION = 1;
+
+    private static final String MAGIC = "MITO-DATASET";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NO_OCCUPATION = 0;
+    private static final byte JOB = 1;
+    private static final byte SCHOOL = 2;
+
+    private DataSetSnapshot() {
+    }
+
+    /**
+     * Returns a checksum of the contents of the given files and of the given settings, which affect how
+     * the files are read.
+     */
+    public static String checksum(List<Path> files, String... settings) throws IOException {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(VERSION);
+        for (String setting : settings) {
+            hasher.putString(String.valueOf(setting), StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        for (Path file : files) {
+            hasher.putString(file.getFileName().toString(), StandardCharsets.UTF_8).putLong(Files.size(file));
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    hasher.putBytes(buffer, 0, read);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Writes the snapshot. The file is written next to the target and then moved, so concurrent runs never
+     * see a partial snapshot.
+     */
+    public static void write(DataSet dataSet, Path file, String sourceChecksum) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(temporaryFile)) {
+                final DataOutputStream header = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+                header.writeUTF(MAGIC);
+                header.writeInt(VERSION);
+                header.writeUTF(sourceChecksum);
+                final CheckedOutputStream checked = new CheckedOutputStream(header, new CRC32());
+                final DataOutputStream out = new DataOutputStream(checked);
+                writeZones(dataSet, out);
+                writeOccupations(dataSet.getJobs().values(), out);
+                writeOccupations(dataSet.getSchools().values(), out);
+                writeHouseholds(dataSet, out);
+                writePersons(dataSet, out);
+                out.flush();
+                header.writeLong(checked.getChecksum().getValue());
+                header.flush();
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Reads the snapshot into the given data set, which must not contain zones or population yet. Returns
+     * false and leaves the data set unchanged if the file does not exist, has another version or source
+     * checksum, or is corrupt.
+     */
+    public static boolean read(DataSet dataSet, Path file, String sourceChecksum, JobTypeFactory jobTypeFactory) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            final DataInputStream header = new DataInputStream(new BufferedInputStream(fileIn, BUFFER_SIZE));
+            if (!MAGIC.equals(header.readUTF())) {
+                logger.warn(file + " is not a data set snapshot.");
+                return false;
+            }
+            final int version = header.readInt();
+            if (version != VERSION) {
+                logger.info("Snapshot " + file + " has version " + version + " instead of " + VERSION + ".");
+                return false;
+            }
+            if (!sourceChecksum.equals(header.readUTF())) {
+                logger.info("Input files changed since snapshot " + file + " was written.");
+                return false;
+            }
+            final CheckedInputStream checked = new CheckedInputStream(header, new CRC32());
+            final DataInputStream in = new DataInputStream(checked);
+            final Map<Integer, MitoZone> zones = readZones(in, jobTypeFactory);
+            final List<MitoJob> jobs = new ArrayList<>();
+            final int numberOfJobs = in.readInt();
+            for (int i = 0; i < numberOfJobs; i++) {
+                final int id = in.readInt();
+                jobs.add(new MitoJob(zones.get(in.readInt()), readCoordinate(in), id));
+            }
+            final List<MitoSchool> schools = new ArrayList<>();
+            final int numberOfSchools = in.readInt();
+            for (int i = 0; i < numberOfSchools; i++) {
+                final int id = in.readInt();
+                schools.add(new MitoSchool(zones.get(in.readInt()), readCoordinate(in), id));
+            }
+            final Map<Integer, MitoHousehold> households = readHouseholds(in, zones);
+            final List<MitoPerson> persons = readPersons(in, households, jobs, schools);
+            final long expectedCrc = checked.getChecksum().getValue();
+            if (header.readLong() != expectedCrc) {
+                logger.warn("Snapshot " + file + " is corrupt.");
+                return false;
+            }
+
+            zones.values().forEach(dataSet::addZone);
+            jobs.forEach(dataSet::addJob);
+            schools.forEach(dataSet::addSchool);
+            households.values().forEach(dataSet::addHousehold);
+            persons.forEach(dataSet::addPerson);
+            logger.info("Read " + zones.size() + " zones, " + households.size() + " households and "
+                    + persons.size() + " persons from snapshot " + file);
+            return true;
+        } catch (IOException | ParseException | RuntimeException e) {
+            logger.warn("Could not read snapshot " + file + ". " + e);
+            return false;
+        }
+    }
+
+    private static void writeZones(DataSet dataSet, DataOutputStream out) throws IOException {
+        final WKBWriter wkbWriter = new WKBWriter(2, true);
+        out.writeInt(dataSet.getZones().size());
+        for (MitoZone zone : dataSet.getZones().values()) {
+            out.writeInt(zone.getId());
+            out.writeByte(zone.getAreaTypeSG() == null ? -1 : zone.getAreaTypeSG().ordinal());
+            out.writeInt(zone.getAGS());
+            out.writeFloat(zone.getReductionAtBorderDamper());
+            out.writeInt(zone.getNumberOfHouseholds());
+            out.writeInt(zone.getSchoolEnrollment());
+            final Multiset<JobType> employees = zone.getEmployeesByType();
+            out.writeInt(employees.elementSet().size());
+            for (Multiset.Entry<JobType> entry : employees.entrySet()) {
+                out.writeUTF(entry.getElement().toString());
+                out.writeInt(entry.getCount());
+            }
+            if (zone.getGeometry() == null) {
+                out.writeInt(-1);
+            } else {
+                final byte[] wkb = wkbWriter.write(zone.getGeometry());
+                out.writeInt(wkb.length);
+                out.write(wkb);
+            }
+        }
+    }
+
+    private static Map<Integer, MitoZone> readZones(DataInputStream in, JobTypeFactory jobTypeFactory) throws IOException, ParseException {
+        final WKBReader wkbReader = new WKBReader();
+        final int numberOfZones = in.readInt();
+        final Map<Integer, MitoZone> zones = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfZones; i++) {
+            final int id = in.readInt();
+            final int areaType = in.readByte();
+            final MitoZone zone = new MitoZone(id, areaType < 0 ? null : AreaTypes.SGType.values()[areaType]);
+            zone.setAGS(in.readInt());
+            zone.setReductionAtBorderDamper(in.readFloat());
+            final int numberOfHouseholds = in.readInt();
+            for (int j = 0; j < numberOfHouseholds; j++) {
+                zone.addHousehold();
+            }
+            zone.addSchoolEnrollment(in.readInt());
+            final int numberOfJobTypes = in.readInt();
+            for (int j = 0; j < numberOfJobTypes; j++) {
+                final JobType type = jobTypeFactory.getType(in.readUTF());
+                zone.addEmployeesForType(type, in.readInt());
+            }
+            final int wkbLength = in.readInt();
+            if (wkbLength >= 0) {
+                final byte[] wkb = new byte[wkbLength];
+                in.readFully(wkb);
+                final Geometry geometry = wkbReader.read(wkb);
+                zone.setGeometry(geometry);
+            }
+            zones.put(id, zone);
+        }
+        return zones;
+    }
+
+    private static void writeOccupations(Collection<? extends MitoOccupation> occupations, DataOutputStream out) throws IOException {
+        out.writeInt(occupations.size());
+        for (MitoOccupation occupation : occupations) {
+            out.writeInt(occupation.getId());
+            out.writeInt(occupation.getOccupationZone().getId());
+            writeCoordinate(occupation.getCoordinate(), out);
+        }
+    }
+
+    private static void writeHouseholds(DataSet dataSet, DataOutputStream out) throws IOException {
+        out.writeInt(dataSet.getHouseholds().size());
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            out.writeInt(household.getId());
+            out.writeInt(household.getMonthlyIncome_EUR());
+            out.writeInt(household.getAutos());
+            out.writeBoolean(household.getHomeZone() != null);
+            if (household.getHomeZone() != null) {
+                out.writeInt(household.getHomeZone().getId());
+            }
+            out.writeBoolean(household.getHomeLocation() != null);
+            if (household.getHomeLocation() != null) {
+                writeCoordinate(household.getHomeLocation(), out);
+            }
+        }
+    }
+
+    private static Map<Integer, MitoHousehold> readHouseholds(DataInputStream in, Map<Integer, MitoZone> zones) throws IOException {
+        final int numberOfHouseholds = in.readInt();
+        final Map<Integer, MitoHousehold> households = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfHouseholds; i++) {
+            final MitoHousehold household = new MitoHousehold(in.readInt(), in.readInt(), in.readInt());
+            if (in.readBoolean()) {
+                household.setHomeZone(zones.get(in.readInt()));
+            }
+            if (in.readBoolean()) {
+                household.setHomeLocation(readCoordinate(in));
+            }
+            households.put(household.getId(), household);
+        }
+        return households;
+    }
+
+    /**
+     * Persons are written in the order of the data set, each with the id of its household.
+     */
+    private static void writePersons(DataSet dataSet, DataOutputStream out) throws IOException {
+        out.writeInt(dataSet.getPersons().size());
+        final Map<Integer, Integer> householdIds = new HashMap<>();
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            for (MitoPerson person : household.getPersons().values()) {
+                householdIds.put(person.getId(), household.getId());
+            }
+        }
+        for (MitoPerson person : dataSet.getPersons().values()) {
+            out.writeInt(person.getId());
+            final Integer householdId = householdIds.get(person.getId());
+            if (householdId == null) {
+                throw new IOException("Person " + person.getId() + " does not belong to a household.");
+            }
+            out.writeInt(householdId);
+            out.writeByte(person.getMitoOccupationStatus().ordinal());
+            final MitoOccupation occupation = person.getOccupation();
+            if (occupation instanceof MitoJob) {
+                out.writeByte(JOB);
+                out.writeInt(occupation.getId());
+            } else if (occupation instanceof MitoSchool) {
+                out.writeByte(SCHOOL);
+                out.writeInt(occupation.getId());
+            } else if (occupation == null) {
+                out.writeByte(NO_OCCUPATION);
+            } else {
+                throw new IOException("Unsupported occupation " + occupation.getClass() + " of person " + person.getId());
+            }
+            out.writeInt(person.getAge());
+            out.writeByte(person.getMitoGender().ordinal());
+            out.writeBoolean(person.hasDriversLicense());
+        }
+    }
+
+    private static List<MitoPerson> readPersons(DataInputStream in, Map<Integer, MitoHousehold> households,
+                                                List<MitoJob> jobs, List<MitoSchool> schools) throws IOException {
+        final Map<Integer, MitoJob> jobsById = new HashMap<>();
+        jobs.forEach(job -> jobsById.put(job.getId(), job));
+        final Map<Integer, MitoSchool> schoolsById = new HashMap<>();
+        schools.forEach(school -> schoolsById.put(school.getId(), school));
+
+        final int numberOfPersons = in.readInt();
+        final List<MitoPerson> persons = new ArrayList<>(numberOfPersons);
+        for (int i = 0; i < numberOfPersons; i++) {
+            final int id = in.readInt();
+            final MitoHousehold household = households.get(in.readInt());
+            final MitoOccupationStatus status = MitoOccupationStatus.values()[in.readByte()];
+            final byte occupationType = in.readByte();
+            MitoOccupation occupation = null;
+            if (occupationType == JOB) {
+                occupation = jobsById.get(in.readInt());
+            } else if (occupationType == SCHOOL) {
+                occupation = schoolsById.get(in.readInt());
+            }
+            final int age = in.readInt();
+            final MitoGender gender = MitoGender.values()[in.readByte()];
+            final MitoPerson person = new MitoPerson(id, status, occupation, age, gender, in.readBoolean());
+            household.addPerson(person);
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    private static void writeCoordinate(Coordinate coordinate, DataOutputStream out) throws IOException {
+        out.writeDouble(coordinate.x);
+        out.writeDouble(coordinate.y);
+    }
+
+    private static Coordinate readCoordinate(DataInputStream in) throws IOException {
+        return new Coordinate(in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,99 @@
+package de.tum.bgu.msm.io.input;
+
+import com.google.common.hash.Hashing;
+import de.tum.bgu.msm.data.travelTimes.SkimPrecision;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
+import de.tum.bgu.msm.util.matrices.MappedIndexedMatrix2D;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Keeps omx skims as binary matrix files in the directory given by {@link Properties#SKIM_CACHE_DIRECTORY}.
+ * The first read of a skim converts it from omx and writes it to the cache, later reads (also by other
+ * runs or SILO years) memory map the cached file instead of decoding the omx file again. Processes on
+ * the same machine mapping the same cache file share its pages.
+ * <p>
+ * Cache files are keyed by the omx file (path, size and modification time), the matrix name, the unit
+ * conversion factor and the precision, so changed inputs are converted again. If no cache directory is
+ * set, skims are read from omx directly.
+ */
+public final class SkimCache {
+
+    private static final Logger logger = Logger.getLogger(SkimCache.class);
+
+    private SkimCache() {
+    }
+
+    /**
+     * Returns the given omx skim, either mapped from the cache or converted from omx. Mapped skims are read
+     * only and have to be copied to be modified.
+     *
+     * @param fileName   the path to the omx file
+     * @param matrixName the name of the matrix inside the omx file
+     * @param factor     a scalar factor which every entry is multiplied with
+     * @param precision  the precision in which the skim is stored
+     */
+    public static ReadableIndexedMatrix2D readOmx(String fileName, String matrixName, double factor, SkimPrecision precision) {
+        final Path directory = getCacheDirectory();
+        if (directory == null) {
+            return AbstractOmxReader.readAndConvert(fileName, matrixName, factor, precision::createMatrix);
+        }
+
+        final Path cacheFile;
+        try {
+            cacheFile = directory.resolve(getCacheFileName(Paths.get(fileName), matrixName, factor, precision));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                final MappedIndexedMatrix2D matrix = MappedIndexedMatrix2D.open(cacheFile);
+                logger.info("Mapped skim " + matrixName + " from cache " + cacheFile);
+                return matrix;
+            } catch (IOException e) {
+                logger.warn("Could not open cached skim " + cacheFile + ". Reading omx file instead. " + e.getMessage());
+            }
+        }
+
+        final IndexedMatrix2D matrix = AbstractOmxReader.readAndConvert(fileName, matrixName, factor, precision::createMatrix);
+        try {
+            MappedIndexedMatrix2D.write(matrix, cacheFile);
+            logger.info("Wrote skim " + matrixName + " to cache " + cacheFile);
+            return MappedIndexedMatrix2D.open(cacheFile);
+        } catch (IOException e) {
+            logger.warn("Could not write skim cache " + cacheFile + ". " + e.getMessage());
+            return matrix;
+        }
+    }
+
+    private static Path getCacheDirectory() {
+        if (Resources.instance == null || Resources.instance.getString(Properties.SKIM_CACHE_DIRECTORY) == null) {
+            return null;
+        }
+        return Resources.instance.getRelativePath(Properties.SKIM_CACHE_DIRECTORY);
+    }
+
+    private static String getCacheFileName(Path omxFile, String matrixName, double factor, SkimPrecision precision) throws IOException {
+        final String key = omxFile.toAbsolutePath().normalize()
+                + "|" + Files.size(omxFile)
+                + "|" + Files.getLastModifiedTime(omxFile).toMillis()
+                + "|" + matrixName
+                + "|" + factor
+                + "|" + precision
+                + "|" + (precision == SkimPrecision.FIXED_POINT ? SkimPrecision.getFixedPointResolution() : 0);
+        final String hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).toString();
+        String baseName = omxFile.getFileName().toString();
+        if (baseName.endsWith(".omx")) {
+            baseName = baseName.substring(0, baseName.length() - 4);
+        }
+        return baseName + "_" + matrixName + "_" + hash + ".mtx";
+    }
+}
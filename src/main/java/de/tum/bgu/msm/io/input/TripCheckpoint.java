@@ -0,0 +1,443 @@
+package de.tum.bgu.msm.io.input;
+
+import de.tum.bgu.msm.data.*;
+import org.apache.log4j.Logger;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary checkpoint of the travel demand of a data set after one of the stages of the
+ * {@link de.tum.bgu.msm.TravelDemandGenerator}: the trip attractions of the zones, the travel time budgets of the
+ * households and the trip table with household, person, origin, destination, mode, departure times and membership
+ * in the trip sub-sample.
+ * <p>
+ * The trip table is stored by column, one array per attribute, which keeps the file compact and the reading loop
+ * free of branches for the dense columns. Origins and destinations refer to zones, households, jobs and schools by
+ * id; other micro locations, e.g. the airport, are stored with their coordinate. A checkpoint therefore has to be
+ * read into a data set holding the same zones and synthetic population it was written from, which is checked
+ * while reading. Enum values are stored by ordinal, so {@link #VERSION} has to be increased whenever the format
+ * or one of the stored enums changes.
+ */
+public final class TripCheckpoint {
+
+    private static final Logger logger = Logger.getLogger(TripCheckpoint.class);
+
+    public static final int VERSION = 1;
+
+    private static final String MAGIC = "MITO-TRIPS";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte NO_LOCATION = 0;
+    private static final byte ZONE = 1;
+    private static final byte HOUSEHOLD = 2;
+    private static final byte JOB = 3;
+    private static final byte SCHOOL = 4;
+    private static final byte MICRO_LOCATION = 5;
+
+    private TripCheckpoint() {
+    }
+
+    /**
+     * Writes the checkpoint of the given stage. The file is written next to the target and then moved, so a
+     * crash while writing never leaves a partial checkpoint behind.
+     */
+    public static void write(DataSet dataSet, Path file, String stage) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(temporaryFile)) {
+                final DataOutputStream header = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+                header.writeUTF(MAGIC);
+                header.writeInt(VERSION);
+                header.writeUTF(stage);
+                final CheckedOutputStream checked = new CheckedOutputStream(header, new CRC32());
+                final DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(Purpose.values().length);
+                writeAttractions(dataSet, out);
+                writeBudgets(dataSet, out);
+                writeTrips(dataSet, out);
+                out.flush();
+                header.writeLong(checked.getChecksum().getValue());
+                header.flush();
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Reads the checkpoint of the given stage into the data set, which must hold the zones and synthetic population
+     * but no trips yet. The data set is only changed once the whole checkpoint has been read and verified.
+     *
+     * @throws IOException if the file cannot be read, belongs to another stage or version, is corrupt, or refers to
+     *                     zones, households or persons that are not part of the data set
+     */
+    public static void read(DataSet dataSet, Path file, String stage) throws IOException {
+        if (!dataSet.getTrips().isEmpty()) {
+            throw new IllegalStateException("Cannot read checkpoint " + file + " into a data set that already holds trips.");
+        }
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            final DataInputStream header = new DataInputStream(new BufferedInputStream(fileIn, BUFFER_SIZE));
+            if (!MAGIC.equals(header.readUTF())) {
+                throw new IOException(file + " is not a trip checkpoint.");
+            }
+            final int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("Checkpoint " + file + " has version " + version + " instead of " + VERSION + ".");
+            }
+            final String fileStage = header.readUTF();
+            if (!stage.equals(fileStage)) {
+                throw new IOException("Checkpoint " + file + " was written after " + fileStage + " instead of " + stage + ".");
+            }
+            final CheckedInputStream checked = new CheckedInputStream(header, new CRC32());
+            final DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != Purpose.values().length) {
+                throw new IOException("Checkpoint " + file + " was written with other purposes.");
+            }
+            final Map<MitoZone, double[]> attractions = readAttractions(dataSet, in);
+            final Map<MitoHousehold, double[]> budgets = readBudgets(dataSet, in);
+            final TripColumns trips = readTrips(dataSet, in);
+            final long expectedCrc = checked.getChecksum().getValue();
+            if (header.readLong() != expectedCrc) {
+                throw new IOException("Checkpoint " + file + " is corrupt.");
+            }
+
+            for (Map.Entry<MitoZone, double[]> entry : attractions.entrySet()) {
+                for (Purpose purpose : Purpose.values()) {
+                    entry.getKey().setTripAttraction(purpose, entry.getValue()[purpose.ordinal()]);
+                }
+            }
+            for (Map.Entry<MitoHousehold, double[]> entry : budgets.entrySet()) {
+                for (Purpose purpose : Purpose.values()) {
+                    final double budget = entry.getValue()[purpose.ordinal()];
+                    if (!Double.isNaN(budget)) {
+                        entry.getKey().setTravelTimeBudgetByPurpose(purpose, budget);
+                    }
+                }
+            }
+            trips.addTo(dataSet);
+            logger.info("Read " + trips.ids.length + " trips from checkpoint " + file);
+        }
+    }
+
+    private static void writeAttractions(DataSet dataSet, DataOutputStream out) throws IOException {
+        out.writeInt(dataSet.getZones().size());
+        for (MitoZone zone : dataSet.getZones().values()) {
+            out.writeInt(zone.getId());
+            for (Purpose purpose : Purpose.values()) {
+                out.writeDouble(zone.getTripAttraction(purpose));
+            }
+        }
+    }
+
+    private static Map<MitoZone, double[]> readAttractions(DataSet dataSet, DataInputStream in) throws IOException {
+        final int numberOfZones = in.readInt();
+        final Map<MitoZone, double[]> attractions = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfZones; i++) {
+            final MitoZone zone = get(dataSet.getZones(), in.readInt(), "zone");
+            final double[] values = new double[Purpose.values().length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = in.readDouble();
+            }
+            attractions.put(zone, values);
+        }
+        return attractions;
+    }
+
+    /**
+     * Budgets that were never set are written as NaN, so they stay unset after reading.
+     */
+    private static void writeBudgets(DataSet dataSet, DataOutputStream out) throws IOException {
+        out.writeInt(dataSet.getHouseholds().size());
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            out.writeInt(household.getId());
+            for (Purpose purpose : Purpose.values()) {
+                final Double budget = household.getTravelTimeBudgetsByPurpose().get(purpose);
+                out.writeDouble(budget == null ? Double.NaN : budget);
+            }
+        }
+    }
+
+    private static Map<MitoHousehold, double[]> readBudgets(DataSet dataSet, DataInputStream in) throws IOException {
+        final int numberOfHouseholds = in.readInt();
+        final Map<MitoHousehold, double[]> budgets = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfHouseholds; i++) {
+            final MitoHousehold household = get(dataSet.getHouseholds(), in.readInt(), "household");
+            final double[] values = new double[Purpose.values().length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = in.readDouble();
+            }
+            budgets.put(household, values);
+        }
+        return budgets;
+    }
+
+    private static void writeTrips(DataSet dataSet, DataOutputStream out) throws IOException {
+        final Map<MitoTrip, MitoHousehold> householdsByTrip = new HashMap<>();
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            for (Purpose purpose : Purpose.values()) {
+                for (MitoTrip trip : household.getTripsForPurpose(purpose)) {
+                    householdsByTrip.put(trip, household);
+                }
+            }
+        }
+
+        final Collection<MitoTrip> trips = dataSet.getTrips().values();
+        out.writeInt(trips.size());
+        for (MitoTrip trip : trips) {
+            out.writeInt(trip.getId());
+        }
+        for (MitoTrip trip : trips) {
+            out.writeByte(trip.getTripPurpose().ordinal());
+        }
+        for (MitoTrip trip : trips) {
+            final MitoHousehold household = householdsByTrip.get(trip);
+            out.writeInt(household == null ? -1 : household.getId());
+        }
+        for (MitoTrip trip : trips) {
+            out.writeInt(trip.getPerson() == null ? -1 : trip.getPerson().getId());
+        }
+        writeLocations(trips, true, out);
+        writeLocations(trips, false, out);
+        for (MitoTrip trip : trips) {
+            out.writeByte(trip.getTripMode() == null ? -1 : trip.getTripMode().ordinal());
+        }
+        for (MitoTrip trip : trips) {
+            out.writeInt(trip.getDepartureInMinutes());
+        }
+        for (MitoTrip trip : trips) {
+            out.writeInt(trip.getDepartureInMinutesReturnTrip());
+        }
+        final Map<Integer, MitoTrip> subsample = dataSet.getTripSubsample();
+        for (MitoTrip trip : trips) {
+            out.writeBoolean(subsample.containsKey(trip.getId()));
+        }
+    }
+
+    /**
+     * Writes the location types and ids as two columns, followed by the coordinates of all micro locations that
+     * are neither households, jobs nor schools. For these, the id column holds the zone id.
+     */
+    private static void writeLocations(Collection<MitoTrip> trips, boolean origins, DataOutputStream out) throws IOException {
+        final List<MicroLocation> microLocations = new ArrayList<>();
+        for (MitoTrip trip : trips) {
+            final Location location = origins ? trip.getTripOrigin() : trip.getTripDestination();
+            final byte type;
+            if (location == null) {
+                type = NO_LOCATION;
+            } else if (location instanceof MitoZone) {
+                type = ZONE;
+            } else if (location instanceof MitoHousehold) {
+                type = HOUSEHOLD;
+            } else if (location instanceof MitoJob) {
+                type = JOB;
+            } else if (location instanceof MitoSchool) {
+                type = SCHOOL;
+            } else if (location instanceof MicroLocation) {
+                type = MICRO_LOCATION;
+                microLocations.add((MicroLocation) location);
+            } else {
+                throw new IOException("Unsupported location " + location.getClass() + " of trip " + trip.getId());
+            }
+            out.writeByte(type);
+        }
+        for (MitoTrip trip : trips) {
+            final Location location = origins ? trip.getTripOrigin() : trip.getTripDestination();
+            if (location == null) {
+                out.writeInt(-1);
+            } else if (location instanceof Id) {
+                out.writeInt(((Id) location).getId());
+            } else {
+                out.writeInt(location.getZoneId());
+            }
+        }
+        out.writeInt(microLocations.size());
+        for (MicroLocation location : microLocations) {
+            out.writeDouble(location.getCoordinate().x);
+            out.writeDouble(location.getCoordinate().y);
+        }
+    }
+
+    private static TripColumns readTrips(DataSet dataSet, DataInputStream in) throws IOException {
+        final int numberOfTrips = in.readInt();
+        final int[] ids = readInts(in, numberOfTrips);
+        final byte[] purposes = new byte[numberOfTrips];
+        in.readFully(purposes);
+
+        final MitoHousehold[] households = new MitoHousehold[numberOfTrips];
+        final int[] householdIds = readInts(in, numberOfTrips);
+        for (int i = 0; i < numberOfTrips; i++) {
+            if (householdIds[i] >= 0) {
+                households[i] = get(dataSet.getHouseholds(), householdIds[i], "household");
+            }
+        }
+        final MitoPerson[] persons = new MitoPerson[numberOfTrips];
+        final int[] personIds = readInts(in, numberOfTrips);
+        for (int i = 0; i < numberOfTrips; i++) {
+            if (personIds[i] >= 0) {
+                persons[i] = get(dataSet.getPersons(), personIds[i], "person");
+            }
+        }
+
+        final Location[] origins = readLocations(dataSet, in, numberOfTrips);
+        final Location[] destinations = readLocations(dataSet, in, numberOfTrips);
+        final byte[] modes = new byte[numberOfTrips];
+        in.readFully(modes);
+        final int[] departures = readInts(in, numberOfTrips);
+        final int[] returnDepartures = readInts(in, numberOfTrips);
+        final boolean[] inSubsample = new boolean[numberOfTrips];
+        for (int i = 0; i < numberOfTrips; i++) {
+            inSubsample[i] = in.readBoolean();
+        }
+        return new TripColumns(ids, purposes, households, persons, origins, destinations, modes, departures,
+                returnDepartures, inSubsample);
+    }
+
+    private static Location[] readLocations(DataSet dataSet, DataInputStream in, int numberOfTrips) throws IOException {
+        final byte[] types = new byte[numberOfTrips];
+        in.readFully(types);
+        final int[] ids = readInts(in, numberOfTrips);
+        final Location[] locations = new Location[numberOfTrips];
+        final List<Integer> microLocations = new ArrayList<>();
+        for (int i = 0; i < numberOfTrips; i++) {
+            switch (types[i]) {
+                case NO_LOCATION:
+                    break;
+                case ZONE:
+                    locations[i] = get(dataSet.getZones(), ids[i], "zone");
+                    break;
+                case HOUSEHOLD:
+                    locations[i] = get(dataSet.getHouseholds(), ids[i], "household");
+                    break;
+                case JOB:
+                    locations[i] = get(dataSet.getJobs(), ids[i], "job");
+                    break;
+                case SCHOOL:
+                    locations[i] = get(dataSet.getSchools(), ids[i], "school");
+                    break;
+                case MICRO_LOCATION:
+                    get(dataSet.getZones(), ids[i], "zone");
+                    microLocations.add(i);
+                    break;
+                default:
+                    throw new IOException("Unknown location type " + types[i]);
+            }
+        }
+        if (in.readInt() != microLocations.size()) {
+            throw new IOException("Number of micro locations does not match their location types.");
+        }
+        for (int i : microLocations) {
+            locations[i] = new CheckpointLocation(new Coordinate(in.readDouble(), in.readDouble()), ids[i]);
+        }
+        return locations;
+    }
+
+    private static int[] readInts(DataInputStream in, int length) throws IOException {
+        final int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static <T> T get(Map<Integer, T> map, int id, String type) throws IOException {
+        final T value = map.get(id);
+        if (value == null) {
+            throw new IOException("Checkpoint refers to " + type + " " + id + " which is not part of the data set.");
+        }
+        return value;
+    }
+
+    private static final class TripColumns {
+
+        private final int[] ids;
+        private final byte[] purposes;
+        private final MitoHousehold[] households;
+        private final MitoPerson[] persons;
+        private final Location[] origins;
+        private final Location[] destinations;
+        private final byte[] modes;
+        private final int[] departures;
+        private final int[] returnDepartures;
+        private final boolean[] inSubsample;
+
+        private TripColumns(int[] ids, byte[] purposes, MitoHousehold[] households, MitoPerson[] persons,
+                            Location[] origins, Location[] destinations, byte[] modes, int[] departures,
+                            int[] returnDepartures, boolean[] inSubsample) {
+            this.ids = ids;
+            this.purposes = purposes;
+            this.households = households;
+            this.persons = persons;
+            this.origins = origins;
+            this.destinations = destinations;
+            this.modes = modes;
+            this.departures = departures;
+            this.returnDepartures = returnDepartures;
+            this.inSubsample = inSubsample;
+        }
+
+        /**
+         * Creates the trips in the data set and adds them to their persons and households. The trips of a household
+         * are added to its lists by purpose in the order of the data set, which is the order they were generated in.
+         */
+        private void addTo(DataSet dataSet) {
+            final Purpose[] purposeValues = Purpose.values();
+            final Mode[] modeValues = Mode.values();
+            final Map<MitoHousehold, EnumMap<Purpose, List<MitoTrip>>> tripsByHousehold = new LinkedHashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                final MitoTrip trip = dataSet.createTrip(ids[i], purposeValues[purposes[i]]);
+                if (persons[i] != null) {
+                    trip.setPerson(persons[i]);
+                }
+                trip.setTripOrigin(origins[i]);
+                trip.setTripDestination(destinations[i]);
+                if (modes[i] >= 0) {
+                    trip.setTripMode(modeValues[modes[i]]);
+                }
+                trip.setDepartureInMinutes(departures[i]);
+                trip.setDepartureInMinutesReturnTrip(returnDepartures[i]);
+                if (households[i] != null) {
+                    tripsByHousehold.computeIfAbsent(households[i], household -> new EnumMap<>(Purpose.class))
+                            .computeIfAbsent(trip.getTripPurpose(), purpose -> new ArrayList<>())
+                            .add(trip);
+                }
+                if (inSubsample[i]) {
+                    dataSet.addTripToSubsample(trip);
+                }
+            }
+            tripsByHousehold.forEach((household, tripsByPurpose) ->
+                    tripsByPurpose.forEach((purpose, purposeTrips) -> household.setTripsByPurpose(purposeTrips, purpose)));
+        }
+    }
+
+    private static final class CheckpointLocation implements MicroLocation {
+
+        private final Coordinate coordinate;
+        private final int zoneId;
+
+        private CheckpointLocation(Coordinate coordinate, int zoneId) {
+            this.coordinate = coordinate;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public Coordinate getCoordinate() {
+            return coordinate;
+        }
+
+        @Override
+        public int getZoneId() {
+            return zoneId;
+        }
+    }
+}
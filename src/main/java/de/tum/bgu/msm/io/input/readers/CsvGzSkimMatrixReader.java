@@ -3,6 +3,7 @@ package de.tum.bgu.msm.io.input.readers;
 import de.tum.bgu.msm.data.Id;
 import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
 import org.apache.log4j.Logger;
 
 import java.io.BufferedReader;
@@ -26,7 +27,14 @@ public class CsvGzSkimMatrixReader {
     private int numberOfRecords = 0;
 
     public IndexedDoubleMatrix2D readAndConvertToDoubleMatrix2D(String fileName, double factor, Collection<? extends Id> zoneLookup){
-        matrix = new IndexedDoubleMatrix2D(zoneLookup, zoneLookup);
+        return readInto(fileName, factor, new IndexedDoubleMatrix2D(zoneLookup, zoneLookup));
+    }
+
+    /**
+     * Reads the skim into the given matrix, which allows to load it with reduced precision directly.
+     */
+    public <M extends IndexedMatrix2D> M readInto(String fileName, double factor, M matrix){
+        this.matrix = matrix;
         //the csv files do not include the cells without values. They need to set up to a very high number
         matrix.assign(Double.MAX_VALUE);
         read(fileName, ",", factor);
@@ -49,7 +57,7 @@ public class CsvGzSkimMatrixReader {
 
     }
 
-    private IndexedDoubleMatrix2D matrix;
+    private IndexedMatrix2D matrix;
 
     private void read(String filePath, String delimiter, double factor) {
         initializeReader(filePath, delimiter);
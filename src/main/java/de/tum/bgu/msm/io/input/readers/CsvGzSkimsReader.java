@@ -4,11 +4,12 @@ import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoZone;
 import de.tum.bgu.msm.data.Zone;
 import de.tum.bgu.msm.data.travelDistances.MatrixTravelDistances;
+import de.tum.bgu.msm.data.travelTimes.SkimPrecision;
 import de.tum.bgu.msm.data.travelTimes.SkimTravelTimes;
-import de.tum.bgu.msm.io.input.AbstractOmxReader;
+import de.tum.bgu.msm.io.input.SkimCache;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,14 +35,14 @@ public class CsvGzSkimsReader implements SkimsReader {
 
     @Override
     public void readSkimDistancesAuto() {
-        IndexedDoubleMatrix2D distanceSkimAuto = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimAuto = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesAuto(new MatrixTravelDistances(distanceSkimAuto));
 
     }
 
     @Override
     public void readSkimDistancesNMT() {
-        IndexedDoubleMatrix2D distanceSkimNMT = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimNMT = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesNMT(new MatrixTravelDistances(distanceSkimNMT));
     }
 
@@ -14,7 +14,15 @@ public class EconomicStatusReader extends AbstractCsvReader {
 
 
     private static final Logger logger = Logger.getLogger(EconomicStatusReader.class);
-    private final Map<String, Integer> economicStatusDefinition = new HashMap<>();
+    private static final float MAX_SIZE_FACTOR = 3.5f;
+    private static final int[] INCOME_BRACKET_LOWER_BOUNDS =
+            {0, 500, 900, 1500, 2000, 2600, 3000, 3600, 4000, 4600, 5000, 5600, 6000, 6600, 7000};
+
+    /**
+     * Economic status by weighted household size in tenths and income bracket, or null if the size factor was
+     * not defined.
+     */
+    private final int[][] economicStatusDefinition = new int[sizeFactorIndex(MAX_SIZE_FACTOR) + 1][];
 
     private int hhSizeFactorIndex;
     private int inc0_500Index;
@@ -81,21 +89,19 @@ public class EconomicStatusReader extends AbstractCsvReader {
         int codeInc6000_6600 = Integer.parseInt(record[inc6000_6600Index]);
         int codeInc6600_7000 = Integer.parseInt(record[inc6600_7000Index]);
         int codeInc7000plus = Integer.parseInt(record[inc7000plusIndex]);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc0-500", codeInc0_500);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc500-900", codeInc500_900);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc900-1500", codeInc900_1500);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc1500-2000", codeInc1500_2000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc2000-2600", codeInc2000_2600);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc2600-3000", codeInc2600_3000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc3000-3600", codeInc3000_3600);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc3600-4000", codeInc3600_4000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc4000-4600", codeInc4000_4600);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc4600-5000", codeInc4600_5000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc5000-5600", codeInc5000_5600);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc5600-6000", codeInc5600_6000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc6000-6600", codeInc6000_6600);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc6600-7000", codeInc6600_7000);
-        economicStatusDefinition.put(hhSizeFactor + "_Inc7000+", codeInc7000plus);
+        int sizeFactor = sizeFactorIndex(hhSizeFactor);
+        if (sizeFactor < 0 || sizeFactor >= economicStatusDefinition.length) {
+            // households are weighted with at most MAX_SIZE_FACTOR
+            return;
+        }
+        economicStatusDefinition[sizeFactor] = new int[]{codeInc0_500, codeInc500_900, codeInc900_1500,
+                codeInc1500_2000, codeInc2000_2600, codeInc2600_3000, codeInc3000_3600, codeInc3600_4000,
+                codeInc4000_4600, codeInc4600_5000, codeInc5000_5600, codeInc5600_6000, codeInc6000_6600,
+                codeInc6600_7000, codeInc7000plus};
+    }
+
+    private static int sizeFactorIndex(float hhSizeFactor) {
+        return Math.round(hhSizeFactor * 10);
     }
 
     private int getEconomicStatus(MitoHousehold hh) {
@@ -107,46 +113,40 @@ public class EconomicStatusReader extends AbstractCsvReader {
             4: Hoch
             5: Sehr hoch
          */
-        int countAdults = (int) hh.getPersons().values().stream().filter(person ->
-                person.getAge() > 14).count();
-        int countChildren = (int) hh.getPersons().values().stream().filter(person ->
-                person.getAge() <= 14).count();
+        int countAdults = DataSet.getPersonsAged15AndOverForHousehold(hh);
+        int countChildren = hh.getHhSize() - countAdults;
         // Mobilität in Deutschland 2008, Variablenaufbereitung Haushaltsdatensatz:
         // In Anlehnung an die neue Berechnungsskala der OECD gingen bei der Berechnung
         // Kinder bis zu 14 Jahren mit dem Faktor 0,3 ein. Von den Personen ab 15 Jahren
         // im Haushalt wurde eine Person mit dem Faktor 1, alle weiteren Personen ab 15
         // Jahren mit dem Faktor 0,5 gewichtet.
-        float weightedHhSize = MitoUtil.rounder(Math.min(3.5f, 1.0f + (countAdults - 1f) * 0.5f + countChildren * 0.3f), 1);
-        String incomeCategory = getMidIncomeCategory(hh.getMonthlyIncome_EUR());
-        return economicStatusDefinition.get(weightedHhSize+"_"+incomeCategory);
+        float weightedHhSize = MitoUtil.rounder(Math.min(MAX_SIZE_FACTOR, 1.0f + (countAdults - 1f) * 0.5f + countChildren * 0.3f), 1);
+        int incomeBracket = getIncomeBracket(hh.getMonthlyIncome_EUR());
+        int sizeFactor = sizeFactorIndex(weightedHhSize);
+        if (incomeBracket < 0 || sizeFactor < 0 || economicStatusDefinition[sizeFactor] == null) {
+            throw new RuntimeException("No economic status defined for household " + hh.getId() + " with weighted size "
+                    + weightedHhSize + " and income " + hh.getMonthlyIncome_EUR());
+        }
+        return economicStatusDefinition[sizeFactor][incomeBracket];
     }
 
 
-    private String getMidIncomeCategory(int income) {
-
-        final String[] incomeBrackets = {"Inc0-500","Inc500-900","Inc900-1500","Inc1500-2000","Inc2000-2600",
-                "Inc2600-3000","Inc3000-3600","Inc3600-4000","Inc4000-4600","Inc4600-5000","Inc5000-5600",
-                "Inc5600-6000","Inc6000-6600","Inc6600-7000","Inc7000+"};
-
-        for (String incomeBracket : incomeBrackets) {
-            String shortIncomeBrackets = incomeBracket.substring(3);
-            try{
-                String[] incomeBounds = shortIncomeBrackets.split("-");
-                if (income >= Integer.parseInt(incomeBounds[0]) && income < Integer.parseInt(incomeBounds[1])) {
-                    return incomeBracket;
-                }
-            } catch (Exception e) {
-                if (income >= 7000) {
-                    return incomeBrackets[incomeBrackets.length-1];
-                }
+    /**
+     * @return the index of the income bracket of the given income, or -1 if the income is negative
+     */
+    private int getIncomeBracket(int income) {
+        for (int bracket = INCOME_BRACKET_LOWER_BOUNDS.length - 1; bracket >= 0; bracket--) {
+            if (income >= INCOME_BRACKET_LOWER_BOUNDS[bracket]) {
+                return bracket;
             }
         }
         logger.error("Unrecognized income: " + income);
-        return null;
+        return -1;
     }
 
     private void assignEconomicStatusToAllHouseholds() {
         logger.info("  Assigning economic status to all households");
+        dataSet.getHouseholdFeatures();
         Map<Integer, Integer> economicStatusCounts = new HashMap<>();
         for (MitoHousehold hh: dataSet.getHouseholds().values()) {
             hh.setEconomicStatus(getEconomicStatus(hh));
@@ -3,7 +3,8 @@ package de.tum.bgu.msm.io.input.readers;
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoHousehold;
 import de.tum.bgu.msm.data.MitoZone;
-import de.tum.bgu.msm.io.input.AbstractCsvReader;
+import de.tum.bgu.msm.io.input.AbstractParallelCsvReader;
+import de.tum.bgu.msm.io.input.CsvRecord;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import org.apache.log4j.Logger;
@@ -14,7 +15,7 @@ import java.nio.file.Path;
 /**
  * Created by Qin on 02.07.2018.
  */
-public class HouseholdsCoordReader extends AbstractCsvReader {
+public class HouseholdsCoordReader extends AbstractParallelCsvReader<HouseholdsCoordReader.DwellingRecord> {
 
     private int posHHId = -1;
     private int posCoordX = -1;
@@ -43,26 +44,45 @@ public class HouseholdsCoordReader extends AbstractCsvReader {
     }
 
     @Override
-    protected void processRecord(String[] record) {
-        int hhId = Integer.parseInt(record[posHHId]);
+    protected DwellingRecord parseRecord(CsvRecord record) {
+        int hhId = record.getInt(posHHId);
 
         //vacant dwellings
         if (hhId > 0) {
             MitoHousehold hh = dataSet.getHouseholds().get(hhId);
             if (hh == null) {
                 logger.warn(String.format("Household %d does not exist in mito.", hhId));
-                return;
+                return null;
             }
-            int taz = Integer.parseInt(record[posTAZId]);
+            int taz = record.getInt(posTAZId);
             MitoZone zone = dataSet.getZones().get(taz);
             if(zone == null) {
                 logger.warn(String.format("Household %d is supposed to live in zone %d but this zone does not exist.", hhId, taz));
             }
             Coordinate homeLocation = new Coordinate(
-            		Double.parseDouble(record[posCoordX]), Double.parseDouble(record[posCoordY]));
-            hh.setHomeLocation(homeLocation);
-            hh.setHomeZone(zone);
-            zone.addHousehold();
+            		record.getDouble(posCoordX), record.getDouble(posCoordY));
+            return new DwellingRecord(hh, zone, homeLocation);
+        }
+        return null;
+    }
+
+    @Override
+    protected void processRecord(DwellingRecord record) {
+        record.household.setHomeLocation(record.homeLocation);
+        record.household.setHomeZone(record.zone);
+        record.zone.addHousehold();
+    }
+
+    static final class DwellingRecord {
+
+        private final MitoHousehold household;
+        private final MitoZone zone;
+        private final Coordinate homeLocation;
+
+        private DwellingRecord(MitoHousehold household, MitoZone zone, Coordinate homeLocation) {
+            this.household = household;
+            this.zone = zone;
+            this.homeLocation = homeLocation;
         }
     }
 }
@@ -2,7 +2,8 @@ package de.tum.bgu.msm.io.input.readers;
 
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoHousehold;
-import de.tum.bgu.msm.io.input.AbstractCsvReader;
+import de.tum.bgu.msm.io.input.AbstractParallelCsvReader;
+import de.tum.bgu.msm.io.input.CsvRecord;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import org.apache.log4j.Logger;
@@ -12,7 +13,7 @@ import java.nio.file.Path;
 /**
  * Created by Nico on 17.07.2017.
  */
-public class HouseholdsReader extends AbstractCsvReader {
+public class HouseholdsReader extends AbstractParallelCsvReader<MitoHousehold> {
 
     private int posId = -1;
     private int posTaz = -1;
@@ -39,10 +40,14 @@ public class HouseholdsReader extends AbstractCsvReader {
     }
 
     @Override
-    protected void processRecord(String[] record) {
-        int id = Integer.parseInt(record[posId]);
-        int autos = Integer.parseInt(record[posAutos]);
-        MitoHousehold hh = new MitoHousehold(id, 0, autos);
+    protected MitoHousehold parseRecord(CsvRecord record) {
+        int id = record.getInt(posId);
+        int autos = record.getInt(posAutos);
+        return new MitoHousehold(id, 0, autos);
+    }
+
+    @Override
+    protected void processRecord(MitoHousehold hh) {
         dataSet.addHousehold(hh);
     }
 }
@@ -3,8 +3,10 @@ package de.tum.bgu.msm.io.input.readers;
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoJob;
 import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.data.jobTypes.JobType;
 import de.tum.bgu.msm.data.jobTypes.JobTypeFactory;
-import de.tum.bgu.msm.io.input.AbstractCsvReader;
+import de.tum.bgu.msm.io.input.AbstractParallelCsvReader;
+import de.tum.bgu.msm.io.input.CsvRecord;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import org.apache.log4j.Logger;
@@ -15,7 +17,7 @@ import java.nio.file.Path;
 /**
  * Created by Nico on 17.07.2017.
  */
-public class JobReader extends AbstractCsvReader {
+public class JobReader extends AbstractParallelCsvReader<JobReader.JobRecord> {
 
     private static final Logger logger = Logger.getLogger(JobReader.class);
     private final JobTypeFactory factory;
@@ -50,28 +52,48 @@ public class JobReader extends AbstractCsvReader {
     }
 
     @Override
-    protected void processRecord(String[] record) {
-        int id = Integer.parseInt(record[posId]);
-        int zoneId = Integer.parseInt(record[posZone]);
-        int worker = Integer.parseInt(record[posWorker]);
-        String type = record[posType];
+    protected JobRecord parseRecord(CsvRecord record) {
+        int id = record.getInt(posId);
+        int zoneId = record.getInt(posZone);
+        int worker = record.getInt(posWorker);
         if (worker > 0) {
             MitoZone zone = dataSet.getZones().get(zoneId);
             if (zone == null) {
                 logger.warn(String.format("Job %d refers to non-existing zone %d! Ignoring it.", id, zoneId));
-                return;
+                return null;
             }
 
+            String type = record.getString(posType);
+            JobType jobType = null;
             try {
-                zone.addEmployeeForType(factory.getType(type.toUpperCase().replaceAll("\"","")));
+                jobType = factory.getType(type.toUpperCase().replaceAll("\"",""));
             } catch (IllegalArgumentException e) {
                 logger.error("Job Type " + type + " used in job microdata but is not defined");
             }
-            Coordinate coordinate = (new Coordinate(Double.parseDouble(record[posJobCoordX]),
-            		Double.parseDouble(record[posJobCoordY])));
+            Coordinate coordinate = (new Coordinate(record.getDouble(posJobCoordX),
+            		record.getDouble(posJobCoordY)));
 
-            MitoJob job = new MitoJob(zone, coordinate, id);
-            dataSet.addJob(job);
+            return new JobRecord(new MitoJob(zone, coordinate, id), jobType);
+        }
+        return null;
+    }
+
+    @Override
+    protected void processRecord(JobRecord record) {
+        if (record.type != null) {
+            record.job.getOccupationZone().addEmployeeForType(record.type);
+        }
+        dataSet.addJob(record.job);
+    }
+
+    static final class JobRecord {
+
+        private final MitoJob job;
+        private final JobType type;
+
+        private JobRecord(MitoJob job, JobType type) {
+            this.job = job;
+            this.type = type;
         }
     }
 }
@@ -2,11 +2,14 @@ package de.tum.bgu.msm.io.input.readers;
 
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.travelDistances.MatrixTravelDistances;
+import de.tum.bgu.msm.data.travelTimes.SkimPrecision;
 import de.tum.bgu.msm.data.travelTimes.SkimTravelTimes;
+import de.tum.bgu.msm.data.travelTimes.TimeSlicedSkimTravelTimes;
 import de.tum.bgu.msm.io.input.AbstractOmxReader;
+import de.tum.bgu.msm.io.input.SkimCache;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.matrices.ReadableIndexedMatrix2D;
 import org.apache.log4j.Logger;
 
 public class OmxSkimsReader extends AbstractOmxReader implements SkimsReader {
@@ -25,12 +28,12 @@ public class OmxSkimsReader extends AbstractOmxReader implements SkimsReader {
     }
 
     public void readSkimDistancesAuto(){
-        IndexedDoubleMatrix2D distanceSkimAuto = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimAuto = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesAuto(new MatrixTravelDistances(distanceSkimAuto));
     }
 
     public void readSkimDistancesNMT(){
-        IndexedDoubleMatrix2D distanceSkimNMT = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimNMT = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesNMT(new MatrixTravelDistances(distanceSkimNMT));
     }
 
@@ -48,12 +51,34 @@ public class OmxSkimsReader extends AbstractOmxReader implements SkimsReader {
         ((SkimTravelTimes) dataSet.getTravelTimes()).readSkim("bus", Resources.instance.getRelativePath(Properties.BUS_TRAVEL_TIME_SKIM).toString(), "mat1", 1/60.);
         ((SkimTravelTimes) dataSet.getTravelTimes()).readSkim("tramMetro", Resources.instance.getRelativePath(Properties.TRAM_METRO_TRAVEL_TIME_SKIM).toString(), "mat1", 1/60.);
         ((SkimTravelTimes) dataSet.getTravelTimes()).readSkim("train", Resources.instance.getRelativePath(Properties.TRAIN_TRAVEL_TIME_SKIM).toString(), "mat1", 1/60.);
+        if (dataSet.getTravelTimes() instanceof TimeSlicedSkimTravelTimes) {
+            TimeSlicedSkimTravelTimes timeSlicedTravelTimes = (TimeSlicedSkimTravelTimes) dataSet.getTravelTimes();
+            addTimeSlices(timeSlicedTravelTimes, "car", "timeByTime");
+            addTimeSlices(timeSlicedTravelTimes, "bus", "mat1");
+            addTimeSlices(timeSlicedTravelTimes, "tramMetro", "mat1");
+            addTimeSlices(timeSlicedTravelTimes, "train", "mat1");
+        }
+    }
+
+    /**
+     * Registers the time slices of a mode, given as a list of start hours by "skim.time.slices.[mode]" and
+     * one omx file per slice by "skim.time.slice.[mode].[hour]". Slices are only read once they are used.
+     */
+    private void addTimeSlices(TimeSlicedSkimTravelTimes travelTimes, String mode, String matrixName) {
+        final String[] hours = Resources.instance.getArray(Properties.SKIM_TIME_SLICES + mode, new String[0]);
+        for (String hour : hours) {
+            final String file = Resources.instance.getRelativePath(Properties.SKIM_TIME_SLICE_FILE + mode + "." + hour.trim()).toString();
+            travelTimes.addOmxSlice(mode, Double.parseDouble(hour.trim()) * 3600, file, matrixName, 1/60.);
+        }
+        if (hours.length > 0) {
+            LOGGER.info("Registered " + hours.length + " time slices for " + mode + " travel times");
+        }
     }
 
     private void readTravelDistances(){
-        IndexedDoubleMatrix2D distanceSkimAuto = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimAuto = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.AUTO_TRAVEL_DISTANCE_SKIM).toString(),"distanceByTime", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesAuto(new MatrixTravelDistances(distanceSkimAuto));
-        IndexedDoubleMatrix2D distanceSkimNMT = AbstractOmxReader.readAndConvertToDoubleMatrix(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000.);
+        ReadableIndexedMatrix2D distanceSkimNMT = SkimCache.readOmx(Resources.instance.getRelativePath(Properties.NMT_TRAVEL_DISTANCE_SKIM).toString(),"distanceByDistance", 1. / 1000., SkimPrecision.DOUBLE);
         dataSet.setTravelDistancesNMT(new MatrixTravelDistances(distanceSkimNMT));
     }
 }
@@ -1,7 +1,8 @@
 package de.tum.bgu.msm.io.input.readers;
 
 import de.tum.bgu.msm.data.*;
-import de.tum.bgu.msm.io.input.AbstractCsvReader;
+import de.tum.bgu.msm.io.input.AbstractParallelCsvReader;
+import de.tum.bgu.msm.io.input.CsvRecord;
 import de.tum.bgu.msm.resources.Resources;
 import org.apache.log4j.Logger;
 
@@ -10,7 +11,7 @@ import java.util.Arrays;
 import java.util.List;
 
 
-public class PersonsReader extends AbstractCsvReader {
+public class PersonsReader extends AbstractParallelCsvReader<PersonsReader.PersonRecord> {
 
     private static final Logger logger = Logger.getLogger(PersonsReader.class);
 
@@ -62,33 +63,32 @@ public class PersonsReader extends AbstractCsvReader {
     }
 
     @Override
-    public void processRecord(String[] record) {
+    protected PersonRecord parseRecord(CsvRecord record) {
 
-        final int id = Integer.parseInt(record[posId]);
-        final int hhid = Integer.parseInt(record[posHhId]);
+        final int id = record.getInt(posId);
+        final int hhid = record.getInt(posHhId);
 
         if(!dataSet.getHouseholds().containsKey(hhid)) {
             logger.warn("Person " + id + " refers to non-existing household " + hhid + ". Ignoring this person.");
-            return;
+            return null;
         }
         MitoHousehold hh = dataSet.getHouseholds().get(hhid);
 
-        final int age = Integer.parseInt(record[posAge]);
+        final int age = record.getInt(posAge);
 
-        final int genderCode = Integer.parseInt(record[posSex]);
+        final int genderCode = record.getInt(posSex);
         MitoGender mitoGender = MitoGender.valueOf(genderCode);
 
-        final int occupationCode = Integer.parseInt(record[posOccupation]);
+        final int occupationCode = record.getInt(posOccupation);
         MitoOccupationStatus mitoOccupationStatus = MitoOccupationStatus.valueOf(occupationCode);
 
-        final int workplace = Integer.parseInt(record[posWorkplaceId]);
-        final int school = Integer.parseInt(record[posSchoolId]);
+        final int workplace = record.getInt(posWorkplaceId);
+        final int school = record.getInt(posSchoolId);
 
-        final boolean driversLicense = Boolean.parseBoolean(record[posLicence]);
+        final boolean driversLicense = record.getBoolean(posLicence);
 
         //mito uses monthly income, while SILO uses annual income
-        int monthlyIncome_EUR = Integer.parseInt(record[posIncome])/12;
-        hh.addIncome(monthlyIncome_EUR);
+        int monthlyIncome_EUR = record.getInt(posIncome)/12;
 
         MitoOccupation occupation = null;
 
@@ -110,13 +110,34 @@ public class PersonsReader extends AbstractCsvReader {
             case UNEMPLOYED:
             default:
                 logger.debug("Person " + id + " does not have an occupation.");
-                occupationCounter++;
                 break;
         }
 
         MitoPerson pp = new MitoPerson(id, mitoOccupationStatus, occupation, age, mitoGender, driversLicense);
+        return new PersonRecord(hh, pp, monthlyIncome_EUR);
+    }
+
+    @Override
+    protected void processRecord(PersonRecord record) {
+        record.household.addIncome(record.monthlyIncome_EUR);
+        if (record.person.getMitoOccupationStatus() != MitoOccupationStatus.WORKER
+                && record.person.getMitoOccupationStatus() != MitoOccupationStatus.STUDENT) {
+            occupationCounter++;
+        }
+        record.household.addPerson(record.person);
+        dataSet.addPerson(record.person);
+    }
+
+    static final class PersonRecord {
 
-        hh.addPerson(pp);
-        dataSet.addPerson(pp);
+        private final MitoHousehold household;
+        private final MitoPerson person;
+        private final int monthlyIncome_EUR;
+
+        private PersonRecord(MitoHousehold household, MitoPerson person, int monthlyIncome_EUR) {
+            this.household = household;
+            this.person = person;
+            this.monthlyIncome_EUR = monthlyIncome_EUR;
+        }
     }
 }
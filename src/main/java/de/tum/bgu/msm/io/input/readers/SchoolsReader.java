@@ -3,7 +3,8 @@ package de.tum.bgu.msm.io.input.readers;
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoSchool;
 import de.tum.bgu.msm.data.MitoZone;
-import de.tum.bgu.msm.io.input.AbstractCsvReader;
+import de.tum.bgu.msm.io.input.AbstractParallelCsvReader;
+import de.tum.bgu.msm.io.input.CsvRecord;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import org.apache.log4j.Logger;
@@ -11,7 +12,7 @@ import org.locationtech.jts.geom.Coordinate;
 
 import java.nio.file.Path;
 
-public class SchoolsReader extends AbstractCsvReader {
+public class SchoolsReader extends AbstractParallelCsvReader<SchoolsReader.SchoolRecord> {
 
     private static final Logger logger = Logger.getLogger(JobReader.class);
 
@@ -35,16 +36,20 @@ public class SchoolsReader extends AbstractCsvReader {
     }
 
     @Override
-    protected void processRecord(String[] record) {
-        int id = Integer.parseInt(record[posId]);
-        int zoneId = Integer.parseInt(record[posZone]);
+    protected SchoolRecord parseRecord(CsvRecord record) {
+        int id = record.getInt(posId);
+        int zoneId = record.getInt(posZone);
         MitoZone zone = dataSet.getZones().get(zoneId);
-        int occupancy = Integer.parseInt(record[posOccupancy]);
-        Coordinate coordinate = (new Coordinate(Double.parseDouble(record[posCoordX]),
-                Double.parseDouble(record[posCoordY])));
-        MitoSchool school = new MitoSchool(zone, coordinate, id);
-        dataSet.addSchool(school);
-        zone.addSchoolEnrollment(occupancy);
+        int occupancy = record.getInt(posOccupancy);
+        Coordinate coordinate = (new Coordinate(record.getDouble(posCoordX),
+                record.getDouble(posCoordY)));
+        return new SchoolRecord(new MitoSchool(zone, coordinate, id), occupancy);
+    }
+
+    @Override
+    protected void processRecord(SchoolRecord record) {
+        dataSet.addSchool(record.school);
+        record.school.getOccupationZone().addSchoolEnrollment(record.occupancy);
     }
 
     @Override
@@ -53,4 +58,15 @@ public class SchoolsReader extends AbstractCsvReader {
         Path filePath = Resources.instance.getSchoolsFilePath();
         super.read(filePath, ",");
     }
+
+    static final class SchoolRecord {
+
+        private final MitoSchool school;
+        private final int occupancy;
+
+        private SchoolRecord(MitoSchool school, int occupancy) {
+            this.school = school;
+            this.occupancy = occupancy;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package de.tum.bgu.msm.io.input.readers;
+
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.jobTypes.JobTypeFactory;
+import de.tum.bgu.msm.io.input.DataSetSnapshot;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the zones (with border dampers, if trips at the border are reduced) and the synthetic population
+ * of a stand-alone run: jobs, schools, households, dwellings and persons.
+ * <p>
+ * If {@value Properties#DATASET_SNAPSHOT} is set, the data is loaded from that {@link DataSetSnapshot} as long
+ * as the input files are unchanged. Otherwise, the input files are read and a new snapshot is written.
+ */
+public final class ZonesAndPopulationReader {
+
+    private static final Logger logger = Logger.getLogger(ZonesAndPopulationReader.class);
+
+    private final DataSet dataSet;
+    private final JobTypeFactory jobTypeFactory;
+
+    public ZonesAndPopulationReader(DataSet dataSet, JobTypeFactory jobTypeFactory) {
+        this.dataSet = dataSet;
+        this.jobTypeFactory = jobTypeFactory;
+    }
+
+    public void read() {
+        final boolean removeTripsAtBorder = Resources.instance.getBoolean(Properties.REMOVE_TRIPS_AT_BORDER);
+        final String snapshotFile = Resources.instance.getString(Properties.DATASET_SNAPSHOT);
+        if (snapshotFile == null) {
+            readInputFiles(removeTripsAtBorder);
+            return;
+        }
+
+        final Path snapshot = Resources.instance.getRelativePath(Properties.DATASET_SNAPSHOT);
+        String checksum = null;
+        try {
+            checksum = DataSetSnapshot.checksum(getInputFiles(removeTripsAtBorder),
+                    jobTypeFactory.getClass().getName(),
+                    String.valueOf(removeTripsAtBorder),
+                    Resources.instance.getString(Properties.ZONE_SHAPEFILE_ID_FIELD));
+        } catch (IOException e) {
+            logger.warn("Could not compute checksum of input files. Not using a snapshot. " + e.getMessage());
+        }
+        if (checksum != null && DataSetSnapshot.read(dataSet, snapshot, checksum, jobTypeFactory)) {
+            return;
+        }
+
+        readInputFiles(removeTripsAtBorder);
+        if (checksum != null) {
+            try {
+                DataSetSnapshot.write(dataSet, snapshot, checksum);
+                logger.info("Wrote data set snapshot " + snapshot);
+            } catch (IOException e) {
+                logger.warn("Could not write data set snapshot " + snapshot + ". " + e.getMessage());
+            }
+        }
+    }
+
+    private void readInputFiles(boolean removeTripsAtBorder) {
+        new ZonesReader(dataSet).read();
+        if (removeTripsAtBorder) {
+            new BorderDampersReader(dataSet).read();
+        }
+        new JobReader(dataSet, jobTypeFactory).read();
+        new SchoolsReader(dataSet).read();
+        new HouseholdsReader(dataSet).read();
+        new HouseholdsCoordReader(dataSet).read();
+        new PersonsReader(dataSet).read();
+    }
+
+    private static List<Path> getInputFiles(boolean removeTripsAtBorder) {
+        final List<Path> files = new ArrayList<>();
+        files.add(Resources.instance.getZonesInputFile());
+        final Path shapefile = Resources.instance.getZoneShapesInputFile();
+        files.add(shapefile);
+        final String shapefileName = shapefile.getFileName().toString();
+        if (shapefileName.toLowerCase().endsWith(".shp")) {
+            final Path attributes = shapefile.resolveSibling(shapefileName.substring(0, shapefileName.length() - 4) + ".dbf");
+            if (Files.isRegularFile(attributes)) {
+                files.add(attributes);
+            }
+        }
+        if (removeTripsAtBorder) {
+            files.add(Resources.instance.getBorderReductionDamperFilePath());
+        }
+        files.add(Resources.instance.getJobsFilePath());
+        files.add(Resources.instance.getSchoolsFilePath());
+        files.add(Resources.instance.getHouseholdsFilePath());
+        files.add(Resources.instance.getDwellingsFilePath());
+        files.add(Resources.instance.getPersonsFilePath());
+        return files;
+    }
+}
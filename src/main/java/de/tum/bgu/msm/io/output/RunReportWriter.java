@@ -0,0 +1,87 @@
+package de.tum.bgu.msm.io.output;
+
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.metrics.StageMetrics;
+import org.apache.log4j.Logger;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the metrics of the stages of a model run to runReport.json and runReport.csv in the scenario
+ * output folder.
+ */
+public final class RunReportWriter {
+
+    private static final Logger logger = Logger.getLogger(RunReportWriter.class);
+
+    private RunReportWriter() {
+    }
+
+    public static void writeRunReport(DataSet dataSet, String scenarioName, List<StageMetrics> stages) {
+        final String outputSubDirectory = Resources.instance.getBaseDirectory() + "/scenOutput/" + scenarioName + "/" + dataSet.getYear() + "/";
+        writeJson(outputSubDirectory + "runReport.json", scenarioName, dataSet.getYear(), stages);
+        writeCsv(outputSubDirectory + "runReport.csv", stages);
+        logger.info("Wrote run report to " + outputSubDirectory);
+    }
+
+    static void writeJson(String fileName, String scenarioName, int year, List<StageMetrics> stages) {
+        final PrintWriter pw = MitoUtil.openFileForSequentialWriting(fileName, false);
+        if (pw == null) {
+            return;
+        }
+        pw.println("{");
+        pw.println("  \"scenario\": " + quote(scenarioName) + ",");
+        pw.println("  \"year\": " + year + ",");
+        pw.println("  \"availableProcessors\": " + Runtime.getRuntime().availableProcessors() + ",");
+        pw.println("  \"maxHeapBytes\": " + Runtime.getRuntime().maxMemory() + ",");
+        pw.println("  \"stages\": [");
+        for (int i = 0; i < stages.size(); i++) {
+            final StageMetrics stage = stages.get(i);
+            pw.print("    {\"name\": " + quote(stage.getName())
+                    + ", \"depth\": " + stage.getDepth()
+                    + ", \"wallTimeNanos\": " + stage.getWallTimeNanos()
+                    + ", \"cpuTimeNanos\": " + stage.getCpuTimeNanos()
+                    + ", \"allocatedBytes\": " + stage.getAllocatedBytes()
+                    + ", \"peakHeapBytes\": " + stage.getPeakHeapBytes()
+                    + ", \"items\": " + stage.getItems()
+                    + ", \"itemsPerSecond\": " + String.format(Locale.US, "%.1f", stage.getItemsPerSecond())
+                    + "}");
+            pw.println(i < stages.size() - 1 ? "," : "");
+        }
+        pw.println("  ]");
+        pw.println("}");
+        pw.close();
+    }
+
+    static void writeCsv(String fileName, List<StageMetrics> stages) {
+        final PrintWriter pw = MitoUtil.openFileForSequentialWriting(fileName, false);
+        if (pw == null) {
+            return;
+        }
+        pw.println("stage,depth,wallTimeNanos,cpuTimeNanos,allocatedBytes,peakHeapBytes,items,itemsPerSecond");
+        for (StageMetrics stage : stages) {
+            pw.println(stage.getName().replace(',', ' ') + "," + stage.getDepth() + "," + stage.getWallTimeNanos()
+                    + "," + stage.getCpuTimeNanos() + "," + stage.getAllocatedBytes() + "," + stage.getPeakHeapBytes()
+                    + "," + stage.getItems() + "," + String.format(Locale.US, "%.1f", stage.getItemsPerSecond()));
+        }
+        pw.close();
+    }
+
+    private static String quote(String value) {
+        final StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
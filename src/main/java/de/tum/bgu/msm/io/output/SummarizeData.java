@@ -9,6 +9,7 @@ import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.charts.Histogram;
 import de.tum.bgu.msm.util.charts.ScatterPlot;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.population.PopulationWriter;
 import org.matsim.core.utils.geometry.CoordUtils;
@@ -87,13 +88,19 @@ public class SummarizeData {
         String file = Resources.instance.getBaseDirectory().toString() + "/" + outputSubDirectory + dataSet.getYear() + "/microData/trips.csv";
         PrintWriter pwh = MitoUtil.openFileForSequentialWriting(file, false);
         pwh.println("id,origin,originX,originY,destination,destinationX,destinationY,purpose,person,distance,time_auto,time_bus,time_train,time_tram_metro,mode,departure_time,departure_time_return");
-        for (MitoTrip trip : dataSet.getTrips().values()) {
-            pwh.print(trip.getId());
+        final StreamRandom random = new StreamRandom("summary");
+        final TripTable trips = dataSet.getTripTable();
+        final int size = trips.size();
+        for (int i = 0; i < size; i++) {
+            final MitoTrip trip = trips.get(i);
+            random.reset(trips.getId(i));
+            pwh.print(trips.getId(i));
             pwh.print(",");
             Location origin = trip.getTripOrigin();
+            final int originZone = trips.getOriginZone(i);
             String originId = "null";
-            if(origin != null) {
-                originId = String.valueOf(origin.getZoneId());
+            if(originZone != TripTable.NO_ZONE) {
+                originId = String.valueOf(originZone);
             }
             pwh.print(originId);
             pwh.print(",");
@@ -106,7 +113,7 @@ public class SummarizeData {
             } else{
                 if (Resources.instance.getBoolean(Properties.FILL_MICRO_DATA_WITH_MICROLOCATION, false) &&
                         origin != null){
-                    Coord coordinate = CoordUtils.createCoord(dataSet.getZones().get(trip.getTripOrigin().getZoneId()).getRandomCoord(MitoUtil.getRandomObject()));
+                    Coord coordinate = CoordUtils.createCoord(dataSet.getZones().get(originZone).getRandomCoord(random));
                     pwh.print(coordinate.getX());
                     pwh.print(",");
                     pwh.print(coordinate.getY());
@@ -120,9 +127,10 @@ public class SummarizeData {
             }
 
             Location destination = trip.getTripDestination();
+            final int destinationZone = trips.getDestinationZone(i);
             String destinationId = "null";
-            if(destination != null) {
-                destinationId = String.valueOf(destination.getZoneId());
+            if(destinationZone != TripTable.NO_ZONE) {
+                destinationId = String.valueOf(destinationZone);
             }
             pwh.print(destinationId);
             pwh.print(",");
@@ -134,7 +142,7 @@ public class SummarizeData {
             }else{
                 if (Resources.instance.getBoolean(Properties.FILL_MICRO_DATA_WITH_MICROLOCATION, false) &&
                         destination != null){
-                    Coord coordinate = CoordUtils.createCoord(dataSet.getZones().get(trip.getTripDestination().getZoneId()).getRandomCoord(MitoUtil.getRandomObject()));
+                    Coord coordinate = CoordUtils.createCoord(dataSet.getZones().get(destinationZone).getRandomCoord(random));
                     pwh.print(coordinate.getX());
                     pwh.print(",");
                     pwh.print(coordinate.getY());
@@ -147,12 +155,12 @@ public class SummarizeData {
                 }
             }
 
-            pwh.print(trip.getTripPurpose());
+            pwh.print(trips.getPurpose(i));
             pwh.print(",");
             pwh.print(trip.getPerson().getId());
             pwh.print(",");
             if(origin != null && destination != null) {
-                double distance = dataSet.getTravelDistancesAuto().getTravelDistance(origin.getZoneId(), destination.getZoneId());
+                double distance = dataSet.getTravelDistancesAuto().getTravelDistance(originZone, destinationZone);
                 pwh.print(distance);
                 pwh.print(",");
                 double timeAuto = dataSet.getTravelTimes().getTravelTime(origin, destination, dataSet.getPeakHour(), "car");
@@ -170,10 +178,10 @@ public class SummarizeData {
                 pwh.print("NA,NA,NA,NA,NA");
             }
             pwh.print(",");
-            pwh.print(trip.getTripMode());
+            pwh.print(trips.getMode(i));
             pwh.print(",");
-            pwh.print(trip.getDepartureInMinutes());
-            int departureOfReturnTrip = trip.getDepartureInMinutesReturnTrip();
+            pwh.print(trips.getDepartureInMinutes(i));
+            int departureOfReturnTrip = trips.getDepartureInMinutesReturnTrip(i);
             if (departureOfReturnTrip != -1){
                 pwh.print(",");
                 pwh.println(departureOfReturnTrip);
@@ -195,19 +203,26 @@ public class SummarizeData {
         Map<Integer, List<Double>> distancesByZone = new HashMap<>();
         Multiset<MitoZone> tripsByZone = HashMultiset.create();
 
-        for (MitoTrip trip : dataSet.getTrips().values()) {
-            final Location tripOrigin = trip.getTripOrigin();
-            if (trip.getTripPurpose() == purpose && tripOrigin != null && trip.getTripDestination() != null) {
-                travelTimes.add(dataSet.getTravelTimes().getTravelTime(tripOrigin, trip.getTripDestination(), dataSet.getPeakHour(), "car"));
-                double travelDistance = dataSet.getTravelDistancesAuto().getTravelDistance(tripOrigin.getZoneId(), trip.getTripDestination().getZoneId());
+        final TripTable trips = dataSet.getTripTable();
+        final int size = trips.size();
+        for (int i = 0; i < size; i++) {
+            if (trips.getPurpose(i) != purpose) {
+                continue;
+            }
+            final int originZone = trips.getOriginZone(i);
+            final int destinationZone = trips.getDestinationZone(i);
+            if (originZone != TripTable.NO_ZONE && destinationZone != TripTable.NO_ZONE) {
+                final MitoTrip trip = trips.get(i);
+                travelTimes.add(dataSet.getTravelTimes().getTravelTime(trip.getTripOrigin(), trip.getTripDestination(), dataSet.getPeakHour(), "car"));
+                double travelDistance = dataSet.getTravelDistancesAuto().getTravelDistance(originZone, destinationZone);
 //                travelDistances.add(travelDistance);
-                tripsByZone.add(dataSet.getZones().get(tripOrigin.getZoneId()));
-                if(distancesByZone.containsKey(tripOrigin.getZoneId())){
-                    distancesByZone.get(tripOrigin.getZoneId()).add(travelDistance);
+                tripsByZone.add(dataSet.getZones().get(originZone));
+                if(distancesByZone.containsKey(originZone)){
+                    distancesByZone.get(originZone).add(travelDistance);
                 } else {
                     List<Double> values = new ArrayList<>();
                     values.add(travelDistance);
-                    distancesByZone.put(tripOrigin.getZoneId(), values);
+                    distancesByZone.put(originZone, values);
                 }
             }
         }
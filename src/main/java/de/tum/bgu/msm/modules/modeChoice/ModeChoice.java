@@ -4,18 +4,23 @@ import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.modules.modeChoice.calculators.AirportModeChoiceCalculator;
+import de.tum.bgu.msm.modules.modeChoice.calculators.CachedModeChoiceCalculatorImpl;
 import de.tum.bgu.msm.modules.modeChoice.calculators.CalibratingModeChoiceCalculatorImpl;
 import de.tum.bgu.msm.modules.modeChoice.calculators.ModeChoiceCalculatorImpl;
 import de.tum.bgu.msm.modules.modeChoice.calculators.av.AVModeChoiceCalculatorImpl;
+import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
 import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import static de.tum.bgu.msm.resources.Properties.AUTONOMOUS_VEHICLE_CHOICE;
@@ -24,31 +29,49 @@ public class ModeChoice extends Module {
 
     private final static Logger logger = Logger.getLogger(ModeChoice.class);
 
+    private final static int DEFAULT_PARTITION_SIZE = 20000;
+    private final static int DEFAULT_CACHE_MB = 256;
+
     private final Map<Purpose, ModeChoiceCalculator> modeChoiceCalculatorByPurpose = new EnumMap<>(Purpose.class);
 
     public ModeChoice(DataSet dataSet) {
         super(dataSet);
         boolean includeAV = Resources.instance.getBoolean(AUTONOMOUS_VEHICLE_CHOICE, false);
+        final boolean fastExp = Resources.instance.getBoolean(Properties.MODE_CHOICE_FAST_EXP, false);
+        final ModeChoiceCalculator baseCalculator = createBaseCalculator(fastExp);
 
         if(!includeAV) {
-            modeChoiceCalculatorByPurpose.put(Purpose.HBW, new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.HBE, new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.HBS, new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.HBO, new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.NHBW,new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.NHBO, new CalibratingModeChoiceCalculatorImpl(new ModeChoiceCalculatorImpl(), dataSet.getModeChoiceCalibrationData()));
-            modeChoiceCalculatorByPurpose.put(Purpose.AIRPORT, new CalibratingModeChoiceCalculatorImpl(new AirportModeChoiceCalculator(), dataSet.getModeChoiceCalibrationData()));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBW, new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBE, new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBS, new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBO, new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.NHBW,new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.NHBO, new CalibratingModeChoiceCalculatorImpl(baseCalculator, dataSet.getModeChoiceCalibrationData(), fastExp));
+            modeChoiceCalculatorByPurpose.put(Purpose.AIRPORT, new CalibratingModeChoiceCalculatorImpl(new AirportModeChoiceCalculator(), dataSet.getModeChoiceCalibrationData(), fastExp));
         } else {
-            modeChoiceCalculatorByPurpose.put(Purpose.HBW, new AVModeChoiceCalculatorImpl());
-            modeChoiceCalculatorByPurpose.put(Purpose.HBE, new AVModeChoiceCalculatorImpl());
-            modeChoiceCalculatorByPurpose.put(Purpose.HBS, new AVModeChoiceCalculatorImpl());
-            modeChoiceCalculatorByPurpose.put(Purpose.HBO, new AVModeChoiceCalculatorImpl());
-            modeChoiceCalculatorByPurpose.put(Purpose.NHBW, new AVModeChoiceCalculatorImpl());
-            modeChoiceCalculatorByPurpose.put(Purpose.NHBO, new AVModeChoiceCalculatorImpl());
+            modeChoiceCalculatorByPurpose.put(Purpose.HBW, new AVModeChoiceCalculatorImpl(baseCalculator));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBE, new AVModeChoiceCalculatorImpl(baseCalculator));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBS, new AVModeChoiceCalculatorImpl(baseCalculator));
+            modeChoiceCalculatorByPurpose.put(Purpose.HBO, new AVModeChoiceCalculatorImpl(baseCalculator));
+            modeChoiceCalculatorByPurpose.put(Purpose.NHBW, new AVModeChoiceCalculatorImpl(baseCalculator));
+            modeChoiceCalculatorByPurpose.put(Purpose.NHBO, new AVModeChoiceCalculatorImpl(baseCalculator));
             modeChoiceCalculatorByPurpose.put(Purpose.AIRPORT, new AirportModeChoiceCalculator());
         }
     }
 
+    /**
+     * Creates the calculator shared by all non-airport purposes. Origin-destination utilities are cached
+     * unless the cache size is set to zero.
+     */
+    private static ModeChoiceCalculator createBaseCalculator(boolean fastExp) {
+        final int cacheMb = Resources.instance.getInt(Properties.MODE_CHOICE_CACHE_MB, DEFAULT_CACHE_MB);
+        if (cacheMb > 0) {
+            return new CachedModeChoiceCalculatorImpl(cacheMb * 1024L * 1024L, fastExp);
+        } else {
+            return new ModeChoiceCalculatorImpl(fastExp);
+        }
+    }
+
     public void registerModeChoiceCalculator(Purpose purpose, ModeChoiceCalculator modeChoiceCalculator) {
         final ModeChoiceCalculator prev = modeChoiceCalculatorByPurpose.put(purpose, modeChoiceCalculator);
         if(prev != null) {
@@ -59,16 +82,60 @@ public class ModeChoice extends Module {
     @Override
     public void run() {
         logger.info(" Calculating mode choice probabilities for each trip. Modes considered - 1. Auto driver, 2. Auto passenger, 3. Bicycle, 4. Bus, 5. Train, 6. Tram or Metro, 7. Walk ");
-        modeChoiceByPurpose();
+        chooseModes();
         printModeShares();
     }
 
-    private void modeChoiceByPurpose() {
-        ConcurrentExecutor<Void> executor = ConcurrentExecutor.fixedPoolService(Purpose.values().length);
+    /**
+     * Households of each purpose are split into chunks of roughly the same number of trips, independent
+     * of the number of threads. Each household draws from the random stream of its purpose, so results
+     * are reproducible for a given seed regardless of the configured parallelism. Chunks are scheduled on
+     * a work-stealing pool.
+     */
+    private void chooseModes() {
+        final int parallelism = Resources.instance.getInt(Properties.MODE_CHOICE_PARALLELISM,
+                Runtime.getRuntime().availableProcessors());
+        final int partitionSize = Resources.instance.getInt(Properties.MODE_CHOICE_PARTITION_SIZE,
+                DEFAULT_PARTITION_SIZE);
+
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        final List<Purpose> taskPurposes = new ArrayList<>();
+        for (Purpose purpose : Purpose.values()) {
+            final ModeChoiceCalculator calculator = modeChoiceCalculatorByPurpose.get(purpose);
+            List<MitoHousehold> chunk = new ArrayList<>();
+            int tripsInChunk = 0;
+            for (MitoHousehold household : dataSet.getHouseholds().values()) {
+                final int trips = household.getTripsForPurpose(purpose).size();
+                if (trips == 0) {
+                    continue;
+                }
+                chunk.add(household);
+                tripsInChunk += trips;
+                if (tripsInChunk >= partitionSize) {
+                    tasks.add(new ModeChoiceByPurpose(purpose, dataSet, calculator, chunk));
+                    taskPurposes.add(purpose);
+                    chunk = new ArrayList<>();
+                    tripsInChunk = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(new ModeChoiceByPurpose(purpose, dataSet, calculator, chunk));
+                taskPurposes.add(purpose);
+            }
+        }
+
+        logger.info("Using parallelism of " + parallelism + " with " + tasks.size()
+                + " chunks of about " + partitionSize + " trips");
+        final ConcurrentExecutor<Integer> executor = ConcurrentExecutor.workStealingService(parallelism);
+        final List<Integer> skippedTrips = executor.submitTasksAndWaitForCompletion(tasks);
+
+        final Map<Purpose, Integer> skippedTripsByPurpose = new EnumMap<>(Purpose.class);
+        for (int i = 0; i < skippedTrips.size(); i++) {
+            skippedTripsByPurpose.merge(taskPurposes.get(i), skippedTrips.get(i), Integer::sum);
+        }
         for (Purpose purpose : Purpose.values()) {
-            executor.addTaskToQueue(new ModeChoiceByPurpose(purpose, dataSet, modeChoiceCalculatorByPurpose.get(purpose)));
+            logger.info(skippedTripsByPurpose.getOrDefault(purpose, 0) + " trips skipped for " + purpose);
         }
-        executor.execute();
     }
 
     private void printModeShares() {
@@ -101,42 +168,60 @@ public class ModeChoice extends Module {
         }
     }
 
-    static class ModeChoiceByPurpose extends RandomizableConcurrentFunction<Void> {
+    /**
+     * Chooses the modes of the trips of one purpose for a chunk of households.
+     */
+    static class ModeChoiceByPurpose extends RandomizableConcurrentFunction<Integer> {
+
+        private static final Mode[] MODES = Mode.values();
 
         private final Purpose purpose;
         private final DataSet dataSet;
         private final TravelTimes travelTimes;
         private final ModeChoiceCalculator modeChoiceCalculator;
+        private final Collection<MitoHousehold> households;
+        private final double[] probabilities = new double[ModeChoiceCalculator.NUMBER_OF_MODES];
         private int countTripsSkipped;
 
         ModeChoiceByPurpose(Purpose purpose, DataSet dataSet, ModeChoiceCalculator modeChoiceCalculator) {
-            super(MitoUtil.getRandomObject().nextLong());
+            this(purpose, dataSet, modeChoiceCalculator, dataSet.getHouseholds().values());
+        }
+
+        ModeChoiceByPurpose(Purpose purpose, DataSet dataSet, ModeChoiceCalculator modeChoiceCalculator,
+                            Collection<MitoHousehold> households) {
+            super("modeChoice." + purpose);
             this.purpose = purpose;
             this.dataSet = dataSet;
             this.travelTimes = dataSet.getTravelTimes();
             this.modeChoiceCalculator = modeChoiceCalculator;
+            this.households = households;
         }
 
+        /**
+         * @return the number of skipped trips
+         */
         @Override
-        public Void call() {
+        public Integer call() {
             countTripsSkipped = 0;
             try {
-                for (MitoHousehold household : dataSet.getHouseholds().values()) {
+                for (MitoHousehold household : households) {
+                    resetRandom(household.getId());
                     for (MitoTrip trip : household.getTripsForPurpose(purpose)) {
-                        chooseMode(trip, calculateTripProbabilities(household, trip));
+                        if (calculateTripProbabilities(household, trip)) {
+                            chooseMode(trip);
+                        }
                     }
                 }
             } catch (Exception e) {
                 e.printStackTrace();
             }
-            logger.info(countTripsSkipped + " trips skipped for " + purpose);
-            return null;
+            return countTripsSkipped;
         }
 
-        private EnumMap<Mode, Double> calculateTripProbabilities(MitoHousehold household, MitoTrip trip) {
+        private boolean calculateTripProbabilities(MitoHousehold household, MitoTrip trip) {
             if (trip.getTripOrigin() == null || trip.getTripDestination() == null) {
                 countTripsSkipped++;
-                return null;
+                return false;
             }
 
             final int originId = trip.getTripOrigin().getZoneId();
@@ -148,23 +233,22 @@ public class ModeChoice extends Module {
                     destinationId);
             final double travelDistanceNMT = dataSet.getTravelDistancesNMT().getTravelDistance(originId,
                     destinationId);
-            return modeChoiceCalculator.calculateProbabilities(purpose, household, trip.getPerson(), origin, destination, travelTimes, travelDistanceAuto,
-                    travelDistanceNMT, dataSet.getPeakHour());
-    }
+            modeChoiceCalculator.calculateProbabilities(purpose, household, trip.getPerson(), origin, destination, travelTimes, travelDistanceAuto,
+                    travelDistanceNMT, dataSet.getPeakHour(), probabilities);
+            return true;
+        }
 
-        private void chooseMode(MitoTrip trip, EnumMap<Mode, Double> probabilities) {
-            if (probabilities == null) {
-                countTripsSkipped++;
-                return;
+        private void chooseMode(MitoTrip trip) {
+            //found Nan when there is no transit!! Modes not considered by the calculator are NaN as well
+            double sum = 0;
+            for (int i = 0; i < probabilities.length; i++) {
+                if (Double.isNaN(probabilities[i])) {
+                    probabilities[i] = 0;
+                }
+                sum += probabilities[i];
             }
-
-            //found Nan when there is no transit!!
-            probabilities.replaceAll((mode, probability) ->
-                    probability.isNaN() ? 0: probability);
-
-            double sum = MitoUtil.getSum(probabilities.values());
             if (sum > 0) {
-                final Mode select = MitoUtil.select(probabilities, random);
+                final Mode select = MODES[MitoUtil.select(probabilities, random, sum)];
                 trip.setTripMode(select);
             } else {
                 logger.error("Negative probabilities for trip " + trip.getId());
@@ -4,9 +4,72 @@ import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 
 import java.util.EnumMap;
+import java.util.EnumSet;
 
+/**
+ * Calculates mode choice probabilities, utilities and generalized costs of a trip.
+ * <p>
+ * The primitive methods write their results into a caller-owned array indexed by {@link Mode#ordinal()}
+ * and of length {@link #NUMBER_OF_MODES}, so that the array can be reused for all trips. Implementations
+ * have to write every entry of the array; modes which are not considered by a calculator are set to
+ * {@link Double#NaN}. A considered mode may be {@link Double#NaN} as well, e.g. if it has no travel time.
+ * The {@link EnumMap} methods are adapters around the primitive methods and contain exactly the modes of
+ * {@link #getModes()}, whatever their values.
+ */
 public interface ModeChoiceCalculator {
 
+    /**
+     * Length of the arrays passed to the primitive methods.
+     */
+    int NUMBER_OF_MODES = Mode.values().length;
+
+    /**
+     * @return a new set of the modes that this calculator considers
+     */
+    EnumSet<Mode> getModes();
+
+    /**
+     * Writes the probabilities of all considered modes into the given array, indexed by {@link Mode#ordinal()}.
+     */
+    void calculateProbabilities(Purpose purpose,
+                                MitoHousehold household,
+                                MitoPerson person,
+                                MitoZone originZone,
+                                MitoZone destinationZone,
+                                TravelTimes travelTimes,
+                                double travelDistanceAuto,
+                                double travelDistanceNMT,
+                                double peakHour_s,
+                                double[] probabilities);
+
+    /**
+     * Writes the utilities of all considered modes into the given array, indexed by {@link Mode#ordinal()}.
+     */
+    void calculateUtilities(Purpose purpose,
+                            MitoHousehold household,
+                            MitoPerson person,
+                            MitoZone originZone,
+                            MitoZone destinationZone,
+                            TravelTimes travelTimes,
+                            double travelDistanceAuto,
+                            double travelDistanceNMT,
+                            double peakHour_s,
+                            double[] utilities);
+
+    /**
+     * Writes the generalized costs of all considered modes into the given array, indexed by {@link Mode#ordinal()}.
+     */
+    void calculateGeneralizedCosts(Purpose purpose,
+                                   MitoHousehold household,
+                                   MitoPerson person,
+                                   MitoZone originZone,
+                                   MitoZone destinationZone,
+                                   TravelTimes travelTimes,
+                                   double travelDistanceAuto,
+                                   double travelDistanceNMT,
+                                   double peakHour_s,
+                                   double[] generalizedCosts);
+
     /**
      * For the time being implementations of this interface should adhere to the following order in the result array:
      * [0] probability Auto driver
@@ -17,15 +80,20 @@ public interface ModeChoiceCalculator {
      * [5] probability tram or metro
      * [6] probability walk
      */
-    EnumMap<Mode, Double> calculateProbabilities(Purpose purpose,
-                                                 MitoHousehold household,
-                                                 MitoPerson person,
-                                                 MitoZone originZone,
-                                                 MitoZone destinationZone,
-                                                 TravelTimes travelTimes,
-                                                 double travelDistanceAuto,
-                                                 double travelDistanceNMT,
-                                                 double peakHour_s);
+    default EnumMap<Mode, Double> calculateProbabilities(Purpose purpose,
+                                                         MitoHousehold household,
+                                                         MitoPerson person,
+                                                         MitoZone originZone,
+                                                         MitoZone destinationZone,
+                                                         TravelTimes travelTimes,
+                                                         double travelDistanceAuto,
+                                                         double travelDistanceNMT,
+                                                         double peakHour_s) {
+        final double[] probabilities = new double[NUMBER_OF_MODES];
+        calculateProbabilities(purpose, household, person, originZone, destinationZone, travelTimes,
+                travelDistanceAuto, travelDistanceNMT, peakHour_s, probabilities);
+        return toModeMap(probabilities, getModes());
+    }
 
     /**
      * For the time being implementations of this interface should adhere to the following order in the result array:
@@ -37,15 +105,20 @@ public interface ModeChoiceCalculator {
      * [5] probability tram or metro
      * [6] probability walk
      */
-    EnumMap<Mode, Double> calculateUtilities(Purpose purpose,
-                                    MitoHousehold household,
-                                    MitoPerson person,
-                                    MitoZone originZone,
-                                    MitoZone destinationZone,
-                                    TravelTimes travelTimes,
-                                    double travelDistanceAuto,
-                                    double travelDistanceNMT,
-                                    double peakHour_s);
+    default EnumMap<Mode, Double> calculateUtilities(Purpose purpose,
+                                                     MitoHousehold household,
+                                                     MitoPerson person,
+                                                     MitoZone originZone,
+                                                     MitoZone destinationZone,
+                                                     TravelTimes travelTimes,
+                                                     double travelDistanceAuto,
+                                                     double travelDistanceNMT,
+                                                     double peakHour_s) {
+        final double[] utilities = new double[NUMBER_OF_MODES];
+        calculateUtilities(purpose, household, person, originZone, destinationZone, travelTimes,
+                travelDistanceAuto, travelDistanceNMT, peakHour_s, utilities);
+        return toModeMap(utilities, getModes());
+    }
 
 
     /**
@@ -58,13 +131,26 @@ public interface ModeChoiceCalculator {
      * [5] probability tram or metro
      * [6] probability walk
      */
-    EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose,
-                                MitoHousehold household,
-                                MitoPerson person,
-                                MitoZone originZone,
-                                MitoZone destinationZone,
-                                TravelTimes travelTimes,
-                                double travelDistanceAuto,
-                                double travelDistanceNMT,
-                                double peakHour_s);
+    default EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose,
+                                                            MitoHousehold household,
+                                                            MitoPerson person,
+                                                            MitoZone originZone,
+                                                            MitoZone destinationZone,
+                                                            TravelTimes travelTimes,
+                                                            double travelDistanceAuto,
+                                                            double travelDistanceNMT,
+                                                            double peakHour_s) {
+        final double[] generalizedCosts = new double[NUMBER_OF_MODES];
+        calculateGeneralizedCosts(purpose, household, person, originZone, destinationZone, travelTimes,
+                travelDistanceAuto, travelDistanceNMT, peakHour_s, generalizedCosts);
+        return toModeMap(generalizedCosts, getModes());
+    }
+
+    private static EnumMap<Mode, Double> toModeMap(double[] values, EnumSet<Mode> modes) {
+        final EnumMap<Mode, Double> map = new EnumMap<>(Mode.class);
+        for (Mode mode : modes) {
+            map.put(mode, values[mode.ordinal()]);
+        }
+        return map;
+    }
 }
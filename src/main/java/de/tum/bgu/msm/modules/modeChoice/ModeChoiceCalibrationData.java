@@ -20,6 +20,8 @@ public class ModeChoiceCalibrationData {
 
     private static Logger logger = Logger.getLogger(ModeChoiceCalibrationData.class);
 
+    private static final Mode[] MODES = Mode.values();
+
     public ModeChoiceCalibrationData() {
         this.observedModalShare = new HashMap<>();
         this.calibrationFactors = new HashMap<>();
@@ -37,6 +39,20 @@ public class ModeChoiceCalibrationData {
         return factors;
     }
 
+    /**
+     * Adds the calibration factors of the region of the trip origin to the given values, which are indexed
+     * by {@link Mode#ordinal()}.
+     */
+    public void addCalibrationFactors(Purpose tripPurpose, Location tripOrigin, double[] values) {
+        final Map<Mode, Double> factors = calibrationFactors.get(zoneToRegionMap.get(tripOrigin.getZoneId())).get(tripPurpose);
+        for (Mode mode : MODES) {
+            final Double factor = factors.get(mode);
+            if (factor != null) {
+                values[mode.ordinal()] += factor;
+            }
+        }
+    }
+
     public Map<String, Map<Purpose, Map<Mode, Double>>> getObservedModalShare() {
         return observedModalShare;
     }
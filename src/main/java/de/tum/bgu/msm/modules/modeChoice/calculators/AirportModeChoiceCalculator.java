@@ -3,18 +3,41 @@ package de.tum.bgu.msm.modules.modeChoice.calculators;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.modeChoice.ModeChoiceCalculator;
+import de.tum.bgu.msm.util.LogitKernel;
 
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 public class AirportModeChoiceCalculator implements ModeChoiceCalculator {
 
+    private final static int AUTO_DRIVER = 0;
+    private final static int AUTO_PASSENGER = 1;
+    private final static int AUTO_OTHER = 2;
+    private final static int BUS = 3;
+    private final static int TRAIN = 4;
+    private final static int NUMBER_OF_AIRPORT_ALTERNATIVES = 5;
+
+    private final static LogitKernel LOGIT_KERNEL = LogitKernel.multinomial(
+            new int[]{AUTO_DRIVER, AUTO_PASSENGER, AUTO_OTHER, BUS, TRAIN}, false);
+
+    /**
+     * Utilities of the airport alternatives for {@link #calculateLogsum}, which has no result array to hold them.
+     */
+    private final static ThreadLocal<double[]> SCRATCH_UTILITIES =
+            ThreadLocal.withInitial(() -> new double[NUMBER_OF_AIRPORT_ALTERNATIVES]);
+
 ///////////////////////////////////////////////// AIRPORT Mode Choice /////////////////////////////////////////////////////
 
     @Override
-    public EnumMap<Mode, Double> calculateProbabilities(Purpose purpose, MitoHousehold hh, MitoPerson person,
-                                                        MitoZone originZone, MitoZone destinationZone,
-                                                        TravelTimes travelTimes, double travelDistanceAuto,
-                                                        double travelDistanceNMT, double peakHour) {
+    public EnumSet<Mode> getModes() {
+        return EnumSet.range(Mode.autoDriver, Mode.walk);
+    }
+
+    @Override
+    public void calculateProbabilities(Purpose purpose, MitoHousehold hh, MitoPerson person,
+                                       MitoZone originZone, MitoZone destinationZone,
+                                       TravelTimes travelTimes, double travelDistanceAuto,
+                                       double travelDistanceNMT, double peakHour, double[] probabilities) {
         if(purpose != Purpose.AIRPORT) {
             throw  new IllegalArgumentException("Airport mode choice calculator can only be used for airport purposes.");
         }
@@ -23,37 +46,65 @@ public class AirportModeChoiceCalculator implements ModeChoiceCalculator {
         //Auto driver, Auto passenger, bicyle, bus, train, tram or metro, walk
 
 
-        EnumMap<Mode, Double> utilities = calculateUtilities(purpose, hh,
+        //the result array holds the utilities until they are read
+        calculateUtilities(purpose, hh,
                 person, originZone, destinationZone,
-                travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour);
-
-        double sum_u = utilities.get(Mode.autoDriver) + utilities.get(Mode.autoPassenger)
-                + utilities.get(Mode.bus) + utilities.get(Mode.train);
-
-
-        double probabilityAutoD = utilities.get(Mode.autoDriver) / sum_u;
-        double probabilityAutoP = utilities.get(Mode.autoPassenger) / sum_u;
-        double probabilityBus = utilities.get(Mode.bus) / sum_u;
-        double probabilityTrain = utilities.get(Mode.train) / sum_u;
-
-        EnumMap<Mode, Double> probabilities = new EnumMap<>(Mode.class);
-        probabilities.put(Mode.autoDriver, probabilityAutoD);
-        probabilities.put(Mode.autoPassenger, probabilityAutoP);
-        probabilities.put(Mode.bus, probabilityBus);
-        probabilities.put(Mode.train, probabilityTrain);
-        probabilities.put(Mode.walk, 0.);
-        probabilities.put(Mode.bicycle, 0.);
-        probabilities.put(Mode.tramOrMetro, 0.);
-        return probabilities;
+                travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour, probabilities);
+
+        final double utilityAutoD = probabilities[Mode.autoDriver.ordinal()];
+        final double utilityAutoP = probabilities[Mode.autoPassenger.ordinal()];
+        final double utilityBus = probabilities[Mode.bus.ordinal()];
+        final double utilityTrain = probabilities[Mode.train.ordinal()];
+
+        double sum_u = utilityAutoD + utilityAutoP + utilityBus + utilityTrain;
+
+        probabilities[Mode.autoDriver.ordinal()] = utilityAutoD / sum_u;
+        probabilities[Mode.autoPassenger.ordinal()] = utilityAutoP / sum_u;
+        probabilities[Mode.bus.ordinal()] = utilityBus / sum_u;
+        probabilities[Mode.train.ordinal()] = utilityTrain / sum_u;
+        probabilities[Mode.walk.ordinal()] = 0.;
+        probabilities[Mode.bicycle.ordinal()] = 0.;
+        probabilities[Mode.tramOrMetro.ordinal()] = 0.;
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
 
         if(purpose != Purpose.AIRPORT) {
             throw  new IllegalArgumentException("Airport mode choice calculator can only be used for airport purposes.");
         }
 
+        //the result array holds the airport utilities until they are read
+        calculateAirportUtilities(originZone, destinationZone, travelTimes, travelDistanceAuto, peakHour_s, utilities);
+        final double expAutoDriver = Math.exp(utilities[AUTO_DRIVER]) + Math.exp(utilities[AUTO_OTHER]);
+        final double expAutoPassenger = Math.exp(utilities[AUTO_PASSENGER]);
+        final double expBus = Math.exp(utilities[BUS]);
+        final double expTrain = Math.exp(utilities[TRAIN]);
+
+        //Auto driver, Auto passenger, bicyle, bus, train, tram or metro, walk
+
+        //TODO: returned Airport utilities are actually exponentiated utilities
+        Arrays.fill(utilities, Double.NaN);
+        utilities[Mode.autoDriver.ordinal()] = expAutoDriver;
+        utilities[Mode.autoPassenger.ordinal()] = expAutoPassenger;
+        utilities[Mode.bicycle.ordinal()] = 0.;
+        utilities[Mode.bus.ordinal()] = expBus;
+        utilities[Mode.train.ordinal()] = expTrain;
+        utilities[Mode.tramOrMetro.ordinal()] = 0.;
+        utilities[Mode.walk.ordinal()] = 0.;
+    }
+
+    /**
+     * Returns the logsum of the airport mode choice between the given zones, which is used as accessibility
+     * of the zone in the airport trip generation.
+     */
+    public double calculateLogsum(MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double peakHour_s) {
+        final double[] airportUtilities = SCRATCH_UTILITIES.get();
+        calculateAirportUtilities(originZone, destinationZone, travelTimes, travelDistanceAuto, peakHour_s, airportUtilities);
+        return LOGIT_KERNEL.calculateLogsum(airportUtilities);
+    }
+
+    private static void calculateAirportUtilities(MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double peakHour_s, double[] airportUtilities) {
         double asc_autoDriver = 0.;
         double asc_autoPassenger = -0.0657 - 1.120;
         double asc_autoOther = -1.37275 - 2.606;
@@ -76,36 +127,23 @@ public class AirportModeChoiceCalculator implements ModeChoiceCalculator {
         double exp_distance_bus = 9.662964;
         double exp_distance_train = 7.706087;
 
-        //Order of variables in the return variable Auto driver, Auto passenger, bicyle, bus, train, tram or metro, walk
-
-        double u_autoDriver = asc_autoDriver + exp_time_autoDriver * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car")) +
-                exp_distance_autoDriver * Math.exp(beta_distance * travelDistanceAuto);
-        double u_autoPassenger = asc_autoPassenger + exp_time_autoPassenger * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car")) +
-                exp_distance_autoPassenger * Math.exp(beta_distance * travelDistanceAuto);
-        double u_autoOther = asc_autoOther + exp_time_autoOther * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car")) +
-                exp_distance_autoOther * Math.exp(beta_distance * travelDistanceAuto);
-        double u_bus = asc_bus + exp_time_bus * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "bus")) +
-                exp_distance_bus * Math.exp(beta_distance * travelDistanceAuto);
-        double u_train = asc_train + exp_time_train * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "train")) +
-                exp_distance_train * Math.exp(beta_distance * travelDistanceAuto);
-
-        //Auto driver, Auto passenger, bicyle, bus, train, tram or metro, walk
-
-        //TODO: returned Airport utilities are actually exponentiated utilities
-        EnumMap<Mode, Double> utilities = new EnumMap<>(Mode.class);
-        utilities.put(Mode.autoDriver, Math.exp(u_autoDriver) + Math.exp(u_autoOther));
-        utilities.put(Mode.autoPassenger, Math.exp(u_autoPassenger));
-        utilities.put(Mode.bicycle, 0.);
-        utilities.put(Mode.bus, Math.exp(u_bus));
-        utilities.put(Mode.train, Math.exp(u_train));
-        utilities.put(Mode.tramOrMetro, 0.);
-        utilities.put(Mode.walk, 0.);
-
-        return utilities;
+        final double expTimeCar = Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car"));
+        final double expDistance = Math.exp(beta_distance * travelDistanceAuto);
+
+        airportUtilities[AUTO_DRIVER] = asc_autoDriver + exp_time_autoDriver * expTimeCar +
+                exp_distance_autoDriver * expDistance;
+        airportUtilities[AUTO_PASSENGER] = asc_autoPassenger + exp_time_autoPassenger * expTimeCar +
+                exp_distance_autoPassenger * expDistance;
+        airportUtilities[AUTO_OTHER] = asc_autoOther + exp_time_autoOther * expTimeCar +
+                exp_distance_autoOther * expDistance;
+        airportUtilities[BUS] = asc_bus + exp_time_bus * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "bus")) +
+                exp_distance_bus * expDistance;
+        airportUtilities[TRAIN] = asc_train + exp_time_train * Math.exp(beta_time * travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "train")) +
+                exp_distance_train * expDistance;
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] generalizedCosts) {
         throw new RuntimeException("Not implemented!");
     }
 }
@@ -0,0 +1,71 @@
+package de.tum.bgu.msm.modules.modeChoice.calculators;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.tum.bgu.msm.data.*;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+
+/**
+ * Mode choice calculator that caches the part of the utilities which only depends on purpose, income class,
+ * origin and destination (travel times, generalized costs, trip length and zonal terms). Per trip, only the
+ * person and household terms are added to the cached values.
+ * <p>
+ * The cache assumes that travel distances are determined by origin and destination and that all trips use
+ * the same peak hour, which holds within one mode choice run. Cached entries are computed lazily and the
+ * cache is bounded by a memory budget. It is safe to share one instance among all purposes and threads.
+ */
+public class CachedModeChoiceCalculatorImpl extends ModeChoiceCalculatorImpl {
+
+    /**
+     * Approximate memory of a cache entry: key, utility array and cache overhead.
+     */
+    private final static long ENTRY_BYTES = 192;
+
+    private final static int ZONE_ID_BITS = 28;
+    private final static long MAX_ZONE_ID = (1L << ZONE_ID_BITS) - 1;
+
+    private final Cache<Long, double[]> originDestinationUtilities;
+
+    public CachedModeChoiceCalculatorImpl(long maxCacheBytes) {
+        this(maxCacheBytes, false);
+    }
+
+    public CachedModeChoiceCalculatorImpl(long maxCacheBytes, boolean fastExp) {
+        super(fastExp);
+        this.originDestinationUtilities = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(1, maxCacheBytes / ENTRY_BYTES))
+                .build();
+    }
+
+    @Override
+    public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
+        final int incomeClass = getIncomeClass(household);
+        final int originId = originZone.getId();
+        final int destinationId = destinationZone.getId();
+        if (originId < 0 || originId > MAX_ZONE_ID || destinationId < 0 || destinationId > MAX_ZONE_ID) {
+            calculateOriginDestinationUtilities(purpose, incomeClass, originZone, destinationZone, travelTimes,
+                    travelDistanceAuto, travelDistanceNMT, peakHour_s, utilities);
+        } else {
+            final long key = ((long) purpose.ordinal() << (2 * ZONE_ID_BITS + 2))
+                    | ((long) incomeClass << (2 * ZONE_ID_BITS))
+                    | ((long) originId << ZONE_ID_BITS)
+                    | destinationId;
+            double[] cached = originDestinationUtilities.getIfPresent(key);
+            if (cached == null) {
+                cached = new double[utilities.length];
+                calculateOriginDestinationUtilities(purpose, incomeClass, originZone, destinationZone, travelTimes,
+                        travelDistanceAuto, travelDistanceNMT, peakHour_s, cached);
+                originDestinationUtilities.put(key, cached);
+            }
+            System.arraycopy(cached, 0, utilities, 0, utilities.length);
+        }
+        addPersonUtilities(purpose, household, person, utilities);
+    }
+
+    /**
+     * Returns the number of cached origin-destination utility arrays.
+     */
+    public long getCacheSize() {
+        return originDestinationUtilities.size();
+    }
+}
@@ -3,13 +3,27 @@ package de.tum.bgu.msm.modules.modeChoice.calculators;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.modeChoice.ModeChoiceCalculator;
+import de.tum.bgu.msm.util.LogitKernel;
 
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
 
     private final static double nestingCoefficient = 0.25;
 
+    private final static int[][] NESTS = {
+            {Mode.autoDriver.ordinal(), Mode.autoPassenger.ordinal()},
+            {Mode.bus.ordinal(), Mode.train.ordinal(), Mode.tramOrMetro.ordinal()},
+            {Mode.bicycle.ordinal()},
+            {Mode.walk.ordinal()}
+    };
+    private final static double[] NESTING_COEFFICIENTS = {nestingCoefficient, nestingCoefficient, 1., 1.};
+
+    private final static int NUMBER_OF_BASE_MODES = 7;
+    private final static int BICYCLE = Mode.bicycle.ordinal();
+    private final static int WALK = Mode.walk.ordinal();
+
     private final static double fuelCostEurosPerKm = 0.07;
     private final static double transitFareEurosPerKm = 0.12;
 
@@ -301,8 +315,26 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
     };
 
 
+    private final LogitKernel logitKernel;
+
+    public ModeChoiceCalculatorImpl() {
+        this(false);
+    }
+
+    /**
+     * @param fastExp whether the nested logit uses {@link LogitKernel#fastExp(double)}
+     */
+    public ModeChoiceCalculatorImpl(boolean fastExp) {
+        this.logitKernel = LogitKernel.nested(NESTS, NESTING_COEFFICIENTS, fastExp);
+    }
+
+    @Override
+    public EnumSet<Mode> getModes() {
+        return EnumSet.range(Mode.autoDriver, Mode.walk);
+    }
+
     @Override
-    public EnumMap<Mode, Double> calculateProbabilities(
+    public void calculateProbabilities(
             Purpose purpose,
             MitoHousehold household,
             MitoPerson person,
@@ -311,72 +343,46 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
             TravelTimes travelTimes,
             double travelDistanceAuto,
             double travelDistanceNMT,
-            double peakHour_s) {
+            double peakHour_s,
+            double[] probabilities) {
 
-        EnumMap<Mode, Double> utilities = calculateUtilities(
+        //the result array holds the utilities until they are read
+        calculateUtilities(
                 purpose, household, person, originZone, destinationZone, travelTimes
-                , travelDistanceAuto, travelDistanceNMT, peakHour_s);
-
-        final double utilityAutoD = utilities.get(Mode.autoDriver);
-        final double utilityAutoP = utilities.get(Mode.autoPassenger);
-        final double utilityBicycle = utilities.get(Mode.bicycle);
-        final double utilityBus = utilities.get(Mode.bus);
-        final double utilityTrain = utilities.get(Mode.train);
-        final double utilityTramMetro = utilities.get(Mode.tramOrMetro);
-        final double utilityWalk = utilities.get(Mode.walk);
-
-        double expsumNestAuto = Math.exp(utilityAutoD / nestingCoefficient) + Math.exp(utilityAutoP / nestingCoefficient);
-        double expsumNestTransit = Math.exp(utilityBus / nestingCoefficient) + Math.exp(utilityTrain / nestingCoefficient) + Math.exp(utilityTramMetro / nestingCoefficient);
-        double expsumTopLevel = Math.exp(nestingCoefficient * Math.log(expsumNestAuto)) + Math.exp(utilityBicycle) + Math.exp(utilityWalk) + Math.exp(nestingCoefficient * Math.log(expsumNestTransit));
-
-        double probabilityAutoD;
-        double probabilityAutoP;
-        if (expsumNestAuto > 0) {
-            probabilityAutoD = (Math.exp(utilityAutoD / nestingCoefficient) / expsumNestAuto) * (Math.exp(nestingCoefficient * Math.log(expsumNestAuto)) / expsumTopLevel);
-            probabilityAutoP = (Math.exp(utilityAutoP / nestingCoefficient) / expsumNestAuto) * (Math.exp(nestingCoefficient * Math.log(expsumNestAuto)) / expsumTopLevel);
-        } else {
-            probabilityAutoD = 0.0;
-            probabilityAutoP = 0.0;
-        }
+                , travelDistanceAuto, travelDistanceNMT, peakHour_s, probabilities);
 
-        double probabilityBus;
-        double probabilityTrain;
-        double probabilityTramMetro;
-        if (expsumNestTransit > 0) {
-            probabilityBus = (Math.exp(utilityBus / nestingCoefficient) / expsumNestTransit) * (Math.exp(nestingCoefficient * Math.log(expsumNestTransit)) / expsumTopLevel);
-            probabilityTrain = (Math.exp(utilityTrain / nestingCoefficient) / expsumNestTransit) * (Math.exp(nestingCoefficient * Math.log(expsumNestTransit)) / expsumTopLevel);
-            probabilityTramMetro = (Math.exp(utilityTramMetro / nestingCoefficient) / expsumNestTransit) * (Math.exp(nestingCoefficient * Math.log(expsumNestTransit)) / expsumTopLevel);
-        } else {
-            probabilityBus = 0.0;
-            probabilityTrain = 0.0;
-            probabilityTramMetro = 0.0;
-        }
-        double probabilityBicycle = Math.exp(utilityBicycle) / expsumTopLevel;
-        double probabilityWalk = Math.exp(utilityWalk) / expsumTopLevel;
-
-
-        EnumMap<Mode, Double> probabilities = new EnumMap<>(Mode.class);
-        probabilities.put(Mode.autoDriver, probabilityAutoD);
-        probabilities.put(Mode.autoPassenger, probabilityAutoP);
-        probabilities.put(Mode.bicycle, probabilityBicycle);
-        probabilities.put(Mode.bus, probabilityBus);
-        probabilities.put(Mode.train, probabilityTrain);
-        probabilities.put(Mode.tramOrMetro, probabilityTramMetro);
-        probabilities.put(Mode.walk, probabilityWalk);
-        return probabilities;
+        Arrays.fill(probabilities, NUMBER_OF_BASE_MODES, probabilities.length, Double.NaN);
+        logitKernel.calculateProbabilities(probabilities, probabilities);
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
-        int purpIdx = purpose.ordinal();
+    public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
+        calculateOriginDestinationUtilities(purpose, getIncomeClass(household), originZone, destinationZone,
+                travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s, utilities);
+        addPersonUtilities(purpose, household, person, utilities);
+    }
 
-        int age = person.getAge();
-        int isMale = person.getMitoGender() == MitoGender.MALE ? 1 : 0;
-        int hasLicense = person.hasDriversLicense() ? 1 : 0;
+    /**
+     * Returns the income class of the household, which selects the values of time:
+     * 0 for up to 1500 EUR, 1 for up to 5600 EUR and 2 above.
+     */
+    protected static int getIncomeClass(MitoHousehold household) {
+        int monthlyIncome_EUR = household.getMonthlyIncome_EUR();
+        if (monthlyIncome_EUR <= 1500) {
+            return 0;
+        } else if (monthlyIncome_EUR <= 5600) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
 
-        int hhSize = household.getHhSize();
-        int hhAutos = household.getAutos();
-        int hhChildren = DataSet.getChildrenForHousehold(household);
+    /**
+     * Writes the part of the utilities which only depends on purpose, income class, origin and destination
+     * (intercepts, zonal terms, generalized costs and trip length).
+     */
+    protected void calculateOriginDestinationUtilities(Purpose purpose, int incomeClass, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
+        int purpIdx = purpose.ordinal();
 
         final float distanceToNearestRailStop = originZone.getDistanceToNearestRailStop();
 
@@ -391,154 +397,65 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
 
         int isMunichTrip = originZone.isMunichZone() ? 1 : 0;
 
-        EnumMap<Mode, Double> generalizedCosts = calculateGeneralizedCosts(purpose, household, person,
-                originZone, destinationZone, travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s);
-
-        double gcAutoD = generalizedCosts.get(Mode.autoDriver);
-        double gcAutoP = generalizedCosts.get(Mode.autoPassenger);
-        double gcBus = generalizedCosts.get(Mode.bus);
-        double gcTrain = generalizedCosts.get(Mode.train);
-        double gcTramMetro = generalizedCosts.get(Mode.tramOrMetro);
-
-
-        double utilityAutoD = intercepts[purpIdx][0]
-                + betaAge[purpIdx][0] * age
-                + betaMale[purpIdx][0] * isMale
-                + betaDriversLicense[purpIdx][0] * hasLicense
-                + betaHhSize[purpIdx][0] * hhSize
-                + betaHhAutos[purpIdx][0] * hhAutos
-                + betaDistToRailStop[purpIdx][0] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][0] * hhChildren
-                + betaCoreCitySG[purpIdx][0] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][0] * isMediumCity
-                + betaTownSG[purpIdx][0] * isTown
-                + betaRuralSG[purpIdx][0] * isRural
-                + betaAgglomerationUrbanR[purpIdx][0] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][0] * isRuralR
-                + betaGeneralizedCost[purpIdx][0] * gcAutoD
-                + betaGeneralizedCost_Squared[purpIdx][0] * (gcAutoD * gcAutoD)
-                + betaMunichTrip[purpIdx][0] * isMunichTrip;
-
-
-        double utilityAutoP = intercepts[purpIdx][1]
-                + betaAge[purpIdx][1] * age
-                + betaMale[purpIdx][1] * isMale
-                + betaDriversLicense[purpIdx][1] * hasLicense
-                + betaHhSize[purpIdx][1] * hhSize
-                + betaHhAutos[purpIdx][1] * hhAutos
-                + betaDistToRailStop[purpIdx][1] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][1] * hhChildren
-                + betaCoreCitySG[purpIdx][1] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][1] * isMediumCity
-                + betaTownSG[purpIdx][1] * isTown
-                + betaRuralSG[purpIdx][1] * isRural
-                + betaAgglomerationUrbanR[purpIdx][1] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][1] * isRuralR
-                + betaGeneralizedCost[purpIdx][1] * gcAutoP
-                + betaGeneralizedCost_Squared[purpIdx][1] * (gcAutoP * gcAutoP)
-                + betaMunichTrip[purpIdx][1] * isMunichTrip;
-
-        double utilityBicycle = intercepts[purpIdx][2]
-                + betaAge[purpIdx][2] * age
-                + betaMale[purpIdx][2] * isMale
-                + betaDriversLicense[purpIdx][2] * hasLicense
-                + betaHhSize[purpIdx][2] * hhSize
-                + betaHhAutos[purpIdx][2] * hhAutos
-                + betaDistToRailStop[purpIdx][2] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][2] * hhChildren
-                + betaCoreCitySG[purpIdx][2] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][2] * isMediumCity
-                + betaTownSG[purpIdx][2] * isTown
-                + betaRuralSG[purpIdx][2] * isRural
-                + betaAgglomerationUrbanR[purpIdx][2] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][2] * isRuralR
-                + betaTripLength[purpIdx][2] * travelDistanceNMT
-                + betaMunichTrip[purpIdx][2] * isMunichTrip;
-
-        double utilityBus = intercepts[purpIdx][3]
-                + betaAge[purpIdx][3] * age
-                + betaMale[purpIdx][3] * isMale
-                + betaDriversLicense[purpIdx][3] * hasLicense
-                + betaHhSize[purpIdx][3] * hhSize
-                + betaHhAutos[purpIdx][3] * hhAutos
-                + betaDistToRailStop[purpIdx][3] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][3] * hhChildren
-                + betaCoreCitySG[purpIdx][3] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][3] * isMediumCity
-                + betaTownSG[purpIdx][3] * isTown
-                + betaRuralSG[purpIdx][3] * isRural
-                + betaAgglomerationUrbanR[purpIdx][3] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][3] * isRuralR
-                + betaGeneralizedCost[purpIdx][3] * gcBus
-                + betaGeneralizedCost_Squared[purpIdx][3] * (gcBus * gcBus)
-                + betaMunichTrip[purpIdx][3] * isMunichTrip;
-
-        double utilityTrain = intercepts[purpIdx][4]
-                + betaAge[purpIdx][4] * age
-                + betaMale[purpIdx][4] * isMale
-                + betaDriversLicense[purpIdx][4] * hasLicense
-                + betaHhSize[purpIdx][4] * hhSize
-                + betaHhAutos[purpIdx][4] * hhAutos
-                + betaDistToRailStop[purpIdx][4] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][4] * hhChildren
-                + betaCoreCitySG[purpIdx][4] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][4] * isMediumCity
-                + betaTownSG[purpIdx][4] * isTown
-                + betaRuralSG[purpIdx][4] * isRural
-                + betaAgglomerationUrbanR[purpIdx][4] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][4] * isRuralR
-                + betaGeneralizedCost[purpIdx][4] * gcTrain
-                + betaGeneralizedCost_Squared[purpIdx][4] * (gcTrain * gcTrain)
-                + betaMunichTrip[purpIdx][4] * isMunichTrip;
-
-        double utilityTramMetro = intercepts[purpIdx][5]
-                + betaAge[purpIdx][5] * age
-                + betaMale[purpIdx][5] * isMale
-                + betaDriversLicense[purpIdx][5] * hasLicense
-                + betaHhSize[purpIdx][5] * hhSize
-                + betaHhAutos[purpIdx][5] * hhAutos
-                + betaDistToRailStop[purpIdx][5] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][5] * hhChildren
-                + betaCoreCitySG[purpIdx][5] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][5] * isMediumCity
-                + betaTownSG[purpIdx][5] * isTown
-                + betaRuralSG[purpIdx][5] * isRural
-                + betaAgglomerationUrbanR[purpIdx][5] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][5] * isRuralR
-                + betaGeneralizedCost[purpIdx][5] * gcTramMetro
-                + betaGeneralizedCost_Squared[purpIdx][5] * (gcTramMetro * gcTramMetro)
-                + betaMunichTrip[purpIdx][5] * isMunichTrip;
-
-        double utilityWalk = intercepts[purpIdx][6]
-                + betaAge[purpIdx][6] * age
-                + betaMale[purpIdx][6] * isMale
-                + betaDriversLicense[purpIdx][6] * hasLicense
-                + betaHhSize[purpIdx][6] * hhSize
-                + betaHhAutos[purpIdx][6] * hhAutos
-                + betaDistToRailStop[purpIdx][6] * distanceToNearestRailStop
-                + betaHhChildren[purpIdx][6] * hhChildren
-                + betaCoreCitySG[purpIdx][6] * isCoreCity
-                + betaMediumSizedCitySG[purpIdx][6] * isMediumCity
-                + betaTownSG[purpIdx][6] * isTown
-                + betaRuralSG[purpIdx][6] * isRural
-                + betaAgglomerationUrbanR[purpIdx][6] * (isAgglomerationR + isUrbanR)
-                + betaRuralR[purpIdx][6] * isRuralR
-                + betaTripLength[purpIdx][6] * travelDistanceNMT
-                + betaMunichTrip[purpIdx][6] * isMunichTrip;
-
-        EnumMap<Mode, Double> utilities = new EnumMap<>(Mode.class);
-        utilities.put(Mode.autoDriver, utilityAutoD);
-        utilities.put(Mode.autoPassenger, utilityAutoP);
-        utilities.put(Mode.bicycle, utilityBicycle);
-        utilities.put(Mode.bus, utilityBus);
-        utilities.put(Mode.train, utilityTrain);
-        utilities.put(Mode.tramOrMetro, utilityTramMetro);
-        utilities.put(Mode.walk, utilityWalk);
-        return utilities;
+        //the result array holds the generalized costs until they are read
+        calculateGeneralizedCosts(purpose, incomeClass, originZone, destinationZone, travelTimes,
+                travelDistanceAuto, peakHour_s, utilities);
+
+        for (int m = 0; m < NUMBER_OF_BASE_MODES; m++) {
+            double utility = intercepts[purpIdx][m]
+                    + betaDistToRailStop[purpIdx][m] * distanceToNearestRailStop
+                    + betaCoreCitySG[purpIdx][m] * isCoreCity
+                    + betaMediumSizedCitySG[purpIdx][m] * isMediumCity
+                    + betaTownSG[purpIdx][m] * isTown
+                    + betaRuralSG[purpIdx][m] * isRural
+                    + betaAgglomerationUrbanR[purpIdx][m] * (isAgglomerationR + isUrbanR)
+                    + betaRuralR[purpIdx][m] * isRuralR
+                    + betaMunichTrip[purpIdx][m] * isMunichTrip;
+            if (m == BICYCLE || m == WALK) {
+                utility += betaTripLength[purpIdx][m] * travelDistanceNMT;
+            } else {
+                final double gc = utilities[m];
+                utility += betaGeneralizedCost[purpIdx][m] * gc
+                        + betaGeneralizedCost_Squared[purpIdx][m] * (gc * gc);
+            }
+            utilities[m] = utility;
+        }
+    }
+
+    /**
+     * Adds the part of the utilities which depends on the person and household attributes.
+     */
+    protected void addPersonUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, double[] utilities) {
+        int purpIdx = purpose.ordinal();
+
+        int age = person.getAge();
+        int isMale = person.getMitoGender() == MitoGender.MALE ? 1 : 0;
+        int hasLicense = person.hasDriversLicense() ? 1 : 0;
+
+        int hhSize = household.getHhSize();
+        int hhAutos = household.getAutos();
+        int hhChildren = DataSet.getChildrenForHousehold(household);
+
+        for (int m = 0; m < NUMBER_OF_BASE_MODES; m++) {
+            utilities[m] += betaAge[purpIdx][m] * age
+                    + betaMale[purpIdx][m] * isMale
+                    + betaDriversLicense[purpIdx][m] * hasLicense
+                    + betaHhSize[purpIdx][m] * hhSize
+                    + betaHhAutos[purpIdx][m] * hhAutos
+                    + betaHhChildren[purpIdx][m] * hhChildren;
+        }
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] generalizedCosts) {
+        calculateGeneralizedCosts(purpose, getIncomeClass(household), originZone, destinationZone, travelTimes,
+                travelDistanceAuto, peakHour_s, generalizedCosts);
+    }
+
+    /**
+     * Writes the generalized costs in minutes for the given income class (see {@link #getIncomeClass(MitoHousehold)}).
+     */
+    protected void calculateGeneralizedCosts(Purpose purpose, int incomeClass, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double peakHour_s, double[] generalizedCosts) {
 
         double timeAutoD = travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car");
         double timeAutoP = timeAutoD;
@@ -546,7 +463,6 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
         double timeTrain = travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "train");
         double timeTramMetro = travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "tramMetro");
 
-        int monthlyIncome_EUR = household.getMonthlyIncome_EUR();
         int purpIdx = purpose.ordinal();
 
         double gcAutoD;
@@ -555,13 +471,13 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
         double gcTrain;
         double gcTramMetro;
 
-        if (monthlyIncome_EUR <= 1500) {
+        if (incomeClass == 0) {
             gcAutoD = timeAutoD + (travelDistanceAuto * fuelCostEurosPerKm) / VOT1500_autoD[purpIdx];
             gcAutoP = timeAutoP + (travelDistanceAuto * fuelCostEurosPerKm) / VOT1500_autoP[purpIdx];
             gcBus = timeBus + (travelDistanceAuto * transitFareEurosPerKm) / VOT1500_transit[purpIdx];
             gcTrain = timeTrain + (travelDistanceAuto * transitFareEurosPerKm) / VOT1500_transit[purpIdx];
             gcTramMetro = timeTramMetro + (travelDistanceAuto * transitFareEurosPerKm) / VOT1500_transit[purpIdx];
-        } else if (monthlyIncome_EUR <= 5600) {
+        } else if (incomeClass == 1) {
             gcAutoD = timeAutoD + (travelDistanceAuto * fuelCostEurosPerKm) / VOT5600_autoD[purpIdx];
             gcAutoP = timeAutoP + (travelDistanceAuto * fuelCostEurosPerKm) / VOT5600_autoP[purpIdx];
             gcBus = timeBus + (travelDistanceAuto * transitFareEurosPerKm) / VOT5600_transit[purpIdx];
@@ -575,15 +491,14 @@ public class ModeChoiceCalculatorImpl implements ModeChoiceCalculator {
             gcTramMetro = timeTramMetro + (travelDistanceAuto * transitFareEurosPerKm) / VOT7000_transit[purpIdx];
         }
 
-        EnumMap<Mode, Double> generalizedCosts = new EnumMap<>(Mode.class);
-        generalizedCosts.put(Mode.autoDriver, gcAutoD);
-        generalizedCosts.put(Mode.autoPassenger, gcAutoP);
-        generalizedCosts.put(Mode.bicycle, 0.);
-        generalizedCosts.put(Mode.bus, gcBus);
-        generalizedCosts.put(Mode.train, gcTrain);
-        generalizedCosts.put(Mode.tramOrMetro, gcTramMetro);
-        generalizedCosts.put(Mode.walk, 0.);
-        return generalizedCosts;
+        Arrays.fill(generalizedCosts, Double.NaN);
+        generalizedCosts[Mode.autoDriver.ordinal()] = gcAutoD;
+        generalizedCosts[Mode.autoPassenger.ordinal()] = gcAutoP;
+        generalizedCosts[Mode.bicycle.ordinal()] = 0.;
+        generalizedCosts[Mode.bus.ordinal()] = gcBus;
+        generalizedCosts[Mode.train.ordinal()] = gcTrain;
+        generalizedCosts[Mode.tramOrMetro.ordinal()] = gcTramMetro;
+        generalizedCosts[Mode.walk.ordinal()] = 0.;
 
     }
 }
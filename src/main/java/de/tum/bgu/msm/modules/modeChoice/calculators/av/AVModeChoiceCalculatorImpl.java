@@ -5,7 +5,8 @@ import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.modeChoice.ModeChoiceCalculator;
 import de.tum.bgu.msm.modules.modeChoice.calculators.ModeChoiceCalculatorImpl;
 
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
 
@@ -48,9 +49,17 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
         this.baseCalculator = new ModeChoiceCalculatorImpl();
     }
 
+    @Override
+    public EnumSet<Mode> getModes() {
+        final EnumSet<Mode> modes = baseCalculator.getModes();
+        modes.add(Mode.privateAV);
+        modes.add(Mode.sharedAV);
+        return modes;
+    }
+
 
     @Override
-    public EnumMap<Mode, Double> calculateProbabilities(
+    public void calculateProbabilities(
             Purpose purpose,
             MitoHousehold household,
             MitoPerson person,
@@ -59,10 +68,11 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
             TravelTimes travelTimes,
             double travelDistanceAuto,
             double travelDistanceNMT,
-            double peakHour_s) {
+            double peakHour_s,
+            double[] probabilities) {
 
-
-        EnumMap<Mode, Double> utilities = baseCalculator.calculateUtilities(
+        //the result array holds the intermediate results until they are read
+        baseCalculator.calculateUtilities(
                 purpose,
                 household,
                 person,
@@ -71,9 +81,18 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
                 travelTimes,
                 travelDistanceAuto,
                 travelDistanceNMT,
-                peakHour_s);
-
-        EnumMap<Mode, Double> baseProbs = baseCalculator.calculateProbabilities(
+                peakHour_s,
+                probabilities);
+
+        final double utilityAutoD = probabilities[Mode.autoDriver.ordinal()];
+        final double utilityAutoP = probabilities[Mode.autoPassenger.ordinal()];
+        final double utilityBicycle = probabilities[Mode.bicycle.ordinal()];
+        final double utilityBus = probabilities[Mode.bus.ordinal()];
+        final double utilityTrain = probabilities[Mode.train.ordinal()];
+        final double utilityTramMetro = probabilities[Mode.tramOrMetro.ordinal()];
+        final double utilityWalk = probabilities[Mode.walk.ordinal()];
+
+        baseCalculator.calculateProbabilities(
                 purpose,
                 household,
                 person,
@@ -82,10 +101,14 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
                 travelTimes,
                 travelDistanceAuto,
                 travelDistanceNMT,
-                peakHour_s
+                peakHour_s,
+                probabilities
         );
 
-        EnumMap<Mode, Double> generalizedCosts = calculateGeneralizedCosts(
+        final double baseProbabilityBicycle = probabilities[Mode.bicycle.ordinal()];
+        final double baseProbabilityWalk = probabilities[Mode.walk.ordinal()];
+
+        calculateGeneralizedCosts(
                 purpose,
                 household,
                 person,
@@ -94,24 +117,17 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
                 travelTimes,
                 travelDistanceAuto,
                 travelDistanceNMT,
-                peakHour_s
+                peakHour_s,
+                probabilities
         );
 
-        final double utilityAutoD = utilities.get(Mode.autoDriver);
-        final double utilityAutoP = utilities.get(Mode.autoPassenger);
-        final double utilityBicycle = utilities.get(Mode.bicycle);
-        final double utilityBus = utilities.get(Mode.bus);
-        final double utilityTrain = utilities.get(Mode.train);
-        final double utilityTramMetro = utilities.get(Mode.tramOrMetro);
-        final double utilityWalk = utilities.get(Mode.walk);
-
-        final double gcAutoD = generalizedCosts.get(Mode.autoDriver);
-        final double gcAutoP = generalizedCosts.get(Mode.autoPassenger);
-        final double gcBus = generalizedCosts.get(Mode.bus);
-        final double gcTrain = generalizedCosts.get(Mode.train);
-        final double gcTramMetro = generalizedCosts.get(Mode.tramOrMetro);
-        final double gcSharedAV = generalizedCosts.get(Mode.sharedAV);
-        final double gcPrivateAV = generalizedCosts.get(Mode.privateAV);
+        final double gcAutoD = probabilities[Mode.autoDriver.ordinal()];
+        final double gcAutoP = probabilities[Mode.autoPassenger.ordinal()];
+        final double gcBus = probabilities[Mode.bus.ordinal()];
+        final double gcTrain = probabilities[Mode.train.ordinal()];
+        final double gcTramMetro = probabilities[Mode.tramOrMetro.ordinal()];
+        final double gcSharedAV = probabilities[Mode.sharedAV.ordinal()];
+        final double gcPrivateAV = probabilities[Mode.privateAV.ordinal()];
 
         double logsumAuto = Math.log(Math.exp(utilityAutoD / nestingCoefficient) + Math.exp(utilityAutoP / nestingCoefficient));
         double logsumTransit = Math.log(Math.exp(utilityBus / nestingCoefficient) + Math.exp(utilityTrain / nestingCoefficient)
@@ -140,34 +156,34 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
         double probabilityBus = probabilityTransitNest / (1 + Math.exp(betaGeneralizedCost[purpIdx][3] * (gcSharedAV - gcBus) / nestingCoefficient) + Math.exp((utilityTrain - utilityBus) / nestingCoefficient) + Math.exp((utilityTramMetro - utilityBus) / nestingCoefficient));
         double probabilityTrain = probabilityTransitNest / (1 + Math.exp(betaGeneralizedCost[purpIdx][4] * (gcSharedAV - gcTrain) / nestingCoefficient) + Math.exp((utilityBus - utilityTrain) / nestingCoefficient) + Math.exp((utilityTramMetro - utilityTrain) / nestingCoefficient));
         double probabilityTramMetro = probabilityTransitNest / (1 + Math.exp(betaGeneralizedCost[purpIdx][5] * (gcSharedAV - gcTramMetro) / nestingCoefficient) + Math.exp((utilityBus - utilityTramMetro) / nestingCoefficient) + Math.exp((utilityTrain - utilityTramMetro) / nestingCoefficient));
-        double probabilityBicycle = baseProbs.get(Mode.bicycle) / sumOfRelativeExpOfUtilities;
-        double probabilityWalk = baseProbs.get(Mode.walk) / sumOfRelativeExpOfUtilities;
-
-        baseProbs.put(Mode.autoDriver, probabilityAutoD);
-        baseProbs.put(Mode.autoPassenger, probabilityAutoP);
-        baseProbs.put(Mode.bicycle, probabilityBicycle);
-        baseProbs.put(Mode.bus, probabilityBus);
-        baseProbs.put(Mode.train, probabilityTrain);
-        baseProbs.put(Mode.tramOrMetro, probabilityTramMetro);
-        baseProbs.put(Mode.walk, probabilityWalk);
-        baseProbs.put(Mode.privateAV, probabilityPrivateAV);
-        baseProbs.put(Mode.sharedAV, probabilitySharedAV);
-        return baseProbs;
+        double probabilityBicycle = baseProbabilityBicycle / sumOfRelativeExpOfUtilities;
+        double probabilityWalk = baseProbabilityWalk / sumOfRelativeExpOfUtilities;
+
+        Arrays.fill(probabilities, Double.NaN);
+        probabilities[Mode.autoDriver.ordinal()] = probabilityAutoD;
+        probabilities[Mode.autoPassenger.ordinal()] = probabilityAutoP;
+        probabilities[Mode.bicycle.ordinal()] = probabilityBicycle;
+        probabilities[Mode.bus.ordinal()] = probabilityBus;
+        probabilities[Mode.train.ordinal()] = probabilityTrain;
+        probabilities[Mode.tramOrMetro.ordinal()] = probabilityTramMetro;
+        probabilities[Mode.walk.ordinal()] = probabilityWalk;
+        probabilities[Mode.privateAV.ordinal()] = probabilityPrivateAV;
+        probabilities[Mode.sharedAV.ordinal()] = probabilitySharedAV;
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
         throw new RuntimeException("Not implemented!");
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] generalizedCosts) {
 
         int monthlyIncome_EUR = household.getMonthlyIncome_EUR();
         int purpIdx = purpose.ordinal();
         double timeAutoD = travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car");
 
-        EnumMap<Mode, Double> baseGeneralizedCosts = baseCalculator.calculateGeneralizedCosts(
+        baseCalculator.calculateGeneralizedCosts(
                 purpose,
                 household,
                 person,
@@ -176,7 +192,8 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
                 travelTimes,
                 travelDistanceAuto,
                 travelDistanceNMT,
-                peakHour_s
+                peakHour_s,
+                generalizedCosts
         );
 
         double gcSharedAV;
@@ -198,8 +215,7 @@ public class AVModeChoiceCalculatorImpl implements ModeChoiceCalculator {
             gcSharedAV = timeAutoD + (travelDistanceAuto * sharedAVCostEurosPerKm) / VOT7000_sharedAV[purpIdx];
         }
 
-        baseGeneralizedCosts.put(Mode.privateAV, gcPrivateAV);
-        baseGeneralizedCosts.put(Mode.sharedAV, gcSharedAV);
-        return baseGeneralizedCosts;
+        generalizedCosts[Mode.privateAV.ordinal()] = gcPrivateAV;
+        generalizedCosts[Mode.sharedAV.ordinal()] = gcSharedAV;
     }
 }
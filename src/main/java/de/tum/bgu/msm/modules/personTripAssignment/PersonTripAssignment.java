@@ -3,12 +3,14 @@ package de.tum.bgu.msm.modules.personTripAssignment;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import org.apache.log4j.Logger;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Random;
 
 import static de.tum.bgu.msm.data.MitoOccupationStatus.STUDENT;
 import static de.tum.bgu.msm.data.MitoOccupationStatus.WORKER;
@@ -24,13 +26,15 @@ public class PersonTripAssignment extends Module {
 
     @Override
     public void run() {
+        final StreamRandom random = new StreamRandom("personTripAssignment");
         for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            random.reset(household.getId());
             for (Purpose purpose : Purpose.values()) {
                 for (Iterator<MitoTrip> iterator = household.getTripsForPurpose(purpose).listIterator(); iterator.hasNext(); ) {
                     MitoTrip trip = iterator.next();
                     Map<MitoPerson, Double> probabilitiesByPerson = getProbabilityByPersonForTrip(household, trip);
                     if (probabilitiesByPerson != null && !probabilitiesByPerson.isEmpty()) {
-                        selectPersonForTrip(trip, probabilitiesByPerson);
+                        selectPersonForTrip(trip, probabilitiesByPerson, random);
                     } else {
                         logger.warn("Removing " + trip + " since no person could be assigned.");
                         iterator.remove();
@@ -39,6 +43,7 @@ public class PersonTripAssignment extends Module {
                 }
             }
         }
+        dataSet.compactTrips();
     }
 
     private Map<MitoPerson, Double> getProbabilityByPersonForTrip(MitoHousehold household, MitoTrip trip) {
@@ -62,8 +67,8 @@ public class PersonTripAssignment extends Module {
 
 
 
-    private void selectPersonForTrip(MitoTrip trip, Map<MitoPerson, Double> probabilitiesByPerson) {
-        MitoPerson selectedPerson = MitoUtil.select(probabilitiesByPerson);
+    private void selectPersonForTrip(MitoTrip trip, Map<MitoPerson, Double> probabilitiesByPerson, Random random) {
+        MitoPerson selectedPerson = MitoUtil.select(probabilitiesByPerson, random);
         trip.setPerson(selectedPerson);
         selectedPerson.addTrip(trip);
     }
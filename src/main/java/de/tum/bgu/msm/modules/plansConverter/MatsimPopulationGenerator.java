@@ -4,7 +4,7 @@ import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import edu.emory.mathcs.utils.ConcurrencyUtils;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
@@ -47,7 +47,9 @@ public final class MatsimPopulationGenerator extends Module {
         PopulationFactory factory = population.getFactory();
         AtomicInteger assignedTripCounter = new AtomicInteger(0);
         AtomicInteger nonAssignedTripCounter = new AtomicInteger(0);
+        final StreamRandom random = new StreamRandom("matsimPopulation");
         dataSet.getTripSubsample().values().forEach(trip ->{
+            random.reset(trip.getId());
             try {
                 if (modeSet.contains(trip.getTripMode())) {
                     Person person = factory.createPerson(Id.createPersonId(trip.getId()));
@@ -64,11 +66,11 @@ public final class MatsimPopulationGenerator extends Module {
                         originCoord = CoordUtils.createCoord(((MicroLocation) trip.getTripOrigin()).getCoordinate());
                     } else {
                         originCoord =
-                                CoordUtils.createCoord(dataSet.getZones().get(trip.getTripOrigin().getZoneId()).getRandomCoord(MitoUtil.getRandomObject()));
+                                CoordUtils.createCoord(dataSet.getZones().get(trip.getTripOrigin().getZoneId()).getRandomCoord(random));
                     }
 
                     Activity originActivity = factory.createActivityFromCoord(activityTypeAtOrigin, originCoord);
-                    originActivity.setEndTime(trip.getDepartureInMinutes() * 60 + MitoUtil.getRandomObject().nextDouble() * 60);
+                    originActivity.setEndTime(trip.getDepartureInMinutes() * 60 + random.nextDouble() * 60);
                     plan.addActivity(originActivity);
 
                     plan.addLeg(factory.createLeg(Mode.getMatsimMode(trip.getTripMode())));
@@ -79,12 +81,12 @@ public final class MatsimPopulationGenerator extends Module {
                     if(trip.getTripDestination() instanceof MicroLocation) {
                         destinationCoord = CoordUtils.createCoord(((MicroLocation) trip.getTripDestination()).getCoordinate());
                     } else {
-                        destinationCoord = CoordUtils.createCoord(dataSet.getZones().get(trip.getTripDestination().getZoneId()).getRandomCoord(MitoUtil.getRandomObject()));
+                        destinationCoord = CoordUtils.createCoord(dataSet.getZones().get(trip.getTripDestination().getZoneId()).getRandomCoord(random));
                     }
                     Activity destinationActivity = factory.createActivityFromCoord(activityTypeAtDestination, destinationCoord);
 
                     if (trip.isHomeBased()) {
-                        destinationActivity.setEndTime(trip.getDepartureInMinutesReturnTrip() * 60 + MitoUtil.getRandomObject().nextDouble() * 60);
+                        destinationActivity.setEndTime(trip.getDepartureInMinutesReturnTrip() * 60 + random.nextDouble() * 60);
                         plan.addActivity(destinationActivity);
                         plan.addLeg(factory.createLeg(Mode.getMatsimMode(trip.getTripMode())));
                         plan.addActivity(factory.createActivityFromCoord(activityTypeAtOrigin, originCoord));
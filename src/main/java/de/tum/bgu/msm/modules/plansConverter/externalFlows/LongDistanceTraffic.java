@@ -8,7 +8,8 @@ import de.tum.bgu.msm.io.input.readers.LongDistanceTimeOfDayDistributionReader;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.StreamRandom;
+import de.tum.bgu.msm.util.sampling.AliasTable;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.*;
@@ -22,7 +23,8 @@ public class LongDistanceTraffic extends Module {
 
     private Map<Integer, ExternalFlowZone> zones;
     private Map<ExternalFlowType, HashBasedTable<Integer, Integer, Float>> externalFlows;
-    private Map<Integer, Double> departureTimeProbabilityByHour;
+    private int[] departureHours;
+    private AliasTable departureHourSampler;
 
     //for pre-analysis only
     private Map<Integer, Float> totalGeneratedFlows = new HashMap<>();
@@ -34,6 +36,8 @@ public class LongDistanceTraffic extends Module {
 
     private double scalingFactor;
 
+    private final StreamRandom random = new StreamRandom("longDistanceTraffic");
+
     public LongDistanceTraffic(DataSet dataSet, double scalingFactor) {
         super(dataSet);
         this.scalingFactor = scalingFactor;
@@ -42,6 +46,7 @@ public class LongDistanceTraffic extends Module {
 
     @Override
     public void run() {
+        random.reset(0);
         readDepartureTimeDistribution();
         readZones();
         readMatrices();
@@ -51,7 +56,16 @@ public class LongDistanceTraffic extends Module {
     private void readDepartureTimeDistribution() {
         LongDistanceTimeOfDayDistributionReader reader = new LongDistanceTimeOfDayDistributionReader(dataSet);
         reader.read();
-        departureTimeProbabilityByHour = reader.getDepartureTimeDistribution();
+        final Map<Integer, Double> departureTimeProbabilityByHour = reader.getDepartureTimeDistribution();
+        departureHours = new int[departureTimeProbabilityByHour.size()];
+        final double[] probabilities = new double[departureHours.length];
+        int i = 0;
+        for (Map.Entry<Integer, Double> entry : departureTimeProbabilityByHour.entrySet()) {
+            departureHours[i] = entry.getKey();
+            probabilities[i] = entry.getValue();
+            i++;
+        }
+        departureHourSampler = AliasTable.of(probabilities);
     }
 
     private void readZones() {
@@ -114,7 +128,7 @@ public class LongDistanceTraffic extends Module {
     }
 
     private double selectDepartureTimeInSeconds() {
-        return (MitoUtil.select(departureTimeProbabilityByHour) + MitoUtil.getRandomObject().nextDouble()) * 3600;
+        return (departureHours[departureHourSampler.sample(random)] + random.nextDouble()) * 3600;
     }
 
     private void initialize(int zone) {
@@ -174,10 +188,10 @@ public class LongDistanceTraffic extends Module {
     private long getNumberOfTripsFromDecimal(double realValue, double scalingFactor){
         long trips = Math.round(realValue * scalingFactor);
         double decimalPart = realValue * scalingFactor - trips;
-        if (decimalPart > 0 && MitoUtil.getRandomObject().nextDouble() < decimalPart) {
+        if (decimalPart > 0 && random.nextDouble() < decimalPart) {
             trips++;
             //avoids discarding trips when scaling down
-        } else if (decimalPart < 0 && MitoUtil.getRandomObject().nextDouble() < -decimalPart) {
+        } else if (decimalPart < 0 && random.nextDouble() < -decimalPart) {
             trips--;
             //avoids considering too many trips when scaling down
         }
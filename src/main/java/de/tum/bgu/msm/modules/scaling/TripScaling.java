@@ -1,10 +1,11 @@
 package de.tum.bgu.msm.modules.scaling;
 
 import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.TripTable;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import org.apache.log4j.Logger;
 
 public class TripScaling extends Module {
@@ -25,11 +26,14 @@ public class TripScaling extends Module {
 
     private void scaleTrips() {
 
-        dataSet.getTrips().values().forEach(trip -> {
-            if (MitoUtil.getRandomObject().nextDouble() < tripScalingFactor) {
-                dataSet.addTripToSubsample(trip);
+        final StreamRandom random = new StreamRandom("tripScaling");
+        final TripTable trips = dataSet.getTripTable();
+        final int size = trips.size();
+        for (int i = 0; i < size; i++) {
+            if (random.reset(trips.getId(i)).nextDouble() < tripScalingFactor) {
+                trips.addToSubsample(i);
             }
-        });
+        }
 
         logger.info("Trips scaled down. The sub-sample of trips contains " + dataSet.getTripSubsample().size() + " trips.");
 
@@ -1,30 +1,42 @@
 package de.tum.bgu.msm.modules.timeOfDay;
 
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
-import com.google.common.math.LongMath;
 import de.tum.bgu.msm.data.*;
+import de.tum.bgu.msm.data.travelTimes.TimeSlicedSkimTravelTimes;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.Module;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.random.StreamRandom;
+import de.tum.bgu.msm.util.sampling.AliasTable;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 
 public final class TimeOfDayChoice extends Module {
 
     private static final Logger logger = Logger.getLogger(TimeOfDayChoice.class);
 
-    private EnumMap<Purpose, DoubleMatrix1D> arrivalMinuteCumProbByPurpose;
-    private EnumMap<Purpose, DoubleMatrix1D> durationMinuteCumProbByPurpose;
-    private EnumMap<Purpose, DoubleMatrix1D> departureMinuteCumProbByPurpose;
+    private static final int PARTITION_SIZE = 100000;
+
+    private final EnumMap<Purpose, AliasTable> arrivalMinuteSamplerByPurpose = new EnumMap<>(Purpose.class);
+    private final EnumMap<Purpose, AliasTable> durationMinuteSamplerByPurpose = new EnumMap<>(Purpose.class);
+    private final EnumMap<Purpose, AliasTable> departureMinuteSamplerByPurpose = new EnumMap<>(Purpose.class);
 
     private final static double SPEED_WALK = 5 / 3.6;
     private final static double SPEED_BICYCLE = 13 / 3.6;
 
-    private long counter = 0;
-    private int issues = 0;
+    private MitoZone airportZone;
+    /**
+     * Whether car travel times depend on the time of day, so that the travel time at the estimated departure
+     * differs from the one at arrival.
+     */
+    private boolean carTravelTimesByTimeSlice;
 
     public TimeOfDayChoice(DataSet dataSet) {
         super(dataSet);
@@ -32,97 +44,160 @@ public final class TimeOfDayChoice extends Module {
 
     @Override
     public void run() {
-        arrivalMinuteCumProbByPurpose = dataSet.getArrivalMinuteCumProbByPurpose();
-        durationMinuteCumProbByPurpose = dataSet.getDurationMinuteCumProbByPurpose();
-        departureMinuteCumProbByPurpose = dataSet.getDepartureMinuteCumProbByPurpose();
+        buildSamplers(dataSet.getArrivalMinuteCumProbByPurpose(), arrivalMinuteSamplerByPurpose);
+        buildSamplers(dataSet.getDurationMinuteCumProbByPurpose(), durationMinuteSamplerByPurpose);
+        buildSamplers(dataSet.getDepartureMinuteCumProbByPurpose(), departureMinuteSamplerByPurpose);
+        if (Resources.instance.getBoolean(Properties.ADD_AIRPORT_DEMAND, false)) {
+            airportZone = dataSet.getZones().get(Resources.instance.getInt(Properties.AIRPORT_ZONE));
+        }
+        final TravelTimes travelTimes = dataSet.getTravelTimes();
+        carTravelTimesByTimeSlice = travelTimes instanceof TimeSlicedSkimTravelTimes
+                && ((TimeSlicedSkimTravelTimes) travelTimes).hasSlices("car");
 
         chooseDepartureTimes();
         logger.info("Time of day choice completed");
 
     }
 
+    /**
+     * Minute distributions are static for the whole run, so they are converted to alias tables once
+     * and sampled in constant time.
+     */
+    private static void buildSamplers(EnumMap<Purpose, DoubleMatrix1D> probabilities,
+                                      EnumMap<Purpose, AliasTable> samplers) {
+        samplers.clear();
+        probabilities.forEach((purpose, distribution) -> samplers.put(purpose, AliasTable.of(distribution.toArray())));
+    }
+
+    /**
+     * Trips are partitioned and processed in parallel. Each trip draws from its own random stream,
+     * so results do not depend on the number of threads.
+     */
     private void chooseDepartureTimes() {
+        final int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        final TripTable trips = dataSet.getTripTable();
+        final int size = trips.size();
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int from = 0; from < size; from += PARTITION_SIZE) {
+            tasks.add(new TimeOfDayChoiceForPartition(trips, from, Math.min(from + PARTITION_SIZE, size)));
+        }
+        logger.info("Assigning times of day to " + size + " trips using " + numberOfThreads
+                + " thread(s) and " + tasks.size() + " partition(s)");
+        final ConcurrentExecutor<Integer> executor = ConcurrentExecutor.workStealingService(numberOfThreads);
+        int issues = 0;
+        for (int partitionIssues : executor.submitTasksAndWaitForCompletion(tasks)) {
+            issues += partitionIssues;
+        }
+        logger.warn(issues + " trips have no time of day since they have no origin, destination or mode");
+    }
+
+    private final class TimeOfDayChoiceForPartition implements Callable<Integer> {
 
-        dataSet.getTrips().values().forEach(trip -> {
-
-                    if (trip.getTripOrigin() != null && trip.getTripDestination() != null
-                            && trip.getTripMode() != null) {
-                        int departureTimeInMinutes;
-                        if (trip.getTripPurpose().equals(Purpose.AIRPORT) &&
-                                trip.getTripOrigin().equals(dataSet.getZones().get(Resources.instance.getInt(Properties.AIRPORT_ZONE)))){
-                            departureTimeInMinutes = chooseDepartureTime(trip);
-                        } else {
-                            int arrivalTimeInMinutes = chooseArrivalTime(trip);
-                           departureTimeInMinutes = arrivalTimeInMinutes - (int) estimateTravelTimeForDeparture(trip, arrivalTimeInMinutes);
-                        }
-                        //if departure is before midnight
-                        if (departureTimeInMinutes < 0) {
-                            departureTimeInMinutes = departureTimeInMinutes + 24 * 60;
-                        }
-                        trip.setDepartureInMinutes(departureTimeInMinutes);
-                        if (trip.isHomeBased()) {
-                            trip.setDepartureInMinutesReturnTrip(chooseDepartureTimeForReturnTrip(trip, departureTimeInMinutes));
-                        }
+        private final TripTable trips;
+        private final int from;
+        private final int to;
+        private final StreamRandom random = new StreamRandom("timeOfDay");
 
+        /**
+         * Processes the trips with index from (inclusive) to (exclusive).
+         */
+        private TimeOfDayChoiceForPartition(TripTable trips, int from, int to) {
+            this.trips = trips;
+            this.from = from;
+            this.to = to;
+        }
 
+        /**
+         * @return the number of trips without time of day
+         */
+        @Override
+        public Integer call() {
+            int issues = 0;
+            for (int i = from; i < to; i++) {
+                random.reset(trips.getId(i));
+                final Mode mode = trips.getMode(i);
+                if (trips.getOriginZone(i) != TripTable.NO_ZONE && trips.getDestinationZone(i) != TripTable.NO_ZONE
+                        && mode != null) {
+                    final Purpose purpose = trips.getPurpose(i);
+                    int departureTimeInMinutes;
+                    if (purpose == Purpose.AIRPORT && trips.getOrigin(i).equals(airportZone)) {
+                        departureTimeInMinutes = chooseDepartureTime(purpose);
                     } else {
-                        issues++;
+                        int arrivalTimeInMinutes = chooseArrivalTime(i, purpose);
+                        departureTimeInMinutes = arrivalTimeInMinutes - (int) estimateTravelTimeForDeparture(i, mode, arrivalTimeInMinutes);
                     }
-                    counter++;
-                    if (LongMath.isPowerOfTwo(counter)) {
-                        logger.info(counter + " times of day assigned");
+                    //if departure is before midnight
+                    if (departureTimeInMinutes < 0) {
+                        departureTimeInMinutes = departureTimeInMinutes + 24 * 60;
                     }
+                    trips.setDepartureInMinutes(i, departureTimeInMinutes);
+                    if (MitoTrip.isHomeBased(purpose)) {
+                        trips.setDepartureInMinutesReturnTrip(i, chooseDepartureTimeForReturnTrip(i, purpose, departureTimeInMinutes));
+                    }
+                } else {
+                    issues++;
                 }
-        );
-        logger.warn(issues + " trips have no time of day since they have no origin, destination or mode");
-    }
+            }
+            return issues;
+        }
 
-    private int chooseDepartureTime(MitoTrip mitoTrip) {
-        return MitoUtil.select(departureMinuteCumProbByPurpose.get(mitoTrip.getTripPurpose()).toArray(), MitoUtil.getRandomObject());
-    }
+        private int chooseDepartureTime(Purpose tripPurpose) {
+            return departureMinuteSamplerByPurpose.get(tripPurpose).sample(random);
+        }
 
-    private int chooseArrivalTime(MitoTrip mitoTrip) {
-        Purpose tripPurpose = mitoTrip.getTripPurpose();
-        if(tripPurpose == Purpose.HBW || tripPurpose == Purpose.HBE) {
-            MitoOccupation occupation = mitoTrip.getPerson().getOccupation();
-            if(occupation != null){
-                return occupation.getStartTime_min().orElseGet(() -> MitoUtil.select(arrivalMinuteCumProbByPurpose.get(tripPurpose).toArray(), MitoUtil.getRandomObject()));
+        private int chooseArrivalTime(int trip, Purpose tripPurpose) {
+            if (tripPurpose == Purpose.HBW || tripPurpose == Purpose.HBE) {
+                MitoOccupation occupation = trips.get(trip).getPerson().getOccupation();
+                if (occupation != null) {
+                    return occupation.getStartTime_min().orElseGet(() -> arrivalMinuteSamplerByPurpose.get(tripPurpose).sample(random));
+                }
             }
+            return arrivalMinuteSamplerByPurpose.get(tripPurpose).sample(random);
         }
-        return MitoUtil.select(arrivalMinuteCumProbByPurpose.get(tripPurpose).toArray(), MitoUtil.getRandomObject());
-    }
 
-    private int chooseDepartureTimeForReturnTrip(MitoTrip mitoTrip, int arrivalTime) {
-        Purpose tripPurpose = mitoTrip.getTripPurpose();
-        int departureTime;
-        if(tripPurpose == Purpose.HBW || tripPurpose == Purpose.HBE) {
-            MitoOccupation occupation = mitoTrip.getPerson().getOccupation();
-            if(occupation != null) {
-                departureTime = occupation.getEndTime_min().orElseGet(() -> arrivalTime + MitoUtil.select(durationMinuteCumProbByPurpose.get(tripPurpose).toArray(), MitoUtil.getRandomObject()));
+        private int chooseDepartureTimeForReturnTrip(int trip, Purpose tripPurpose, int arrivalTime) {
+            int departureTime;
+            if (tripPurpose == Purpose.HBW || tripPurpose == Purpose.HBE) {
+                MitoOccupation occupation = trips.get(trip).getPerson().getOccupation();
+                if (occupation != null) {
+                    departureTime = occupation.getEndTime_min().orElseGet(() -> arrivalTime + durationMinuteSamplerByPurpose.get(tripPurpose).sample(random));
+                } else {
+                    int duration = durationMinuteSamplerByPurpose.get(tripPurpose).sample(random);
+                    departureTime = arrivalTime + duration;
+                }
             } else {
-                int duration = MitoUtil.select(durationMinuteCumProbByPurpose.get(mitoTrip.getTripPurpose()).toArray(), MitoUtil.getRandomObject());
+                int duration = durationMinuteSamplerByPurpose.get(tripPurpose).sample(random);
                 departureTime = arrivalTime + duration;
             }
-        } else {
-            int duration = MitoUtil.select(durationMinuteCumProbByPurpose.get(mitoTrip.getTripPurpose()).toArray(), MitoUtil.getRandomObject());
-            departureTime = arrivalTime + duration;
+            //if departure is after midnight
+            if (departureTime > 24 * 60) {
+                return departureTime - 24 * 60;
+            } else {
+                return departureTime;
+            }
         }
-        //if departure is after midnight
-        if (departureTime > 24 * 60) {
-            return departureTime - 24 * 60;
-        } else {
-            return departureTime;
+
+        private double estimateTravelTimeForDeparture(int trip, Mode mode, double arrivalInMinutes) {
+            if (mode == Mode.walk) {
+                return dataSet.getTravelDistancesNMT().getTravelDistance(trips.getOriginZone(trip), trips.getDestinationZone(trip)) / SPEED_WALK;
+            } else if (mode == Mode.bicycle) {
+                return dataSet.getTravelDistancesNMT().getTravelDistance(trips.getOriginZone(trip), trips.getDestinationZone(trip)) / SPEED_BICYCLE;
+            } else {
+                return estimateCarTravelTimeForDeparture(trips.get(trip), arrivalInMinutes);
+            }
         }
     }
 
-    private double estimateTravelTimeForDeparture(MitoTrip trip, double arrivalInMinutes) {
-        if (trip.getTripMode().equals(Mode.walk)) {
-            return dataSet.getTravelDistancesNMT().getTravelDistance(trip.getTripOrigin().getZoneId(), trip.getTripDestination().getZoneId()) / SPEED_WALK;
-        } else if (trip.getTripMode().equals(Mode.bicycle)) {
-            return dataSet.getTravelDistancesNMT().getTravelDistance(trip.getTripOrigin().getZoneId(), trip.getTripDestination().getZoneId()) / SPEED_BICYCLE;
-        } else {
-            //both transit and car use here travel times by car
-            return dataSet.getTravelTimes().getTravelTime(trip.getTripOrigin(), trip.getTripDestination(), arrivalInMinutes * 60, "car");
+    /**
+     * Both transit and car use here travel times by car. The travel time at arrival gives an estimate of the
+     * departure time, whose time slice is then used for the travel time.
+     */
+    private double estimateCarTravelTimeForDeparture(MitoTrip trip, double arrivalInMinutes) {
+        final double arrivalInSeconds = arrivalInMinutes * 60;
+        final double travelTimeAtArrival = dataSet.getTravelTimes().getTravelTime(trip.getTripOrigin(), trip.getTripDestination(), arrivalInSeconds, "car");
+        if (!carTravelTimesByTimeSlice) {
+            return travelTimeAtArrival;
         }
+        return dataSet.getTravelTimes().getTravelTime(trip.getTripOrigin(), trip.getTripDestination(), arrivalInSeconds - travelTimeAtArrival * 60, "car");
     }
 }
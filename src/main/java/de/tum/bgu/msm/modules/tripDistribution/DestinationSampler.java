@@ -0,0 +1,164 @@
+package de.tum.bgu.msm.modules.tripDistribution;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.sampling.CumulativeDistribution;
+import org.apache.commons.math3.util.FastMath;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Samples destinations for the budget-constrained distribution purposes (HBS, HBO, NHBW, NHBO).
+ * The destination weight of a zone is its base probability multiplied by a normal kernel around
+ * the (adjusted) travel time budget of the household.
+ * <p>
+ * The car travel time row and base probability row of an origin are cached as primitive arrays.
+ * Budgets are quantized into bins and the cumulative distribution of an origin is reused for all
+ * budgets falling into the same bin. Both caches are bounded by a memory budget and are safe to be
+ * shared by all tasks of a purpose. In exact mode, every request recomputes the cumulative
+ * distribution for the unquantized budget, which reproduces the results of a linear
+ * {@link MitoUtil#select(double[], Random)} over the weights.
+ */
+public final class DestinationSampler {
+
+    private final IndexedDoubleMatrix2D baseProbabilities;
+    private final TravelTimes travelTimes;
+    private final double peakHour;
+
+    private final MitoZone[] destinations;
+    private final Map<Integer, MitoZone> zones;
+
+    private final double travelTimeFactor;
+    private final double varianceDoubled;
+    private final double sqrtInv;
+
+    private final double budgetBinWidth;
+    private final boolean exact;
+
+    private final Cache<Integer, OriginRow> originRows;
+    private final Cache<Long, double[]> cumulativeDistributions;
+
+    /**
+     * @param baseProbabilities origin-destination base probabilities (utilities) of the purpose
+     * @param zones             zones by id
+     * @param travelTimes       travel times used for the budget kernel
+     * @param peakHour          time of day used for travel time lookups
+     * @param travelTimeFactor  factor applied to the car travel time before comparing it to the budget
+     *                          (e.g. 2 for home based trips to account for the return trip)
+     * @param variance          variance of the normal budget kernel
+     * @param budgetBinWidth    width of the budget bins in minutes
+     * @param exact             if true, cumulative distributions are recomputed for every request
+     * @param maxCacheBytes     memory budget for cached rows and cumulative distributions
+     */
+    public DestinationSampler(IndexedDoubleMatrix2D baseProbabilities, Map<Integer, MitoZone> zones,
+                              TravelTimes travelTimes, double peakHour, double travelTimeFactor,
+                              double variance, double budgetBinWidth, boolean exact, long maxCacheBytes) {
+        if (budgetBinWidth <= 0) {
+            throw new IllegalArgumentException("Budget bin width has to be positive but is " + budgetBinWidth);
+        }
+        this.baseProbabilities = baseProbabilities;
+        this.zones = zones;
+        this.travelTimes = travelTimes;
+        this.peakHour = peakHour;
+        this.travelTimeFactor = travelTimeFactor;
+        this.varianceDoubled = variance * 2;
+        this.sqrtInv = 1.0 / Math.sqrt(Math.PI * varianceDoubled);
+        this.budgetBinWidth = budgetBinWidth;
+        this.exact = exact;
+
+        final int[] columnIds = baseProbabilities.getColumnLookupArray();
+        this.destinations = new MitoZone[columnIds.length];
+        for (int i = 0; i < columnIds.length; i++) {
+            destinations[i] = zones.get(columnIds[i]);
+        }
+
+        final long rowBytes = 16L * columnIds.length;
+        final long rowCacheBytes = maxCacheBytes / 2;
+        this.originRows = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(1, rowCacheBytes / rowBytes))
+                .build();
+        this.cumulativeDistributions = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(1, (maxCacheBytes - rowCacheBytes) / (rowBytes / 2)))
+                .build();
+    }
+
+    /**
+     * Returns the cumulative destination weights for the given origin and budget. The returned array
+     * may be shared and must not be modified.
+     */
+    public double[] getCumulativeDistribution(int originId, double budget) {
+        if (exact) {
+            return buildCumulativeDistribution(getOriginRow(originId), budget);
+        }
+        final int bin = (int) Math.round(budget / budgetBinWidth);
+        final long key = ((long) originId << 32) | (bin & 0xffffffffL);
+        try {
+            return cumulativeDistributions.get(key,
+                    () -> buildCumulativeDistribution(getOriginRow(originId), bin * budgetBinWidth));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Draws a destination from the given cumulative distribution.
+     */
+    public MitoZone sample(double[] cumulativeDistribution, Random random) {
+        return destinations[CumulativeDistribution.sample(cumulativeDistribution, random)];
+    }
+
+    /**
+     * Draws a destination for the given origin and budget.
+     */
+    public MitoZone sample(int originId, double budget, Random random) {
+        return sample(getCumulativeDistribution(originId, budget), random);
+    }
+
+    private OriginRow getOriginRow(int originId) {
+        try {
+            return originRows.get(originId, () -> buildOriginRow(originId));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private OriginRow buildOriginRow(int originId) {
+        final MitoZone origin = zones.get(originId);
+        final double[] base = baseProbabilities.viewRow(originId).toNonIndexedArray();
+        final double[] travelTime = new double[destinations.length];
+        for (int i = 0; i < destinations.length; i++) {
+            travelTime[i] = travelTimes.getTravelTime(origin, destinations[i], peakHour, "car") * travelTimeFactor;
+        }
+        return new OriginRow(base, travelTime);
+    }
+
+    private double[] buildCumulativeDistribution(OriginRow row, double budget) {
+        final double[] base = row.baseProbabilities;
+        final double[] travelTime = row.travelTimes;
+        final double[] cumulative = new double[base.length];
+        double sum = 0;
+        for (int i = 0; i < base.length; i++) {
+            final double diff = travelTime[i] - budget;
+            final double factor = sqrtInv * FastMath.exp(-(diff * diff) / varianceDoubled);
+            sum += base[i] * factor;
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    private static final class OriginRow {
+        private final double[] baseProbabilities;
+        private final double[] travelTimes;
+
+        private OriginRow(double[] baseProbabilities, double[] travelTimes) {
+            this.baseProbabilities = baseProbabilities;
+            this.travelTimes = travelTimes;
+        }
+    }
+}
@@ -31,16 +31,22 @@ public class DestinationUtilityByPurposeGenerator implements Callable<Tuple<Purp
     @Override
     public Tuple<Purpose, IndexedDoubleMatrix2D> call() {
         final IndexedDoubleMatrix2D utilityMatrix = new IndexedDoubleMatrix2D(zones.values(), zones.values());
+        final MitoZone[] destinations = zones.values().toArray(new MitoZone[0]);
+        final double[] attractions = new double[destinations.length];
+        for (int i = 0; i < destinations.length; i++) {
+            attractions[i] = destinations[i].getTripAttraction(purpose);
+        }
         long counter = 0;
         for (MitoZone origin : zones.values()) {
-            for (MitoZone destination : zones.values()) {
-                final double utility =  calculator.calculateUtility(destination.getTripAttraction(purpose),
+            for (int i = 0; i < destinations.length; i++) {
+                final MitoZone destination = destinations[i];
+                final double utility =  calculator.calculateUtility(attractions[i],
                         travelDistances.getTravelDistance(origin.getId(), destination.getId()));
                 if (Double.isInfinite(utility) || Double.isNaN(utility)) {
                     throw new RuntimeException(utility + " utility calculated! Please check calculation!" +
                             " Origin: " + origin + " | Destination: " + destination + " | Distance: "
                             + travelDistances.getTravelDistance(origin.getId(), destination.getId()) +
-                            " | Purpose: " + purpose + " | attraction rate: " + destination.getTripAttraction(purpose));
+                            " | Purpose: " + purpose + " | attraction rate: " + attractions[i]);
                 }
                 utilityMatrix.setIndexed(origin.getId(), destination.getId(), utility);
                 if (LongMath.isPowerOfTwo(counter)) {
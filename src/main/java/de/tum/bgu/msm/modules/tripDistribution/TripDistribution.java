@@ -13,6 +13,7 @@ import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
+import de.tum.bgu.msm.util.metrics.RunMetrics;
 import org.apache.log4j.Logger;
 import org.matsim.core.utils.collections.Tuple;
 
@@ -36,6 +37,8 @@ public final class TripDistribution extends Module {
     public final static AtomicInteger randomOccupationDestinationTrips = new AtomicInteger(0);
     public final static AtomicInteger completelyRandomNhbTrips = new AtomicInteger(0);
 
+    private final static int DEFAULT_PARTITION_SIZE = 10000;
+
     private EnumMap<Purpose, IndexedDoubleMatrix2D> utilityMatrices = new EnumMap<>(Purpose.class);
 
     private final static Logger logger = Logger.getLogger(TripDistribution.class);
@@ -47,7 +50,9 @@ public final class TripDistribution extends Module {
     @Override
     public void run() {
         logger.info("Building initial destination choice utility matrices...");
-        buildMatrices();
+        try (RunMetrics.Stage ignored = RunMetrics.start("Utility matrices")) {
+            buildMatrices();
+        }
 
         logger.info("Distributing trips for households...");
         distributeTrips();
@@ -68,42 +73,61 @@ public final class TripDistribution extends Module {
         }
     }
 
+    /**
+     * Households are split into partitions of fixed size, independent of the number of threads. Each
+     * household draws from its own random stream, so results are reproducible for a given seed regardless
+     * of the configured parallelism. Tasks are scheduled on a work-stealing pool.
+     */
     private void distributeTrips() {
-        final int numberOfThreads = Runtime.getRuntime().availableProcessors();
-        ConcurrentExecutor<Void> executor = ConcurrentExecutor.fixedPoolService(numberOfThreads);
+        final int parallelism = Resources.instance.getInt(Properties.DISTRIBUTION_PARALLELISM,
+                Runtime.getRuntime().availableProcessors());
+        final int partitionSize = Resources.instance.getInt(Properties.DISTRIBUTION_PARTITION_SIZE,
+                DEFAULT_PARTITION_SIZE);
+        ConcurrentExecutor<Void> executor = ConcurrentExecutor.workStealingService(parallelism);
 
         final Collection<MitoHousehold> households = dataSet.getHouseholds().values();
-        final int partitionSize = (int) ((double) households.size() / (numberOfThreads)) + 1;
         Iterable<List<MitoHousehold>> partitions = Iterables.partition(households, partitionSize);
 
-        logger.info("Using " + numberOfThreads + " thread(s)" +
+        logger.info("Using parallelism of " + parallelism +
                 " with partitions of size " + partitionSize);
 
+        final DestinationSampler hbsSampler = createSampler(HBS, HbsHboDistribution.TRAVEL_TIME_FACTOR, HbsHboDistribution.VARIANCE);
+        final DestinationSampler hboSampler = createSampler(HBO, HbsHboDistribution.TRAVEL_TIME_FACTOR, HbsHboDistribution.VARIANCE);
+
         List<Callable<Void>> homeBasedTasks = new ArrayList<>();
         for (final List<MitoHousehold> partition : partitions) {
-            homeBasedTasks.add(HbsHboDistribution.hbs(utilityMatrices.get(HBS), partition, dataSet.getZones(),
+            homeBasedTasks.add(HbsHboDistribution.hbs(hbsSampler, partition,
                     dataSet.getTravelTimes(), dataSet.getPeakHour()));
-            homeBasedTasks.add(HbsHboDistribution.hbo(utilityMatrices.get(HBO), partition, dataSet.getZones(),
+            homeBasedTasks.add(HbsHboDistribution.hbo(hboSampler, partition,
                     dataSet.getTravelTimes(), dataSet.getPeakHour()));
             homeBasedTasks.add(HbeHbwDistribution.hbw(utilityMatrices.get(HBW), partition, dataSet.getZones()));
             homeBasedTasks.add(HbeHbwDistribution.hbe(utilityMatrices.get(HBE), partition, dataSet.getZones()));
         }
 
-        executor.submitTasksAndWaitForCompletion(homeBasedTasks);
+        try (RunMetrics.Stage stage = RunMetrics.start("Home-based")) {
+            executor.submitTasksAndWaitForCompletion(homeBasedTasks);
+            stage.addItems(households.size());
+        }
 
-        executor = ConcurrentExecutor.fixedPoolService(numberOfThreads);
+        executor = ConcurrentExecutor.workStealingService(parallelism);
         List<Callable<Void>> nonHomeBasedTasks = new ArrayList<>();
 
+        final DestinationSampler nhbwSampler = createSampler(NHBW, 1, NhbwNhboDistribution.VARIANCE);
+        final DestinationSampler nhboSampler = createSampler(NHBO, 1, NhbwNhboDistribution.VARIANCE);
+
         for (final List<MitoHousehold> partition : partitions) {
-            nonHomeBasedTasks.add(NhbwNhboDistribution.nhbw(utilityMatrices, partition, dataSet.getZones(),
+            nonHomeBasedTasks.add(NhbwNhboDistribution.nhbw(utilityMatrices, nhbwSampler, partition, dataSet.getZones(),
                     dataSet.getTravelTimes(), dataSet.getPeakHour()));
-            nonHomeBasedTasks.add(NhbwNhboDistribution.nhbo(utilityMatrices, partition, dataSet.getZones(),
+            nonHomeBasedTasks.add(NhbwNhboDistribution.nhbo(utilityMatrices, nhboSampler, partition, dataSet.getZones(),
                     dataSet.getTravelTimes(), dataSet.getPeakHour()));
         }
         if (Resources.instance.getBoolean(Properties.ADD_AIRPORT_DEMAND, false)) {
             nonHomeBasedTasks.add(AirportDistribution.airportDistribution(dataSet));
         }
-        executor.submitTasksAndWaitForCompletion(nonHomeBasedTasks);
+        try (RunMetrics.Stage stage = RunMetrics.start("Non-home-based")) {
+            executor.submitTasksAndWaitForCompletion(nonHomeBasedTasks);
+            stage.addItems(households.size());
+        }
 
         logger.info("Distributed: " + distributedTripsCounter + ", failed: " + failedTripsCounter);
         if(randomOccupationDestinationTrips.get() > 0) {
@@ -117,4 +141,12 @@ public final class TripDistribution extends Module {
                     + " trip as either origin or destination for the non-home-based trip.");
         }
     }
+
+    private DestinationSampler createSampler(Purpose purpose, double travelTimeFactor, double variance) {
+        final boolean exact = Resources.instance.getBoolean(Properties.DISTRIBUTION_EXACT_PROBABILITIES, false);
+        final double binWidth = Resources.instance.getDouble(Properties.DISTRIBUTION_BUDGET_BIN_WIDTH, 1.);
+        final long cacheBytes = (long) Resources.instance.getInt(Properties.DISTRIBUTION_CACHE_MB, 512) << 20;
+        return new DestinationSampler(utilityMatrices.get(purpose), dataSet.getZones(), dataSet.getTravelTimes(),
+                dataSet.getPeakHour(), travelTimeFactor, variance, binWidth, exact, cacheBytes);
+    }
 }
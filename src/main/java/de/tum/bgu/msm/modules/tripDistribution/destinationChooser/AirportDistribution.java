@@ -5,7 +5,6 @@ import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.modules.tripDistribution.TripDistribution;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
 import org.apache.log4j.Logger;
 import org.locationtech.jts.geom.Coordinate;
@@ -21,14 +20,14 @@ public class AirportDistribution extends RandomizableConcurrentFunction<Void> {
 
 
 
-    protected AirportDistribution(long randomSeed, DataSet dataSet) {
-        super(randomSeed);
+    protected AirportDistribution(DataSet dataSet) {
+        super("distribution." + Purpose.AIRPORT);
         this.dataSet = dataSet;
         this.airportZone = dataSet.getZones().get(Resources.instance.getInt(Properties.AIRPORT_ZONE));
     }
 
     public static AirportDistribution airportDistribution(DataSet dataSet) {
-        return new AirportDistribution(Resources.instance.getInt(Properties.RANDOM_SEED), dataSet);
+        return new AirportDistribution(dataSet);
     }
 
 
@@ -36,6 +35,7 @@ public class AirportDistribution extends RandomizableConcurrentFunction<Void> {
     public Void call() throws Exception {
         long counter = 0;
         for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            resetRandom(household.getId());
             if (LongMath.isPowerOfTwo(counter)) {
                 logger.info(counter + " households done for Purpose " + purpose);
             }
@@ -54,7 +54,7 @@ public class AirportDistribution extends RandomizableConcurrentFunction<Void> {
                         }
                     };
 
-                    if (MitoUtil.getRandomObject().nextDouble() < 0.5) {
+                    if (random.nextDouble() < 0.5) {
                         trip.setTripOrigin(household.getHomeZone());
                         trip.setTripDestination(airport);
                     } else {
@@ -30,7 +30,7 @@ public final class HbeHbwDistribution extends RandomizableConcurrentFunction<Voi
     private HbeHbwDistribution(Purpose purpose, MitoOccupationStatus mitoOccupationStatus,
                                IndexedDoubleMatrix2D baseProbabilities, Collection<MitoHousehold> householdPartition,
                                Map<Integer, MitoZone> zones) {
-        super(MitoUtil.getRandomObject().nextLong());
+        super("distribution." + purpose);
         this.purpose = purpose;
         this.mitoOccupationStatus = mitoOccupationStatus;
         this.baseProbabilities = baseProbabilities;
@@ -52,6 +52,7 @@ public final class HbeHbwDistribution extends RandomizableConcurrentFunction<Voi
     public Void call() {
         long counter = 0;
         for (MitoHousehold household : householdPartition) {
+            resetRandom(household.getId());
             if (LongMath.isPowerOfTwo(counter)) {
                 logger.info(counter + " households done for Purpose " + purpose);
             }
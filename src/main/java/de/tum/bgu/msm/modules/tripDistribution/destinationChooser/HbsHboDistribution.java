@@ -6,73 +6,67 @@ import de.tum.bgu.msm.data.MitoTrip;
 import de.tum.bgu.msm.data.MitoZone;
 import de.tum.bgu.msm.data.Purpose;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import de.tum.bgu.msm.modules.tripDistribution.DestinationSampler;
 import de.tum.bgu.msm.modules.tripDistribution.TripDistribution;
-import de.tum.bgu.msm.resources.Properties;
-import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
-import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix1D;
-import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
-import org.apache.commons.math3.util.FastMath;
 import org.apache.log4j.Logger;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.IntStream;
 
 /**
  * @author Nico
  */
 public class HbsHboDistribution extends RandomizableConcurrentFunction<Void> {
 
-    private final static double VARIANCE_DOUBLED = 30 * 2;
-    private final static double SQRT_INV = 1.0 / Math.sqrt(Math.PI * VARIANCE_DOUBLED);
+    public final static double VARIANCE = 30;
+
+    /**
+     * Home based trips' budget accounts for the return trip as well
+     */
+    public final static double TRAVEL_TIME_FACTOR = 2;
 
     private final static Logger logger = Logger.getLogger(HbsHboDistribution.class);
 
     private final double peakHour;
     private final Purpose purpose;
-    private final IndexedDoubleMatrix2D baseProbabilities;
+    private final DestinationSampler destinationSampler;
     private final TravelTimes travelTimes;
 
     private final Collection<MitoHousehold> householdPartition;
-    private final Map<Integer, MitoZone> zonesCopy;
 
-    private final double[] destinationProbabilities;
+    private double[] destinationDistribution;
 
     private double idealBudgetSum = 0;
     private double actualBudgetSum = 0;
     private double hhBudgetPerTrip;
     private double adjustedBudget;
 
-    private HbsHboDistribution(Purpose purpose, IndexedDoubleMatrix2D baseProbabilities,
-                               Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+    private HbsHboDistribution(Purpose purpose, DestinationSampler destinationSampler,
+                               Collection<MitoHousehold> householdPartition,
                                TravelTimes travelTimes, double peakHour) {
-        super(MitoUtil.getRandomObject().nextLong());
+        super("distribution." + purpose);
         this.purpose = purpose;
         this.householdPartition = householdPartition;
-        this.baseProbabilities = baseProbabilities;
-        this.zonesCopy = new HashMap<>(zones);
-        this.destinationProbabilities = new double[baseProbabilities.columns()];
+        this.destinationSampler = destinationSampler;
         this.travelTimes = travelTimes;
         this.peakHour = peakHour;
     }
 
-    public static HbsHboDistribution hbs(IndexedDoubleMatrix2D baseProbabilities, Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+    public static HbsHboDistribution hbs(DestinationSampler destinationSampler, Collection<MitoHousehold> householdPartition,
                                          TravelTimes travelTimes, double peakHour) {
-        return new HbsHboDistribution(Purpose.HBS, baseProbabilities, householdPartition, zones, travelTimes, peakHour);
+        return new HbsHboDistribution(Purpose.HBS, destinationSampler, householdPartition, travelTimes, peakHour);
     }
 
-    public static HbsHboDistribution hbo(IndexedDoubleMatrix2D baseProbabilities, Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+    public static HbsHboDistribution hbo(DestinationSampler destinationSampler, Collection<MitoHousehold> householdPartition,
                                          TravelTimes travelTimes, double peakHour) {
-        return new HbsHboDistribution(Purpose.HBO, baseProbabilities, householdPartition, zones, travelTimes, peakHour);
+        return new HbsHboDistribution(Purpose.HBO, destinationSampler, householdPartition, travelTimes, peakHour);
     }
 
     @Override
     public Void call() {
         long counter = 0;
         for (MitoHousehold household : householdPartition) {
+            resetRandom(household.getId());
             if (LongMath.isPowerOfTwo(counter)) {
                 logger.info(counter + " households done for Purpose " + purpose
                         + "\nIdeal budget sum: " + idealBudgetSum + " | actual budget sum: " + actualBudgetSum);
@@ -127,18 +121,10 @@ public class HbsHboDistribution extends RandomizableConcurrentFunction<Void> {
     }
 
     /**
-     * Copy probabilities for every destination for the current home origin
+     * Looks up the destination distribution for the current home origin and adjusted budget
      */
     private void updateDestinationProbabilities(int origin) {
-        final IndexedDoubleMatrix1D row = baseProbabilities.viewRow(origin);
-        double[] baseProbs = row.toNonIndexedArray();
-        IntStream.range(0, destinationProbabilities.length).parallel().forEach(i -> {
-            //multiply travel time by 2 as home based trips' budget account for the return trip as well
-
-            double diff = travelTimes.getTravelTime(zonesCopy.get(origin), zonesCopy.get(row.getIdForInternalIndex(i)), peakHour, "car") * 2 - adjustedBudget;
-            double factor = SQRT_INV * FastMath.exp(-(diff * diff) / VARIANCE_DOUBLED);
-            destinationProbabilities[i] = baseProbs[i] * factor;
-        });
+        destinationDistribution = destinationSampler.getCumulativeDistribution(origin, adjustedBudget);
     }
 
     private void updateBudgets(MitoHousehold household) {
@@ -153,8 +139,7 @@ public class HbsHboDistribution extends RandomizableConcurrentFunction<Void> {
     }
 
     private MitoZone findDestination() {
-        final int destinationInternalIndex = MitoUtil.select(destinationProbabilities, random);
-        return zonesCopy.get(baseProbabilities.getIdForInternalColumnIndex(destinationInternalIndex));
+        return destinationSampler.sample(destinationDistribution, random);
     }
 }
 
@@ -4,18 +4,15 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.math.LongMath;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import de.tum.bgu.msm.modules.tripDistribution.DestinationSampler;
 import de.tum.bgu.msm.modules.tripDistribution.TripDistribution;
-import de.tum.bgu.msm.resources.Properties;
-import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix1D;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
-import org.apache.commons.math3.util.FastMath;
 import org.apache.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.IntStream;
 
 import static de.tum.bgu.msm.data.Purpose.*;
 
@@ -24,8 +21,7 @@ import static de.tum.bgu.msm.data.Purpose.*;
  */
 public final class NhbwNhboDistribution extends RandomizableConcurrentFunction<Void> {
 
-    private final static double VARIANCE_DOUBLED = 500 * 2;
-    private final static double SQRT_INV = 1.0 / Math.sqrt(Math.PI * VARIANCE_DOUBLED);
+    public final static double VARIANCE = 500;
 
     private final static Logger logger = Logger.getLogger(HbsHboDistribution.class);
 
@@ -35,6 +31,7 @@ public final class NhbwNhboDistribution extends RandomizableConcurrentFunction<V
     private final List<Purpose> priorPurposes;
     private final MitoOccupationStatus relatedMitoOccupationStatus;
     private final EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilities;
+    private final DestinationSampler destinationSampler;
     private final TravelTimes travelTimes;
 
     private double idealBudgetSum = 0;
@@ -47,35 +44,40 @@ public final class NhbwNhboDistribution extends RandomizableConcurrentFunction<V
     private double mean;
 
     private NhbwNhboDistribution(Purpose purpose, List<Purpose> priorPurposes, MitoOccupationStatus relatedMitoOccupationStatus,
-                                 EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilities,  Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+                                 EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilities, DestinationSampler destinationSampler,
+                                 Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
                                  TravelTimes travelTimes, double peakHour) {
-        super(MitoUtil.getRandomObject().nextLong());
+        super("distribution." + purpose);
         this.purpose = purpose;
         this.priorPurposes = priorPurposes;
         this.relatedMitoOccupationStatus = relatedMitoOccupationStatus;
         this.baseProbabilities = baseProbabilities;
+        this.destinationSampler = destinationSampler;
         this.zonesCopy = new HashMap<>(zones);
         this.travelTimes = travelTimes;
         this.peakHour = peakHour;
         this.householdPartition = householdPartition;
     }
 
-    public static NhbwNhboDistribution nhbw(EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilites,  Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+    public static NhbwNhboDistribution nhbw(EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilites, DestinationSampler destinationSampler,
+                                            Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
                                             TravelTimes travelTimes, double peakHour) {
         return new NhbwNhboDistribution(Purpose.NHBW, Collections.singletonList(Purpose.HBW),
-                MitoOccupationStatus.WORKER, baseProbabilites, householdPartition, zones, travelTimes, peakHour);
+                MitoOccupationStatus.WORKER, baseProbabilites, destinationSampler, householdPartition, zones, travelTimes, peakHour);
     }
 
-    public static NhbwNhboDistribution nhbo(EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilites,  Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
+    public static NhbwNhboDistribution nhbo(EnumMap<Purpose, IndexedDoubleMatrix2D> baseProbabilites, DestinationSampler destinationSampler,
+                                            Collection<MitoHousehold> householdPartition, Map<Integer, MitoZone> zones,
                                             TravelTimes travelTimes, double peakHour) {
         return new NhbwNhboDistribution(Purpose.NHBO, ImmutableList.of(HBO, HBE, HBS),
-                null, baseProbabilites, householdPartition, zones, travelTimes, peakHour);
+                null, baseProbabilites, destinationSampler, householdPartition, zones, travelTimes, peakHour);
     }
 
     @Override
     public Void call() {
         long counter = 0;
         for (MitoHousehold household : householdPartition) {
+            resetRandom(household.getId());
             if (LongMath.isPowerOfTwo(counter)) {
                 logger.info(counter + " households done for Purpose " + purpose
                         + "\nIdeal budget sum: " + idealBudgetSum + " | actual budget sum: " + actualBudgetSum);
@@ -162,17 +164,7 @@ public final class NhbwNhboDistribution extends RandomizableConcurrentFunction<V
     }
 
     private MitoZone findDestination(int origin) {
-        final IndexedDoubleMatrix1D row = baseProbabilities.get(purpose).viewRow(origin);
-        double[] baseProbs = row.toNonIndexedArray();
-        IntStream.range(0, baseProbs.length).parallel().forEach(i -> {
-            //divide travel time by 2 as home based trips' budget account for the return trip as well
-            double diff = travelTimes.getTravelTime(zonesCopy.get(origin), zonesCopy.get(row.getIdForInternalIndex(i)), peakHour, "car") - mean;
-            double factor = SQRT_INV * FastMath.exp(-(diff * diff) / VARIANCE_DOUBLED);
-            baseProbs[i] = baseProbs[i] * factor;
-        });
-
-        int destinationInternalId = MitoUtil.select(baseProbs, random);
-        return zonesCopy.get(row.getIdForInternalIndex(destinationInternalId));
+        return destinationSampler.sample(origin, mean, random);
     }
 
     private MitoZone findRandomOrigin(MitoHousehold household, Purpose priorPurpose) {
@@ -4,8 +4,13 @@ import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoZone;
 import de.tum.bgu.msm.data.Purpose;
 import de.tum.bgu.msm.data.jobTypes.Category;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 public class AttractionCalculator {
 
     public enum ExplanatoryVariable {
@@ -37,51 +42,95 @@ public class AttractionCalculator {
 
     private static final Logger logger = Logger.getLogger(AttractionCalculator.class);
 
+    private static final ExplanatoryVariable[] VARIABLES = ExplanatoryVariable.values();
+    private static final Purpose[] PURPOSES = Purpose.values();
+    private static final int PARTITION_SIZE = 1000;
+
     private final DataSet dataSet;
 
     AttractionCalculator(DataSet dataSet) {
         this.dataSet = dataSet;
     }
 
+    /**
+     * Collects the explanatory variables of all zones into a zone x variable matrix and the attraction rates
+     * into a purpose x variable matrix, and multiplies both for partitions of zones in parallel.
+     */
     public void run() {
         logger.info("  Calculating trip attractions");
-        for (MitoZone zone : dataSet.getZones().values()) {
+        final List<MitoZone> zones = new ArrayList<>(dataSet.getZones().values());
+        final double[][] rates = getRatesByPurpose();
+        final float[][] attributes = new float[zones.size()][];
+        for (int i = 0; i < zones.size(); i++) {
+            attributes[i] = getAttributes(zones.get(i));
+        }
 
-            for (Purpose purpose : Purpose.values()) {
-                float tripAttraction = 0;
-                for (ExplanatoryVariable variable : ExplanatoryVariable.values()) {
-                    float attribute;
-                    switch (variable) {
-                        case HH:
-                            attribute = zone.getNumberOfHouseholds();
-                            break;
-                        case TOT:
-                            attribute = zone.getTotalEmpl();
-                            break;
-                        case RE:
-                            attribute = zone.getEmployeesByCategory(Category.RETAIL);
-                            break;
-                        case OFF:
-                            attribute = zone.getEmployeesByCategory(Category.OFFICE);
-                            break;
-                        case OTH:
-                            attribute = zone.getEmployeesByCategory(Category.OTHER);
-                            break;
-                        case ENR:
-                            attribute = zone.getSchoolEnrollment();
-                            break;
-                        default:
-                            throw new RuntimeException("Unknown trip attraction Variable.");
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < zones.size(); from += PARTITION_SIZE) {
+            final int partitionFrom = from;
+            final int partitionTo = Math.min(from + PARTITION_SIZE, zones.size());
+            tasks.add(() -> {
+                for (int i = partitionFrom; i < partitionTo; i++) {
+                    final float[] zoneAttributes = attributes[i];
+                    for (int p = 0; p < PURPOSES.length; p++) {
+                        final double[] purposeRates = rates[p];
+                        float tripAttraction = 0;
+                        for (int v = 0; v < VARIABLES.length; v++) {
+                            tripAttraction += zoneAttributes[v] * purposeRates[v];
+                        }
+                        zones.get(i).setTripAttraction(PURPOSES[p], tripAttraction);
                     }
-                    Double rate = purpose.getTripAttractionForVariable(variable);
-                    if(rate == null) {
-                        throw new RuntimeException("Purpose " + purpose + " does not have an attraction" +
-                                " rate for variable " + variable + " registered.");
-                    }
-                    tripAttraction += attribute * rate;
                 }
-                zone.setTripAttraction(purpose, tripAttraction);
+                return null;
+            });
+        }
+        ConcurrentExecutor.<Void>fixedPoolService(Runtime.getRuntime().availableProcessors())
+                .submitTasksAndWaitForCompletion(tasks);
+    }
+
+    private static double[][] getRatesByPurpose() {
+        final double[][] rates = new double[PURPOSES.length][VARIABLES.length];
+        for (Purpose purpose : PURPOSES) {
+            for (ExplanatoryVariable variable : VARIABLES) {
+                Double rate = purpose.getTripAttractionForVariable(variable);
+                if(rate == null) {
+                    throw new RuntimeException("Purpose " + purpose + " does not have an attraction" +
+                            " rate for variable " + variable + " registered.");
+                }
+                rates[purpose.ordinal()][variable.ordinal()] = rate;
+            }
+        }
+        return rates;
+    }
+
+    private static float[] getAttributes(MitoZone zone) {
+        final float[] attributes = new float[VARIABLES.length];
+        for (ExplanatoryVariable variable : VARIABLES) {
+            float attribute;
+            switch (variable) {
+                case HH:
+                    attribute = zone.getNumberOfHouseholds();
+                    break;
+                case TOT:
+                    attribute = zone.getTotalEmpl();
+                    break;
+                case RE:
+                    attribute = zone.getEmployeesByCategory(Category.RETAIL);
+                    break;
+                case OFF:
+                    attribute = zone.getEmployeesByCategory(Category.OFFICE);
+                    break;
+                case OTH:
+                    attribute = zone.getEmployeesByCategory(Category.OTHER);
+                    break;
+                case ENR:
+                    attribute = zone.getSchoolEnrollment();
+                    break;
+                default:
+                    throw new RuntimeException("Unknown trip attraction Variable.");
             }
+            attributes[variable.ordinal()] = attribute;
         }
+        return attributes;
     }
 }
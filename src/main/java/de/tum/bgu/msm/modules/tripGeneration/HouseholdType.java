@@ -1,5 +1,7 @@
 package de.tum.bgu.msm.modules.tripGeneration;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Created by Nico on 20.07.2017.
  */
@@ -17,7 +19,7 @@ public class HouseholdType {
     private final int regionH;
     private final int id;
 
-    private int numberOfRecords = 0;
+    private final AtomicInteger numberOfRecords = new AtomicInteger();
 
     public HouseholdType(int id, int sizeL, int sizeH, int workersL, int workersH, int economicStatusL, int economicStatusH, int autosL, int autosH, int regionL, int regionH) {
         this.id = id;
@@ -34,7 +36,18 @@ public class HouseholdType {
     }
 
     public int getNumberOfRecords() {
-        return numberOfRecords;
+        return numberOfRecords.get();
+    }
+
+    void countRecord() {
+        numberOfRecords.incrementAndGet();
+    }
+
+    /**
+     * @return the lower and upper bounds of size, workers, economic status, autos and region, in this order
+     */
+    int[] getBounds() {
+        return new int[]{sizeL, sizeH, workersL, workersH, economicStatusL, economicStatusH, autosL, autosH, regionL, regionH};
     }
 
     public int getId() {
@@ -43,7 +56,7 @@ public class HouseholdType {
 
     public boolean applies(int size, int workers, int economicStatus, int autos, int region) {
         if (appliesInSize(size) && appliesInWorkers(workers) && appliesInEconomicStatus(economicStatus) && appliesInAutos(autos) && appliesInRegion(region)) {
-            numberOfRecords++;
+            countRecord();
             return true;
         } else {
             return false;
@@ -0,0 +1,96 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import java.util.List;
+
+/**
+ * Dense lookup table from size, workers, economic status, autos and region of a household to its household type.
+ * The table spans the ranges covered by the household type definitions, so attributes outside of it have no type.
+ * If definitions overlap, the first type in the list wins, as with a scan over the types.
+ */
+final class HouseholdTypeLookup {
+
+    private static final int DIMENSIONS = 5;
+    private static final int MAX_CELLS = 1 << 24;
+
+    private final int[] lower = new int[DIMENSIONS];
+    private final int[] upper = new int[DIMENSIONS];
+    private final HouseholdType[] cells;
+
+    /**
+     * @param maximum highest value of each attribute that will be looked up, in the order of
+     *                {@link HouseholdType#getBounds()}, so the table can be cut at values that households are capped to
+     */
+    HouseholdTypeLookup(List<HouseholdType> types, int[] maximum) {
+        if (types.isEmpty()) {
+            cells = new HouseholdType[0];
+            return;
+        }
+        for (int d = 0; d < DIMENSIONS; d++) {
+            lower[d] = Integer.MAX_VALUE;
+            upper[d] = Integer.MIN_VALUE;
+        }
+        for (HouseholdType type : types) {
+            final int[] bounds = type.getBounds();
+            for (int d = 0; d < DIMENSIONS; d++) {
+                lower[d] = Math.min(lower[d], bounds[2 * d]);
+                upper[d] = Math.max(upper[d], Math.min(bounds[2 * d + 1], maximum[d]));
+            }
+        }
+        long numberOfCells = 1;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            numberOfCells *= Math.max(0, upper[d] - lower[d] + 1);
+        }
+        if (numberOfCells > MAX_CELLS) {
+            throw new RuntimeException("Household type definitions span " + numberOfCells
+                    + " attribute combinations, which is more than the supported " + MAX_CELLS);
+        }
+        cells = new HouseholdType[(int) numberOfCells];
+        for (HouseholdType type : types) {
+            fill(type);
+        }
+    }
+
+    private void fill(HouseholdType type) {
+        final int[] bounds = type.getBounds();
+        for (int size = Math.max(bounds[0], lower[0]); size <= Math.min(bounds[1], upper[0]); size++) {
+            for (int workers = Math.max(bounds[2], lower[1]); workers <= Math.min(bounds[3], upper[1]); workers++) {
+                for (int economicStatus = Math.max(bounds[4], lower[2]); economicStatus <= Math.min(bounds[5], upper[2]); economicStatus++) {
+                    for (int autos = Math.max(bounds[6], lower[3]); autos <= Math.min(bounds[7], upper[3]); autos++) {
+                        for (int region = Math.max(bounds[8], lower[4]); region <= Math.min(bounds[9], upper[4]); region++) {
+                            final int cell = indexOf(size, workers, economicStatus, autos, region);
+                            if (cells[cell] == null) {
+                                cells[cell] = type;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the household type of these attributes, or null if no type applies
+     */
+    HouseholdType get(int size, int workers, int economicStatus, int autos, int region) {
+        if (cells.length == 0) {
+            return null;
+        }
+        if (outside(0, size) || outside(1, workers) || outside(2, economicStatus)
+                || outside(3, autos) || outside(4, region)) {
+            return null;
+        }
+        return cells[indexOf(size, workers, economicStatus, autos, region)];
+    }
+
+    private boolean outside(int dimension, int value) {
+        return value < lower[dimension] || value > upper[dimension];
+    }
+
+    private int indexOf(int size, int workers, int economicStatus, int autos, int region) {
+        int index = size - lower[0];
+        index = index * (upper[1] - lower[1] + 1) + workers - lower[1];
+        index = index * (upper[2] - lower[2] + 1) + economicStatus - lower[2];
+        index = index * (upper[3] - lower[3] + 1) + autos - lower[3];
+        return index * (upper[4] - lower[4] + 1) + region - lower[4];
+    }
+}
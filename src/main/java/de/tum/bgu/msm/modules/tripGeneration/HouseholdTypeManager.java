@@ -1,5 +1,6 @@
 package de.tum.bgu.msm.modules.tripGeneration;
 
+import com.google.common.primitives.Ints;
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoHousehold;
 import de.tum.bgu.msm.data.Purpose;
@@ -22,61 +23,84 @@ public class HouseholdTypeManager {
 
     private static final Logger logger = Logger.getLogger(HouseholdTypeManager.class);
 
+    private static final int MAX_SIZE = 8;
+    private static final int MAX_WORKERS = 4;
+    private static final int MAX_AUTOS = 3;
+
     private final Purpose purpose;
-    private final Map<HouseholdType, Integer[]> tripFrequency;
+    /**
+     * Trip frequencies by household type id, or null for types missing in the trip frequencies file.
+     */
+    private final double[][] tripFrequency;
+    private final HouseholdTypeLookup lookup;
 
     final List<HouseholdType> householdTypes = new ArrayList<>();
 
     public HouseholdTypeManager(Purpose purpose) {
         this.purpose = purpose;
         createHouseHoldTypeDefinitions();
+        lookup = new HouseholdTypeLookup(householdTypes,
+                new int[]{MAX_SIZE, MAX_WORKERS, Integer.MAX_VALUE, MAX_AUTOS, Integer.MAX_VALUE});
         tripFrequency = readTripFrequencies();
     }
 
-    public Integer[] getTripFrequenciesForHouseholdType(HouseholdType ht) {
-        return tripFrequency.get(ht);
+    /**
+     * @return the number of households by number of trips, indexed by number of trips, or null if the
+     * household type has no trip frequencies. The same array is returned for every household of a type.
+     */
+    public double[] getTripFrequenciesForHouseholdType(HouseholdType ht) {
+        return tripFrequency[ht.getId()];
     }
 
-    private Map<HouseholdType, Integer[]> readTripFrequencies() {
+    private double[][] readTripFrequencies() {
         Path filePath = Resources.instance.getTripFrequenciesFilePath(purpose);
         GenericCsvReader csvReader = new GenericCsvReader(filePath);
         csvReader.read();
         GenericCsvTable dataTable = csvReader.getTable();
-        Map<HouseholdType, Integer[]> tripFrequency = new HashMap<>();
-
-        for (HouseholdType ht: householdTypes) {
-            List<Integer> tripFrequencyThisHousehold = new ArrayList<>();
-            boolean foundThisHhType = false;
-            for (int row = 0; row < dataTable.getRowCount(); row++) {
-                String purpose = dataTable.getString(row, dataTable.getColumnIndexOf("typePurpose"));
-                if (!purpose.equals(this.purpose.toString())) {
-                    logger.error("File " + filePath + " contains trip purpose " + purpose +
-                            ", which is different from expected purpose " + this.purpose);
-                    throw new RuntimeException("File " + filePath + " contains trip purpose " + purpose +
-                            ", which is different from expected purpose " + this.purpose);
-                }
 
-                if (ht.hasTheseAttributes(dataTable.getInt(row, "hhSize_L"),
-                        dataTable.getInt(row, "hhSize_H"),
-                        dataTable.getInt(row, "workers_L"),
-                        dataTable.getInt(row, "workers_H"),
-                        dataTable.getInt(row, "econStatus_L"),
-                        dataTable.getInt(row, "econStatus_H"),
-                        dataTable.getInt(row, "autos_L"),
-                        dataTable.getInt(row, "autos_H"),
-                        dataTable.getInt(row, "region_L"),
-                        dataTable.getInt(row, "region_H"))) {
-                    foundThisHhType = true;
-                    for (int trips = 0; trips < 100; trips++) {
-                        String columnName = "trips_" + trips;
-                        if (dataTable.containsColumn(columnName)) {
-                            tripFrequencyThisHousehold.add(dataTable.getInt(row, columnName));
-                        }
-                    }
-                    tripFrequency.put(ht, tripFrequencyThisHousehold.toArray(new Integer[]{}));
+        Map<List<Integer>, HouseholdType> typesByBounds = new HashMap<>();
+        for (HouseholdType ht : householdTypes) {
+            typesByBounds.put(Ints.asList(ht.getBounds()), ht);
+        }
+        int purposeColumn = dataTable.getColumnIndexOf("typePurpose");
+        String[] boundColumnNames = {"hhSize_L", "hhSize_H", "workers_L", "workers_H", "econStatus_L", "econStatus_H",
+                "autos_L", "autos_H", "region_L", "region_H"};
+        int[] boundColumns = new int[boundColumnNames.length];
+        for (int i = 0; i < boundColumnNames.length; i++) {
+            boundColumns[i] = dataTable.getColumnIndexOf(boundColumnNames[i]);
+        }
+        List<Integer> tripColumns = new ArrayList<>();
+        for (int trips = 0; trips < 100; trips++) {
+            String columnName = "trips_" + trips;
+            if (dataTable.containsColumn(columnName)) {
+                tripColumns.add(dataTable.getColumnIndexOf(columnName));
+            }
+        }
+
+        double[][] tripFrequency = new double[householdTypes.size()][];
+        for (int row = 0; row < dataTable.getRowCount(); row++) {
+            String purpose = dataTable.getString(row, purposeColumn);
+            if (!purpose.equals(this.purpose.toString())) {
+                logger.error("File " + filePath + " contains trip purpose " + purpose +
+                        ", which is different from expected purpose " + this.purpose);
+                throw new RuntimeException("File " + filePath + " contains trip purpose " + purpose +
+                        ", which is different from expected purpose " + this.purpose);
+            }
+            int[] bounds = new int[boundColumns.length];
+            for (int i = 0; i < boundColumns.length; i++) {
+                bounds[i] = dataTable.getInt(row, boundColumns[i]);
+            }
+            HouseholdType ht = typesByBounds.get(Ints.asList(bounds));
+            if (ht != null) {
+                double[] frequencies = new double[tripColumns.size()];
+                for (int i = 0; i < frequencies.length; i++) {
+                    frequencies[i] = dataTable.getInt(row, tripColumns.get(i));
                 }
+                tripFrequency[ht.getId()] = frequencies;
             }
-            if (!foundThisHhType) {
+        }
+        for (HouseholdType ht : householdTypes) {
+            if (tripFrequency[ht.getId()] == null) {
                 logger.error("Could not find household type " + ht.getId() + " in file " + filePath);
             }
         }
@@ -149,14 +173,14 @@ public class HouseholdTypeManager {
 
     private HouseholdType determineHouseholdType(int hhSze, int hhWrk, int hhEconStatus, int hhVeh, int hhReg) {
 
-        hhSze = Math.min(hhSze, 8);
-        hhWrk = Math.min(hhWrk, 4);
-        hhVeh = Math.min(hhVeh, 3);
+        hhSze = Math.min(hhSze, MAX_SIZE);
+        hhWrk = Math.min(hhWrk, MAX_WORKERS);
+        hhVeh = Math.min(hhVeh, MAX_AUTOS);
 
-        for (HouseholdType type : householdTypes) {
-            if (type.applies(hhSze, hhWrk, hhEconStatus, hhVeh, hhReg)) {
-                return type;
-            }
+        HouseholdType type = lookup.get(hhSze, hhWrk, hhEconStatus, hhVeh, hhReg);
+        if (type != null) {
+            type.countRecord();
+            return type;
         }
         logger.error("Could not define household type: " + hhSze + " " + hhWrk + " " + hhEconStatus + " " + hhVeh + " " + hhReg);
         return null;
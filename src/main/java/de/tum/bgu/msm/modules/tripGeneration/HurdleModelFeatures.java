@@ -0,0 +1,189 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import de.tum.bgu.msm.data.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes households into dense feature vectors for the hurdle trip generation model and compiles the coefficients
+ * of the model into vectors with the same fixed feature indices, so that utilities become plain dot products.
+ * <p>
+ * The encoded vector of a household does not depend on the purpose. Instances keep the last encoded household of
+ * each thread, so generators of all purposes that share an instance encode every household only once as long as
+ * the purposes of a household are generated one after the other on the same thread.
+ */
+final class HurdleModelFeatures {
+
+    static final int SIZE_1 = 0;
+    static final int SIZE_2 = 1;
+    static final int SIZE_3 = 2;
+    static final int SIZE_4 = 3;
+    static final int SIZE_5 = 4;
+    static final int SIZE_6_AND_MORE = 5;
+    static final int PERS_UNDER_6 = 6;
+    static final int PERS_6_TO_17 = 7;
+    static final int PERS_18_TO_29_W = 8;
+    static final int PERS_18_TO_29_S = 9;
+    static final int PERS_18_TO_29_U = 10;
+    static final int PERS_30_TO_64_W = 11;
+    static final int PERS_30_TO_64_S = 12;
+    static final int PERS_30_TO_64_U = 13;
+    static final int PERS_65_UP = 14;
+    static final int PERS_FEMALE = 15;
+    static final int ECONOMIC_STATUS_2 = 16;
+    static final int ECONOMIC_STATUS_3 = 17;
+    static final int ECONOMIC_STATUS_4 = 18;
+    static final int ECONOMIC_STATUS_5 = 19;
+    static final int PROP_AUTOS = 20;
+    static final int BBSR_2 = 21;
+    static final int BBSR_3 = 22;
+    static final int BBSR_4 = 23;
+
+    static final int NUMBER_OF_FEATURES = 24;
+
+    /**
+     * Names of the coefficients by feature index. Households with more than five persons have no coefficient of
+     * their own, see {@link #compile(Map, Purpose, boolean)}.
+     */
+    private static final String[] VARIABLES = {
+            "size_1", "size_2", "size_3", "size_4", "size_5", null,
+            "pers_under6", "pers_6to17",
+            "pers_18to29_w", "pers_18to29_s", "pers_18to29_u",
+            "pers_30to64_w", "pers_30to64_s", "pers_30to64_u",
+            "pers_65up", "pers_female",
+            "economicStatus_2", "economicStatus_3", "economicStatus_4", "economicStatus_5",
+            "propAutos",
+            "BBSR_2", "BBSR_3", "BBSR_4"};
+
+    private final ThreadLocal<EncodedHousehold> lastEncoded = ThreadLocal.withInitial(EncodedHousehold::new);
+
+    /**
+     * @return the feature vector of the household. The array is reused for the next household of the calling
+     * thread and must not be modified or kept.
+     */
+    double[] of(MitoHousehold household) {
+        final EncodedHousehold encoded = lastEncoded.get();
+        if (encoded.household != household) {
+            encode(household, encoded.features);
+            encoded.household = household;
+        }
+        return encoded.features;
+    }
+
+    static void encode(MitoHousehold household, double[] features) {
+        Arrays.fill(features, 0.);
+        switch (household.getHhSize()) {
+            case 1:
+                features[SIZE_1] = 1;
+                break;
+            case 2:
+                features[SIZE_2] = 1;
+                break;
+            case 3:
+                features[SIZE_3] = 1;
+                break;
+            case 4:
+                features[SIZE_4] = 1;
+                break;
+            case 5:
+                features[SIZE_5] = 1;
+                break;
+            default:
+                if (household.getHhSize() > 5) {
+                    features[SIZE_6_AND_MORE] = 1;
+                }
+        }
+
+        for (MitoPerson person : household.getPersons().values()) {
+            final int age = person.getAge();
+            if (age < 6) {
+                features[PERS_UNDER_6]++;
+            } else if (age < 18) {
+                features[PERS_6_TO_17]++;
+            } else if (age < 30) {
+                features[PERS_18_TO_29_W + occupationOffset(person)]++;
+            } else if (age < 65) {
+                features[PERS_30_TO_64_W + occupationOffset(person)]++;
+            } else {
+                features[PERS_65_UP]++;
+            }
+        }
+        features[PERS_FEMALE] = DataSet.getFemalesForHousehold(household);
+
+        final int economicStatus = household.getEconomicStatus();
+        if (economicStatus >= 2 && economicStatus <= 5) {
+            features[ECONOMIC_STATUS_2 + economicStatus - 2] = 1;
+        }
+
+        long personsAged15AndOver = DataSet.getPersonsAged15AndOverForHousehold(household);
+        features[PROP_AUTOS] = Math.min(1, household.getAutos() / personsAged15AndOver);
+
+        switch (household.getHomeZone().getAreaTypeSG()) {
+            case MEDIUM_SIZED_CITY:
+                features[BBSR_2] = 1;
+                break;
+            case TOWN:
+                features[BBSR_3] = 1;
+                break;
+            case RURAL:
+                features[BBSR_4] = 1;
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Workers, students and unemployed persons follow each other in the feature vector.
+     */
+    private static int occupationOffset(MitoPerson person) {
+        switch (person.getMitoOccupationStatus()) {
+            case WORKER:
+                return 0;
+            case STUDENT:
+                return 1;
+            case UNEMPLOYED:
+                return 2;
+            default:
+                throw new IllegalStateException("Unknown occupation status " + person.getMitoOccupationStatus());
+        }
+    }
+
+    /**
+     * Orders the coefficients of the model by feature index.
+     *
+     * @param sizeFiveAppliesToLargerHouseholds whether households with more than five persons use the coefficient
+     *                                          of five persons, otherwise their size does not add to the utility
+     * @throws RuntimeException if a coefficient of the model is missing
+     */
+    static double[] compile(Map<String, Double> coefficients, Purpose purpose, boolean sizeFiveAppliesToLargerHouseholds) {
+        final double[] compiled = new double[NUMBER_OF_FEATURES];
+        for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+            if (VARIABLES[i] == null) {
+                continue;
+            }
+            final Double coefficient = coefficients.get(VARIABLES[i]);
+            if (coefficient == null) {
+                throw new RuntimeException("Hurdle model coefficient " + VARIABLES[i] + " is missing for purpose " + purpose);
+            }
+            compiled[i] = coefficient;
+        }
+        if (sizeFiveAppliesToLargerHouseholds) {
+            compiled[SIZE_6_AND_MORE] = compiled[SIZE_5];
+        }
+        return compiled;
+    }
+
+    static double dot(double[] coefficients, double[] features) {
+        double sum = 0.;
+        for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+            sum += coefficients[i] * features[i];
+        }
+        return sum;
+    }
+
+    private static final class EncodedHousehold {
+        private MitoHousehold household;
+        private final double[] features = new double[NUMBER_OF_FEATURES];
+    }
+}
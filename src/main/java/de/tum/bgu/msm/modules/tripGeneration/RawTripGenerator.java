@@ -1,21 +1,20 @@
 package de.tum.bgu.msm.modules.tripGeneration;
 
+import com.google.common.collect.Lists;
 import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.MitoHousehold;
 import de.tum.bgu.msm.data.MitoTrip;
 import de.tum.bgu.msm.data.Purpose;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
 import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import org.apache.log4j.Logger;
-import org.matsim.core.utils.collections.Tuple;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
 
 import static de.tum.bgu.msm.data.Purpose.*;
 
@@ -26,13 +25,14 @@ public class RawTripGenerator {
 
     private static final Logger logger = Logger.getLogger(RawTripGenerator.class);
 
+    private final static int DEFAULT_PARTITION_SIZE = 10000;
+
     final static AtomicInteger DROPPED_TRIPS_AT_BORDER_COUNTER = new AtomicInteger();
-    final static AtomicInteger TRIP_ID_COUNTER = new AtomicInteger();
 
     private final DataSet dataSet;
     private TripsByPurposeGeneratorFactory tripsByPurposeGeneratorFactory;
 
-    private final EnumSet<Purpose> PURPOSES = EnumSet.of(HBW, HBE, HBS, HBO, NHBW, NHBO);
+    private static final Purpose[] PURPOSES = {HBW, HBE, HBS, HBO, NHBW, NHBO};
 
     public RawTripGenerator(DataSet dataSet, TripsByPurposeGeneratorFactory tripsByPurposeGeneratorFactory) {
         this.dataSet = dataSet;
@@ -40,28 +40,130 @@ public class RawTripGenerator {
     }
 
     public void run (double scaleFactorForGeneration) {
-        generateByPurposeMultiThreaded(scaleFactorForGeneration);
+        generateByHouseholdPartitions(scaleFactorForGeneration);
         logTripGeneration();
     }
 
-    private void generateByPurposeMultiThreaded(double scaleFactorForGeneration) {
-        final ConcurrentExecutor<Tuple<Purpose, Map<MitoHousehold, List<MitoTrip>>>> executor =
-                ConcurrentExecutor.fixedPoolService(Purpose.values().length);
-        List<Callable<Tuple<Purpose, Map<MitoHousehold,List<MitoTrip>>>>> tasks = new ArrayList<>();
-        for(Purpose purpose: PURPOSES) {
-            tasks.add(tripsByPurposeGeneratorFactory.createTripGeneratorForThisPurpose(dataSet, purpose, scaleFactorForGeneration));
+    /**
+     * Households are split into partitions of fixed size, independent of the number of threads, and all purposes
+     * are generated for a partition in one task. Each household draws from its own random stream per purpose, so the
+     * number of trips does not depend on the partitioning or the parallelism.
+     * <p>
+     * Trips are created in a second, single-threaded pass once the number of trips of every household is known, so
+     * they can be appended to the trip table of the data set directly. Ids are assigned consecutively by purpose and
+     * then by household in the order of the data set, so they are stable between runs as well.
+     */
+    private void generateByHouseholdPartitions(double scaleFactorForGeneration) {
+        final int parallelism = Resources.instance.getInt(Properties.TRIP_GENERATION_PARALLELISM,
+                Runtime.getRuntime().availableProcessors());
+        final int partitionSize = Resources.instance.getInt(Properties.TRIP_GENERATION_PARTITION_SIZE,
+                DEFAULT_PARTITION_SIZE);
+
+        final EnumMap<Purpose, TripsByPurposeGenerator> generators = new EnumMap<>(Purpose.class);
+        for (Purpose purpose : PURPOSES) {
+            generators.put(purpose, tripsByPurposeGeneratorFactory.createTripGeneratorForThisPurpose(dataSet, purpose));
+        }
+
+        final List<List<MitoHousehold>> partitions =
+                Lists.partition(new ArrayList<>(dataSet.getHouseholds().values()), partitionSize);
+        logger.info("  Generating trips for " + PURPOSES.length + " purposes using parallelism of " + parallelism
+                + " with " + partitions.size() + " partitions of size " + partitionSize);
+
+        final List<Callable<int[][]>> countTasks = new ArrayList<>();
+        for (List<MitoHousehold> partition : partitions) {
+            countTasks.add(new CountTrips(partition, generators, scaleFactorForGeneration));
+        }
+        final List<int[][]> tripsByPartition =
+                ConcurrentExecutor.<int[][]>fixedPoolService(parallelism).submitTasksAndWaitForCompletion(countTasks);
+        generators.values().forEach(TripsByPurposeGenerator::logSummary);
+
+        final int[][] firstIds = new int[partitions.size()][PURPOSES.length];
+        int nextId = 1;
+        for (int p = 0; p < PURPOSES.length; p++) {
+            int tripsForPurpose = 0;
+            for (int i = 0; i < partitions.size(); i++) {
+                firstIds[i][p] = nextId;
+                final int trips = sum(tripsByPartition.get(i)[p]);
+                nextId += trips;
+                tripsForPurpose += trips;
+            }
+            logger.info("Created " + tripsForPurpose + " trips for " + PURPOSES[p]);
+        }
+
+        for (int p = 0; p < PURPOSES.length; p++) {
+            for (int i = 0; i < partitions.size(); i++) {
+                createTrips(partitions.get(i), tripsByPartition.get(i)[p], firstIds[i][p], PURPOSES[p]);
+            }
+        }
+    }
+
+    /**
+     * Creates the trips of a purpose for the households of a partition in the trip table of the data set, with
+     * consecutive ids starting at the given first id, and assigns them to their households.
+     */
+    private void createTrips(List<MitoHousehold> households, int[] numberOfTrips, int firstId, Purpose purpose) {
+        int id = firstId;
+        for (int i = 0; i < households.size(); i++) {
+            final int count = numberOfTrips[i];
+            if (count == 0) {
+                continue;
+            }
+            final List<MitoTrip> householdTrips = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                householdTrips.add(dataSet.createTrip(id++, purpose));
+            }
+            households.get(i).setTripsByPurpose(householdTrips, purpose);
         }
-        final List<Tuple<Purpose, Map<MitoHousehold, List<MitoTrip>>>> results = executor.submitTasksAndWaitForCompletion(tasks);
-        for(Tuple<Purpose, Map<MitoHousehold, List<MitoTrip>>> result: results) {
-            final Purpose purpose = result.getFirst();
-
-            final int sum = result.getSecond().values().stream().flatMapToInt(e -> IntStream.of(e.size())).sum();
-            logger.info("Created " + sum + " trips for " + purpose);
-            final Map<MitoHousehold, List<MitoTrip>> tripsByHouseholds = result.getSecond();
-            for(Map.Entry<MitoHousehold, List<MitoTrip>> tripsByHousehold: tripsByHouseholds.entrySet()) {
-                tripsByHousehold.getKey().setTripsByPurpose(tripsByHousehold.getValue(), purpose);
-                dataSet.addTrips(tripsByHousehold.getValue());
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Draws the number of trips by purpose for each household of a partition.
+     */
+    private static final class CountTrips implements Callable<int[][]> {
+
+        private final List<MitoHousehold> households;
+        private final EnumMap<Purpose, TripsByPurposeGenerator> generators;
+        private final double scaleFactorForGeneration;
+
+        private CountTrips(List<MitoHousehold> households, EnumMap<Purpose, TripsByPurposeGenerator> generators,
+                           double scaleFactorForGeneration) {
+            this.households = households;
+            this.generators = generators;
+            this.scaleFactorForGeneration = scaleFactorForGeneration;
+        }
+
+        /**
+         * @return the number of trips by purpose and household
+         */
+        @Override
+        public int[][] call() {
+            final int[][] numberOfTrips = new int[PURPOSES.length][households.size()];
+            final TripsByPurposeGenerator[] purposeGenerators = new TripsByPurposeGenerator[PURPOSES.length];
+            final StreamRandom[] randoms = new StreamRandom[PURPOSES.length];
+            for (int p = 0; p < PURPOSES.length; p++) {
+                purposeGenerators[p] = generators.get(PURPOSES[p]);
+                randoms[p] = new StreamRandom("tripGeneration." + PURPOSES[p]);
+            }
+            // all purposes of a household in a row, so generators can reuse what they derived from the household
+            for (int i = 0; i < households.size(); i++) {
+                final MitoHousehold household = households.get(i);
+                for (int p = 0; p < PURPOSES.length; p++) {
+                    final StreamRandom random = randoms[p];
+                    random.reset(household.getId());
+                    if (random.nextDouble() < scaleFactorForGeneration) {
+                        numberOfTrips[p][i] = purposeGenerators[p].generateNumberOfTrips(household, random);
+                    }
+                }
             }
+            return numberOfTrips;
         }
     }
 
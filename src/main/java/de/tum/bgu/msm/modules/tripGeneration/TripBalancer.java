@@ -1,6 +1,7 @@
 package de.tum.bgu.msm.modules.tripGeneration;
 
 import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.MitoHousehold;
 import de.tum.bgu.msm.data.MitoZone;
 import de.tum.bgu.msm.data.Purpose;
 import de.tum.bgu.msm.resources.Properties;
@@ -25,9 +26,23 @@ public class TripBalancer {
 
         logger.info("  Balancing trip production and attractions");
 
-        for (Purpose purpose : Purpose.values()) {
-            long tripsByPurp = dataSet.getHouseholds().values().stream().mapToInt(household -> household.getTripsForPurpose(purpose).size()).sum();
-            double attrSum = dataSet.getZones().values().stream().mapToDouble(zone -> zone.getTripAttraction(purpose)).sum();
+        final Purpose[] purposes = Purpose.values();
+        final long[] tripsByPurpose = new long[purposes.length];
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            for (Purpose purpose : purposes) {
+                tripsByPurpose[purpose.ordinal()] += household.getTripsForPurpose(purpose).size();
+            }
+        }
+        final double[] attractionsByPurpose = new double[purposes.length];
+        for (MitoZone zone : dataSet.getZones().values()) {
+            for (Purpose purpose : purposes) {
+                attractionsByPurpose[purpose.ordinal()] += zone.getTripAttraction(purpose);
+            }
+        }
+
+        for (Purpose purpose : purposes) {
+            long tripsByPurp = tripsByPurpose[purpose.ordinal()];
+            double attrSum = attractionsByPurpose[purpose.ordinal()];
             if (tripsByPurp == 0) {
                 logger.warn("No trips for purpose " + purpose + " were generated.");
                 continue;
@@ -1,6 +1,25 @@
 package de.tum.bgu.msm.modules.tripGeneration;
 
-import java.util.concurrent.Callable;
+import de.tum.bgu.msm.data.MitoHousehold;
 
-public interface TripsByPurposeGenerator extends Callable {
+import java.util.Random;
+
+/**
+ * Draws the number of trips of one purpose for a household. A generator is shared by all partitions of
+ * households, so implementations must be thread safe and must only draw from the given random.
+ */
+public interface TripsByPurposeGenerator {
+
+    /**
+     * @param random positioned at the stream of the household for the purpose of this generator, after the
+     *               draw of the trip generation scale factor
+     * @return the number of trips of the household, which may be 0
+     */
+    int generateNumberOfTrips(MitoHousehold household, Random random);
+
+    /**
+     * Called once after the trips of all households have been generated.
+     */
+    default void logSummary() {
+    }
 }
@@ -4,5 +4,5 @@ import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.Purpose;
 
 public interface TripsByPurposeGeneratorFactory {
-    TripsByPurposeGenerator createTripGeneratorForThisPurpose(DataSet dataSet, Purpose purpose, double scaleFactorForGeneration);
+    TripsByPurposeGenerator createTripGeneratorForThisPurpose(DataSet dataSet, Purpose purpose);
 }
@@ -4,8 +4,14 @@ import de.tum.bgu.msm.data.DataSet;
 import de.tum.bgu.msm.data.Purpose;
 
 public class TripsByPurposeGeneratorFactoryHurdle implements TripsByPurposeGeneratorFactory {
+
+    /**
+     * Shared by the generators of all purposes, so each household is encoded only once.
+     */
+    private final HurdleModelFeatures features = new HurdleModelFeatures();
+
     @Override
-    public TripsByPurposeGenerator createTripGeneratorForThisPurpose(DataSet dataSet, Purpose purpose, double scaleFactorForGeneration) {
-        return new TripsByPurposeGeneratorHurdleModel(dataSet, purpose, scaleFactorForGeneration);
+    public TripsByPurposeGenerator createTripGeneratorForThisPurpose(DataSet dataSet, Purpose purpose) {
+        return new TripsByPurposeGeneratorHurdleModel(dataSet, purpose, features);
     }
 }
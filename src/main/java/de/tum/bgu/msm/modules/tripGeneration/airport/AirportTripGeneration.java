@@ -6,6 +6,7 @@ import de.tum.bgu.msm.modules.modeChoice.calculators.AirportModeChoiceCalculator
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.StreamRandom;
 import org.apache.log4j.Logger;
 
 import java.util.*;
@@ -49,12 +50,13 @@ public class AirportTripGeneration {
 
 
         int tripsToFromAirport = (int) (numberOfTripsCalculator.calculateTripRate(dataSet.getYear()) * scaleFacotForTripGeneration);
+        final StreamRandom random = new StreamRandom("tripGeneration." + Purpose.AIRPORT);
         while (counter < tripsToFromAirport) {
-            MitoTrip trip = new MitoTrip(TRIP_ID_COUNTER.incrementAndGet(), Purpose.AIRPORT);
-            dataSet.addTrip(trip);
+            MitoTrip trip = dataSet.createTrip(TRIP_ID_COUNTER.incrementAndGet(), Purpose.AIRPORT);
             //look for a zone and household
-            int destinationZone = MitoUtil.select(zonalProbabilities, MitoUtil.getRandomObject());
-            MitoHousehold hh = MitoUtil.select(hosuseholdProbabilities.get(destinationZone), MitoUtil.getRandomObject());
+            random.reset(counter);
+            int destinationZone = MitoUtil.select(zonalProbabilities, random);
+            MitoHousehold hh = MitoUtil.select(hosuseholdProbabilities.get(destinationZone), random);
             if (hh.getTripsForPurpose(Purpose.AIRPORT).isEmpty()){
                 List<MitoTrip> trips = new ArrayList<>();
                 trips.add(trip);
@@ -85,10 +87,7 @@ public class AirportTripGeneration {
     }
 
     private double calculateLogsumForThisZone(MitoZone origin, MitoZone destination, TravelTimes travelTimes, double travelDistance, double peakHour) {
-        EnumMap<Mode, Double> utilities = airportModeChoiceCalculator.calculateUtilities(Purpose.AIRPORT, null
-                , null, origin, destination, travelTimes, travelDistance, -1, peakHour);
-        double sum = utilities.values().stream().mapToDouble(d -> d).sum();
-        return Math.log(sum);
+        return airportModeChoiceCalculator.calculateLogsum(origin, destination, travelTimes, travelDistance, peakHour);
     }
 
     private Map<Integer, Map<MitoHousehold, Double>> calculateHouseholdProbabilities() {
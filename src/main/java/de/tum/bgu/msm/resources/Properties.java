@@ -14,6 +14,8 @@ public class Properties {
     static final String HOUSEHOLDS = "household.file.ascii";
     static final String PERSONS = "person.file.ascii";
     static final String DWELLINGS = "dwelling.file.ascii";
+    public static final String INPUT_PARALLELISM = "input.parallelism";
+    public static final String DATASET_SNAPSHOT = "dataset.snapshot";
 
     public static final String SCENARIO_NAME = "scenario.name";
     public static final String SCENARIO_YEAR = "year";
@@ -41,9 +43,27 @@ public class Properties {
     public static final String AUTONOMOUS_VEHICLE_CHOICE = "include.AVchoice";
 
     public static final String CREATE_CHARTS = "charts";
+    public static final String RUN_REPORT = "run.report";
+    public static final String METRICS_JMX = "metrics.jmx";
+    public static final String CHECKPOINT_DIRECTORY = "checkpoint.directory";
+    public static final String CHECKPOINT_RESUME_AFTER = "checkpoint.resume.after";
     public static final String PRINT_MICRO_DATA = "micro.data";
     public static final String FILL_MICRO_DATA_WITH_MICROLOCATION = "micro.data.with.microlocation";
 
+    public static final String TRIP_GENERATION_PARALLELISM = "trip.generation.parallelism";
+    public static final String TRIP_GENERATION_PARTITION_SIZE = "trip.generation.partition.size";
+
+    public static final String DISTRIBUTION_EXACT_PROBABILITIES = "distribution.exact.probabilities";
+    public static final String DISTRIBUTION_BUDGET_BIN_WIDTH = "distribution.budget.bin.width";
+    public static final String DISTRIBUTION_CACHE_MB = "distribution.cache.mb";
+    public static final String DISTRIBUTION_PARALLELISM = "distribution.parallelism";
+    public static final String DISTRIBUTION_PARTITION_SIZE = "distribution.partition.size";
+
+    public static final String MODE_CHOICE_PARALLELISM = "mode.choice.parallelism";
+    public static final String MODE_CHOICE_PARTITION_SIZE = "mode.choice.partition.size";
+    public static final String MODE_CHOICE_CACHE_MB = "mode.choice.cache.mb";
+    public static final String MODE_CHOICE_FAST_EXP = "mode.choice.fast.exp";
+
     public static final String RUN_TIME_OF_DAY_CHOICE = "run.time.of.day.choice";
     public static final String TIME_OF_DAY_DISTRIBUTIONS = "time.of.day.distribution.file";
 
@@ -58,6 +78,12 @@ public class Properties {
 
     public static final String PRINT_OUT_SKIM = "print.skim";
     public static final String SKIM_FILE_NAME = "skim.file.name";
+    public static final String SKIM_PRECISION = "skim.precision.";
+    public static final String SKIM_FIXED_POINT_RESOLUTION = "skim.fixed.point.resolution";
+    public static final String SKIM_CACHE_DIRECTORY = "skim.cache.directory";
+    public static final String SKIM_TIME_SLICES = "skim.time.slices.";
+    public static final String SKIM_TIME_SLICE_FILE = "skim.time.slice.";
+    public static final String SKIM_TIME_SLICES_MEMORY_MB = "skim.time.slices.memory.mb";
 
     public static final String ADD_EXTERNAL_FLOWS = "add.external.flows";
     public static final String EXTERNAL_DEPARTURE_TIME_FILE = "external.departure.time.file";
@@ -3,11 +3,12 @@ package de.tum.bgu.msm.run.scenarios.drtNoise;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.modules.modeChoice.ModeChoiceCalculator;
+import de.tum.bgu.msm.util.LogitKernel;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.prep.PreparedGeometry;
 import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 
-import java.util.EnumMap;
+import java.util.EnumSet;
 
 public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator {
 
@@ -17,6 +18,14 @@ public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator
 
     private final static double NESTING_COEFFICIENT = 0.25;
 
+    private final static LogitKernel LOGIT_KERNEL = LogitKernel.nested(new int[][]{
+            {Mode.autoDriver.ordinal(), Mode.autoPassenger.ordinal()},
+            {Mode.bus.ordinal(), Mode.train.ordinal(), Mode.tramOrMetro.ordinal()},
+            {Mode.pooledTaxi.ordinal()},
+            {Mode.bicycle.ordinal()},
+            {Mode.walk.ordinal()}
+    }, new double[]{NESTING_COEFFICIENT, NESTING_COEFFICIENT, 1., 1., 1.}, false);
+
     private final static double SERVICE_COST_PER_KM = 0.27;
     private final static double BASE_FARE = 2;
     private final static double DETOUR_FACTOR = 1.284;
@@ -66,92 +75,48 @@ public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateProbabilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
-
-        EnumMap<Mode, Double> utilities = calculateUtilities(
-                purpose, household, person, originZone, destinationZone, travelTimes
-                , travelDistanceAuto, travelDistanceNMT, peakHour_s);
-
-        final double utilityAutoD = utilities.get(Mode.autoDriver);
-        final double utilityAutoP = utilities.get(Mode.autoPassenger);
-        final double utilityBicycle = utilities.get(Mode.bicycle);
-        final double utilityBus = utilities.get(Mode.bus);
-        final double utilityTrain = utilities.get(Mode.train);
-        final double utilityTramMetro = utilities.get(Mode.tramOrMetro);
-        final double utilityWalk = utilities.get(Mode.walk);
-        final double utilityPooledTaxi = utilities.get(Mode.pooledTaxi);
-
-        double expsumNestAuto = Math.exp(utilityAutoD / NESTING_COEFFICIENT) + Math.exp(utilityAutoP / NESTING_COEFFICIENT);
-        double expsumNestTransit = Math.exp(utilityBus / NESTING_COEFFICIENT) + Math.exp(utilityTrain / NESTING_COEFFICIENT) + Math.exp(utilityTramMetro / NESTING_COEFFICIENT);
-
-        double utilityAuto = NESTING_COEFFICIENT * Math.log(expsumNestAuto);
-        double utilityTransit = NESTING_COEFFICIENT * Math.log(expsumNestTransit);
-
-        double sumOfExpUtils = Math.exp(utilityPooledTaxi) + Math.exp(utilityAuto) + Math.exp(utilityTransit)
-                + Math.exp(utilityWalk) + Math.exp(utilityBicycle);
-
-        double probabilityAuto = Math.exp(utilityAuto) / sumOfExpUtils;
-        double probabilityTransit = Math.exp(utilityTransit) / sumOfExpUtils;
-
-        double probabilityAutoD;
-        double probabilityAutoP;
-
-        if (expsumNestAuto > 0) {
-            probabilityAutoD = (Math.exp(utilityAutoD / NESTING_COEFFICIENT) / expsumNestAuto) * probabilityAuto;
-            probabilityAutoP = (Math.exp(utilityAutoP / NESTING_COEFFICIENT) / expsumNestAuto) * probabilityAuto;
-        } else {
-            probabilityAutoD = 0.0;
-            probabilityAutoP = 0.0;
-        }
+    public EnumSet<Mode> getModes() {
+        final EnumSet<Mode> modes = baseCalculator.getModes();
+        modes.add(Mode.pooledTaxi);
+        return modes;
+    }
 
-        double probabilityBus;
-        double probabilityTrain;
-        double probabilityTramMetro;
+    @Override
+    public void calculateProbabilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] probabilities) {
 
-        if (expsumNestTransit > 0) {
-            probabilityBus = (Math.exp(utilityBus / NESTING_COEFFICIENT) / expsumNestTransit) * probabilityTransit;
-            probabilityTrain = (Math.exp(utilityTrain / NESTING_COEFFICIENT) / expsumNestTransit) * probabilityTransit;
-            probabilityTramMetro = (Math.exp(utilityTramMetro / NESTING_COEFFICIENT) / expsumNestTransit) * probabilityTransit;
-        } else {
-            probabilityBus = 0.0;
-            probabilityTrain = 0.0;
-            probabilityTramMetro = 0.0;
-        }
+        //the result array holds the utilities until they are read
+        calculateUtilities(
+                purpose, household, person, originZone, destinationZone, travelTimes
+                , travelDistanceAuto, travelDistanceNMT, peakHour_s, probabilities);
 
-        double probabilityPooledTaxi = Math.exp(utilityPooledTaxi) / sumOfExpUtils;
-        double probabilityBicycle = Math.exp(utilityBicycle) / sumOfExpUtils;
-        double probabilityWalk = Math.exp(utilityWalk) / sumOfExpUtils;
-
-        EnumMap<Mode, Double> probabilities = new EnumMap<>(Mode.class);
-        probabilities.put(Mode.autoDriver, probabilityAutoD);
-        probabilities.put(Mode.autoPassenger, probabilityAutoP);
-        probabilities.put(Mode.bicycle, probabilityBicycle);
-        probabilities.put(Mode.bus, probabilityBus);
-        probabilities.put(Mode.train, probabilityTrain);
-        probabilities.put(Mode.tramOrMetro, probabilityTramMetro);
-        probabilities.put(Mode.walk, probabilityWalk);
-        probabilities.put(Mode.pooledTaxi, probabilityPooledTaxi);
-        return probabilities;
+        LOGIT_KERNEL.calculateProbabilities(probabilities, probabilities);
+        probabilities[Mode.privateAV.ordinal()] = Double.NaN;
+        probabilities[Mode.sharedAV.ordinal()] = Double.NaN;
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
-        final EnumMap<Mode, Double> baseUtilities = baseCalculator.calculateUtilities(purpose, household, person, originZone, destinationZone, travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s);
-
-        double utilityPooledTaxi;
+    public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
+        final boolean inServiceArea = serviceArea.contains(originZone.getGeometry())
+                && serviceArea.contains(destinationZone.getGeometry());
+
+        double gcPooledTaxi = 0;
+        double gcAutoD = 0;
+        if (inServiceArea) {
+            //the result array holds the generalized costs until the base utilities are calculated
+            calculateGeneralizedCosts(purpose, household, person, originZone,
+                    destinationZone, travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s, utilities);
+            gcPooledTaxi = utilities[Mode.pooledTaxi.ordinal()];
+            gcAutoD = utilities[Mode.autoPassenger.ordinal()];
+        }
 
-        if (serviceArea.contains(originZone.getGeometry())
-                && serviceArea.contains(destinationZone.getGeometry())) {
+        baseCalculator.calculateUtilities(purpose, household, person, originZone, destinationZone, travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s, utilities);
 
+        double utilityPooledTaxi;
 
-            EnumMap<Mode, Double> gc = calculateGeneralizedCosts(purpose, household, person, originZone,
-                    destinationZone, travelTimes, travelDistanceAuto, travelDistanceNMT, peakHour_s);
+        if (inServiceArea) {
 
             //base utility for auto driver
-            double utilityAutoD = baseUtilities.get(Mode.autoPassenger);
-
-            double gcPooledTaxi = gc.get(Mode.pooledTaxi);
-            double gcAutoD = gc.get(Mode.autoPassenger);
+            double utilityAutoD = utilities[Mode.autoPassenger.ordinal()];
 
             //additional (or less) utility for the additive generalized cost term
             double additionalUtility = betaGeneralizedCost[purpose.ordinal()][1] * (gcPooledTaxi - gcAutoD)
@@ -163,17 +128,16 @@ public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator
         } else {
             utilityPooledTaxi = Double.NEGATIVE_INFINITY;
         }
-        baseUtilities.put(Mode.pooledTaxi, utilityPooledTaxi);
-        return baseUtilities;
+        utilities[Mode.pooledTaxi.ordinal()] = utilityPooledTaxi;
     }
 
     @Override
-    public EnumMap<Mode, Double> calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s) {
+    public void calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] generalizedCosts) {
         int monthlyIncome_EUR = household.getMonthlyIncome_EUR();
         int purpIdx = purpose.ordinal();
         double timeAutoD = travelTimes.getTravelTime(originZone, destinationZone, peakHour_s, "car");
 
-        EnumMap<Mode, Double> baseGeneralizedCosts = baseCalculator.calculateGeneralizedCosts(
+        baseCalculator.calculateGeneralizedCosts(
                 purpose,
                 household,
                 person,
@@ -182,7 +146,8 @@ public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator
                 travelTimes,
                 travelDistanceAuto,
                 travelDistanceNMT,
-                peakHour_s
+                peakHour_s,
+                generalizedCosts
         );
 
         double monetaryCost = BASE_FARE + travelDistanceAuto * SERVICE_COST_PER_KM;
@@ -196,7 +161,6 @@ public class DrtTopNestModeChoiceCalculatorImpl implements ModeChoiceCalculator
         }
 
         double generalizedCost = monetaryCostAsTime + timeAutoD * DETOUR_FACTOR + WAITING_TIME;
-        baseGeneralizedCosts.put(Mode.pooledTaxi, generalizedCost);
-        return baseGeneralizedCosts;
+        generalizedCosts[Mode.pooledTaxi.ordinal()] = generalizedCost;
     }
 }
@@ -61,15 +61,7 @@ public class MitoModelDrt {
 
     private void readStandAlone(ImplementationConfig config) {
         dataSet.setYear(Resources.instance.getInt(Properties.SCENARIO_YEAR));
-        new ZonesReader(dataSet).read();
-        if (Resources.instance.getBoolean(Properties.REMOVE_TRIPS_AT_BORDER)) {
-            new BorderDampersReader(dataSet).read();
-        }
-        new JobReader(dataSet, config.getJobTypeFactory()).read();
-        new SchoolsReader(dataSet).read();
-        new HouseholdsReader(dataSet).read();
-        new HouseholdsCoordReader(dataSet).read();
-        new PersonsReader(dataSet).read();
+        new ZonesAndPopulationReader(dataSet, config.getJobTypeFactory()).read();
         dataSet.setTravelTimes(new SkimTravelTimes());
         new OmxSkimsReader(dataSet).read();
         readAdditionalData();
@@ -106,6 +98,14 @@ public class MitoModelDrt {
     public void setRandomNumberGenerator(Random random) {
         MitoUtil.initializeRandomNumber(random);
     }
+
+    /**
+     * Like {@link #setRandomNumberGenerator(Random)}, and seeds the random streams of the modules with the given
+     * seed, e.g. one per simulated year.
+     */
+    public void setRandomNumberGenerator(Random random, long seed) {
+        MitoUtil.initializeRandomNumber(random, seed);
+    }
 }
 
 
@@ -1,27 +1,21 @@
 package de.tum.bgu.msm.trafficAssignment;
 
-import com.google.common.collect.Iterables;
 import de.tum.bgu.msm.MitoModel;
 import de.tum.bgu.msm.data.DataSet;
-import de.tum.bgu.msm.data.MitoZone;
 import de.tum.bgu.msm.data.travelDistances.MatrixTravelDistances;
 import de.tum.bgu.msm.data.travelTimes.SkimTravelTimes;
 import de.tum.bgu.msm.io.output.OmxMatrixWriter;
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
-import de.tum.bgu.msm.util.MitoUtil;
-import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.random.RandomStreams;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.TransportMode;
-import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.network.NetworkUtils;
-import org.matsim.core.router.*;
-import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.geometry.CoordUtils;
@@ -83,9 +77,10 @@ public class CarSkimUpdater {
         nodesByZone.clear();
 
         dataSet.getZones().values().stream().parallel().forEach(mitoZone -> {
+            final Random random = RandomStreams.create("carSkim", mitoZone.getId());
             nodesByZone.put(mitoZone.getId(), new LinkedList<>());
             for (int i = 0; i < NUMBER_OF_CALC_POINTS; i++) { // Several points in a given origin zone
-                Coord originCoord = CoordUtils.createCoord(mitoZone.getRandomCoord(MitoUtil.getRandomObject()));
+                Coord originCoord = CoordUtils.createCoord(mitoZone.getRandomCoord(random));
                 Node originNode = NetworkUtils.getNearestLink(network, originCoord).getToNode();
                 nodesByZone.get(mitoZone.getId()).add(originNode);
             }
@@ -95,54 +90,32 @@ public class CarSkimUpdater {
 
         long startTime2 = System.currentTimeMillis();
 
-        final int partitionSize = (int) ((double) dataSet.getZones().size() / Runtime.getRuntime().availableProcessors()) + 1;
-        logger.info("Intended size of all of partititons = " + partitionSize);
-        Iterable<List<MitoZone>> partitions = Iterables.partition(dataSet.getZones().values(), partitionSize);
-        ConcurrentExecutor<Void> executor = ConcurrentExecutor.fixedPoolService(Runtime.getRuntime().availableProcessors());
-
-        for (final List<MitoZone> partition : partitions) {
-            logger.info("Size of partititon = " + partition.size());
-
-            executor.addTaskToQueue(() -> {
-                try {
-                    MultiNodePathCalculator calculator
-                            = (MultiNodePathCalculator) new FastMultiNodeDijkstraFactory(true).createPathCalculator(network, travelDisutility, travelTime);
-
-                    Set<InitialNode> toNodes = new HashSet<>();
-                    for (MitoZone zone : dataSet.getZones().values()) {
-                        // Several points in a given origin zone
-                        for (int i = 0; i < NUMBER_OF_CALC_POINTS; i++) {
-                            Node originNode = nodesByZone.get(zone.getId()).get(0);
-                            toNodes.add(new InitialNode(originNode, 0., 0.));
-                        }
-                    }
+        final int[] originIds = carTravelTimeMatrix.getRowLookupArray();
+        final int[] destinationIds = carTravelTimeMatrix.getColumnLookupArray();
+        final LeastCostTreeSkimmer skimmer = new LeastCostTreeSkimmer(network, travelTime, travelDisutility);
+        final int[] originNodes = new int[originIds.length];
+        for (int i = 0; i < originIds.length; i++) {
+            originNodes[i] = skimmer.getNodeIndex(nodesByZone.get(originIds[i]).get(0));
+        }
+        final int[] destinationNodes = new int[destinationIds.length];
+        for (int j = 0; j < destinationIds.length; j++) {
+            destinationNodes[j] = skimmer.getNodeIndex(nodesByZone.get(destinationIds[j]).get(0));
+        }
 
-                    ImaginaryNode aggregatedToNodes = MultiNodeDijkstra.createImaginaryNode(toNodes);
-
-                    for (MitoZone origin : partition) {
-                        Node node = nodesByZone.get(origin.getId()).get(0);
-                        calculator.calcLeastCostPath(node, aggregatedToNodes, DEFAULT_PEAK_H_S, null, null);
-                        for (MitoZone destination : dataSet.getZones().values()) {
-                            LeastCostPathCalculator.Path path = calculator.constructPath(node, nodesByZone.get(destination.getId()).get(0), DEFAULT_PEAK_H_S);
-
-                            //convert to minutes
-                            double travelTime = path.travelTime / 60.;
-                            double distance = 0.;
-                            for (Link link : path.links) {
-                                distance += link.getLength();
-                            }
-                            carTravelTimeMatrix.setIndexed(origin.getId(), destination.getId(), travelTime);
-                            carDistanceMatrix.setIndexed(origin.getId(), destination.getId(), distance / 1000.);
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+        skimmer.skim(originNodes, destinationNodes, DEFAULT_PEAK_H_S, (origin, travelTimes, distances) -> {
+            for (int j = 0; j < travelTimes.length; j++) {
+                if (Double.isInfinite(travelTimes[j])) {
+                    travelTimes[j] = Double.MAX_VALUE;
+                    distances[j] = Double.MAX_VALUE;
+                } else {
+                    //convert to minutes and km
+                    travelTimes[j] = travelTimes[j] / 60.;
+                    distances[j] = distances[j] / 1000.;
                 }
-                logger.warn("Finished thread.");
-                return null;
-            });
-        }
-        executor.execute();
+            }
+            carTravelTimeMatrix.setRowIndexed(originIds[origin], travelTimes);
+            carDistanceMatrix.setRowIndexed(originIds[origin], distances);
+        }, Runtime.getRuntime().availableProcessors());
 
         long runtime2 = (System.currentTimeMillis() - startTime2) / 1000;
         logger.info("Completed car matrix update in " + runtime2 + " seconds(dvrp methods)");
@@ -0,0 +1,283 @@
+package de.tum.bgu.msm.trafficAssignment;
+
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Skims travel times and distances by growing one least cost tree per origin node. Travel time and
+ * distance are carried along as node labels, so no paths have to be constructed. A tree stops
+ * growing once all destination nodes are settled.
+ * <p>
+ * The network is converted once into primitive arrays. Each thread keeps its own labels and heap
+ * and reuses them for all of its origins; origins are handed out dynamically to the threads.
+ * Link costs are time dependent and evaluated at the time the link is entered, like in the MATSim
+ * routers.
+ */
+public final class LeastCostTreeSkimmer {
+
+    private static final Logger logger = Logger.getLogger(LeastCostTreeSkimmer.class);
+
+    /**
+     * Receives the skimmed rows of an origin. The arrays are reused for the next origin of the same
+     * thread and must be copied if they are kept.
+     */
+    @FunctionalInterface
+    public interface RowWriter {
+        /**
+         * @param originIndex position of the origin in the origin array
+         * @param travelTimes_s travel times in seconds to each destination (in order of the destination
+         *                      array), {@link Double#POSITIVE_INFINITY} if unreachable
+         * @param distances_m   distances in meters to each destination
+         */
+        void write(int originIndex, double[] travelTimes_s, double[] distances_m);
+    }
+
+    private final TravelTime travelTime;
+    private final TravelDisutility travelDisutility;
+
+    private final Map<Id<Node>, Integer> nodeIndices = new HashMap<>();
+    private final int numberOfNodes;
+
+    /**
+     * Outgoing links of node n are at positions outLinkStart[n] until outLinkStart[n+1] of the link arrays.
+     */
+    private final int[] outLinkStart;
+    private final Link[] links;
+    private final int[] linkToNode;
+    private final double[] linkLength;
+
+    public LeastCostTreeSkimmer(Network network, TravelTime travelTime, TravelDisutility travelDisutility) {
+        this.travelTime = travelTime;
+        this.travelDisutility = travelDisutility;
+
+        int index = 0;
+        for (Node node : network.getNodes().values()) {
+            nodeIndices.put(node.getId(), index++);
+        }
+        this.numberOfNodes = index;
+
+        final Node[] nodes = new Node[numberOfNodes];
+        for (Node node : network.getNodes().values()) {
+            nodes[nodeIndices.get(node.getId())] = node;
+        }
+        this.outLinkStart = new int[numberOfNodes + 1];
+        for (int n = 0; n < numberOfNodes; n++) {
+            outLinkStart[n + 1] = outLinkStart[n] + nodes[n].getOutLinks().size();
+        }
+        final int numberOfLinks = outLinkStart[numberOfNodes];
+        this.links = new Link[numberOfLinks];
+        this.linkToNode = new int[numberOfLinks];
+        this.linkLength = new double[numberOfLinks];
+        for (int n = 0; n < numberOfNodes; n++) {
+            int position = outLinkStart[n];
+            for (Link link : nodes[n].getOutLinks().values()) {
+                links[position] = link;
+                linkToNode[position] = nodeIndices.get(link.getToNode().getId());
+                linkLength[position] = link.getLength();
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Returns the internal index of the given node, which is used to define origins and destinations.
+     */
+    public int getNodeIndex(Node node) {
+        return nodeIndices.get(node.getId());
+    }
+
+    /**
+     * Skims all origins in parallel and hands the rows to the writer. The writer is called concurrently
+     * for different origins.
+     *
+     * @param originNodes      node indices of the origins
+     * @param destinationNodes node indices of the destinations
+     * @param departureTime_s  departure time at the origins
+     * @param numberOfThreads  number of threads
+     */
+    public void skim(int[] originNodes, int[] destinationNodes, double departureTime_s, RowWriter writer, int numberOfThreads) {
+        final AtomicInteger nextOrigin = new AtomicInteger();
+        final AtomicInteger progress = new AtomicInteger();
+        final ConcurrentExecutor<Void> executor = ConcurrentExecutor.fixedPoolService(numberOfThreads);
+        for (int thread = 0; thread < numberOfThreads; thread++) {
+            executor.addTaskToQueue(() -> {
+                final Tree tree = new Tree(destinationNodes);
+                int origin;
+                while ((origin = nextOrigin.getAndIncrement()) < originNodes.length) {
+                    tree.grow(originNodes[origin], departureTime_s);
+                    tree.writeRow(origin, writer);
+                    final int done = progress.incrementAndGet();
+                    if (done % 1000 == 0) {
+                        logger.info("Skimmed " + done + " of " + originNodes.length + " origins");
+                    }
+                }
+                return null;
+            });
+        }
+        executor.execute();
+    }
+
+    /**
+     * Labels and heap of a single thread.
+     */
+    private final class Tree {
+
+        private final int[] destinationNodes;
+        private final boolean[] isDestination;
+        private final int numberOfDestinationNodes;
+
+        private final double[] cost = new double[numberOfNodes];
+        private final double[] time = new double[numberOfNodes];
+        private final double[] distance = new double[numberOfNodes];
+        /**
+         * Labels of a node are only valid if its stamp equals the current stamp, which avoids clearing
+         * all labels for every origin.
+         */
+        private final int[] stamp = new int[numberOfNodes];
+        private final boolean[] settled = new boolean[numberOfNodes];
+        private int currentStamp = 0;
+
+        private final int[] heap = new int[numberOfNodes];
+        private final int[] heapPosition = new int[numberOfNodes];
+        private int heapSize;
+
+        private final double[] timeRow;
+        private final double[] distanceRow;
+
+        private Tree(int[] destinationNodes) {
+            this.destinationNodes = destinationNodes;
+            this.isDestination = new boolean[numberOfNodes];
+            int distinct = 0;
+            for (int node : destinationNodes) {
+                if (!isDestination[node]) {
+                    isDestination[node] = true;
+                    distinct++;
+                }
+            }
+            this.numberOfDestinationNodes = distinct;
+            this.timeRow = new double[destinationNodes.length];
+            this.distanceRow = new double[destinationNodes.length];
+        }
+
+        private void grow(int origin, double departureTime_s) {
+            currentStamp++;
+            heapSize = 0;
+            label(origin, 0., 0., 0.);
+            int settledDestinations = 0;
+            while (heapSize > 0 && settledDestinations < numberOfDestinationNodes) {
+                final int node = poll();
+                settled[node] = true;
+                if (isDestination[node]) {
+                    settledDestinations++;
+                }
+                final double nodeCost = cost[node];
+                final double nodeTime = time[node];
+                final double nodeDistance = distance[node];
+                final double enterTime = departureTime_s + nodeTime;
+                for (int l = outLinkStart[node]; l < outLinkStart[node + 1]; l++) {
+                    final int toNode = linkToNode[l];
+                    if (stamp[toNode] == currentStamp && settled[toNode]) {
+                        continue;
+                    }
+                    final Link link = links[l];
+                    final double newCost = nodeCost + travelDisutility.getLinkTravelDisutility(link, enterTime, null, null);
+                    if (stamp[toNode] != currentStamp || newCost < cost[toNode]) {
+                        label(toNode, newCost,
+                                nodeTime + travelTime.getLinkTravelTime(link, enterTime, null, null),
+                                nodeDistance + linkLength[l]);
+                    }
+                }
+            }
+        }
+
+        private void writeRow(int originIndex, RowWriter writer) {
+            for (int d = 0; d < destinationNodes.length; d++) {
+                final int node = destinationNodes[d];
+                if (stamp[node] == currentStamp) {
+                    timeRow[d] = time[node];
+                    distanceRow[d] = distance[node];
+                } else {
+                    timeRow[d] = Double.POSITIVE_INFINITY;
+                    distanceRow[d] = Double.POSITIVE_INFINITY;
+                }
+            }
+            writer.write(originIndex, timeRow, distanceRow);
+        }
+
+        private void label(int node, double nodeCost, double nodeTime, double nodeDistance) {
+            final boolean known = stamp[node] == currentStamp;
+            stamp[node] = currentStamp;
+            cost[node] = nodeCost;
+            time[node] = nodeTime;
+            distance[node] = nodeDistance;
+            if (!known) {
+                settled[node] = false;
+                heap[heapSize] = node;
+                heapPosition[node] = heapSize;
+                heapSize++;
+            }
+            siftUp(heapPosition[node]);
+        }
+
+        private int poll() {
+            final int top = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapPosition[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int position) {
+            final int node = heap[position];
+            final double nodeCost = cost[node];
+            while (position > 0) {
+                final int parent = (position - 1) >>> 1;
+                final int parentNode = heap[parent];
+                if (cost[parentNode] <= nodeCost) {
+                    break;
+                }
+                heap[position] = parentNode;
+                heapPosition[parentNode] = position;
+                position = parent;
+            }
+            heap[position] = node;
+            heapPosition[node] = position;
+        }
+
+        private void siftDown(int position) {
+            final int node = heap[position];
+            final double nodeCost = cost[node];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && cost[heap[child + 1]] < cost[heap[child]]) {
+                    child++;
+                }
+                final int childNode = heap[child];
+                if (cost[childNode] >= nodeCost) {
+                    break;
+                }
+                heap[position] = childNode;
+                heapPosition[childNode] = position;
+                position = child;
+            }
+            heap[position] = node;
+            heapPosition[node] = position;
+        }
+    }
+}
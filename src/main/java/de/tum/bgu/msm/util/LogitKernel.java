@@ -0,0 +1,220 @@
+package de.tum.bgu.msm.util;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates multinomial and two-level nested logit models on utility arrays. Alternatives are referenced by
+ * their index in the utility array, so a kernel can be defined directly on {@link de.tum.bgu.msm.data.Mode#ordinal()}.
+ * <p>
+ * Probabilities are computed in log space: the utility of every alternative in nest k with nesting
+ * coefficient mu is rewritten as u/mu + (mu - 1) * logsum_k, after which the nested logit reduces to a
+ * multinomial logit over all alternatives. Every logsum subtracts its maximum before exponentiating, so
+ * large utilities do not overflow and very negative utilities do not cancel out a whole nest. Alternatives
+ * with a utility of {@link Double#NEGATIVE_INFINITY} are unavailable and get a probability of zero.
+ * <p>
+ * Kernels are immutable and can be shared among threads. The methods do not allocate and allow the
+ * utility and probability array to be the same. Entries that are not alternatives of the kernel are
+ * left untouched.
+ */
+public final class LogitKernel {
+
+    /**
+     * Upper bound of the relative error of {@link #fastExp(double)}.
+     */
+    public static final double FAST_EXP_MAX_RELATIVE_ERROR = 1e-8;
+
+    private static final double LOG2_E = 1.4426950408889634;
+    private static final double LN2_HI = 6.93147180369123816490e-01;
+    private static final double LN2_LO = 1.90821492927058770002e-10;
+    private static final double FAST_EXP_MIN = -708.;
+    private static final double FAST_EXP_MAX = 709.;
+
+    private final int[][] nests;
+    private final double[] nestingCoefficients;
+    private final int[] alternatives;
+    private final boolean fastExp;
+
+    private LogitKernel(int[][] nests, double[] nestingCoefficients, boolean fastExp) {
+        if (nests.length != nestingCoefficients.length) {
+            throw new IllegalArgumentException("Number of nests and nesting coefficients differ.");
+        }
+        this.nests = new int[nests.length][];
+        this.nestingCoefficients = nestingCoefficients.clone();
+        int numberOfAlternatives = 0;
+        for (int k = 0; k < nests.length; k++) {
+            if (nests[k].length == 0) {
+                throw new IllegalArgumentException("Nest " + k + " is empty.");
+            }
+            if (!(nestingCoefficients[k] > 0 && nestingCoefficients[k] <= 1)) {
+                throw new IllegalArgumentException("Nesting coefficient " + nestingCoefficients[k] + " is not in (0,1].");
+            }
+            this.nests[k] = nests[k].clone();
+            numberOfAlternatives += nests[k].length;
+        }
+        this.alternatives = new int[numberOfAlternatives];
+        int position = 0;
+        for (int[] nest : this.nests) {
+            for (int alternative : nest) {
+                alternatives[position++] = alternative;
+            }
+        }
+        if (Arrays.stream(alternatives).distinct().count() != alternatives.length) {
+            throw new IllegalArgumentException("Alternatives must not be contained in more than one nest.");
+        }
+        this.fastExp = fastExp;
+    }
+
+    /**
+     * Creates a multinomial logit over the given alternatives.
+     */
+    public static LogitKernel multinomial(int[] alternatives, boolean fastExp) {
+        final int[][] nests = new int[alternatives.length][];
+        final double[] nestingCoefficients = new double[alternatives.length];
+        for (int i = 0; i < alternatives.length; i++) {
+            nests[i] = new int[]{alternatives[i]};
+            nestingCoefficients[i] = 1.;
+        }
+        return new LogitKernel(nests, nestingCoefficients, fastExp);
+    }
+
+    /**
+     * Creates a two-level nested logit. Alternatives that are not nested are passed as nests of a single
+     * alternative; their nesting coefficient has no effect.
+     *
+     * @param nests               alternatives of each nest
+     * @param nestingCoefficients nesting coefficient of each nest, in (0,1]
+     * @param fastExp             whether to use {@link #fastExp(double)} instead of {@link Math#exp(double)}
+     */
+    public static LogitKernel nested(int[][] nests, double[] nestingCoefficients, boolean fastExp) {
+        return new LogitKernel(nests, nestingCoefficients, fastExp);
+    }
+
+    /**
+     * Writes the choice probabilities of the alternatives into the given array. If no alternative is
+     * available, all probabilities are zero.
+     */
+    public void calculateProbabilities(double[] utilities, double[] probabilities) {
+        calculateProbabilities(utilities, 0, probabilities, 0);
+    }
+
+    /**
+     * Writes the choice probabilities of a block of choice situations. Both arrays hold one row of the
+     * given length per choice situation, and alternatives are indexed relative to the start of a row.
+     */
+    public void calculateProbabilities(double[] utilities, double[] probabilities, int numberOfRows, int rowLength) {
+        for (int row = 0, offset = 0; row < numberOfRows; row++, offset += rowLength) {
+            calculateProbabilities(utilities, offset, probabilities, offset);
+        }
+    }
+
+    private void calculateProbabilities(double[] utilities, int utilityOffset, double[] probabilities, int probabilityOffset) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < nests.length; k++) {
+            final int[] nest = nests[k];
+            if (nest.length == 1) {
+                final double utility = utilities[utilityOffset + nest[0]];
+                probabilities[probabilityOffset + nest[0]] = utility;
+                max = Math.max(max, utility);
+                continue;
+            }
+            final double nestingCoefficient = nestingCoefficients[k];
+            final double logsum = nestLogsum(utilities, utilityOffset, k);
+            for (int alternative : nest) {
+                final double utility;
+                if (logsum == Double.NEGATIVE_INFINITY) {
+                    utility = Double.NEGATIVE_INFINITY;
+                } else {
+                    utility = utilities[utilityOffset + alternative] / nestingCoefficient + (nestingCoefficient - 1) * logsum;
+                }
+                probabilities[probabilityOffset + alternative] = utility;
+                max = Math.max(max, utility);
+            }
+        }
+
+        if (max == Double.NEGATIVE_INFINITY) {
+            for (int alternative : alternatives) {
+                probabilities[probabilityOffset + alternative] = 0.;
+            }
+            return;
+        }
+        double sum = 0;
+        for (int alternative : alternatives) {
+            final double expUtility = exp(probabilities[probabilityOffset + alternative] - max);
+            probabilities[probabilityOffset + alternative] = expUtility;
+            sum += expUtility;
+        }
+        final double inverseSum = 1. / sum;
+        for (int alternative : alternatives) {
+            probabilities[probabilityOffset + alternative] *= inverseSum;
+        }
+    }
+
+    /**
+     * Returns the logsum (expected maximum utility) of the whole model, {@link Double#NEGATIVE_INFINITY}
+     * if no alternative is available.
+     */
+    public double calculateLogsum(double[] utilities) {
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (int k = 0; k < nests.length; k++) {
+            final double nestUtility;
+            if (nests[k].length == 1) {
+                nestUtility = utilities[nests[k][0]];
+            } else {
+                nestUtility = nestingCoefficients[k] * nestLogsum(utilities, 0, k);
+            }
+            if (nestUtility == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            // running log-sum-exp: rescale the sum whenever the maximum grows
+            if (nestUtility <= max) {
+                sum += exp(nestUtility - max);
+            } else {
+                sum = sum * exp(max - nestUtility) + 1.;
+                max = nestUtility;
+            }
+        }
+        return max == Double.NEGATIVE_INFINITY ? max : max + Math.log(sum);
+    }
+
+    /**
+     * Returns log(sum(exp(u / mu))) over the alternatives of nest k.
+     */
+    private double nestLogsum(double[] utilities, int utilityOffset, int k) {
+        final int[] nest = nests[k];
+        final double inverseNestingCoefficient = 1. / nestingCoefficients[k];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int alternative : nest) {
+            max = Math.max(max, utilities[utilityOffset + alternative] * inverseNestingCoefficient);
+        }
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        double sum = 0;
+        for (int alternative : nest) {
+            sum += exp(utilities[utilityOffset + alternative] * inverseNestingCoefficient - max);
+        }
+        return max + Math.log(sum);
+    }
+
+    private double exp(double x) {
+        return fastExp ? fastExp(x) : Math.exp(x);
+    }
+
+    /**
+     * Returns the exponential of x with a relative error below {@link #FAST_EXP_MAX_RELATIVE_ERROR}. The
+     * argument is reduced to x = k * ln(2) + r with |r| <= ln(2) / 2, and e^r is approximated by a polynomial
+     * of degree 7. Arguments outside of [-708, 709], whose results are subnormal or overflow, are passed
+     * to {@link Math#exp(double)}.
+     */
+    public static double fastExp(double x) {
+        if (x < FAST_EXP_MIN || x > FAST_EXP_MAX) {
+            return Math.exp(x);
+        }
+        final double k = Math.rint(x * LOG2_E);
+        final double r = x - k * LN2_HI - k * LN2_LO;
+        final double p = 1 + r * (1 + r * (1 / 2. + r * (1 / 6. + r * (1 / 24.
+                + r * (1 / 120. + r * (1 / 720. + r * (1 / 5040.)))))));
+        return p * Double.longBitsToDouble(((long) k + 1023) << 52);
+    }
+}
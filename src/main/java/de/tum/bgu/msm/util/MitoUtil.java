@@ -2,6 +2,7 @@ package de.tum.bgu.msm.util;
 
 import de.tum.bgu.msm.resources.Properties;
 import de.tum.bgu.msm.resources.Resources;
+import de.tum.bgu.msm.util.random.RandomStreams;
 import org.apache.log4j.Logger;
 
 import java.io.*;
@@ -30,12 +31,25 @@ public final class MitoUtil {
     public static void initializeRandomNumber() {
         int seed = Resources.instance.getInt(Properties.RANDOM_SEED);
         rand = new Random(seed);
+        RandomStreams.initialize(seed);
     }
 
+    /**
+     * Uses the given random, e.g. the one of SILO, for draws from the shared generator. Nothing is drawn from it to
+     * seed the random streams, which keep the seed they were initialized with.
+     */
     public static void initializeRandomNumber(Random randSetting) {
         rand = randSetting;
     }
 
+    /**
+     * Uses the given random for draws from the shared generator and the given seed for the random streams.
+     */
+    public static void initializeRandomNumber(Random randSetting, long seed) {
+        rand = randSetting;
+        RandomStreams.initialize(seed);
+    }
+
 
     public static float rounder(float value, int digits) {
         // rounds value to digits behind the decimal point
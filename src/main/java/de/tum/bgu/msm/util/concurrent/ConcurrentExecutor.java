@@ -1,5 +1,7 @@
 package de.tum.bgu.msm.util.concurrent;
 
+import de.tum.bgu.msm.util.metrics.RunMetrics;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -7,7 +9,8 @@ import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
- * Utility class to run multithreaded tasks
+ * Utility class to run multithreaded tasks. Tasks are wrapped with {@link RunMetrics#track(Callable)} so
+ * that their allocations are counted for the running stage.
  * @author Nico
  * @param <T> object type of expected results of tasks. I.e. Future < T >
  */
@@ -25,6 +28,14 @@ public class ConcurrentExecutor<T> {
         return new ConcurrentExecutor<>(Executors.newFixedThreadPool(numberOfThreads));
     }
 
+    /**
+     * Creates an executor backed by a work-stealing pool with the given target parallelism. Well suited
+     * for many small tasks of uneven size.
+     */
+    public static <T> ConcurrentExecutor<T> workStealingService(int parallelism) {
+        return new ConcurrentExecutor<>(Executors.newWorkStealingPool(parallelism));
+    }
+
     public static <T> List<T> runTasks(List<Callable<T>> tasks) {
         return new ConcurrentExecutor<T>(Executors.newCachedThreadPool()).submitTasksAndWaitForCompletion(tasks);
     }
@@ -34,12 +45,12 @@ public class ConcurrentExecutor<T> {
     }
 
     public void addTaskToQueue(Callable<T> task) {
-        this.tasks.add(task);
+        this.tasks.add(RunMetrics.track(task));
     }
 
     public List<T> submitTasksAndWaitForCompletion(Collection<Callable<T>> tasks) {
         try {
-            return service.invokeAll(tasks).stream().map(tFuture -> {
+            return service.invokeAll(tasks.stream().map(RunMetrics::track).collect(Collectors.toList())).stream().map(tFuture -> {
                 try {
                     return tFuture.get();
                 } catch (InterruptedException | ExecutionException e) {
@@ -54,11 +65,19 @@ public class ConcurrentExecutor<T> {
     }
 
     public Future<T> submitTask(Callable<T> task) {
-        return service.submit(task);
+        return service.submit(RunMetrics.track(task));
+    }
+
+    /**
+     * Stops the threads of the executor. Needed after {@link #submitTask(Callable)}, whereas the other
+     * methods shut the executor down on completion.
+     */
+    public void shutdown() {
+        service.shutdownNow();
     }
 
     public T submitTaskAndWaitForCompletion(Callable<T> task) {
-        Future<T> result = service.submit(task);
+        Future<T> result = service.submit(RunMetrics.track(task));
         try {
             return result.get();
         } catch (InterruptedException | ExecutionException e) {
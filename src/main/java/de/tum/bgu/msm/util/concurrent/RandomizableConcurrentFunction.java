@@ -1,5 +1,7 @@
 package de.tum.bgu.msm.util.concurrent;
 
+import de.tum.bgu.msm.util.random.StreamRandom;
+
 import java.util.Random;
 import java.util.concurrent.Callable;
 
@@ -10,4 +12,23 @@ public abstract class RandomizableConcurrentFunction<T> implements Callable {
     protected RandomizableConcurrentFunction(long randomSeed) {
         this.random = new Random(randomSeed);
     }
+
+    /**
+     * Creates a function drawing from the deterministic random streams of the given module.
+     * Call {@link #resetRandom(long)} before processing each key (e.g. household id), so that
+     * results do not depend on partitioning or thread count.
+     */
+    protected RandomizableConcurrentFunction(String module) {
+        this.random = new StreamRandom(module);
+    }
+
+    /**
+     * Repositions the random of this function to the stream of the given key.
+     */
+    protected final void resetRandom(long key) {
+        if (!(random instanceof StreamRandom)) {
+            throw new IllegalStateException("Random streams are only available for functions created with a module name.");
+        }
+        ((StreamRandom) random).reset(key);
+    }
 }
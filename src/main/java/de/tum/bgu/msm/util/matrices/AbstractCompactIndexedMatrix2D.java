@@ -0,0 +1,54 @@
+package de.tum.bgu.msm.util.matrices;
+
+/**
+ * Base class for indexed matrices that store their values in a single row-major primitive array of
+ * reduced precision.
+ */
+abstract class AbstractCompactIndexedMatrix2D implements ReadableIndexedMatrix2D {
+
+    final IdLookup rowLookup;
+    final IdLookup columnLookup;
+    final int columns;
+
+    AbstractCompactIndexedMatrix2D(IdLookup rowLookup, IdLookup columnLookup) {
+        this.rowLookup = rowLookup;
+        this.columnLookup = columnLookup;
+        this.columns = columnLookup.size();
+        if ((long) rowLookup.size() * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matrix of " + rowLookup.size() + "x" + columns
+                    + " cells exceeds the maximum array size.");
+        }
+    }
+
+    /**
+     * Returns the position of the cell for the given ids in the row-major element array.
+     */
+    final int offset(int i, int j) {
+        final int row = rowLookup.indexOf(i);
+        final int column = columnLookup.indexOf(j);
+        if (row < 0 || column < 0) {
+            throw new IllegalArgumentException("Unknown id pair (" + i + "," + j + ")");
+        }
+        return row * columns + column;
+    }
+
+    @Override
+    public int rows() {
+        return rowLookup.size();
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int[] getRowLookupArray() {
+        return rowLookup.toArray();
+    }
+
+    @Override
+    public int[] getColumnLookupArray() {
+        return columnLookup.toArray();
+    }
+}
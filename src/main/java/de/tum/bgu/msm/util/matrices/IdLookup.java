@@ -0,0 +1,64 @@
+package de.tum.bgu.msm.util.matrices;
+
+import cern.colt.map.tint.OpenIntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Maps external ids to subsequent internal indices. Compact id ranges are mapped with a flat offset
+ * table, sparse ids fall back to a hash map. Unknown ids are mapped to -1.
+ */
+final class IdLookup {
+
+    private static final int MAX_DENSE_SPAN_FACTOR = 16;
+    private static final int MIN_DENSE_SPAN = 1 << 16;
+
+    private final int[] ids;
+    private final int[] table;
+    private final int base;
+    private final OpenIntIntHashMap map;
+
+    IdLookup(int[] ids) {
+        this.ids = ids.clone();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int id : ids) {
+            min = Math.min(min, id);
+            max = Math.max(max, id);
+        }
+        final long span = ids.length == 0 ? 0 : (long) max - min + 1;
+        if (span <= Math.max(MIN_DENSE_SPAN, (long) ids.length * MAX_DENSE_SPAN_FACTOR)) {
+            table = new int[(int) span];
+            Arrays.fill(table, -1);
+            for (int i = 0; i < ids.length; i++) {
+                table[ids[i] - min] = i;
+            }
+            base = min;
+            map = null;
+        } else {
+            table = null;
+            base = 0;
+            // indices are stored shifted by one as the map returns 0 for unknown keys
+            map = new OpenIntIntHashMap(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                map.put(ids[i], i + 1);
+            }
+        }
+    }
+
+    int indexOf(int id) {
+        if (table != null) {
+            final int offset = id - base;
+            return offset >= 0 && offset < table.length ? table[offset] : -1;
+        }
+        return map.get(id) - 1;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    int[] toArray() {
+        return ids.clone();
+    }
+}
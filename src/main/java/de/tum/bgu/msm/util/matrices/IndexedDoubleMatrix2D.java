@@ -9,6 +9,7 @@ import cern.colt.matrix.tdouble.impl.DenseDoubleMatrix2D;
 import de.tum.bgu.msm.data.Id;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -16,7 +17,14 @@ import java.util.List;
 /**
  * @author nkuehnel
  */
-public class IndexedDoubleMatrix2D {
+public class IndexedDoubleMatrix2D implements IndexedMatrix2D {
+
+    /**
+     * Maximum ratio between the spanned id range and the number of ids for which the dense
+     * offset tables are still built. Sparse id sets fall back to the hash based lookup.
+     */
+    private static final int MAX_DENSE_SPAN_FACTOR = 16;
+    private static final int MIN_DENSE_SPAN = 1 << 16;
 
     private final AbstractIntIntMap externalRowId2InternalIndex;
     private final AbstractIntIntMap externalColId2InternalIndex;
@@ -26,6 +34,17 @@ public class IndexedDoubleMatrix2D {
 
     private final DoubleMatrix2D delegate;
 
+    /**
+     * Dense lookup mode. If the delegate is a non-view dense matrix and the ids are compact,
+     * external ids are remapped once to flat offset tables (row offsets are pre-multiplied by the
+     * number of columns) pointing directly into the row-major element array of the delegate.
+     */
+    private double[] elements;
+    private int[] rowOffsets;
+    private int[] colOffsets;
+    private int rowIdBase;
+    private int colIdBase;
+
     /**
      * Creates a new id-indexed matrix for double values. Each id will be associated with a subsequent
      * array index used for the matrix. This allows objects to start from high ids (e.g. zone ids in the
@@ -58,6 +77,7 @@ public class IndexedDoubleMatrix2D {
             internalColIndex2ExternalId.put(counter, col.getId());
             counter++;
         }
+        initDenseLookup();
     }
 
     /**
@@ -68,18 +88,29 @@ public class IndexedDoubleMatrix2D {
      * total number of different ids is still limited.
      */
     public IndexedDoubleMatrix2D(int[] lookup) {
-        delegate = new DenseDoubleMatrix2D(lookup.length, lookup.length);
-        externalRowId2InternalIndex = new OpenIntIntHashMap(lookup.length);
-        externalColId2InternalIndex = new OpenIntIntHashMap(lookup.length);
-        internalRowIndex2ExternalId = new OpenIntIntHashMap(lookup.length);
-        internalColIndex2ExternalId = new OpenIntIntHashMap(lookup.length);
-
-        for (int i = 0; i < lookup.length; i++) {
-            externalRowId2InternalIndex.put(lookup[i], i);
-            externalColId2InternalIndex.put(lookup[i], i);
-            internalRowIndex2ExternalId.put(i, lookup[i]);
-            internalColIndex2ExternalId.put(i, lookup[i]);
+        this(lookup, lookup);
+    }
+
+    /**
+     * Creates a new indexed matrix for double values. The row and column index is given by the lookup arrays
+     * in which each subsequent entry holds the actual id.
+     */
+    public IndexedDoubleMatrix2D(int[] rowLookup, int[] columnLookup) {
+        delegate = new DenseDoubleMatrix2D(rowLookup.length, columnLookup.length);
+        externalRowId2InternalIndex = new OpenIntIntHashMap(rowLookup.length);
+        internalRowIndex2ExternalId = new OpenIntIntHashMap(rowLookup.length);
+        externalColId2InternalIndex = new OpenIntIntHashMap(columnLookup.length);
+        internalColIndex2ExternalId = new OpenIntIntHashMap(columnLookup.length);
+
+        for (int i = 0; i < rowLookup.length; i++) {
+            externalRowId2InternalIndex.put(rowLookup[i], i);
+            internalRowIndex2ExternalId.put(i, rowLookup[i]);
+        }
+        for (int j = 0; j < columnLookup.length; j++) {
+            externalColId2InternalIndex.put(columnLookup[j], j);
+            internalColIndex2ExternalId.put(j, columnLookup[j]);
         }
+        initDenseLookup();
     }
 
     private IndexedDoubleMatrix2D(DoubleMatrix2D delegate,
@@ -92,6 +123,78 @@ public class IndexedDoubleMatrix2D {
         this.internalRowIndex2ExternalId = internalRowIndex2ExternalId;
         this.externalColId2InternalIndex = externalColId2InternalIndex;
         this.internalColIndex2ExternalId = internalColIndex2ExternalId;
+        initDenseLookup();
+    }
+
+    /**
+     * Builds the dense offset tables if the delegate exposes a plain row-major array and both
+     * id ranges are compact enough. Otherwise the matrix stays in hashed lookup mode.
+     */
+    private void initDenseLookup() {
+        if (!(delegate instanceof DenseDoubleMatrix2D) || delegate.isView()) {
+            return;
+        }
+        final int rows = delegate.rows();
+        final int columns = delegate.columns();
+        if (rows == 0 || columns == 0) {
+            return;
+        }
+        final int[] rowIds = getRowLookupArray();
+        final int[] colIds = getColumnLookupArray();
+        final int minRowId = min(rowIds);
+        final int minColId = min(colIds);
+        final long rowSpan = (long) max(rowIds) - minRowId + 1;
+        final long colSpan = (long) max(colIds) - minColId + 1;
+        if (!isCompact(rowSpan, rows) || !isCompact(colSpan, columns)) {
+            return;
+        }
+
+        // unknown ids map to a negative offset so that any access fails instead of silently
+        // hitting internal index 0 as the hash lookup would
+        final int invalid = -(rows * columns) - 1;
+        final int[] rowTable = new int[(int) rowSpan];
+        final int[] colTable = new int[(int) colSpan];
+        Arrays.fill(rowTable, invalid);
+        Arrays.fill(colTable, invalid);
+        for (int i = 0; i < rowIds.length; i++) {
+            rowTable[rowIds[i] - minRowId] = i * columns;
+        }
+        for (int j = 0; j < colIds.length; j++) {
+            colTable[colIds[j] - minColId] = j;
+        }
+
+        this.elements = ((DenseDoubleMatrix2D) delegate).elements();
+        this.rowIdBase = minRowId;
+        this.colIdBase = minColId;
+        this.rowOffsets = rowTable;
+        this.colOffsets = colTable;
+    }
+
+    private static boolean isCompact(long span, int size) {
+        return span <= Math.max(MIN_DENSE_SPAN, (long) size * MAX_DENSE_SPAN_FACTOR);
+    }
+
+    private static int min(int[] values) {
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static int max(int[] values) {
+        int max = Integer.MIN_VALUE;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Returns whether this matrix uses the array based dense lookup mode instead of the hashed lookup.
+     */
+    public boolean isDenseIndexed() {
+        return elements != null;
     }
 
     /**
@@ -102,6 +205,10 @@ public class IndexedDoubleMatrix2D {
      * @param val the value associated in the underlying indexed matrix
      */
     public void setIndexed(int i, int j, double val) {
+        if (elements != null) {
+            elements[rowOffsets[i - rowIdBase] + colOffsets[j - colIdBase]] = val;
+            return;
+        }
         delegate.setQuick(externalRowId2InternalIndex.get(i), externalColId2InternalIndex.get(j), val);
     }
 
@@ -112,10 +219,30 @@ public class IndexedDoubleMatrix2D {
      * @param j id of column entry
      */
     public double getIndexed(int i, int j) {
+        if (elements != null) {
+            return elements[rowOffsets[i - rowIdBase] + colOffsets[j - colIdBase]];
+        }
         return delegate.getQuick(externalRowId2InternalIndex.get(i), externalColId2InternalIndex.get(j));
     }
 
 
+    /**
+     * Sets all values of the row with the given id at once.
+     *
+     * @param i      id of row entry
+     * @param values the values of the row, ordered by <b>internal</b> column index
+     */
+    public void setRowIndexed(int i, double[] values) {
+        if (values.length != columns()) {
+            throw new IllegalArgumentException("Expected " + columns() + " values but got " + values.length);
+        }
+        if (elements != null) {
+            System.arraycopy(values, 0, elements, rowOffsets[i - rowIdBase], values.length);
+            return;
+        }
+        delegate.viewRow(externalRowId2InternalIndex.get(i)).assign(values);
+    }
+
     /**
      * Constructs and returns a new <i>slice view</i> representing the columns
      * of the given row. The returned view is backed by this matrix, so changes
@@ -0,0 +1,88 @@
+package de.tum.bgu.msm.util.matrices;
+
+import java.util.Arrays;
+
+/**
+ * Id-indexed matrix that stores non-negative values as unsigned 16 bit fixed-point numbers with a
+ * given resolution, using a quarter of the memory of an {@link IndexedDoubleMatrix2D}. Meant for
+ * skims where a resolution of a few seconds is sufficient. The largest representable value is
+ * 65534 times the resolution and larger finite values are rejected. {@link Double#MAX_VALUE} and
+ * infinity, as used for unconnected zone pairs, are stored as a marker and read back as
+ * {@link Double#MAX_VALUE}.
+ */
+public final class IndexedFixedPointMatrix2D extends AbstractCompactIndexedMatrix2D implements IndexedMatrix2D {
+
+    static final char NO_VALUE = Character.MAX_VALUE;
+
+    private final char[] elements;
+    private final double resolution;
+
+    /**
+     * Creates a new matrix for the given row and column ids. The position of an id in the array
+     * defines its internal index.
+     *
+     * @param resolution the smallest difference between two stored values
+     */
+    public IndexedFixedPointMatrix2D(int[] rowLookup, int[] columnLookup, double resolution) {
+        this(new IdLookup(rowLookup), new IdLookup(columnLookup), resolution,
+                new char[rowLookup.length * columnLookup.length]);
+    }
+
+    /**
+     * Creates a new squared matrix using the same lookup for rows and columns.
+     *
+     * @param resolution the smallest difference between two stored values
+     */
+    public IndexedFixedPointMatrix2D(int[] lookup, double resolution) {
+        this(lookup, lookup, resolution);
+    }
+
+    private IndexedFixedPointMatrix2D(IdLookup rowLookup, IdLookup columnLookup, double resolution, char[] elements) {
+        super(rowLookup, columnLookup);
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution has to be positive but is " + resolution);
+        }
+        this.resolution = resolution;
+        this.elements = elements;
+    }
+
+    @Override
+    public double getIndexed(int i, int j) {
+        final char value = elements[offset(i, j)];
+        return value == NO_VALUE ? Double.MAX_VALUE : value * resolution;
+    }
+
+    @Override
+    public void setIndexed(int i, int j, double val) {
+        elements[offset(i, j)] = encode(val, resolution);
+    }
+
+    @Override
+    public IndexedFixedPointMatrix2D assign(double val) {
+        Arrays.fill(elements, encode(val, resolution));
+        return this;
+    }
+
+    @Override
+    public IndexedFixedPointMatrix2D copy() {
+        return new IndexedFixedPointMatrix2D(rowLookup, columnLookup, resolution, elements.clone());
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    static char encode(double val, double resolution) {
+        if (val < 0 || Double.isNaN(val)) {
+            throw new IllegalArgumentException("Fixed-point matrix only supports non-negative values but got " + val);
+        }
+        if (val == Double.MAX_VALUE || Double.isInfinite(val)) {
+            return NO_VALUE;
+        }
+        if (val > (NO_VALUE - 1) * resolution) {
+            throw new IllegalArgumentException("Value " + val + " exceeds the largest value " + (NO_VALUE - 1) * resolution
+                    + " of a fixed-point matrix with resolution " + resolution + ". Use a coarser resolution or float precision.");
+        }
+        return (char) Math.round(val / resolution);
+    }
+}
@@ -0,0 +1,60 @@
+package de.tum.bgu.msm.util.matrices;
+
+import java.util.Arrays;
+
+/**
+ * Id-indexed matrix that stores its values with single precision, using half the memory of an
+ * {@link IndexedDoubleMatrix2D}. Values beyond the float range (e.g. {@link Double#MAX_VALUE} used
+ * for unconnected zone pairs) are stored as infinity and read back as {@link Double#MAX_VALUE}.
+ */
+public final class IndexedFloatMatrix2D extends AbstractCompactIndexedMatrix2D implements IndexedMatrix2D {
+
+    private final float[] elements;
+
+    /**
+     * Creates a new matrix for the given row and column ids. The position of an id in the array
+     * defines its internal index.
+     */
+    public IndexedFloatMatrix2D(int[] rowLookup, int[] columnLookup) {
+        this(new IdLookup(rowLookup), new IdLookup(columnLookup));
+    }
+
+    /**
+     * Creates a new squared matrix using the same lookup for rows and columns.
+     */
+    public IndexedFloatMatrix2D(int[] lookup) {
+        this(lookup, lookup);
+    }
+
+    private IndexedFloatMatrix2D(IdLookup rowLookup, IdLookup columnLookup) {
+        super(rowLookup, columnLookup);
+        this.elements = new float[rowLookup.size() * columnLookup.size()];
+    }
+
+    private IndexedFloatMatrix2D(IndexedFloatMatrix2D other) {
+        super(other.rowLookup, other.columnLookup);
+        this.elements = other.elements.clone();
+    }
+
+    @Override
+    public double getIndexed(int i, int j) {
+        final float value = elements[offset(i, j)];
+        return value == Float.POSITIVE_INFINITY ? Double.MAX_VALUE : value;
+    }
+
+    @Override
+    public void setIndexed(int i, int j, double val) {
+        elements[offset(i, j)] = (float) val;
+    }
+
+    @Override
+    public IndexedFloatMatrix2D assign(double val) {
+        Arrays.fill(elements, (float) val);
+        return this;
+    }
+
+    @Override
+    public IndexedFloatMatrix2D copy() {
+        return new IndexedFloatMatrix2D(this);
+    }
+}
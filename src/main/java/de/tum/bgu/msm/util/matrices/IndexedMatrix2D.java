@@ -0,0 +1,23 @@
+package de.tum.bgu.msm.util.matrices;
+
+/**
+ * Common interface of modifiable matrices that are indexed by external ids (e.g. zone ids) rather than by
+ * subsequent internal indices. Implementations differ in the precision of the stored values.
+ */
+public interface IndexedMatrix2D extends ReadableIndexedMatrix2D {
+
+    /**
+     * Sets the value for the given indexed ids. Depending on the implementation the value may be
+     * stored with reduced precision.
+     *
+     * @param i   id of row entry
+     * @param j   id of column entry
+     * @param val the value associated in the underlying indexed matrix
+     */
+    void setIndexed(int i, int j, double val);
+
+    /**
+     * Sets all cells to the state specified by value.
+     */
+    IndexedMatrix2D assign(double val);
+}
@@ -0,0 +1,227 @@
+package de.tum.bgu.msm.util.matrices;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Id-indexed matrix backed by a memory mapped binary matrix file. Opening a file does not copy any
+ * data; pages are loaded lazily by the operating system and are shared between all processes that
+ * map the same file. Mapped matrices are read only and therefore only implement
+ * {@link ReadableIndexedMatrix2D}; {@link #copy()} returns a modifiable in-memory matrix of the same precision.
+ * <p>
+ * File layout (little endian): a header with magic number, version, value type, number of rows
+ * and columns and the fixed-point resolution, followed by the row ids, the column ids and the
+ * row-major cell values, stored as double, float or unsigned 16 bit fixed-point numbers.
+ */
+public final class MappedIndexedMatrix2D extends AbstractCompactIndexedMatrix2D {
+
+    private static final int MAGIC = 0x314B534D; // "MSK1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final int TYPE_DOUBLE = 0;
+    private static final int TYPE_FLOAT = 1;
+    private static final int TYPE_FIXED_POINT = 2;
+
+    private final Path file;
+    private final int type;
+    private final double resolution;
+
+    private final DoubleBuffer doubles;
+    private final FloatBuffer floats;
+    private final CharBuffer chars;
+
+    private MappedIndexedMatrix2D(Path file, IdLookup rowLookup, IdLookup columnLookup, int type,
+                                  double resolution, ByteBuffer data) {
+        super(rowLookup, columnLookup);
+        this.file = file;
+        this.type = type;
+        this.resolution = resolution;
+        this.doubles = type == TYPE_DOUBLE ? data.asDoubleBuffer() : null;
+        this.floats = type == TYPE_FLOAT ? data.asFloatBuffer() : null;
+        this.chars = type == TYPE_FIXED_POINT ? data.asCharBuffer() : null;
+    }
+
+    /**
+     * Maps the given matrix file.
+     *
+     * @throws IOException if the file cannot be read or is not a valid matrix file
+     */
+    public static MappedIndexedMatrix2D open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Matrix file " + file + " exceeds the maximum size of a single mapping.");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (size < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a matrix file of version " + VERSION);
+            }
+            final int type = buffer.getInt(8);
+            final int rows = buffer.getInt(12);
+            final int columns = buffer.getInt(16);
+            final double resolution = buffer.getDouble(24);
+
+            final int[] rowIds = new int[rows];
+            final int[] columnIds = new int[columns];
+            buffer.position(HEADER_BYTES);
+            buffer.asIntBuffer().get(rowIds);
+            buffer.position(HEADER_BYTES + 4 * rows);
+            buffer.asIntBuffer().get(columnIds);
+
+            final int dataOffset = dataOffset(rows, columns);
+            if (size != dataOffset + (long) rows * columns * bytesPerValue(type)) {
+                throw new IOException("Matrix file " + file + " is truncated or corrupt.");
+            }
+            buffer.position(dataOffset);
+            final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedIndexedMatrix2D(file, new IdLookup(rowIds), new IdLookup(columnIds), type, resolution, data);
+        }
+    }
+
+    /**
+     * Writes the given matrix to a matrix file that can be opened with {@link #open(Path)}. Float and
+     * fixed-point matrices keep their precision, all others are stored as double. The file is written
+     * to a temporary file first and moved into place, so concurrent readers never see a partial file.
+     */
+    public static void write(ReadableIndexedMatrix2D matrix, Path file) throws IOException {
+        final int type;
+        final double resolution;
+        if (matrix instanceof IndexedFixedPointMatrix2D) {
+            type = TYPE_FIXED_POINT;
+            resolution = ((IndexedFixedPointMatrix2D) matrix).getResolution();
+        } else if (matrix instanceof IndexedFloatMatrix2D) {
+            type = TYPE_FLOAT;
+            resolution = 0;
+        } else if (matrix instanceof MappedIndexedMatrix2D) {
+            type = ((MappedIndexedMatrix2D) matrix).type;
+            resolution = ((MappedIndexedMatrix2D) matrix).resolution;
+        } else {
+            type = TYPE_DOUBLE;
+            resolution = 0;
+        }
+        final int[] rowIds = matrix.getRowLookupArray();
+        final int[] columnIds = matrix.getColumnLookupArray();
+        final int dataOffset = dataOffset(rowIds.length, columnIds.length);
+        final long size = dataOffset + (long) rowIds.length * columnIds.length * bytesPerValue(type);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Matrix of " + rowIds.length + "x" + columnIds.length
+                    + " cells exceeds the maximum size of a single mapping.");
+        }
+
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(type)
+                        .putInt(rowIds.length).putInt(columnIds.length).putInt(0)
+                        .putDouble(resolution);
+                for (int rowId : rowIds) {
+                    buffer.putInt(rowId);
+                }
+                for (int columnId : columnIds) {
+                    buffer.putInt(columnId);
+                }
+                buffer.position(dataOffset);
+                for (int rowId : rowIds) {
+                    for (int columnId : columnIds) {
+                        final double value = matrix.getIndexed(rowId, columnId);
+                        switch (type) {
+                            case TYPE_FIXED_POINT:
+                                buffer.putChar(IndexedFixedPointMatrix2D.encode(value, resolution));
+                                break;
+                            case TYPE_FLOAT:
+                                buffer.putFloat((float) value);
+                                break;
+                            default:
+                                buffer.putDouble(value);
+                        }
+                    }
+                }
+                buffer.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static int dataOffset(int rows, int columns) {
+        final long idBytes = HEADER_BYTES + 4L * (rows + columns);
+        // align the values to 8 bytes
+        return (int) ((idBytes + 7) & ~7L);
+    }
+
+    private static int bytesPerValue(int type) {
+        switch (type) {
+            case TYPE_DOUBLE:
+                return Double.BYTES;
+            case TYPE_FLOAT:
+                return Float.BYTES;
+            case TYPE_FIXED_POINT:
+                return Character.BYTES;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    @Override
+    public double getIndexed(int i, int j) {
+        final int offset = offset(i, j);
+        switch (type) {
+            case TYPE_FLOAT:
+                final float value = floats.get(offset);
+                return value == Float.POSITIVE_INFINITY ? Double.MAX_VALUE : value;
+            case TYPE_FIXED_POINT:
+                final char fixed = chars.get(offset);
+                return fixed == IndexedFixedPointMatrix2D.NO_VALUE ? Double.MAX_VALUE : fixed * resolution;
+            default:
+                return doubles.get(offset);
+        }
+    }
+
+    /**
+     * Copies the values into a modifiable in-memory matrix of the same precision.
+     */
+    @Override
+    public IndexedMatrix2D copy() {
+        final int[] rowIds = getRowLookupArray();
+        final int[] columnIds = getColumnLookupArray();
+        final IndexedMatrix2D copy;
+        switch (type) {
+            case TYPE_FLOAT:
+                copy = new IndexedFloatMatrix2D(rowIds, columnIds);
+                break;
+            case TYPE_FIXED_POINT:
+                copy = new IndexedFixedPointMatrix2D(rowIds, columnIds, resolution);
+                break;
+            default:
+                copy = new IndexedDoubleMatrix2D(rowIds, columnIds);
+        }
+        for (int rowId : rowIds) {
+            for (int columnId : columnIds) {
+                copy.setIndexed(rowId, columnId, getIndexed(rowId, columnId));
+            }
+        }
+        return copy;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
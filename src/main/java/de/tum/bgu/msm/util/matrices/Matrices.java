@@ -4,6 +4,7 @@ import omx.OmxLookup;
 import omx.OmxMatrix;
 import omx.hdf5.OmxHdf5Datatype;
 
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
 public class Matrices {
@@ -11,6 +12,16 @@ public class Matrices {
     private Matrices() {}
 
     public static IndexedDoubleMatrix2D convertOmxToDoubleMatrix2D(OmxMatrix omxMatrix, OmxLookup lookup, double factor) {
+        return convertOmx(omxMatrix, lookup, factor, IndexedDoubleMatrix2D::new);
+    }
+
+    /**
+     * Converts an omx matrix into an indexed matrix created by the given factory. The factory receives the
+     * id lookup array which is used for rows and columns. Allows to load float data into a float matrix
+     * directly without widening it to double first.
+     */
+    public static <M extends IndexedMatrix2D> M convertOmx(OmxMatrix omxMatrix, OmxLookup lookup, double factor,
+                                                          Function<int[], M> factory) {
         final OmxHdf5Datatype.OmxJavaType type = omxMatrix.getOmxJavaType();
         if(!type.equals(OmxHdf5Datatype.OmxJavaType.DOUBLE) && !type.equals(OmxHdf5Datatype.OmxJavaType.FLOAT)) {
             throw new IllegalArgumentException("Provided omx matrix is not a double or float matrix but is of type: " + type.name());
@@ -23,7 +34,7 @@ public class Matrices {
         } else {
             array = (int[]) lookup.getLookup();
         }
-        final IndexedDoubleMatrix2D matrix = new IndexedDoubleMatrix2D(array);
+        final M matrix = factory.apply(array);
 
         if(type.equals(OmxHdf5Datatype.OmxJavaType.DOUBLE)) {
             double[][] dArray = (double[][]) omxMatrix.getData();
@@ -46,4 +57,22 @@ public class Matrices {
         }
         return matrix;
     }
+
+    /**
+     * Returns the given matrix if it already is a double matrix, or a widened copy otherwise.
+     */
+    public static IndexedDoubleMatrix2D toDoubleMatrix2D(ReadableIndexedMatrix2D matrix) {
+        if (matrix instanceof IndexedDoubleMatrix2D) {
+            return (IndexedDoubleMatrix2D) matrix;
+        }
+        final int[] rowIds = matrix.getRowLookupArray();
+        final int[] colIds = matrix.getColumnLookupArray();
+        final IndexedDoubleMatrix2D copy = new IndexedDoubleMatrix2D(rowIds, colIds);
+        for (int rowId : rowIds) {
+            for (int colId : colIds) {
+                copy.setIndexed(rowId, colId, matrix.getIndexed(rowId, colId));
+            }
+        }
+        return copy;
+    }
 }
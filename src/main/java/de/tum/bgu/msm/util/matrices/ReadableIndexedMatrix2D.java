@@ -0,0 +1,42 @@
+package de.tum.bgu.msm.util.matrices;
+
+/**
+ * Read access to a matrix that is indexed by external ids (e.g. zone ids). Implemented by all indexed
+ * matrices; matrices that cannot be modified, such as memory mapped skims, only implement this interface
+ * and have to be copied into an {@link IndexedMatrix2D} to be changed.
+ */
+public interface ReadableIndexedMatrix2D {
+
+    /**
+     * Gets the value for the given indexed ids
+     *
+     * @param i id of row entry
+     * @param j id of column entry
+     */
+    double getIndexed(int i, int j);
+
+    /**
+     * Returns the number of rows.
+     */
+    int rows();
+
+    /**
+     * Returns the number of columns.
+     */
+    int columns();
+
+    /**
+     * Returns a row-based lookup array that contains the external ids at the position of their internal index.
+     */
+    int[] getRowLookupArray();
+
+    /**
+     * Returns a column-based lookup array that contains the external ids at the position of their internal index.
+     */
+    int[] getColumnLookupArray();
+
+    /**
+     * Constructs and returns an independent and modifiable deep copy of the receiver.
+     */
+    IndexedMatrix2D copy();
+}
@@ -0,0 +1,255 @@
+package de.tum.bgu.msm.util.metrics;
+
+import org.apache.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Records wall time, CPU time, allocated bytes, peak heap and processed items of the stages of a model run.
+ * Stages are opened and closed on the thread that orchestrates the run and may be nested:
+ * <pre>
+ * try (RunMetrics.Stage stage = RunMetrics.start("Trip distribution")) {
+ *     distribution.run();
+ *     stage.addItems(dataSet.getTrips().size());
+ * }
+ * </pre>
+ * Allocations are counted for the thread that opened the stage and for all tasks run through a
+ * {@link de.tum.bgu.msm.util.concurrent.ConcurrentExecutor}, which wraps them with {@link #track(Callable)}.
+ * CPU time is taken from the whole process. Every completed stage is also emitted as a flight recorder
+ * event, and the metrics can be published through JMX with {@link #registerMBean()}.
+ */
+public final class RunMetrics {
+
+    public static final String OBJECT_NAME = "de.tum.bgu.msm:type=RunMetrics";
+
+    private static final Logger logger = Logger.getLogger(RunMetrics.class);
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final com.sun.management.OperatingSystemMXBean OS = osBean();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+
+    private static final LongAdder trackedAllocatedBytes = new LongAdder();
+    private static final Deque<Stage> openStages = new ArrayDeque<>();
+    private static final List<StageMetrics> completedStages = new ArrayList<>();
+
+    private RunMetrics() {
+    }
+
+    /**
+     * Opens a new stage nested in the currently open stage, if any.
+     */
+    public static synchronized Stage start(String name) {
+        final Stage parent = openStages.peek();
+        if (parent != null) {
+            parent.observePeakHeap(currentPeakHeap());
+        }
+        final long heap = resetPeakHeap();
+        final Stage stage = new Stage(parent == null ? name : parent.name + "/" + name, openStages.size(), heap);
+        openStages.push(stage);
+        return stage;
+    }
+
+    /**
+     * Wraps a task so that the bytes it allocates are counted for the open stages.
+     */
+    public static <T> Callable<T> track(Callable<T> task) {
+        if (THREADS == null) {
+            return task;
+        }
+        return () -> {
+            final long threadId = Thread.currentThread().getId();
+            final long before = THREADS.getThreadAllocatedBytes(threadId);
+            try {
+                return task.call();
+            } finally {
+                trackedAllocatedBytes.add(THREADS.getThreadAllocatedBytes(threadId) - before);
+            }
+        };
+    }
+
+    /**
+     * Returns the stages completed since the last {@link #reset()}, in the order they were closed.
+     */
+    public static synchronized List<StageMetrics> getCompletedStages() {
+        return new ArrayList<>(completedStages);
+    }
+
+    /**
+     * Discards all completed stages. Must not be called while a stage is open.
+     */
+    public static synchronized void reset() {
+        if (!openStages.isEmpty()) {
+            throw new IllegalStateException("Cannot reset metrics while stage " + openStages.peek().name + " is open.");
+        }
+        completedStages.clear();
+    }
+
+    /**
+     * Registers the {@link RunMetricsMXBean} with the platform MBean server, unless already registered.
+     */
+    public static void registerMBean() {
+        try {
+            final ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register run metrics MBean.", e);
+        }
+    }
+
+    private static synchronized void close(Stage stage) {
+        if (openStages.peek() != stage) {
+            throw new IllegalStateException("Stage " + stage.name + " is not the innermost open stage.");
+        }
+        openStages.pop();
+        stage.observePeakHeap(currentPeakHeap());
+        final StageMetrics metrics = new StageMetrics(stage.name, stage.depth,
+                System.nanoTime() - stage.startNanos,
+                stage.startCpuNanos < 0 ? -1 : cpuNanos() - stage.startCpuNanos,
+                stage.startAllocatedBytes < 0 ? -1 : allocatedBytes() - stage.startAllocatedBytes,
+                stage.peakHeapBytes, stage.items.sum());
+        completedStages.add(metrics);
+        final Stage parent = openStages.peek();
+        if (parent != null) {
+            parent.observePeakHeap(stage.peakHeapBytes);
+        }
+
+        stage.event.stage = metrics.getName();
+        stage.event.items = metrics.getItems();
+        stage.event.cpuTime = metrics.getCpuTimeNanos();
+        stage.event.allocated = metrics.getAllocatedBytes();
+        stage.event.peakHeap = metrics.getPeakHeapBytes();
+        stage.event.commit();
+
+        logger.info(String.format("Completed %s in %.1f s (CPU %.1f s, %d MB allocated, %d MB peak heap%s)",
+                metrics.getName(), metrics.getWallTimeNanos() / 1e9, metrics.getCpuTimeNanos() / 1e9,
+                metrics.getAllocatedBytes() >> 20, metrics.getPeakHeapBytes() >> 20,
+                metrics.getItems() > 0 ? String.format(", %.0f items/s", metrics.getItemsPerSecond()) : ""));
+    }
+
+    private static long cpuNanos() {
+        return OS == null ? -1 : OS.getProcessCpuTime();
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) + trackedAllocatedBytes.sum();
+    }
+
+    /**
+     * Returns the current heap usage and restarts tracking the peak from there.
+     */
+    private static long resetPeakHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            pool.resetPeakUsage();
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static long currentPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        }
+        logger.warn("Allocated memory per thread is not supported by this JVM. Allocations are not recorded.");
+        return null;
+    }
+
+    private static com.sun.management.OperatingSystemMXBean osBean() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            return (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        }
+        logger.warn("Process CPU time is not supported by this JVM. CPU times are not recorded.");
+        return null;
+    }
+
+    /**
+     * An open stage. Closing it records its metrics; {@link #addItems(long)} may be called from any thread.
+     */
+    public static final class Stage implements AutoCloseable {
+
+        private final String name;
+        private final int depth;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocatedBytes;
+        private final LongAdder items = new LongAdder();
+        private final StageEvent event = new StageEvent();
+        private long peakHeapBytes;
+        private boolean closed;
+
+        private Stage(String name, int depth, long heapBytes) {
+            this.name = name;
+            this.depth = depth;
+            this.peakHeapBytes = heapBytes;
+            this.startCpuNanos = cpuNanos();
+            this.startAllocatedBytes = allocatedBytes();
+            this.startNanos = System.nanoTime();
+            event.begin();
+        }
+
+        public void addItems(long count) {
+            items.add(count);
+        }
+
+        private void observePeakHeap(long heapBytes) {
+            peakHeapBytes = Math.max(peakHeapBytes, heapBytes);
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                RunMetrics.close(this);
+                closed = true;
+            }
+        }
+    }
+
+    private static final class MetricsBean implements RunMetricsMXBean {
+
+        @Override
+        public String getCurrentStage() {
+            synchronized (RunMetrics.class) {
+                return openStages.isEmpty() ? "" : openStages.peek().name;
+            }
+        }
+
+        @Override
+        public long getCurrentStageItems() {
+            synchronized (RunMetrics.class) {
+                return openStages.isEmpty() ? 0 : openStages.peek().items.sum();
+            }
+        }
+
+        @Override
+        public List<StageMetrics> getCompletedStages() {
+            return RunMetrics.getCompletedStages();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.tum.bgu.msm.util.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link RunMetrics}, registered as {@value RunMetrics#OBJECT_NAME}.
+ */
+public interface RunMetricsMXBean {
+
+    /**
+     * Returns the name of the innermost running stage, or an empty string if no stage is running.
+     */
+    String getCurrentStage();
+
+    /**
+     * Returns the number of items the innermost running stage has reported so far.
+     */
+    long getCurrentStageItems();
+
+    List<StageMetrics> getCompletedStages();
+}
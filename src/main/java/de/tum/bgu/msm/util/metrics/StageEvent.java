@@ -0,0 +1,32 @@
+package de.tum.bgu.msm.util.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of a completed stage. It is only recorded if a recording with this event enabled
+ * is running, e.g. when started with -XX:StartFlightRecording.
+ */
+@Name("de.tum.bgu.msm.Stage")
+@Label("MITO Stage")
+@Category("MITO")
+@StackTrace(false)
+class StageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Items")
+    long items;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Peak Heap")
+    @DataAmount
+    long peakHeap;
+}
@@ -0,0 +1,79 @@
+package de.tum.bgu.msm.util.metrics;
+
+/**
+ * Resources used by a completed stage of a model run, as recorded by {@link RunMetrics}.
+ */
+public final class StageMetrics {
+
+    private final String name;
+    private final int depth;
+    private final long wallTimeNanos;
+    private final long cpuTimeNanos;
+    private final long allocatedBytes;
+    private final long peakHeapBytes;
+    private final long items;
+
+    StageMetrics(String name, int depth, long wallTimeNanos, long cpuTimeNanos, long allocatedBytes,
+                 long peakHeapBytes, long items) {
+        this.name = name;
+        this.depth = depth;
+        this.wallTimeNanos = wallTimeNanos;
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.peakHeapBytes = peakHeapBytes;
+        this.items = items;
+    }
+
+    /**
+     * Returns the name of the stage, prefixed by the names of its enclosing stages and separated by '/'.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of enclosing stages.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Returns the CPU time of the whole process during the stage, including garbage collection and
+     * compilation, or -1 if not supported by the JVM.
+     */
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the thread that ran the stage and by the tasks it submitted to a
+     * {@link de.tum.bgu.msm.util.concurrent.ConcurrentExecutor}, or -1 if not supported by the JVM.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the peak of the used heap during the stage. Peaks are tracked per heap memory pool and summed,
+     * which gives an upper bound if the pools peak at different times.
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * Returns the number of items (e.g. trips or households) the stage reported as processed.
+     */
+    public long getItems() {
+        return items;
+    }
+
+    public double getItemsPerSecond() {
+        return wallTimeNanos > 0 ? items * 1e9 / wallTimeNanos : 0;
+    }
+}
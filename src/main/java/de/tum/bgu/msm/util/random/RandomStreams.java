@@ -0,0 +1,64 @@
+package de.tum.bgu.msm.util.random;
+
+import java.util.Random;
+
+/**
+ * Deterministic random streams keyed by (seed, module, key). Every stream is derived from the global
+ * seed by hashing, so draws do not depend on any shared state, on the order in which keys are
+ * processed or on the number of threads. Typical keys are household, trip or zone ids.
+ * <p>
+ * Streams are not thread safe. Tasks should hold their own {@link StreamRandom} and
+ * {@link StreamRandom#reset(long) reset} it for every key they process.
+ */
+public final class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static volatile long baseSeed = 0L;
+
+    private RandomStreams() {
+    }
+
+    public static void initialize(long seed) {
+        baseSeed = seed;
+    }
+
+    /**
+     * Returns a stable identifier for the given module name that may be used for repeated calls of
+     * {@link #seedFor(long, long)}.
+     */
+    public static long moduleKey(String module) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < module.length(); i++) {
+            h = 31 * h + module.charAt(i);
+        }
+        return mix64(h);
+    }
+
+    /**
+     * Returns the seed of the stream for the given module and key.
+     */
+    public static long seedFor(long moduleKey, long key) {
+        return mix64(mix64(baseSeed ^ moduleKey) + GOLDEN_GAMMA * (key + 1));
+    }
+
+    public static long seedFor(String module, long key) {
+        return seedFor(moduleKey(module), key);
+    }
+
+    /**
+     * Creates a new random positioned at the start of the stream for the given module and key.
+     */
+    public static Random create(String module, long key) {
+        return new StreamRandom(module).reset(key);
+    }
+
+    /**
+     * SplitMix64 finalizer (Stafford variant 13).
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
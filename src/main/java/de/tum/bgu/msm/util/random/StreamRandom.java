@@ -0,0 +1,58 @@
+package de.tum.bgu.msm.util.random;
+
+import java.util.Random;
+
+/**
+ * A SplitMix64 based {@link Random} that can be repositioned to the stream of any key of a module
+ * (see {@link RandomStreams}). In contrast to {@link Random} it does not synchronize on its state, so
+ * each instance must be confined to a single thread.
+ */
+public final class StreamRandom extends Random {
+
+    private final long moduleKey;
+    private long state;
+
+    /**
+     * Creates a random for the given module, positioned at the stream of key 0.
+     */
+    public StreamRandom(String module) {
+        super(0L);
+        this.moduleKey = RandomStreams.moduleKey(module);
+        reset(0);
+    }
+
+    /**
+     * Repositions this random to the start of the stream for the given key.
+     */
+    public StreamRandom reset(long key) {
+        setSeed(RandomStreams.seedFor(moduleKey, key));
+        return this;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        // also clears the cached gaussian of java.util.Random
+        super.setSeed(seed);
+        state = seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextState() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return nextState();
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextState() >>> 11) * 0x1.0p-53;
+    }
+
+    private long nextState() {
+        state += 0x9e3779b97f4a7c15L;
+        return RandomStreams.mix64(state);
+    }
+}
@@ -0,0 +1,123 @@
+package de.tum.bgu.msm.util.sampling;
+
+import java.util.Random;
+
+/**
+ * Vose alias table for drawing from a static discrete distribution in O(1). Construction is O(n).
+ * Use this for distributions that are sampled many times without changing, e.g. time of day
+ * distributions or trip frequencies by household type.
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ */
+public final class AliasTable {
+
+    private final double[] probabilities;
+    private final int[] aliases;
+    private final double totalWeight;
+
+    private AliasTable(double[] probabilities, int[] aliases, double totalWeight) {
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * Creates an alias table for the given (non-negative, not necessarily normalized) weights.
+     * If all weights are zero, the table always returns the last index, in line with
+     * {@link de.tum.bgu.msm.util.MitoUtil#select(double[], Random)}.
+     */
+    public static AliasTable of(double[] weights) {
+        final int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Cannot create alias table for empty distribution.");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Invalid weight " + weight + " in distribution.");
+            }
+            total += weight;
+        }
+
+        final double[] probabilities = new double[n];
+        final int[] aliases = new int[n];
+        if (total == 0) {
+            for (int i = 0; i < n; i++) {
+                aliases[i] = n - 1;
+            }
+            return new AliasTable(probabilities, aliases, total);
+        }
+
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] >= 1.) {
+                large[largeSize++] = i;
+            } else if (scaled[i] > 0.) {
+                small[smallSize++] = i;
+            }
+        }
+        // zero weights are pushed last so they are paired first and never end up as a leftover
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] == 0.) {
+                small[smallSize++] = i;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            final int less = small[--smallSize];
+            final int more = large[--largeSize];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.;
+            if (scaled[more] < 1.) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        // leftovers are only due to rounding and keep their own column
+        while (largeSize > 0) {
+            final int index = large[--largeSize];
+            probabilities[index] = 1.;
+            aliases[index] = index;
+        }
+        while (smallSize > 0) {
+            final int index = small[--smallSize];
+            probabilities[index] = 1.;
+            aliases[index] = index;
+        }
+        return new AliasTable(probabilities, aliases, total);
+    }
+
+    /**
+     * Draws an index using a single uniform random number.
+     */
+    public int sample(Random random) {
+        return sample(random.nextDouble());
+    }
+
+    /**
+     * Draws an index for the given uniform random number in [0,1).
+     */
+    public int sample(double uniform) {
+        final double u = uniform * probabilities.length;
+        int column = (int) u;
+        if (column >= probabilities.length) {
+            column = probabilities.length - 1;
+        }
+        return (u - column) < probabilities[column] ? column : aliases[column];
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -0,0 +1,64 @@
+package de.tum.bgu.msm.util.sampling;
+
+import java.util.Random;
+
+/**
+ * Discrete distribution backed by running sums and sampled by binary search in O(log n).
+ * Cheaper to build than an {@link AliasTable}, so it is the better choice for distributions that
+ * are only sampled a few times before they change.
+ * <p>
+ * Draws are identical to a linear scan over the underlying weights as done by
+ * {@link de.tum.bgu.msm.util.MitoUtil#select(double[], Random)}.
+ */
+public final class CumulativeDistribution {
+
+    private final double[] cumulative;
+
+    private CumulativeDistribution(double[] cumulative) {
+        this.cumulative = cumulative;
+    }
+
+    public static CumulativeDistribution of(double[] weights) {
+        return new CumulativeDistribution(toCumulative(weights, new double[weights.length]));
+    }
+
+    public int sample(Random random) {
+        return sample(cumulative, random);
+    }
+
+    public double getTotalWeight() {
+        return cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * Writes the running sums of the given weights into target and returns it.
+     */
+    public static double[] toCumulative(double[] weights, double[] target) {
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            target[i] = sum;
+        }
+        return target;
+    }
+
+    /**
+     * Selects an index from running sums of weights using binary search. If all weights are zero,
+     * the last index is returned.
+     */
+    public static int sample(double[] cumulative, Random random) {
+        final int last = cumulative.length - 1;
+        final double selPos = cumulative[last] * random.nextDouble();
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulative[mid] > selPos) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
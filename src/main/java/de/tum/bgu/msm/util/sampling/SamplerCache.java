@@ -0,0 +1,34 @@
+package de.tum.bgu.msm.util.sampling;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Thread safe cache of alias tables keyed by the distribution they were built from. Arrays used as
+ * keys are compared by identity, so a distribution that is held as a single array instance (e.g. the
+ * trip frequencies of a household type) is converted only once.
+ */
+public final class SamplerCache<K> {
+
+    private final ConcurrentHashMap<K, AliasTable> samplers = new ConcurrentHashMap<>();
+    private final Function<? super K, double[]> weights;
+
+    /**
+     * @param weights extracts the weights of a distribution if no sampler is cached for it yet
+     */
+    public SamplerCache(Function<? super K, double[]> weights) {
+        this.weights = weights;
+    }
+
+    public AliasTable get(K distribution) {
+        AliasTable sampler = samplers.get(distribution);
+        if (sampler == null) {
+            sampler = samplers.computeIfAbsent(distribution, key -> AliasTable.of(weights.apply(key)));
+        }
+        return sampler;
+    }
+
+    public int size() {
+        return samplers.size();
+    }
+}
@@ -1,6 +1,7 @@
 package de.tum.bgu.msm;
 
 import de.tum.bgu.msm.util.MitoUtil;
+import de.tum.bgu.msm.util.random.RandomStreams;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -59,4 +60,18 @@ public class MitoUtilsTest {
 
         assertEquals(4, (int) MitoUtil.select(mappedProbabilities));
     }
+
+    @Test
+    public final void testInitializingDoesNotDrawFromCallersRandom() {
+        Random random = new Random(42);
+        MitoUtil.initializeRandomNumber(random);
+        assertEquals(new Random(42).nextLong(), random.nextLong());
+
+        random = new Random(42);
+        MitoUtil.initializeRandomNumber(random, 7);
+        assertEquals(new Random(42).nextLong(), random.nextLong());
+        long seed = RandomStreams.seedFor("test", 1);
+        RandomStreams.initialize(7);
+        assertEquals(RandomStreams.seedFor("test", 1), seed);
+    }
 }
@@ -0,0 +1,85 @@
+package de.tum.bgu.msm.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HouseholdFeaturesTest {
+
+    @Test
+    public void testFeaturesOfAllHouseholds() {
+        DataSet dataSet = new DataSet();
+        for (int id = 0; id < 25000; id++) {
+            MitoHousehold household = new MitoHousehold(id, 2000, 1);
+            household.addPerson(new MitoPerson(2 * id, MitoOccupationStatus.WORKER, null, 40, MitoGender.FEMALE, true));
+            if (id % 2 == 0) {
+                household.addPerson(new MitoPerson(2 * id + 1, MitoOccupationStatus.STUDENT, null, id % 30, MitoGender.MALE, false));
+            }
+            dataSet.addHousehold(household);
+        }
+        HouseholdFeatures features = dataSet.getHouseholdFeatures();
+        assertEquals(25000, features.size());
+        assertSame(features, dataSet.getHouseholdFeatures());
+
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            int id = household.getId();
+            boolean hasChild = id % 2 == 0 && id % 30 < 18;
+            boolean hasYoungAdult = id % 2 == 0 && id % 30 >= 18 && id % 30 <= 25;
+            boolean hasSecondAdult = id % 2 == 0 && id % 30 >= 15;
+            assertEquals(1, DataSet.getFemalesForHousehold(household));
+            assertEquals(1, DataSet.getNumberOfWorkersForHousehold(household));
+            assertEquals(1, DataSet.getLicenseHoldersForHousehold(household));
+            assertEquals(id % 2 == 0 ? 1 : 0, DataSet.getStudentsForHousehold(household));
+            assertEquals(hasChild ? 1 : 0, DataSet.getChildrenForHousehold(household));
+            assertEquals(hasYoungAdult ? 1 : 0, DataSet.getYoungAdultsForHousehold(household));
+            assertEquals(hasSecondAdult ? 2 : 1, DataSet.getPersonsAged15AndOverForHousehold(household));
+            assertEquals(0, DataSet.getRetireesForHousehold(household));
+        }
+    }
+
+    @Test
+    public void testChangedHouseholdsAreCountedAgain() {
+        DataSet dataSet = new DataSet();
+        MitoHousehold household = new MitoHousehold(1, 2000, 1);
+        household.addPerson(new MitoPerson(1, MitoOccupationStatus.UNEMPLOYED, null, 70, MitoGender.MALE, true));
+        dataSet.addHousehold(household);
+        HouseholdFeatures features = dataSet.getHouseholdFeatures();
+        assertEquals(1, DataSet.getRetireesForHousehold(household));
+
+        household.addPerson(new MitoPerson(2, MitoOccupationStatus.UNEMPLOYED, null, 68, MitoGender.FEMALE, false));
+        assertEquals(2, DataSet.getRetireesForHousehold(household));
+        assertEquals(1, DataSet.getLicenseHoldersForHousehold(household));
+        assertSame(features, dataSet.getHouseholdFeatures());
+
+        MitoHousehold other = new MitoHousehold(2, 1000, 0);
+        other.addPerson(new MitoPerson(3, MitoOccupationStatus.STUDENT, null, 10, MitoGender.FEMALE, false));
+        assertEquals(1, DataSet.getChildrenForHousehold(other));
+        dataSet.addHousehold(other);
+        assertEquals(2, dataSet.getHouseholdFeatures().size());
+        assertEquals(1, DataSet.getChildrenForHousehold(other));
+        assertEquals(2, DataSet.getRetireesForHousehold(household));
+    }
+
+    @Test
+    public void testChangedHouseholdsAreCountedAgainInParallel() {
+        DataSet dataSet = new DataSet();
+        for (int id = 0; id < 1000; id++) {
+            MitoHousehold household = new MitoHousehold(id, 2000, 1);
+            household.addPerson(new MitoPerson(2 * id, MitoOccupationStatus.WORKER, null, 40, MitoGender.FEMALE, true));
+            dataSet.addHousehold(household);
+        }
+        dataSet.getHouseholdFeatures();
+        for (MitoHousehold household : dataSet.getHouseholds().values()) {
+            household.addPerson(new MitoPerson(2 * household.getId() + 1, MitoOccupationStatus.WORKER, null, 70, MitoGender.MALE, true));
+        }
+
+        for (int repetition = 0; repetition < 10; repetition++) {
+            dataSet.getHouseholds().values().parallelStream().forEach(household -> {
+                assertEquals(2, DataSet.getNumberOfWorkersForHousehold(household));
+                assertEquals(1, DataSet.getRetireesForHousehold(household));
+                assertEquals(1, DataSet.getFemalesForHousehold(household));
+            });
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package de.tum.bgu.msm.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TripTableTest {
+
+    @Test
+    public void testColumnsAndLookupKeepInsertionOrder() {
+        TripTable table = new TripTable();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int id = (i * 7919) % 100003 - 50000;
+            ids.add(id);
+            table.add(new MitoTrip(id, Purpose.values()[i % Purpose.values().length]));
+        }
+        assertEquals(5000, table.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals((int) ids.get(i), table.getId(i));
+            assertEquals(Purpose.values()[i % Purpose.values().length], table.getPurpose(i));
+            assertEquals(i, table.indexOf(ids.get(i)));
+            assertSame(table.get(i), table.asMap().get(ids.get(i)));
+        }
+        assertEquals(-1, table.indexOf(50001));
+        assertEquals(ids, new ArrayList<>(table.asMap().keySet()));
+        assertNull(table.asMap().get("1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateIdIsRejected() {
+        TripTable table = new TripTable();
+        table.add(new MitoTrip(1, Purpose.HBW));
+        table.add(new MitoTrip(1, Purpose.HBO));
+    }
+
+    @Test
+    public void testSubsample() {
+        TripTable table = new TripTable();
+        MitoTrip first = new MitoTrip(10, Purpose.HBW);
+        MitoTrip second = new MitoTrip(20, Purpose.HBS);
+        MitoTrip third = new MitoTrip(30, Purpose.HBO);
+        table.add(first);
+        table.add(second);
+        table.add(third);
+        table.addToSubsample(third);
+        table.addToSubsample(first);
+
+        Map<Integer, MitoTrip> subsample = table.subsampleAsMap();
+        assertEquals(2, subsample.size());
+        assertEquals(Arrays.asList(first, third), new ArrayList<>(subsample.values()));
+        assertTrue(subsample.containsKey(30));
+        assertFalse(subsample.containsKey(20));
+        assertTrue(table.isInSubsample(0));
+        assertFalse(table.isInSubsample(1));
+
+        try {
+            table.addToSubsample(first);
+            fail("Added trip to sub-sample twice");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            table.addToSubsample(new MitoTrip(40, Purpose.HBO));
+            fail("Added unknown trip to sub-sample");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testRemovedTripsAreCompacted() {
+        TripTable table = new TripTable();
+        for (int id = 0; id < 3000; id++) {
+            table.add(new MitoTrip(id, Purpose.NHBO));
+        }
+        for (int id = 0; id < 3000; id++) {
+            if (id % 3 == 0) {
+                table.addToSubsample(table.get(id));
+            }
+        }
+        for (int id = 0; id < 3000; id += 2) {
+            table.remove(id);
+        }
+        table.remove(5000);
+
+        assertEquals(3000, table.size());
+        assertNull(table.get(0));
+        assertSame(table.get(1), table.asMap().get(1));
+        assertEquals(1500, table.asMap().size());
+        assertEquals(1500, table.asMap().values().stream().filter(trip -> trip.getId() % 2 == 1).count());
+        assertEquals(-1, table.indexOf(2));
+
+        table.compact();
+        assertEquals(1500, table.size());
+        assertEquals(500, table.getSubsampleSize());
+        for (int i = 0; i < table.size(); i++) {
+            int id = 2 * i + 1;
+            assertEquals(id, table.getId(i));
+            assertEquals(id, table.get(i).getId());
+            assertEquals(i, table.indexOf(id));
+            assertEquals(id % 3 == 0, table.isInSubsample(i));
+        }
+        assertEquals(-1, table.indexOf(2));
+        assertFalse(table.asMap().containsKey(2));
+
+        table.add(new MitoTrip(2, Purpose.HBW));
+        assertEquals(1500, table.indexOf(2));
+        assertEquals(1501, table.asMap().size());
+    }
+
+    @Test
+    public void testTripsAreViewsOfTheirRows() {
+        TripTable table = new TripTable();
+        MitoZone origin = new MitoZone(3, AreaTypes.SGType.TOWN);
+        MitoZone destination = new MitoZone(7, AreaTypes.SGType.RURAL);
+        MitoTrip before = new MitoTrip(1, Purpose.HBW);
+        before.setTripOrigin(origin);
+        before.setTripMode(Mode.bus);
+        before.setDepartureInMinutes(480);
+        MitoTrip after = new MitoTrip(2, Purpose.NHBO);
+        table.add(before);
+        table.add(after);
+
+        assertEquals(3, table.getOriginZone(0));
+        assertSame(origin, table.getOrigin(0));
+        assertEquals(TripTable.NO_ZONE, table.getDestinationZone(0));
+        assertEquals(Mode.bus, table.getMode(0));
+        assertEquals(480, table.getDepartureInMinutes(0));
+        assertEquals(-1, table.getDepartureInMinutesReturnTrip(0));
+        assertEquals(TripTable.NO_ZONE, table.getOriginZone(1));
+        assertNull(table.getMode(1));
+
+        after.setTripOrigin(destination);
+        after.setTripDestination(origin);
+        after.setTripMode(Mode.walk);
+        after.setDepartureInMinutes(600);
+        assertEquals(7, table.getOriginZone(1));
+        assertEquals(3, table.getDestinationZone(1));
+        assertEquals(Mode.walk, table.getMode(1));
+        assertEquals(600, table.getDepartureInMinutes(1));
+
+        table.setDepartureInMinutesReturnTrip(0, 1020);
+        assertEquals(1020, before.getDepartureInMinutesReturnTrip());
+
+        table.remove(1);
+        table.compact();
+        assertEquals(Mode.bus, before.getTripMode());
+        assertEquals(1020, before.getDepartureInMinutesReturnTrip());
+        before.setTripMode(Mode.train);
+        after.setTripMode(Mode.bicycle);
+        assertEquals(1, table.size());
+        assertEquals(Mode.bicycle, table.getMode(0));
+        assertEquals(7, table.getOriginZone(0));
+        assertEquals(Mode.train, before.getTripMode());
+        after.setDepartureInMinutes(610);
+        assertEquals(610, table.getDepartureInMinutes(0));
+    }
+
+    @Test
+    public void testCreatedTripsAreViewsOfNewRows() {
+        TripTable table = new TripTable();
+        MitoPerson person = new MitoPerson(1, MitoOccupationStatus.WORKER, null, 30, MitoGender.FEMALE, true);
+        MitoTrip trip = table.create(5, Purpose.HBS);
+        assertSame(trip, table.get(0));
+        assertEquals(5, trip.getId());
+        assertEquals(Purpose.HBS, trip.getTripPurpose());
+        assertNull(trip.getTripMode());
+        assertEquals(-1, trip.getDepartureInMinutesReturnTrip());
+
+        trip.setPerson(person);
+        assertSame(person, table.getPerson(0));
+        assertEquals(Collections.singletonList(trip), person.getTrips());
+        person.addTrip(trip);
+        assertEquals(1, person.getTrips().size());
+
+        try {
+            table.create(5, Purpose.HBO);
+            fail("Created trip with existing id");
+        } catch (IllegalArgumentException expected) {
+        }
+        table.remove(5);
+        assertSame(person, trip.getPerson());
+        assertEquals(5, table.create(5, Purpose.HBO).getId());
+        assertEquals(1, table.indexOf(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTripOfOtherTableIsRejected() {
+        MitoTrip trip = new MitoTrip(1, Purpose.HBW);
+        new TripTable().add(trip);
+        new TripTable().add(trip);
+    }
+}
@@ -0,0 +1,76 @@
+package de.tum.bgu.msm.data.travelTimes;
+
+import de.tum.bgu.msm.data.Location;
+import de.tum.bgu.msm.util.matrices.IndexedFloatMatrix2D;
+import de.tum.bgu.msm.util.matrices.IndexedMatrix2D;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeSlicedSkimTravelTimesTest {
+
+    private final Location origin = () -> 1;
+    private final Location destination = () -> 2;
+
+    @Test
+    public void testSlicesAreSelectedByTimeOfDayAndLoadedLazily() {
+        AtomicInteger loads = new AtomicInteger();
+        TimeSlicedSkimTravelTimes travelTimes = new TimeSlicedSkimTravelTimes(1024 * 1024);
+        travelTimes.addSlice("car", 6 * 3600, () -> {
+            loads.incrementAndGet();
+            return matrix(20.);
+        });
+        travelTimes.addSlice("car", 0, () -> {
+            loads.incrementAndGet();
+            return matrix(10.);
+        });
+        travelTimes.addSlice("car", 19 * 3600, () -> {
+            loads.incrementAndGet();
+            return matrix(12.);
+        });
+        assertEquals(0, loads.get());
+
+        assertEquals(10., travelTimes.getTravelTime(origin, destination, 3 * 3600, "car"), 0.);
+        assertEquals(20., travelTimes.getTravelTime(origin, destination, 8 * 3600, "car"), 0.);
+        assertEquals(20., travelTimes.getTravelTime(origin, destination, 6 * 3600, "car"), 0.);
+        assertEquals(12., travelTimes.getTravelTime(origin, destination, 23 * 3600, "car"), 0.);
+        // times past midnight and before midnight of the previous day wrap around
+        assertEquals(20., travelTimes.getTravelTime(origin, destination, 32 * 3600, "car"), 0.);
+        assertEquals(12., travelTimes.getTravelTime(origin, destination, -3600, "car"), 0.);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testSlicesAreEvictedUnderMemoryBudget() {
+        AtomicInteger loads = new AtomicInteger();
+        // each slice matrix has 25x25 cells of 4 bytes, so only one fits into 2 kB
+        TimeSlicedSkimTravelTimes travelTimes = new TimeSlicedSkimTravelTimes(2 * 1024);
+        travelTimes.addSlice("car", 0, () -> {
+            loads.incrementAndGet();
+            return largeMatrix(10.);
+        });
+        travelTimes.addSlice("car", 12 * 3600, () -> {
+            loads.incrementAndGet();
+            return largeMatrix(20.);
+        });
+
+        travelTimes.getTravelTime(origin, destination, 0, "car");
+        travelTimes.getTravelTime(origin, destination, 13 * 3600, "car");
+        assertEquals(10., travelTimes.getTravelTime(origin, destination, 0, "car"), 0.);
+        assertEquals(3, loads.get());
+    }
+
+    private static IndexedMatrix2D matrix(double value) {
+        return new IndexedFloatMatrix2D(new int[]{1, 2}).assign(value);
+    }
+
+    private static IndexedMatrix2D largeMatrix(double value) {
+        int[] lookup = new int[25];
+        for (int i = 0; i < lookup.length; i++) {
+            lookup[i] = i + 1;
+        }
+        return new IndexedFloatMatrix2D(lookup).assign(value);
+    }
+}
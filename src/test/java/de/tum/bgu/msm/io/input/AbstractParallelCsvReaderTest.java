@@ -0,0 +1,103 @@
+package de.tum.bgu.msm.io.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbstractParallelCsvReaderTest {
+
+    @Test
+    public void testRecordsAreProcessedInOrder() throws IOException {
+        StringBuilder csv = new StringBuilder("id;value;name\r\n");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = i % 997 == 0 ? repeat('x', 300) : "n" + i;
+            csv.append(i).append(';').append(i * 0.25).append(';').append(name).append(i % 2 == 0 ? "\r\n" : "\n");
+            if (i % 10 == 0) {
+                csv.append('\n');
+            }
+            if (i % 3 != 0) {
+                expected.add(i + ":" + (i * 0.25) + ":" + name);
+            }
+        }
+        csv.append("5000;1.5;last");
+        expected.add("5000:1.5:last");
+
+        Path file = Files.createTempFile("records", ".csv");
+        try {
+            Files.write(file, csv.toString().getBytes(StandardCharsets.ISO_8859_1));
+            for (int parallelism : new int[]{1, 4}) {
+                TestReader reader = new TestReader(64);
+                reader.read(file, ";", parallelism);
+                assertEquals(Arrays.asList("id", "value", "name"), reader.header);
+                assertEquals(expected, reader.records);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        Path file = Files.createTempFile("header", ".csv");
+        try {
+            Files.write(file, "a,b".getBytes(StandardCharsets.ISO_8859_1));
+            TestReader reader = new TestReader(4);
+            reader.read(file, ",", 2);
+            assertEquals(Arrays.asList("a", "b"), reader.header);
+            assertEquals(0, reader.records.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String repeat(char c, int times) {
+        char[] chars = new char[times];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * Skips every record whose id is divisible by 3.
+     */
+    private static final class TestReader extends AbstractParallelCsvReader<String> {
+
+        private List<String> header;
+        private final List<String> records = new ArrayList<>();
+
+        private TestReader(int blockSize) {
+            super(null, blockSize);
+        }
+
+        @Override
+        public void read() {
+        }
+
+        @Override
+        protected void processHeader(String[] header) {
+            this.header = Arrays.asList(header);
+        }
+
+        @Override
+        protected String parseRecord(CsvRecord record) {
+            int id = record.getInt(0);
+            if (id % 3 == 0 && id != 5000) {
+                return null;
+            }
+            return id + ":" + record.getDouble(1) + ":" + record.getString(2);
+        }
+
+        @Override
+        protected void processRecord(String record) {
+            records.add(record);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.tum.bgu.msm.io.input;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CsvRecordTest {
+
+    @Test
+    public void testTokenising() {
+        CsvRecord record = record("12,abc,,-3.5,");
+        assertEquals(5, record.size());
+        assertEquals("12", record.getString(0));
+        assertEquals("abc", record.getString(1));
+        assertEquals("", record.getString(2));
+        assertEquals("", record.getString(4));
+        assertEquals(12, record.getInt(0));
+        assertEquals(-3.5, record.getDouble(3), 0.);
+        assertEquals("12,abc,,-3.5,", record.toString());
+    }
+
+    @Test
+    public void testIntegers() {
+        for (String value : new String[]{"0", "-0", "+7", "42", "-42", "2147483647", "-2147483648", "007"}) {
+            assertEquals(Integer.parseInt(value), record(value).getInt(0));
+        }
+        for (String value : new String[]{"", "-", "+", "2147483648", "-2147483649", "1.0", " 1", "1e3", "x"}) {
+            try {
+                record(value).getInt(0);
+                fail("Parsed " + value);
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testDoublesAreIdenticalToParseDouble() {
+        for (String value : new String[]{"0", "-0", "0.0", "1", "-1.5", "3.", ".25", "0.1", "4435217.123",
+                "1e5", "1E-5", "-2.5e+3", "123456789012345678", "1234567890123456789", "0.30000000000000004",
+                "9007199254740993", "1e22", "1e23", "1e-22", "1e-23", "NaN", "-Infinity", "1d", " 2.5 ", "00012.50"}) {
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(record(value).getDouble(0)));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            String value = Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14) - 4));
+            if (i % 2 == 0) {
+                value = String.format(Locale.US, "%.3f", Double.parseDouble(value));
+            }
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(record(value).getDouble(0)));
+        }
+        for (String value : new String[]{"", "-", ".", "1e", "1.2.3", "abc"}) {
+            try {
+                record(value).getDouble(0);
+                fail("Parsed " + value);
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testBooleans() {
+        CsvRecord record = record("true,TRUE,True,false,1,,truee");
+        assertTrue(record.getBoolean(0));
+        assertTrue(record.getBoolean(1));
+        assertTrue(record.getBoolean(2));
+        assertFalse(record.getBoolean(3));
+        assertFalse(record.getBoolean(4));
+        assertFalse(record.getBoolean(5));
+        assertFalse(record.getBoolean(6));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testMissingField() {
+        record("1,2").getInt(2);
+    }
+
+    private static CsvRecord record(String line) {
+        byte[] bytes = ("#" + line + "\n").getBytes(StandardCharsets.ISO_8859_1);
+        CsvRecord record = new CsvRecord((byte) ',');
+        record.set(bytes, 1, bytes.length - 1);
+        return record;
+    }
+}
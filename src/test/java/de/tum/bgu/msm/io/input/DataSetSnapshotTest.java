@@ -0,0 +1,148 @@
+package de.tum.bgu.msm.io.input;
+
+import de.tum.bgu.msm.data.*;
+import de.tum.bgu.msm.data.jobTypes.munich.MunichJobType;
+import de.tum.bgu.msm.data.jobTypes.munich.MunichJobTypeFactory;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class DataSetSnapshotTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DataSet dataSet = createDataSet();
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            DataSetSnapshot.write(dataSet, file, "inputs");
+
+            DataSet copy = new DataSet();
+            assertTrue(DataSetSnapshot.read(copy, file, "inputs", new MunichJobTypeFactory()));
+
+            assertEquals(dataSet.getZones().keySet(), copy.getZones().keySet());
+            MitoZone zone = copy.getZones().get(1);
+            assertEquals(AreaTypes.SGType.CORE_CITY, zone.getAreaTypeSG());
+            assertEquals(9162000, zone.getAGS());
+            assertEquals(0.5f, zone.getReductionAtBorderDamper(), 0.f);
+            assertEquals(1, zone.getNumberOfHouseholds());
+            assertEquals(300, zone.getSchoolEnrollment());
+            assertEquals(2, zone.getNumberOfEmployeesForType(MunichJobType.RETL));
+            assertEquals(1, zone.getNumberOfEmployeesForType(MunichJobType.FINC));
+            assertTrue(dataSet.getZones().get(1).getGeometry().equalsExact(zone.getGeometry()));
+            assertNull(copy.getZones().get(2).getGeometry());
+            assertNull(copy.getZones().get(2).getAreaTypeSG());
+
+            assertEquals(dataSet.getJobs().keySet(), copy.getJobs().keySet());
+            assertEquals(new Coordinate(10, 20), copy.getJobs().get(7).getCoordinate());
+            assertSame(zone, copy.getJobs().get(7).getOccupationZone());
+            assertEquals(dataSet.getSchools().keySet(), copy.getSchools().keySet());
+
+            assertEquals(dataSet.getHouseholds().keySet(), copy.getHouseholds().keySet());
+            MitoHousehold household = copy.getHouseholds().get(100);
+            assertEquals(2500, household.getMonthlyIncome_EUR());
+            assertEquals(1, household.getAutos());
+            assertSame(zone, household.getHomeZone());
+            assertEquals(new Coordinate(1.5, 2.5), household.getHomeLocation());
+            assertNull(copy.getHouseholds().get(101).getHomeZone());
+
+            assertEquals(dataSet.getPersons().keySet(), copy.getPersons().keySet());
+            MitoPerson worker = copy.getPersons().get(1000);
+            assertSame(copy.getJobs().get(7), worker.getOccupation());
+            assertEquals(MitoOccupationStatus.WORKER, worker.getMitoOccupationStatus());
+            assertEquals(MitoGender.FEMALE, worker.getMitoGender());
+            assertEquals(45, worker.getAge());
+            assertTrue(worker.hasDriversLicense());
+            assertSame(copy.getSchools().get(3), copy.getPersons().get(1001).getOccupation());
+            assertNull(copy.getPersons().get(1002).getOccupation());
+            assertEquals(2, household.getHhSize());
+            assertSame(worker, household.getPersons().get(1000));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testStaleOrCorruptSnapshotIsNotRead() throws IOException {
+        Path file = Files.createTempFile("snapshot", ".bin");
+        try {
+            DataSetSnapshot.write(createDataSet(), file, "inputs");
+
+            DataSet dataSet = new DataSet();
+            assertFalse(DataSetSnapshot.read(dataSet, file, "changed inputs", new MunichJobTypeFactory()));
+            assertTrue(dataSet.getZones().isEmpty());
+
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(file, bytes);
+            assertFalse(DataSetSnapshot.read(dataSet, file, "inputs", new MunichJobTypeFactory()));
+            assertTrue(dataSet.getZones().isEmpty());
+            assertTrue(dataSet.getPersons().isEmpty());
+
+            Files.delete(file);
+            assertFalse(DataSetSnapshot.read(dataSet, file, "inputs", new MunichJobTypeFactory()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testChecksumDependsOnContentAndSettings() throws IOException {
+        Path file = Files.createTempFile("input", ".csv");
+        try {
+            Files.write(file, "id,zone\n1,2\n".getBytes());
+            String checksum = DataSetSnapshot.checksum(Collections.singletonList(file), "a");
+            assertEquals(checksum, DataSetSnapshot.checksum(Collections.singletonList(file), "a"));
+            assertNotEquals(checksum, DataSetSnapshot.checksum(Collections.singletonList(file), "b"));
+            Files.write(file, "id,zone\n1,3\n".getBytes());
+            assertNotEquals(checksum, DataSetSnapshot.checksum(Collections.singletonList(file), "a"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static DataSet createDataSet() {
+        DataSet dataSet = new DataSet();
+        MitoZone zone = new MitoZone(1, AreaTypes.SGType.CORE_CITY);
+        zone.setAGS(9162000);
+        zone.setReductionAtBorderDamper(0.5f);
+        zone.addHousehold();
+        zone.addSchoolEnrollment(300);
+        zone.addEmployeeForType(MunichJobType.RETL);
+        zone.addEmployeeForType(MunichJobType.RETL);
+        zone.addEmployeeForType(MunichJobType.FINC);
+        zone.setGeometry(new GeometryFactory().createPolygon(new Coordinate[]{
+                new Coordinate(0, 0), new Coordinate(100, 0), new Coordinate(100, 100), new Coordinate(0, 0)}));
+        dataSet.addZone(zone);
+        dataSet.addZone(new MitoZone(2, null));
+
+        MitoJob job = new MitoJob(zone, new Coordinate(10, 20), 7);
+        dataSet.addJob(job);
+        MitoSchool school = new MitoSchool(zone, new Coordinate(30, 40), 3);
+        dataSet.addSchool(school);
+
+        MitoHousehold household = new MitoHousehold(100, 2500, 1);
+        household.setHomeZone(zone);
+        household.setHomeLocation(new Coordinate(1.5, 2.5));
+        dataSet.addHousehold(household);
+        MitoHousehold otherHousehold = new MitoHousehold(101, 0, 0);
+        dataSet.addHousehold(otherHousehold);
+
+        MitoPerson worker = new MitoPerson(1000, MitoOccupationStatus.WORKER, job, 45, MitoGender.FEMALE, true);
+        MitoPerson student = new MitoPerson(1001, MitoOccupationStatus.STUDENT, school, 12, MitoGender.MALE, false);
+        MitoPerson unemployed = new MitoPerson(1002, MitoOccupationStatus.UNEMPLOYED, null, 70, MitoGender.MALE, false);
+        household.addPerson(worker);
+        household.addPerson(student);
+        otherHousehold.addPerson(unemployed);
+        dataSet.addPerson(worker);
+        dataSet.addPerson(student);
+        dataSet.addPerson(unemployed);
+        return dataSet;
+    }
+}
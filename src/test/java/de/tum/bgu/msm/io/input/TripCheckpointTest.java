@@ -0,0 +1,167 @@
+package de.tum.bgu.msm.io.input;
+
+import de.tum.bgu.msm.data.*;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TripCheckpointTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DataSet dataSet = createPopulation();
+        MitoHousehold household = dataSet.getHouseholds().get(10);
+        MitoPerson person = dataSet.getPersons().get(100);
+        MitoZone zone = dataSet.getZones().get(1);
+        for (Purpose purpose : Purpose.values()) {
+            zone.setTripAttraction(purpose, purpose.ordinal() + 0.5);
+            dataSet.getZones().get(2).setTripAttraction(purpose, 0);
+        }
+        household.setTravelTimeBudgetByPurpose(Purpose.HBS, 12.5);
+
+        MitoTrip work = new MitoTrip(1, Purpose.HBW);
+        work.setPerson(person);
+        work.setTripOrigin(household);
+        work.setTripDestination(dataSet.getJobs().get(5));
+        work.setTripMode(Mode.bicycle);
+        work.setDepartureInMinutes(480);
+        work.setDepartureInMinutesReturnTrip(1020);
+        MitoTrip shopping = new MitoTrip(2, Purpose.HBS);
+        shopping.setPerson(person);
+        shopping.setTripOrigin(household);
+        shopping.setTripDestination(dataSet.getZones().get(2));
+        MitoTrip other = new MitoTrip(3, Purpose.HBS);
+        MitoTrip airport = new MitoTrip(4, Purpose.AIRPORT);
+        airport.setTripOrigin(zone);
+        airport.setTripDestination(new MicroLocation() {
+            @Override
+            public Coordinate getCoordinate() {
+                return new Coordinate(7.5, 8.5);
+            }
+
+            @Override
+            public int getZoneId() {
+                return 2;
+            }
+        });
+        household.setTripsByPurpose(new ArrayList<>(Arrays.asList(work)), Purpose.HBW);
+        household.setTripsByPurpose(new ArrayList<>(Arrays.asList(shopping, other)), Purpose.HBS);
+        household.setTripsByPurpose(new ArrayList<>(Arrays.asList(airport)), Purpose.AIRPORT);
+        dataSet.addTrips(Arrays.asList(work, shopping, other, airport));
+        dataSet.addTripToSubsample(shopping);
+
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            TripCheckpoint.write(dataSet, file, "MODE_CHOICE");
+
+            DataSet copy = createPopulation();
+            TripCheckpoint.read(copy, file, "MODE_CHOICE");
+
+            MitoZone copiedZone = copy.getZones().get(1);
+            assertEquals(2.5, copiedZone.getTripAttraction(Purpose.HBS), 0.);
+            assertEquals(12.5, copy.getHouseholds().get(10).getTravelTimeBudgetForPurpose(Purpose.HBS), 0.);
+            assertFalse(copy.getHouseholds().get(10).getTravelTimeBudgetsByPurpose().containsKey(Purpose.HBW));
+
+            assertEquals(Arrays.asList(1, 2, 3, 4), new ArrayList<>(copy.getTrips().keySet()));
+            MitoTrip copiedWork = copy.getTrips().get(1);
+            MitoPerson copiedPerson = copy.getPersons().get(100);
+            MitoHousehold copiedHousehold = copy.getHouseholds().get(10);
+            assertEquals(Purpose.HBW, copiedWork.getTripPurpose());
+            assertSame(copiedPerson, copiedWork.getPerson());
+            assertSame(copiedHousehold, copiedWork.getTripOrigin());
+            assertSame(copy.getJobs().get(5), copiedWork.getTripDestination());
+            assertEquals(Mode.bicycle, copiedWork.getTripMode());
+            assertEquals(480, copiedWork.getDepartureInMinutes());
+            assertEquals(1020, copiedWork.getDepartureInMinutesReturnTrip());
+            assertEquals(2, copiedPerson.getTrips().size());
+
+            MitoTrip copiedOther = copy.getTrips().get(3);
+            assertNull(copiedOther.getPerson());
+            assertNull(copiedOther.getTripOrigin());
+            assertNull(copiedOther.getTripMode());
+            assertEquals(-1, copiedOther.getDepartureInMinutesReturnTrip());
+            assertEquals(Arrays.asList(copy.getTrips().get(2), copiedOther), copiedHousehold.getTripsForPurpose(Purpose.HBS));
+            assertEquals(Arrays.asList(copiedWork), copiedHousehold.getTripsForPurpose(Purpose.HBW));
+
+            MitoTrip copiedAirport = copy.getTrips().get(4);
+            assertSame(copiedZone, copiedAirport.getTripOrigin());
+            assertEquals(2, copiedAirport.getTripDestination().getZoneId());
+            assertEquals(new Coordinate(7.5, 8.5), ((MicroLocation) copiedAirport.getTripDestination()).getCoordinate());
+
+            assertEquals(Arrays.asList(2), new ArrayList<>(copy.getTripSubsample().keySet()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCheckpointOfOtherStageIsRejected() throws IOException {
+        DataSet dataSet = createPopulation();
+        for (MitoZone zone : dataSet.getZones().values()) {
+            for (Purpose purpose : Purpose.values()) {
+                zone.setTripAttraction(purpose, 1);
+            }
+        }
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            TripCheckpoint.write(dataSet, file, "TRIP_GENERATION");
+            try {
+                TripCheckpoint.read(createPopulation(), file, "TRIP_DISTRIBUTION");
+                fail("Read checkpoint of another stage");
+            } catch (IOException expected) {
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCheckpointOfOtherPopulationIsRejected() throws IOException {
+        DataSet dataSet = createPopulation();
+        for (MitoZone zone : dataSet.getZones().values()) {
+            for (Purpose purpose : Purpose.values()) {
+                zone.setTripAttraction(purpose, 1);
+            }
+        }
+        MitoTrip trip = new MitoTrip(1, Purpose.HBO);
+        trip.setPerson(dataSet.getPersons().get(100));
+        dataSet.addTrip(trip);
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            TripCheckpoint.write(dataSet, file, "TRIP_GENERATION");
+            DataSet other = new DataSet();
+            dataSet.getZones().values().forEach(zone -> other.addZone(new MitoZone(zone.getId(), null)));
+            try {
+                TripCheckpoint.read(other, file, "TRIP_GENERATION");
+                fail("Read checkpoint of another population");
+            } catch (IOException expected) {
+            }
+            assertTrue(other.getTrips().isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static DataSet createPopulation() {
+        DataSet dataSet = new DataSet();
+        MitoZone zone = new MitoZone(1, AreaTypes.SGType.CORE_CITY);
+        dataSet.addZone(zone);
+        dataSet.addZone(new MitoZone(2, AreaTypes.SGType.RURAL));
+        MitoJob job = new MitoJob(zone, new Coordinate(1, 2), 5);
+        dataSet.addJob(job);
+        MitoHousehold household = new MitoHousehold(10, 3000, 1);
+        household.setHomeZone(zone);
+        dataSet.addHousehold(household);
+        MitoPerson person = new MitoPerson(100, MitoOccupationStatus.WORKER, job, 40, MitoGender.MALE, true);
+        household.addPerson(person);
+        dataSet.addPerson(person);
+        return dataSet;
+    }
+}
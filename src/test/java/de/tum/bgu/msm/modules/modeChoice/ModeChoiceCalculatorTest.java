@@ -4,6 +4,7 @@ import de.tum.bgu.msm.DummyOccupation;
 import de.tum.bgu.msm.DummyZone;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import de.tum.bgu.msm.modules.modeChoice.calculators.CachedModeChoiceCalculatorImpl;
 import de.tum.bgu.msm.modules.modeChoice.calculators.ModeChoiceCalculatorImpl;
 import de.tum.bgu.msm.resources.Resources;
 import de.tum.bgu.msm.util.matrices.IndexedDoubleMatrix2D;
@@ -11,7 +12,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.EnumSet;
 
 public class ModeChoiceCalculatorTest {
 
@@ -90,7 +93,59 @@ public class ModeChoiceCalculatorTest {
         for(int i = 0; i < reference.length; i++) {
             Assert.assertEquals("Result " + i + " is totally wrong.",reference[i], result.get(Mode.valueOf(i)), 0.000001);
         }
+        Assert.assertEquals(calculator.getModes(), result.keySet());
+        Assert.assertFalse(result.containsKey(Mode.privateAV));
+
+        double[] probabilities = new double[ModeChoiceCalculator.NUMBER_OF_MODES];
+        calculator.calculateProbabilities(Purpose.HBS, hh, pp, zone, zone, travelTimes, 5., 5., 0, probabilities);
+        for(int i = 0; i < reference.length; i++) {
+            Assert.assertEquals("Primitive result " + i + " is totally wrong.",reference[i], probabilities[i], 0.000001);
+        }
+        Assert.assertTrue(Double.isNaN(probabilities[Mode.privateAV.ordinal()]));
+
+        CachedModeChoiceCalculatorImpl cachedCalculator = new CachedModeChoiceCalculatorImpl(1024 * 1024);
+        for (int repetition = 0; repetition < 2; repetition++) {
+            cachedCalculator.calculateProbabilities(Purpose.HBS, hh, pp, zone, zone, travelTimes, 5., 5., 0, probabilities);
+            for(int i = 0; i < reference.length; i++) {
+                Assert.assertEquals("Cached result " + i + " is totally wrong.",reference[i], probabilities[i], 0.000001);
+            }
+        }
+        Assert.assertEquals(1, cachedCalculator.getCacheSize());
 
     }
 
+    @Test
+    public void testConsideredModesWithoutResultAreKept() {
+        ModeChoiceCalculator busWithoutService = new ModeChoiceCalculator() {
+            @Override
+            public EnumSet<Mode> getModes() {
+                return EnumSet.of(Mode.autoDriver, Mode.bus);
+            }
+
+            @Override
+            public void calculateProbabilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] probabilities) {
+                Arrays.fill(probabilities, Double.NaN);
+                probabilities[Mode.autoDriver.ordinal()] = 1.;
+            }
+
+            @Override
+            public void calculateUtilities(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] utilities) {
+                Arrays.fill(utilities, Double.NaN);
+                utilities[Mode.autoDriver.ordinal()] = -1.;
+            }
+
+            @Override
+            public void calculateGeneralizedCosts(Purpose purpose, MitoHousehold household, MitoPerson person, MitoZone originZone, MitoZone destinationZone, TravelTimes travelTimes, double travelDistanceAuto, double travelDistanceNMT, double peakHour_s, double[] generalizedCosts) {
+                Arrays.fill(generalizedCosts, Double.NaN);
+            }
+        };
+
+        EnumMap<Mode, Double> utilities = busWithoutService.calculateUtilities(Purpose.HBS, null, null, null, null, null, 5., 5., 0);
+        Assert.assertEquals(EnumSet.of(Mode.autoDriver, Mode.bus), utilities.keySet());
+        Assert.assertEquals(-1., utilities.get(Mode.autoDriver), 0.);
+        Assert.assertTrue(Double.isNaN(utilities.get(Mode.bus)));
+
+        EnumMap<Mode, Double> generalizedCosts = busWithoutService.calculateGeneralizedCosts(Purpose.HBS, null, null, null, null, null, 5., 5., 0);
+        Assert.assertEquals(EnumSet.of(Mode.autoDriver, Mode.bus), generalizedCosts.keySet());
+    }
 }
@@ -13,6 +13,9 @@ import org.junit.Test;
 import java.util.Collections;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 public class ModeChoiceTest {
 
     private DataSet dataSet;
@@ -67,6 +70,25 @@ public class ModeChoiceTest {
     }
 
 
+    @Test
+    public void testChunksMatchSingleTask() {
+        ModeChoiceCalculator calculator = new ModeChoiceCalculatorImpl();
+        for (Purpose purpose : new Purpose[]{Purpose.HBW, Purpose.HBO}) {
+            new ModeChoice.ModeChoiceByPurpose(purpose, dataSet, calculator).call();
+        }
+        Mode mode1 = trip1.getTripMode();
+        Mode mode2 = trip2.getTripMode();
+        assertNotNull(mode1);
+        assertNotNull(mode2);
+
+        trip1.setTripMode(null);
+        trip2.setTripMode(null);
+        new ModeChoice.ModeChoiceByPurpose(Purpose.HBO, dataSet, calculator, Collections.singletonList(household2)).call();
+        new ModeChoice.ModeChoiceByPurpose(Purpose.HBW, dataSet, calculator, Collections.singletonList(household1)).call();
+        assertEquals(mode1, trip1.getTripMode());
+        assertEquals(mode2, trip2.getTripMode());
+    }
+
     private void fillDataSet() {
         trip1 = new MitoTrip(1, Purpose.HBW);
         MitoPerson person1 = new MitoPerson(1, MitoOccupationStatus.WORKER, null, 30, MitoGender.MALE, true);
@@ -0,0 +1,63 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import de.tum.bgu.msm.data.AreaTypes;
+import de.tum.bgu.msm.data.DataSet;
+import de.tum.bgu.msm.data.MitoZone;
+import de.tum.bgu.msm.data.Purpose;
+import de.tum.bgu.msm.data.jobTypes.Category;
+import de.tum.bgu.msm.data.jobTypes.munich.MunichJobType;
+import de.tum.bgu.msm.io.input.readers.TripAttractionRatesReader;
+import de.tum.bgu.msm.modules.tripGeneration.AttractionCalculator.ExplanatoryVariable;
+import de.tum.bgu.msm.resources.Resources;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AttractionCalculatorTest {
+
+    private DataSet dataSet;
+
+    @Before
+    public void setup() {
+        Resources.initializeResources("./test/muc/test.properties");
+        dataSet = new DataSet();
+        // the rates are kept by the purposes, so they are the ones that every other test and model run reads as well
+        new TripAttractionRatesReader(dataSet).read();
+    }
+
+    @Test
+    public void testAttractionsAreRatesTimesZoneAttributes() {
+        for (int id = 1; id <= 2500; id++) {
+            MitoZone zone = new MitoZone(id, AreaTypes.SGType.TOWN);
+            for (int i = 0; i < id % 7; i++) {
+                zone.addHousehold();
+            }
+            zone.addEmployeeForType(MunichJobType.RETL);
+            zone.addEmployeesForType(MunichJobType.FINC, id % 3);
+            zone.addEmployeesForType(MunichJobType.ADMN, 2);
+            zone.addEmployeesForType(MunichJobType.AGRI, id % 5);
+            zone.addEmployeeForType(MunichJobType.MNFT);
+            zone.addSchoolEnrollment(id % 11);
+            dataSet.addZone(zone);
+        }
+
+        new AttractionCalculator(dataSet).run();
+
+        for (MitoZone zone : dataSet.getZones().values()) {
+            int id = zone.getId();
+            assertEquals(1, zone.getEmployeesByCategory(Category.RETAIL));
+            assertEquals(id % 3 + 2, zone.getEmployeesByCategory(Category.OFFICE));
+            assertEquals(id % 5, zone.getEmployeesByCategory(Category.OTHER));
+            assertEquals(1, zone.getEmployeesByCategory(Category.INDUSTRY));
+            float[] attributes = {id % 7, zone.getTotalEmpl(), 1, id % 3 + 2, id % 5, id % 11};
+            for (Purpose purpose : Purpose.values()) {
+                float expected = 0;
+                for (ExplanatoryVariable variable : ExplanatoryVariable.values()) {
+                    expected += attributes[variable.ordinal()] * purpose.getTripAttractionForVariable(variable);
+                }
+                assertEquals(expected, zone.getTripAttraction(purpose), 0.);
+            }
+        }
+    }
+}
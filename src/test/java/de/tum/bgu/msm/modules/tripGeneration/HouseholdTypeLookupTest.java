@@ -0,0 +1,63 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HouseholdTypeLookupTest {
+
+    private static final int[] MAXIMUM = {8, 4, Integer.MAX_VALUE, 3, Integer.MAX_VALUE};
+
+    @Test
+    public void testLookupMatchesScanOverTypes() {
+        List<HouseholdType> types = new ArrayList<>();
+        int id = 0;
+        for (int[] size : new int[][]{{1, 1}, {2, 2}, {3, 8}}) {
+            for (int[] workers : new int[][]{{0, 0}, {1, 7}}) {
+                for (int[] economicStatus : new int[][]{{1, 3}, {4, 5}}) {
+                    for (int[] autos : new int[][]{{0, 1}, {2, 8}}) {
+                        types.add(new HouseholdType(id++, size[0], size[1], workers[0], workers[1],
+                                economicStatus[0], economicStatus[1], autos[0], autos[1], 1, 4));
+                    }
+                }
+            }
+        }
+        // overlaps with the types before, which therefore win
+        types.add(new HouseholdType(id, 1, 8, 0, 4, 1, 5, 0, 3, 1, 4));
+        HouseholdTypeLookup lookup = new HouseholdTypeLookup(types, MAXIMUM);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int size = Math.min(random.nextInt(11), 8);
+            int workers = Math.min(random.nextInt(6), 4);
+            int economicStatus = random.nextInt(8) - 1;
+            int autos = Math.min(random.nextInt(5), 3);
+            int region = random.nextInt(7) - 1;
+            HouseholdType expected = null;
+            for (HouseholdType type : types) {
+                if (type.applies(size, workers, economicStatus, autos, region)) {
+                    expected = type;
+                    break;
+                }
+            }
+            assertSame(expected, lookup.get(size, workers, economicStatus, autos, region));
+        }
+        assertEquals(0, types.get(types.size() - 1).getNumberOfRecords());
+    }
+
+    @Test
+    public void testAttributesOutsideOfDefinitionsHaveNoType() {
+        HouseholdType type = new HouseholdType(0, 2, 3, 0, 1, 1, 1, 0, 0, 4, 4);
+        HouseholdTypeLookup lookup = new HouseholdTypeLookup(Arrays.asList(type), MAXIMUM);
+        assertSame(type, lookup.get(3, 1, 1, 0, 4));
+        assertNull(lookup.get(1, 1, 1, 0, 4));
+        assertNull(lookup.get(3, 2, 1, 0, 4));
+        assertNull(lookup.get(3, 1, 1, 0, -1));
+        assertNull(new HouseholdTypeLookup(new ArrayList<>(), MAXIMUM).get(3, 1, 1, 0, 4));
+    }
+}
@@ -0,0 +1,65 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import de.tum.bgu.msm.data.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HurdleModelFeaturesTest {
+
+    private static final String[] VARIABLES = {"size_1", "size_2", "size_3", "size_4", "size_5",
+            "pers_under6", "pers_6to17", "pers_18to29_w", "pers_18to29_s", "pers_18to29_u",
+            "pers_30to64_w", "pers_30to64_s", "pers_30to64_u", "pers_65up", "pers_female",
+            "economicStatus_2", "economicStatus_3", "economicStatus_4", "economicStatus_5",
+            "propAutos", "BBSR_2", "BBSR_3", "BBSR_4"};
+
+    @Test
+    public void testUtilityOfEncodedHousehold() {
+        Map<String, Double> coefficients = new HashMap<>();
+        for (int i = 0; i < VARIABLES.length; i++) {
+            coefficients.put(VARIABLES[i], Math.pow(2, i));
+        }
+        MitoHousehold household = new MitoHousehold(1, 3000, 2);
+        household.setHomeZone(new MitoZone(1, AreaTypes.SGType.TOWN));
+        household.setEconomicStatus(3);
+        household.addPerson(new MitoPerson(1, MitoOccupationStatus.STUDENT, null, 4, MitoGender.FEMALE, false));
+        household.addPerson(new MitoPerson(2, MitoOccupationStatus.WORKER, null, 35, MitoGender.FEMALE, true));
+        household.addPerson(new MitoPerson(3, MitoOccupationStatus.UNEMPLOYED, null, 70, MitoGender.MALE, true));
+
+        double[] features = new double[HurdleModelFeatures.NUMBER_OF_FEATURES];
+        HurdleModelFeatures.encode(household, features);
+        double expected = coefficients.get("size_3") + coefficients.get("pers_under6")
+                + coefficients.get("pers_30to64_w") + coefficients.get("pers_65up") + 2 * coefficients.get("pers_female")
+                + coefficients.get("economicStatus_3") + coefficients.get("propAutos") + coefficients.get("BBSR_3");
+        assertEquals(expected, HurdleModelFeatures.dot(HurdleModelFeatures.compile(coefficients, Purpose.HBW, true), features), 0.);
+    }
+
+    @Test
+    public void testLargeHouseholdsUseSizeFiveOnlyIfRequested() {
+        Map<String, Double> coefficients = new HashMap<>();
+        for (String variable : VARIABLES) {
+            coefficients.put(variable, 0.);
+        }
+        coefficients.put("size_5", 1.5);
+        MitoHousehold household = new MitoHousehold(1, 3000, 0);
+        household.setHomeZone(new MitoZone(1, AreaTypes.SGType.CORE_CITY));
+        for (int id = 1; id <= 6; id++) {
+            household.addPerson(new MitoPerson(id, MitoOccupationStatus.WORKER, null, 40, MitoGender.MALE, true));
+        }
+
+        HurdleModelFeatures features = new HurdleModelFeatures();
+        double[] encoded = features.of(household);
+        assertSame(encoded, features.of(household));
+        assertEquals(1.5, HurdleModelFeatures.dot(HurdleModelFeatures.compile(coefficients, Purpose.HBO, true), encoded), 0.);
+        assertEquals(0., HurdleModelFeatures.dot(HurdleModelFeatures.compile(coefficients, Purpose.HBO, false), encoded), 0.);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingCoefficientIsRejected() {
+        HurdleModelFeatures.compile(new HashMap<>(), Purpose.HBS, true);
+    }
+}
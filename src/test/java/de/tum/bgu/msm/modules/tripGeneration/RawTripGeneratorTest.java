@@ -0,0 +1,115 @@
+package de.tum.bgu.msm.modules.tripGeneration;
+
+import de.tum.bgu.msm.data.*;
+import de.tum.bgu.msm.resources.Properties;
+import de.tum.bgu.msm.resources.Resources;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RawTripGeneratorTest {
+
+    private static final Purpose[] PURPOSES = {Purpose.HBW, Purpose.HBE, Purpose.HBS, Purpose.HBO, Purpose.NHBW, Purpose.NHBO};
+
+    /**
+     * Draws up to four trips from the random of the household, so results show whether every household
+     * and purpose gets its own random stream.
+     */
+    private static final TripsByPurposeGeneratorFactory RANDOM_TRIPS =
+            (dataSet, purpose) -> (household, random) -> random.nextInt(5);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setup() {
+        Resources.initializeResources("./test/muc/test.properties");
+    }
+
+    @Test
+    public void testIdsAreConsecutiveByPurposeAndHousehold() {
+        DataSet dataSet = createHouseholds(50);
+        new RawTripGenerator(dataSet, RANDOM_TRIPS).run(1.);
+
+        List<MitoTrip> trips = new ArrayList<>(dataSet.getTrips().values());
+        assertTrue(trips.size() > 0);
+        int expectedId = 1;
+        int purposeIndex = 0;
+        for (MitoTrip trip : trips) {
+            assertEquals(expectedId++, trip.getId());
+            while (trip.getTripPurpose() != PURPOSES[purposeIndex]) {
+                purposeIndex++;
+            }
+        }
+
+        int previousId = 0;
+        for (Purpose purpose : PURPOSES) {
+            for (MitoHousehold household : dataSet.getHouseholds().values()) {
+                for (MitoTrip trip : household.getTripsForPurpose(purpose)) {
+                    assertEquals(purpose, trip.getTripPurpose());
+                    assertEquals(previousId + 1, trip.getId());
+                    previousId = trip.getId();
+                }
+            }
+        }
+        assertEquals(trips.size(), previousId);
+    }
+
+    @Test
+    public void testTripsDoNotDependOnPartitioningOrParallelism() throws IOException {
+        initializeResources(7, 1);
+        DataSet first = createHouseholds(200);
+        new RawTripGenerator(first, RANDOM_TRIPS).run(0.5);
+        initializeResources(10000, 4);
+        DataSet second = createHouseholds(200);
+        new RawTripGenerator(second, RANDOM_TRIPS).run(0.5);
+
+        assertEquals(first.getTrips().size(), second.getTrips().size());
+        for (MitoHousehold household : first.getHouseholds().values()) {
+            MitoHousehold other = second.getHouseholds().get(household.getId());
+            for (Purpose purpose : PURPOSES) {
+                List<MitoTrip> trips = household.getTripsForPurpose(purpose);
+                List<MitoTrip> otherTrips = other.getTripsForPurpose(purpose);
+                assertEquals(trips.size(), otherTrips.size());
+                for (int i = 0; i < trips.size(); i++) {
+                    assertEquals(trips.get(i).getId(), otherTrips.get(i).getId());
+                }
+            }
+        }
+    }
+
+    private void initializeResources(int partitionSize, int parallelism) throws IOException {
+        java.util.Properties properties = new java.util.Properties();
+        try (InputStream in = new FileInputStream("./test/muc/test.properties")) {
+            properties.load(in);
+        }
+        properties.setProperty(Properties.TRIP_GENERATION_PARTITION_SIZE, String.valueOf(partitionSize));
+        properties.setProperty(Properties.TRIP_GENERATION_PARALLELISM, String.valueOf(parallelism));
+        File file = folder.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, null);
+        }
+        Resources.initializeResources(file.getPath());
+    }
+
+    private static DataSet createHouseholds(int numberOfHouseholds) {
+        DataSet dataSet = new DataSet();
+        for (int id = 1; id <= numberOfHouseholds; id++) {
+            dataSet.addHousehold(new MitoHousehold(id, 1000, 1));
+        }
+        return dataSet;
+    }
+}
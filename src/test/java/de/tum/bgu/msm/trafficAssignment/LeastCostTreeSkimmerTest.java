@@ -0,0 +1,67 @@
+package de.tum.bgu.msm.trafficAssignment;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import static org.junit.Assert.assertEquals;
+
+public class LeastCostTreeSkimmerTest {
+
+    @Test
+    public void testSkimsFastestRoutes() {
+        Network network = NetworkUtils.createNetwork();
+        Node a = NetworkUtils.createAndAddNode(network, Id.createNodeId("a"), new Coord(0, 0));
+        Node b = NetworkUtils.createAndAddNode(network, Id.createNodeId("b"), new Coord(1000, 0));
+        Node c = NetworkUtils.createAndAddNode(network, Id.createNodeId("c"), new Coord(2000, 0));
+        Node d = NetworkUtils.createAndAddNode(network, Id.createNodeId("d"), new Coord(5000, 5000));
+        // direct link a-c is shorter but slower than the detour via b
+        NetworkUtils.createAndAddLink(network, Id.createLinkId("ab"), a, b, 1000, 10, 1000, 1);
+        NetworkUtils.createAndAddLink(network, Id.createLinkId("bc"), b, c, 1000, 10, 1000, 1);
+        NetworkUtils.createAndAddLink(network, Id.createLinkId("ac"), a, c, 1500, 5, 1000, 1);
+        NetworkUtils.createAndAddLink(network, Id.createLinkId("ca"), c, a, 2000, 20, 1000, 1);
+
+        TravelTime travelTime = new FreeSpeedTravelTime();
+        TravelDisutility travelDisutility = new TravelDisutility() {
+            @Override
+            public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+                return travelTime.getLinkTravelTime(link, time, person, vehicle);
+            }
+
+            @Override
+            public double getLinkMinimumTravelDisutility(Link link) {
+                return link.getLength() / link.getFreespeed();
+            }
+        };
+
+        LeastCostTreeSkimmer skimmer = new LeastCostTreeSkimmer(network, travelTime, travelDisutility);
+        int[] origins = {skimmer.getNodeIndex(a), skimmer.getNodeIndex(c)};
+        int[] destinations = {skimmer.getNodeIndex(a), skimmer.getNodeIndex(c), skimmer.getNodeIndex(d)};
+
+        double[][] times = new double[origins.length][];
+        double[][] distances = new double[origins.length][];
+        skimmer.skim(origins, destinations, 8 * 3600, (origin, travelTimes, distances_m) -> {
+            times[origin] = travelTimes.clone();
+            distances[origin] = distances_m.clone();
+        }, 2);
+
+        assertEquals(0., times[0][0], 1e-9);
+        assertEquals(200., times[0][1], 1e-9);
+        assertEquals(2000., distances[0][1], 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, times[0][2], 0.);
+
+        assertEquals(100., times[1][0], 1e-9);
+        assertEquals(2000., distances[1][0], 1e-9);
+        assertEquals(0., times[1][1], 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, distances[1][2], 0.);
+    }
+}
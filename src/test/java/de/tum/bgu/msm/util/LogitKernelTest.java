@@ -0,0 +1,131 @@
+package de.tum.bgu.msm.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogitKernelTest {
+
+    private static final double MU = 0.25;
+
+    private static final LogitKernel NESTED = LogitKernel.nested(new int[][]{{0, 1}, {3, 4, 5}, {2}, {6}},
+            new double[]{MU, MU, 1., 1.}, false);
+
+    @Test
+    public void testNestedLogitMatchesClosedForm() {
+        double[] utilities = {0.3, -1.2, 0.8, 0.1, -0.4, 0.25, 1.1, Double.NaN};
+        double[] expected = closedFormProbabilities(utilities);
+
+        double[] probabilities = new double[utilities.length];
+        NESTED.calculateProbabilities(utilities, probabilities);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(expected[i], probabilities[i], 1e-12);
+        }
+        assertEquals(0., probabilities[7], 0.);
+
+        NESTED.calculateProbabilities(utilities, utilities);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(expected[i], utilities[i], 1e-12);
+        }
+        assertTrue(Double.isNaN(utilities[7]));
+    }
+
+    @Test
+    public void testLargeAndUnavailableUtilities() {
+        double[] utilities = {800., 790., -1000., 805., Double.NEGATIVE_INFINITY, 790., -1000.};
+        double[] probabilities = new double[utilities.length];
+        NESTED.calculateProbabilities(utilities, probabilities);
+        double sum = 0;
+        for (double probability : probabilities) {
+            assertTrue(probability >= 0 && probability <= 1);
+            sum += probability;
+        }
+        assertEquals(1., sum, 1e-12);
+        assertEquals(0., probabilities[4], 0.);
+        assertTrue(probabilities[3] > probabilities[0]);
+
+        double[] unavailable = new double[7];
+        Arrays.fill(unavailable, Double.NEGATIVE_INFINITY);
+        NESTED.calculateProbabilities(unavailable, probabilities);
+        for (double probability : probabilities) {
+            assertEquals(0., probability, 0.);
+        }
+        assertEquals(Double.NEGATIVE_INFINITY, NESTED.calculateLogsum(unavailable), 0.);
+    }
+
+    @Test
+    public void testLogsum() {
+        double[] utilities = {0.3, -1.2, 0.8, 0.1, -0.4, 0.25, 1.1};
+        double autoNest = MU * Math.log(Math.exp(0.3 / MU) + Math.exp(-1.2 / MU));
+        double transitNest = MU * Math.log(Math.exp(0.1 / MU) + Math.exp(-0.4 / MU) + Math.exp(0.25 / MU));
+        double expected = Math.log(Math.exp(autoNest) + Math.exp(transitNest) + Math.exp(0.8) + Math.exp(1.1));
+        assertEquals(expected, NESTED.calculateLogsum(utilities), 1e-12);
+
+        LogitKernel multinomial = LogitKernel.multinomial(new int[]{0, 1, 2}, false);
+        assertEquals(Math.log(Math.exp(1.) + Math.exp(2.) + Math.exp(3.)),
+                multinomial.calculateLogsum(new double[]{1., 2., 3.}), 1e-12);
+        assertEquals(1000. + Math.log(2.), multinomial.calculateLogsum(new double[]{1000., 1000., Double.NEGATIVE_INFINITY}), 1e-9);
+    }
+
+    @Test
+    public void testBlocksMatchSingleEvaluation() {
+        LogitKernel fast = LogitKernel.nested(new int[][]{{0, 1}, {3, 4, 5}, {2}, {6}},
+                new double[]{MU, MU, 1., 1.}, true);
+        Random random = new Random(42);
+        int rows = 100;
+        double[] utilities = new double[rows * 7];
+        for (int i = 0; i < utilities.length; i++) {
+            utilities[i] = random.nextGaussian() * 3;
+        }
+        double[] probabilities = new double[utilities.length];
+        fast.calculateProbabilities(utilities, probabilities, rows, 7);
+
+        double[] row = new double[7];
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(utilities, r * 7, row, 0, 7);
+            double[] expected = closedFormProbabilities(row);
+            for (int i = 0; i < 7; i++) {
+                assertEquals(expected[i], probabilities[r * 7 + i], 1e-7);
+            }
+        }
+    }
+
+    @Test
+    public void testFastExpError() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000000; i++) {
+            double x = i % 2 == 0 ? (random.nextDouble() - 0.5) * 20 : (random.nextDouble() - 0.5) * 1416;
+            double exact = Math.exp(x);
+            assertEquals(exact, LogitKernel.fastExp(x), exact * LogitKernel.FAST_EXP_MAX_RELATIVE_ERROR);
+        }
+        assertEquals(0., LogitKernel.fastExp(Double.NEGATIVE_INFINITY), 0.);
+        assertEquals(Double.POSITIVE_INFINITY, LogitKernel.fastExp(710.), 0.);
+        assertTrue(Double.isNaN(LogitKernel.fastExp(Double.NaN)));
+        assertEquals(1., LogitKernel.fastExp(0.), 0.);
+    }
+
+    /**
+     * Nested logit as formulated in the mode choice calculators: auto (0, 1) and transit (3, 4, 5)
+     * nests, bicycle (2) and walk (6) on the top level.
+     */
+    private static double[] closedFormProbabilities(double[] u) {
+        double expsumNestAuto = Math.exp(u[0] / MU) + Math.exp(u[1] / MU);
+        double expsumNestTransit = Math.exp(u[3] / MU) + Math.exp(u[4] / MU) + Math.exp(u[5] / MU);
+        double expAuto = Math.exp(MU * Math.log(expsumNestAuto));
+        double expTransit = Math.exp(MU * Math.log(expsumNestTransit));
+        double expsumTopLevel = expAuto + Math.exp(u[2]) + Math.exp(u[6]) + expTransit;
+        return new double[]{
+                Math.exp(u[0] / MU) / expsumNestAuto * expAuto / expsumTopLevel,
+                Math.exp(u[1] / MU) / expsumNestAuto * expAuto / expsumTopLevel,
+                Math.exp(u[2]) / expsumTopLevel,
+                Math.exp(u[3] / MU) / expsumNestTransit * expTransit / expsumTopLevel,
+                Math.exp(u[4] / MU) / expsumNestTransit * expTransit / expsumTopLevel,
+                Math.exp(u[5] / MU) / expsumNestTransit * expTransit / expsumTopLevel,
+                Math.exp(u[6]) / expsumTopLevel
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package de.tum.bgu.msm.util.matrices;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompactIndexedMatrix2DTest {
+
+    @Test
+    public void testFloatMatrix() {
+        int[] lookup = {500001, 500003, 10_000_000};
+        IndexedFloatMatrix2D matrix = new IndexedFloatMatrix2D(lookup);
+        matrix.assign(Double.MAX_VALUE);
+        assertEquals(Double.MAX_VALUE, matrix.getIndexed(500003, 10_000_000), 0.);
+
+        matrix.setIndexed(500001, 10_000_000, 12.345);
+        assertEquals(12.345, matrix.getIndexed(500001, 10_000_000), 1e-5);
+
+        IndexedFloatMatrix2D copy = matrix.copy();
+        copy.setIndexed(500001, 10_000_000, 1.);
+        assertEquals(12.345, matrix.getIndexed(500001, 10_000_000), 1e-5);
+        assertEquals(1., copy.getIndexed(500001, 10_000_000), 0.);
+    }
+
+    @Test
+    public void testFixedPointMatrix() {
+        int[] rows = {1, 2};
+        int[] columns = {5, 6, 7};
+        IndexedFixedPointMatrix2D matrix = new IndexedFixedPointMatrix2D(rows, columns, 0.02);
+        assertEquals(2, matrix.rows());
+        assertEquals(3, matrix.columns());
+
+        matrix.setIndexed(2, 7, 37.5333);
+        assertEquals(37.5333, matrix.getIndexed(2, 7), 0.01);
+        matrix.setIndexed(1, 6, Double.MAX_VALUE);
+        assertEquals(Double.MAX_VALUE, matrix.getIndexed(1, 6), 0.);
+        assertEquals(0., matrix.getIndexed(1, 5), 0.);
+        matrix.setIndexed(1, 7, Double.POSITIVE_INFINITY);
+        assertEquals(Double.MAX_VALUE, matrix.getIndexed(1, 7), 0.);
+        matrix.setIndexed(2, 5, 65534 * 0.02);
+        assertEquals(65534 * 0.02, matrix.getIndexed(2, 5), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFixedPointValueOutOfRangeIsRejected() {
+        new IndexedFixedPointMatrix2D(new int[]{1, 2}, 0.02).setIndexed(1, 2, 1400.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIdIsRejected() {
+        new IndexedFloatMatrix2D(new int[]{1, 2, 3}).getIndexed(1, 4);
+    }
+
+    @Test
+    public void testConversionToDouble() {
+        int[] lookup = {3, 1, 2};
+        IndexedFloatMatrix2D matrix = new IndexedFloatMatrix2D(lookup);
+        matrix.setIndexed(3, 2, 4.5);
+        IndexedDoubleMatrix2D doubleMatrix = Matrices.toDoubleMatrix2D(matrix);
+        assertEquals(4.5, doubleMatrix.getIndexed(3, 2), 0.);
+        assertEquals(0., doubleMatrix.getIndexed(2, 3), 0.);
+    }
+}
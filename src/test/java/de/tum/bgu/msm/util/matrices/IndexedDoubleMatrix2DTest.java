@@ -0,0 +1,53 @@
+package de.tum.bgu.msm.util.matrices;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedDoubleMatrix2DTest {
+
+    @Test
+    public void testDenseLookup() {
+        int[] lookup = {500001, 500003, 500010, 500002};
+        IndexedDoubleMatrix2D matrix = new IndexedDoubleMatrix2D(lookup);
+        assertTrue(matrix.isDenseIndexed());
+
+        for (int i = 0; i < lookup.length; i++) {
+            for (int j = 0; j < lookup.length; j++) {
+                matrix.setIndexed(lookup[i], lookup[j], i * 10 + j);
+            }
+        }
+
+        for (int i = 0; i < lookup.length; i++) {
+            for (int j = 0; j < lookup.length; j++) {
+                assertEquals(i * 10 + j, matrix.getIndexed(lookup[i], lookup[j]), 0.);
+            }
+            assertEquals(i * 10 + 2, matrix.viewRow(lookup[i]).getIndexed(lookup[2]), 0.);
+        }
+    }
+
+    @Test
+    public void testSparseIdsFallBackToHashedLookup() {
+        int[] lookup = {1, 2, 10_000_000};
+        IndexedDoubleMatrix2D matrix = new IndexedDoubleMatrix2D(lookup);
+        assertFalse(matrix.isDenseIndexed());
+
+        matrix.setIndexed(10_000_000, 2, 3.5);
+        assertEquals(3.5, matrix.getIndexed(10_000_000, 2), 0.);
+    }
+
+    @Test
+    public void testCopyKeepsDenseLookup() {
+        int[] lookup = {3, 1, 2};
+        IndexedDoubleMatrix2D matrix = new IndexedDoubleMatrix2D(lookup);
+        matrix.setIndexed(3, 1, 7.);
+
+        IndexedDoubleMatrix2D copy = matrix.copy();
+        assertTrue(copy.isDenseIndexed());
+        copy.setIndexed(3, 1, 8.);
+        assertEquals(7., matrix.getIndexed(3, 1), 0.);
+        assertEquals(8., copy.getIndexed(3, 1), 0.);
+    }
+}
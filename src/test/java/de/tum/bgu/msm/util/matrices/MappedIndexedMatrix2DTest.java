@@ -0,0 +1,61 @@
+package de.tum.bgu.msm.util.matrices;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedIndexedMatrix2DTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTripKeepsPrecisionAndIds() throws IOException {
+        IndexedFloatMatrix2D matrix = new IndexedFloatMatrix2D(new int[]{5, 3, 9}, new int[]{1, 2});
+        matrix.assign(Double.MAX_VALUE);
+        matrix.setIndexed(3, 2, 7.25);
+
+        Path file = folder.getRoot().toPath().resolve("skim.mtx");
+        MappedIndexedMatrix2D.write(matrix, file);
+        MappedIndexedMatrix2D mapped = MappedIndexedMatrix2D.open(file);
+
+        assertEquals(3, mapped.rows());
+        assertEquals(2, mapped.columns());
+        assertEquals(7.25, mapped.getIndexed(3, 2), 0.);
+        assertEquals(Double.MAX_VALUE, mapped.getIndexed(9, 1), 0.);
+        assertTrue(mapped.copy() instanceof IndexedFloatMatrix2D);
+    }
+
+    @Test
+    public void testFixedPointRoundTrip() throws IOException {
+        IndexedFixedPointMatrix2D matrix = new IndexedFixedPointMatrix2D(new int[]{1, 2, 3}, 0.02);
+        matrix.setIndexed(2, 3, 12.34);
+
+        Path file = folder.getRoot().toPath().resolve("fixed.mtx");
+        MappedIndexedMatrix2D.write(matrix, file);
+        MappedIndexedMatrix2D mapped = MappedIndexedMatrix2D.open(file);
+
+        assertEquals(12.34, mapped.getIndexed(2, 3), 1e-9);
+        assertEquals(0., mapped.getIndexed(1, 1), 0.);
+    }
+
+    @Test
+    public void testMappedMatrixIsOnlyModifiableAsCopy() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("readOnly.mtx");
+        MappedIndexedMatrix2D.write(new IndexedFloatMatrix2D(new int[]{1}), file);
+        ReadableIndexedMatrix2D mapped = MappedIndexedMatrix2D.open(file);
+        assertFalse(mapped instanceof IndexedMatrix2D);
+
+        IndexedMatrix2D copy = mapped.copy();
+        copy.setIndexed(1, 1, 2.);
+        assertEquals(2., copy.getIndexed(1, 1), 0.);
+        assertEquals(0., mapped.getIndexed(1, 1), 0.);
+    }
+}
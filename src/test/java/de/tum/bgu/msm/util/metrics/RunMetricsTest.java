@@ -0,0 +1,76 @@
+package de.tum.bgu.msm.util.metrics;
+
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunMetricsTest {
+
+    @Before
+    public void setup() {
+        RunMetrics.reset();
+    }
+
+    @Test
+    public void testNestedStages() {
+        try (RunMetrics.Stage outer = RunMetrics.start("Distribution")) {
+            try (RunMetrics.Stage inner = RunMetrics.start("Home-based")) {
+                inner.addItems(10);
+                inner.addItems(5);
+            }
+            outer.addItems(3);
+        }
+
+        List<StageMetrics> stages = RunMetrics.getCompletedStages();
+        assertEquals(2, stages.size());
+        StageMetrics inner = stages.get(0);
+        StageMetrics outer = stages.get(1);
+        assertEquals("Distribution/Home-based", inner.getName());
+        assertEquals(1, inner.getDepth());
+        assertEquals(15, inner.getItems());
+        assertEquals("Distribution", outer.getName());
+        assertEquals(0, outer.getDepth());
+        assertEquals(3, outer.getItems());
+        assertTrue(outer.getWallTimeNanos() >= inner.getWallTimeNanos());
+        assertTrue(outer.getPeakHeapBytes() >= inner.getPeakHeapBytes());
+        assertTrue(inner.getPeakHeapBytes() > 0);
+
+        RunMetrics.reset();
+        assertTrue(RunMetrics.getCompletedStages().isEmpty());
+    }
+
+    @Test
+    public void testAllocationsOfExecutorTasksAreCounted() {
+        final int arrayLength = 1 << 20;
+        try (RunMetrics.Stage ignored = RunMetrics.start("Tasks")) {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tasks.add(() -> new long[arrayLength].length);
+            }
+            ConcurrentExecutor.<Integer>fixedPoolService(2).submitTasksAndWaitForCompletion(tasks);
+        }
+        StageMetrics stage = RunMetrics.getCompletedStages().get(0);
+        if (stage.getAllocatedBytes() >= 0) {
+            assertTrue(stage.getAllocatedBytes() >= 4L * 8 * arrayLength);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStagesMustBeClosedInOrder() {
+        RunMetrics.Stage outer = RunMetrics.start("Outer");
+        RunMetrics.Stage inner = RunMetrics.start("Inner");
+        try {
+            outer.close();
+        } finally {
+            inner.close();
+            outer.close();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.tum.bgu.msm.util.random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RandomStreamsTest {
+
+    @Test
+    public void testStreamsAreReproducibleAndIndependentOfOrder() {
+        RandomStreams.initialize(42);
+        StreamRandom random = new StreamRandom("test");
+        double first = random.reset(7).nextDouble();
+        random.reset(3).nextDouble();
+        assertEquals(first, random.reset(7).nextDouble(), 0.);
+        assertEquals(first, RandomStreams.create("test", 7).nextDouble(), 0.);
+    }
+
+    @Test
+    public void testStreamsDifferByKeyModuleAndSeed() {
+        RandomStreams.initialize(42);
+        long seed = RandomStreams.seedFor("test", 1);
+        assertNotEquals(seed, RandomStreams.seedFor("test", 2));
+        assertNotEquals(seed, RandomStreams.seedFor("other", 1));
+        RandomStreams.initialize(43);
+        assertNotEquals(seed, RandomStreams.seedFor("test", 1));
+    }
+
+    @Test
+    public void testDrawsAreInRange() {
+        RandomStreams.initialize(42);
+        StreamRandom random = new StreamRandom("test");
+        for (int i = 0; i < 10000; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0. && value < 1.);
+            int bounded = random.nextInt(7);
+            assertTrue(bounded >= 0 && bounded < 7);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.tum.bgu.msm.util.sampling;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AliasTableTest {
+
+    @Test
+    public void testFrequenciesMatchWeights() {
+        double[] weights = {0.1, 0., 3., 0.5, 1.4, 0.};
+        AliasTable table = AliasTable.of(weights);
+        assertEquals(5., table.getTotalWeight(), 1e-12);
+
+        int draws = 500000;
+        int[] counts = new int[weights.length];
+        Random random = new Random(42);
+        for (int i = 0; i < draws; i++) {
+            counts[table.sample(random)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / 5., counts[i] / (double) draws, 0.005);
+        }
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[5]);
+    }
+
+    @Test
+    public void testBoundaries() {
+        AliasTable table = AliasTable.of(new double[]{1., 0., 1.});
+        assertNotEquals(1, table.sample(0.));
+        assertNotEquals(1, table.sample(Math.nextDown(1.)));
+        assertEquals(2, AliasTable.of(new double[3]).sample(new Random(1)));
+    }
+}
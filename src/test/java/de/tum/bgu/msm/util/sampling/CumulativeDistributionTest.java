@@ -0,0 +1,37 @@
+package de.tum.bgu.msm.util.sampling;
+
+import de.tum.bgu.msm.util.MitoUtil;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CumulativeDistributionTest {
+
+    @Test
+    public void testSampleMatchesSelect() {
+        Random weightRandom = new Random(42);
+        double[] weights = new double[500];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = i % 7 == 0 ? 0. : weightRandom.nextDouble();
+        }
+        double[] cumulative = CumulativeDistribution.toCumulative(weights, new double[weights.length]);
+        CumulativeDistribution distribution = CumulativeDistribution.of(weights);
+        assertEquals(cumulative[cumulative.length - 1], distribution.getTotalWeight(), 0.);
+
+        Random linear = new Random(1);
+        Random binary = new Random(1);
+        Random instance = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            int expected = MitoUtil.select(weights, linear);
+            assertEquals(expected, CumulativeDistribution.sample(cumulative, binary));
+            assertEquals(expected, distribution.sample(instance));
+        }
+    }
+
+    @Test
+    public void testZeroWeightsSelectLastIndex() {
+        assertEquals(9, CumulativeDistribution.sample(new double[10], new Random(1)));
+    }
+}